@@ -0,0 +1,87 @@
+package com.wishlist.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.wishlist.dto.WishDTO;
+import com.wishlist.dto.WishlistDTO;
+import com.wishlist.dto.json.WishlistJsonModule;
+import com.wishlist.model.User;
+import com.wishlist.model.Wish;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.stream.LongStream;
+
+// Sample data shared by the benchmarks
+public final class BenchmarkData {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 4, 1, 12, 30, 15, 123_456_789);
+
+    private BenchmarkData() {
+    }
+
+    // Configured like the ObjectMapper Spring Boot builds for the application
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new WishlistJsonModule())
+                .build();
+    }
+
+    // The application's ObjectMapper before the hand-written serializers, for comparison
+    public static ObjectMapper reflectiveObjectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    public static User user() {
+        return User.builder()
+                .id(1L)
+                .username("benchmark")
+                .email("benchmark@example.com")
+                .password("password")
+                .build();
+    }
+
+    public static Wish wish(long id) {
+        return Wish.builder()
+                .id(id)
+                .title("Wish #" + id)
+                .description("A reasonably long description of wish #" + id + " to resemble real user input")
+                .completed(id % 3 == 0)
+                .priority((int) (id % 5))
+                .category("category-" + (id % 7))
+                .dueDate(NOW.plusDays(id))
+                .completedAt(id % 3 == 0 ? NOW.minusHours(id) : null)
+                .user(user())
+                .createdAt(NOW.minusDays(id))
+                .updatedAt(NOW.minusMinutes(id))
+                .build();
+    }
+
+    public static WishDTO wishDTO(long id) {
+        var wish = wish(id);
+        return WishDTO.builder()
+                .id(wish.getId())
+                .title(wish.getTitle())
+                .description(wish.getDescription())
+                .completed(wish.isCompleted())
+                .priority(wish.getPriority())
+                .category(wish.getCategory())
+                .dueDate(wish.getDueDate())
+                .completedAt(wish.getCompletedAt())
+                .createdAt(wish.getCreatedAt())
+                .updatedAt(wish.getUpdatedAt())
+                .build();
+    }
+
+    public static WishlistDTO wishlistDTO(int pageSize) {
+        return WishlistDTO.builder()
+                .wishes(LongStream.rangeClosed(1, pageSize).mapToObj(BenchmarkData::wishDTO).toList())
+                .totalItems(pageSize * 10L)
+                .totalPages(10)
+                .currentPage(0)
+                .build();
+    }
+}
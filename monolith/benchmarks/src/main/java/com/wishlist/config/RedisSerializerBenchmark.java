@@ -0,0 +1,48 @@
+package com.wishlist.config;
+
+import com.wishlist.benchmark.BenchmarkData;
+import com.wishlist.dto.WishDTO;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    private RedisSerializer<WishDTO> wishSerializer;
+    private RedisSerializer<String> keySerializer;
+    private WishDTO wishDTO;
+    private byte[] serializedWish;
+    private String key;
+
+    @Setup
+    public void setUp() {
+        wishSerializer = RedisConfig.wishSerializer(BenchmarkData.objectMapper());
+        keySerializer = new StringRedisSerializer();
+        wishDTO = BenchmarkData.wishDTO(42);
+        serializedWish = wishSerializer.serialize(wishDTO);
+        key = "userWishes::123456::sort=createdAt";
+    }
+
+    @Benchmark
+    public byte[] serializeWish() {
+        return wishSerializer.serialize(wishDTO);
+    }
+
+    @Benchmark
+    public WishDTO deserializeWish() {
+        return wishSerializer.deserialize(serializedWish);
+    }
+
+    @Benchmark
+    public byte[] serializeKey() {
+        return keySerializer.serialize(key);
+    }
+}
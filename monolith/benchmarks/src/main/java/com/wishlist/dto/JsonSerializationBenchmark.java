@@ -0,0 +1,93 @@
+package com.wishlist.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.wishlist.benchmark.BenchmarkData;
+import com.wishlist.dto.json.TimestampFormat;
+import com.wishlist.dto.json.TimestampNegotiatingJsonConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// The reflective serializers against the hand-written ones, with ISO and epoch timestamps, and gzip
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    @Param({"reflective", "handwritten", "handwritten-epoch"})
+    public String serializer;
+
+    private ObjectWriter wishWriter;
+    private ObjectWriter wishlistWriter;
+    private WishDTO wishDTO;
+    private WishlistDTO wishlistDTO;
+    private byte[] wishlistJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        var objectMapper = serializer.equals("reflective") ? BenchmarkData.reflectiveObjectMapper() : BenchmarkData.objectMapper();
+        wishWriter = objectMapper.writerFor(WishDTO.class);
+        wishlistWriter = objectMapper.writerFor(WishlistDTO.class);
+        if (serializer.endsWith("epoch")) {
+            // Same writer the converter builds for Accept: application/json;timestamps=epoch
+            var contentType = new MediaType(MediaType.APPLICATION_JSON, Map.of(TimestampFormat.MEDIA_TYPE_PARAMETER, "epoch"));
+            var converter = new ExposedConverter(objectMapper);
+            wishWriter = converter.writer(wishWriter, contentType);
+            wishlistWriter = converter.writer(wishlistWriter, contentType);
+        }
+        wishDTO = BenchmarkData.wishDTO(42);
+        wishlistDTO = BenchmarkData.wishlistDTO(pageSize);
+        wishlistJson = serializeWishlistPage();
+
+        System.out.printf("%n%s, page of %d: %,d bytes, %,d bytes gzipped%n",
+                serializer, pageSize, wishlistJson.length, gzip(wishlistJson).length);
+    }
+
+    @Benchmark
+    public byte[] serializeWish() throws JsonProcessingException {
+        return wishWriter.writeValueAsBytes(wishDTO);
+    }
+
+    @Benchmark
+    public byte[] serializeWishlistPage() throws JsonProcessingException {
+        return wishlistWriter.writeValueAsBytes(wishlistDTO);
+    }
+
+    // Extra CPU spent when the response is compressed (server.compression)
+    @Benchmark
+    public byte[] gzipWishlistPage() throws IOException {
+        return gzip(wishlistJson);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        var out = new ByteArrayOutputStream(bytes.length / 4);
+        try (var gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class ExposedConverter extends TimestampNegotiatingJsonConverter {
+
+        private ExposedConverter(ObjectMapper objectMapper) {
+            super(objectMapper);
+        }
+
+        ObjectWriter writer(ObjectWriter writer, MediaType contentType) {
+            return customizeWriter(writer, null, contentType);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.wishlist.dto.json;
+
+import com.wishlist.benchmark.BenchmarkData;
+import com.wishlist.config.RedisConfig;
+import com.wishlist.dto.WishDTO;
+import com.wishlist.dto.WishlistDTO;
+import com.wishlist.dto.WishlistJsonPage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// A GET /wishes cache hit: deserializing and serializing the cached wishes again, or copying their JSON
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CachedPageResponseBenchmark {
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private RedisSerializer<WishDTO> wishSerializer;
+    private TimestampNegotiatingJsonConverter jsonConverter;
+    private WishlistJsonPageConverter jsonPageConverter;
+    private List<byte[]> cachedWishes;
+
+    @Setup
+    public void setUp() {
+        var objectMapper = BenchmarkData.objectMapper();
+        wishSerializer = RedisConfig.wishSerializer(objectMapper);
+        jsonConverter = new TimestampNegotiatingJsonConverter(objectMapper);
+        jsonPageConverter = new WishlistJsonPageConverter();
+        cachedWishes = BenchmarkData.wishlistDTO(pageSize).getWishes().stream().map(wishSerializer::serialize).toList();
+    }
+
+    @Benchmark
+    public long deserializeAndSerialize() throws IOException {
+        var wishes = new ArrayList<WishDTO>(cachedWishes.size());
+        for (var json : cachedWishes) {
+            wishes.add(wishSerializer.deserialize(json));
+        }
+        var wishlist = WishlistDTO.builder().wishes(wishes).totalItems(pageSize * 10L).totalPages(10).currentPage(0).build();
+        var response = new DiscardingOutputMessage();
+        jsonConverter.write(wishlist, MediaType.APPLICATION_JSON, response);
+        return response.body.written;
+    }
+
+    @Benchmark
+    public long writeCachedJson() throws IOException {
+        var page = WishlistJsonPage.builder().wishes(cachedWishes).totalItems(pageSize * 10L).totalPages(10).currentPage(0).build();
+        var response = new DiscardingOutputMessage();
+        jsonPageConverter.write(page, MediaType.APPLICATION_JSON, response);
+        return response.body.written;
+    }
+
+    // Stands in for the servlet response, which buffers and writes to the socket
+    private static final class DiscardingOutputMessage implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private final CountingOutputStream body = new CountingOutputStream();
+
+        @Override
+        public OutputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long written;
+
+        @Override
+        public void write(int b) {
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            written += len;
+        }
+    }
+}
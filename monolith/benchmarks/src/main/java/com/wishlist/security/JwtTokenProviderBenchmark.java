@@ -0,0 +1,56 @@
+package com.wishlist.security;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "VGhpcy1pczEyMzQ1Njc4OTAta2V5LXNlY3JldC1rZXktZm9yLXRlc3RzLg==";
+
+    private JwtTokenProvider jwtTokenProvider;
+    private Authentication authentication;
+    private String token;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        jwtTokenProvider = new JwtTokenProvider();
+        setField("jwtSecret", SECRET);
+        setField("jwtExpirationMs", 3_600_000);
+
+        var userDetails = new User("benchmark", "password", Collections.emptyList());
+        authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        token = jwtTokenProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtTokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUsernameFromToken() {
+        return jwtTokenProvider.getUsernameFromToken(token);
+    }
+
+    private void setField(String name, Object value) throws ReflectiveOperationException {
+        var field = JwtTokenProvider.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(jwtTokenProvider, value);
+    }
+}
@@ -0,0 +1,38 @@
+package com.wishlist.service;
+
+import com.wishlist.model.WishSortField;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheServiceBenchmark {
+
+    @Param({"sorted", "unsorted"})
+    public String sortMode;
+
+    private Sort sort;
+    private Long userId;
+
+    @Setup
+    public void setUp() {
+        sort = sortMode.equals("sorted") ? Sort.by(Sort.Direction.DESC, "createdAt") : Sort.unsorted();
+        userId = 123_456L;
+    }
+
+    @Benchmark
+    public Sort.Order resolveSortOrder() {
+        return CacheServiceImpl.getUserWishesSortOrder(sort);
+    }
+
+    @Benchmark
+    public String buildKey() {
+        return CacheServiceImpl.buildKey(userId, WishSortField.of(sort));
+    }
+}
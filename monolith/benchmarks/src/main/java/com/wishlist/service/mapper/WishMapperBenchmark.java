@@ -0,0 +1,41 @@
+package com.wishlist.service.mapper;
+
+import com.wishlist.benchmark.BenchmarkData;
+import com.wishlist.dto.WishDTO;
+import com.wishlist.model.User;
+import com.wishlist.model.Wish;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WishMapperBenchmark {
+
+    private final WishMapper wishMapper = new WishMapperImpl();
+
+    private Wish wish;
+    private WishDTO wishDTO;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        wish = BenchmarkData.wish(42);
+        wishDTO = BenchmarkData.wishDTO(42);
+        user = BenchmarkData.user();
+    }
+
+    @Benchmark
+    public WishDTO entityToDto() {
+        return wishMapper.map(wish);
+    }
+
+    @Benchmark
+    public Wish dtoToEntity() {
+        return wishMapper.map(wishDTO, user);
+    }
+}
@@ -0,0 +1,16 @@
+package com.wishlist.datagen;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+// Writes rows with explicit ids on the caller's connection; committing is up to the caller
+public interface BulkWriter {
+
+    String USER_COLUMNS = "id, username, email, password, created_at, updated_at";
+    String WISH_COLUMNS = "id, title, description, completed, priority, category, due_date, completed_at, user_id, created_at, updated_at";
+
+    void writeUsers(Connection connection, List<UserRow> users) throws SQLException;
+
+    void writeWishes(Connection connection, List<WishRow> wishes) throws SQLException;
+}
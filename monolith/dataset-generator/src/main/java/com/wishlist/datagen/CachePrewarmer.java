@@ -0,0 +1,121 @@
+package com.wishlist.datagen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wishlist.config.RedisConfig;
+import com.wishlist.dto.WishDTO;
+import com.wishlist.exception.BadRequestException;
+import com.wishlist.model.WishSortField;
+import com.wishlist.service.CacheServiceImpl;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsLast;
+
+// Fills the userWishes lists with the same keys, serializer and order as CacheServiceImpl
+@Component
+public class CachePrewarmer {
+
+    // NULLs last, like PostgreSQL
+    private static final Map<WishSortField, Comparator<WishRow>> SORTABLE_FIELDS = Map.of(
+            WishSortField.TITLE, nullable(WishRow::title),
+            WishSortField.PRIORITY, nullable(WishRow::priority),
+            WishSortField.DUE_DATE, nullable(WishRow::dueDate),
+            WishSortField.CREATED_AT, comparing(WishRow::createdAt));
+
+    private final RedisTemplate<String, WishDTO> wishRedisTemplate;
+    private final GeneratorProperties.Redis settings;
+    private final List<WishSortField> sortFields;
+
+    public CachePrewarmer(RedisConnectionFactory redisConnectionFactory, ObjectMapper objectMapper, GeneratorProperties properties) {
+        this.settings = properties.redis();
+        this.sortFields = settings.sorts().stream().map(CachePrewarmer::parseSortField).distinct().toList();
+
+        var serializer = RedisConfig.wishSerializer(objectMapper);
+        wishRedisTemplate = new RedisTemplate<>();
+        wishRedisTemplate.setConnectionFactory(redisConnectionFactory);
+        wishRedisTemplate.setKeySerializer(new StringRedisSerializer());
+        wishRedisTemplate.setValueSerializer(serializer);
+        wishRedisTemplate.afterPropertiesSet();
+    }
+
+    public boolean isEnabled() {
+        return settings.prewarm();
+    }
+
+    public boolean shouldWarm(int userIndex) {
+        return settings.prewarm() && (settings.usersLimit() <= 0 || userIndex < settings.usersLimit());
+    }
+
+    // In one pipelined round trip, users without wishes are skipped like in the monolith
+    public void prewarm(Map<Long, List<WishRow>> wishesByUser) {
+        if (wishesByUser.isEmpty()) {
+            return;
+        }
+        wishRedisTemplate.executePipelined(new SessionCallback<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                var redis = (RedisOperations<String, WishDTO>) operations;
+                wishesByUser.forEach((userId, wishes) -> {
+                    if (wishes.isEmpty()) {
+                        return;
+                    }
+                    var total = String.valueOf(wishes.size()).getBytes(StandardCharsets.UTF_8);
+                    for (var sortField : sortFields) {
+                        var key = CacheServiceImpl.buildKey(userId, sortField);
+                        var sorted = window(wishes.stream().sorted(comparator(sortField)).map(WishRow::toDto).toList());
+                        redis.delete(key);
+                        redis.opsForList().rightPushAll(key, sorted);
+                        redis.expire(key, settings.timeToLive());
+                        redis.execute((RedisCallback<Boolean>) connection -> connection.stringCommands().set(CacheServiceImpl.totalKey(key),
+                                total, Expiration.from(settings.timeToLive()), RedisStringCommands.SetOption.upsert()));
+                    }
+                });
+                return null;
+            }
+        });
+    }
+
+    // Like the monolith, only the first and last window of longer lists
+    private List<WishDTO> window(List<WishDTO> sorted) {
+        int window = settings.window();
+        if (sorted.size() <= 2 * window) {
+            return sorted;
+        }
+        return Stream.concat(sorted.subList(0, window).stream(), sorted.subList(sorted.size() - window, sorted.size()).stream()).toList();
+    }
+
+    // A ":direction" suffix makes no difference
+    static WishSortField parseSortField(String text) {
+        var field = text.split(":", 2)[0].trim();
+        try {
+            return WishSortField.fromProperty(field);
+        } catch (BadRequestException e) {
+            throw new IllegalArgumentException("Can't pre-warm sort field '" + field + "': " + e.getMessage(), e);
+        }
+    }
+
+    private static Comparator<WishRow> comparator(WishSortField sortField) {
+        return SORTABLE_FIELDS.get(sortField).thenComparing(WishRow::id);
+    }
+
+    private static <T extends Comparable<? super T>> Comparator<WishRow> nullable(Function<WishRow, T> field) {
+        return comparing(field, nullsLast(naturalOrder()));
+    }
+}
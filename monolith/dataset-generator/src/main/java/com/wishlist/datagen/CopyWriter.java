@@ -0,0 +1,108 @@
+package com.wishlist.datagen;
+
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Streams rows through PostgreSQL's COPY ... FROM STDIN in CSV format
+@RequiredArgsConstructor
+public class CopyWriter implements BulkWriter {
+
+    private static final int FLUSH_THRESHOLD = 1 << 20;
+
+    private final int batchSize;
+
+    @Override
+    public void writeUsers(Connection connection, List<UserRow> users) throws SQLException {
+        copy(connection, "users", USER_COLUMNS, users, (csv, user) -> {
+            csv.append(user.id()).append(',');
+            quoted(csv, user.username()).append(',');
+            quoted(csv, user.email()).append(',');
+            quoted(csv, user.password()).append(',');
+            timestamp(csv, user.createdAt()).append(',');
+            timestamp(csv, user.createdAt());
+        });
+    }
+
+    @Override
+    public void writeWishes(Connection connection, List<WishRow> wishes) throws SQLException {
+        copy(connection, "wishes", WISH_COLUMNS, wishes, (csv, wish) -> {
+            csv.append(wish.id()).append(',');
+            quoted(csv, wish.title()).append(',');
+            quoted(csv, wish.description()).append(',');
+            csv.append(wish.completed()).append(',');
+            if (wish.priority() != null) {
+                csv.append(wish.priority());
+            }
+            csv.append(',');
+            quoted(csv, wish.category()).append(',');
+            timestamp(csv, wish.dueDate()).append(',');
+            timestamp(csv, wish.completedAt()).append(',');
+            csv.append(wish.userId()).append(',');
+            timestamp(csv, wish.createdAt()).append(',');
+            timestamp(csv, wish.updatedAt());
+        });
+    }
+
+    private <T> void copy(Connection connection, String table, String columns, List<T> rows, CsvEncoder<T> encoder) throws SQLException {
+        // In CSV format an unquoted empty field is NULL, while "" is an empty string
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)");
+        try {
+            var csv = new StringBuilder(FLUSH_THRESHOLD + 4096);
+            int buffered = 0;
+            for (var row : rows) {
+                encoder.encode(csv, row);
+                csv.append('\n');
+                if (++buffered >= batchSize || csv.length() >= FLUSH_THRESHOLD) {
+                    flush(copyIn, csv);
+                    buffered = 0;
+                }
+            }
+            flush(copyIn, csv);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static void flush(CopyIn copyIn, StringBuilder csv) throws SQLException {
+        if (!csv.isEmpty()) {
+            var bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            csv.setLength(0);
+        }
+    }
+
+    private static StringBuilder quoted(StringBuilder csv, String value) {
+        if (value == null) {
+            return csv;
+        }
+        csv.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            var c = value.charAt(i);
+            if (c == '"') {
+                csv.append('"');
+            }
+            csv.append(c);
+        }
+        return csv.append('"');
+    }
+
+    private static StringBuilder timestamp(StringBuilder csv, LocalDateTime value) {
+        return value == null ? csv : csv.append(value);
+    }
+
+    @FunctionalInterface
+    private interface CsvEncoder<T> {
+        void encode(StringBuilder csv, T row);
+    }
+}
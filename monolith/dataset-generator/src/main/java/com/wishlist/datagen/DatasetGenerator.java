@@ -0,0 +1,201 @@
+package com.wishlist.datagen;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads the dataset with one writer per slice of users holding about the same number of wishes. The wish counts
+ * are drawn first, so the ids are known upfront; the identity columns are moved past them at the end.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatasetGenerator {
+
+    private final DataSource dataSource;
+    private final GeneratorProperties properties;
+    private final CachePrewarmer cachePrewarmer;
+
+    public Result generate() throws Exception {
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        var postgres = isPostgres();
+        var writer = writer(postgres);
+
+        if (properties.truncate()) {
+            log.info("Deleting existing users and wishes");
+            jdbcTemplate.execute(postgres ? "TRUNCATE TABLE wishes, users" : "DELETE FROM wishes");
+            if (!postgres) {
+                jdbcTemplate.execute("DELETE FROM users");
+            }
+        }
+
+        var firstUserId = nextId(jdbcTemplate, "users");
+        var firstWishId = nextId(jdbcTemplate, "wishes");
+        var rowGenerator = new RowGenerator(properties, LocalDateTime.now());
+        var counts = rowGenerator.wishCounts();
+        var wishOffsets = new long[counts.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            wishOffsets[i + 1] = wishOffsets[i] + counts[i];
+        }
+        var totalWishes = wishOffsets[counts.length];
+        log.info("Generating {} users and {} wishes (wishes per user: {}) with {} using {} thread(s)",
+                counts.length, totalWishes, properties.wishes().perUser(), writer.getClass().getSimpleName(), properties.threads());
+
+        var started = System.nanoTime();
+        var progress = new Progress(totalWishes);
+        var slices = slices(wishOffsets, Math.max(1, properties.threads()));
+        try (var executor = Executors.newFixedThreadPool(slices.size())) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int[] slice : slices) {
+                futures.add(executor.submit(() -> {
+                    writeSlice(slice[0], slice[1], firstUserId, firstWishId, wishOffsets, counts, rowGenerator, writer, progress);
+                    return null;
+                }));
+            }
+            for (var future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    futures.forEach(f -> f.cancel(true));
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+        }
+
+        var lastUserId = firstUserId + counts.length - 1;
+        var lastWishId = firstWishId + totalWishes - 1;
+        restartIdentity(jdbcTemplate, postgres, "users", lastUserId + 1);
+        restartIdentity(jdbcTemplate, postgres, "wishes", lastWishId + 1);
+
+        var result = new Result(counts.length, totalWishes, Duration.ofNanos(System.nanoTime() - started));
+        log.info("Loaded {} users and {} wishes in {} ({} rows/min)",
+                result.users(), result.wishes(), result.elapsed(), String.format("%,d", result.rowsPerMinute()));
+        return result;
+    }
+
+    private void writeSlice(int fromUser, int toUser, long firstUserId, long firstWishId, long[] wishOffsets, int[] counts,
+                            RowGenerator rowGenerator, BulkWriter writer, Progress progress) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            var users = new ArrayList<UserRow>();
+            var wishes = new ArrayList<WishRow>();
+            Map<Long, List<WishRow>> warm = new LinkedHashMap<>();
+
+            for (int i = fromUser; i < toUser; i++) {
+                var random = rowGenerator.randomFor(i);
+                var user = rowGenerator.user(firstUserId + i, random);
+                var userWishes = rowGenerator.wishes(user, firstWishId + wishOffsets[i], counts[i], random);
+                users.add(user);
+                wishes.addAll(userWishes);
+                if (cachePrewarmer.shouldWarm(i)) {
+                    warm.put(user.id(), userWishes);
+                }
+
+                if (wishes.size() + users.size() >= properties.commitSize() || i == toUser - 1) {
+                    writer.writeUsers(connection, users);
+                    writer.writeWishes(connection, wishes);
+                    connection.commit();
+                    // Only cache what is committed, a failed run must not leave lists without rows behind
+                    cachePrewarmer.prewarm(warm);
+                    progress.add(wishes.size());
+                    users.clear();
+                    wishes.clear();
+                    warm.clear();
+                }
+            }
+        }
+    }
+
+    // Ranges [from, to)
+    static List<int[]> slices(long[] wishOffsets, int threads) {
+        var users = wishOffsets.length - 1;
+        var total = wishOffsets[users];
+        var slices = new ArrayList<int[]>();
+        int from = 0;
+        for (int t = 1; t <= threads && from < users; t++) {
+            var target = total * t / threads;
+            int to = from + 1;
+            while (to < users && (wishOffsets[to] < target || t == threads)) {
+                to++;
+            }
+            slices.add(new int[]{from, to});
+            from = to;
+        }
+        return slices;
+    }
+
+    private BulkWriter writer(boolean postgres) {
+        return switch (properties.loader()) {
+            case COPY -> {
+                if (!postgres) {
+                    throw new IllegalStateException("COPY needs PostgreSQL, use generator.loader=jdbc");
+                }
+                yield new CopyWriter(properties.batchSize());
+            }
+            case JDBC -> new JdbcBatchWriter(properties.batchSize());
+            case AUTO -> postgres ? new CopyWriter(properties.batchSize()) : new JdbcBatchWriter(properties.batchSize());
+        };
+    }
+
+    private boolean isPostgres() throws SQLException {
+        try (var connection = dataSource.getConnection()) {
+            return connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+        }
+    }
+
+    private static long nextId(JdbcTemplate jdbcTemplate, String table) {
+        var max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max == null ? 1 : max + 1;
+    }
+
+    private static void restartIdentity(JdbcTemplate jdbcTemplate, boolean postgres, String table, long next) {
+        if (postgres) {
+            jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence(?, 'id'), ?, false)", Long.class, table, next);
+        } else {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+        }
+    }
+
+    public record Result(int users, long wishes, Duration elapsed) {
+
+        public long rowsPerMinute() {
+            var millis = Math.max(1, elapsed.toMillis());
+            return (users + wishes) * 60_000 / millis;
+        }
+    }
+
+    private static final class Progress {
+
+        private final long total;
+        private final AtomicLong done = new AtomicLong();
+        private final AtomicLong lastLoggedPercent = new AtomicLong();
+
+        private Progress(long total) {
+            this.total = Math.max(1, total);
+        }
+
+        void add(long wishes) {
+            var percent = done.addAndGet(wishes) * 100 / total;
+            var last = lastLoggedPercent.get();
+            if (percent / 10 > last / 10 && lastLoggedPercent.compareAndSet(last, percent)) {
+                log.info("{}% of the wishes written", percent);
+            }
+        }
+    }
+}
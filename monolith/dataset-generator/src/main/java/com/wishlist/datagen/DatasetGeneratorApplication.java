@@ -0,0 +1,27 @@
+package com.wishlist.datagen;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+@SpringBootApplication
+@EnableConfigurationProperties(GeneratorProperties.class)
+public class DatasetGeneratorApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(DatasetGeneratorApplication.class)
+                .web(WebApplicationType.NONE)
+                // The monolith's jar on the classpath brings its own application.yml
+                .properties("spring.config.name=dataset-generator")
+                .run(args)
+                .close();
+    }
+
+    @Bean
+    CommandLineRunner generateDataset(DatasetGenerator datasetGenerator) {
+        return args -> datasetGenerator.generate();
+    }
+}
@@ -0,0 +1,154 @@
+package com.wishlist.datagen;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * An integer distribution clamped to [min, max], written as e.g. {@code pareto(min=1, max=50000, shape=1.16)}.
+ * The shape is the exponent for pareto and zipf, the sigma of the underlying normal for lognormal.
+ */
+public final class Distribution {
+
+    public enum Type {CONSTANT, UNIFORM, PARETO, LOGNORMAL, ZIPF}
+
+    private final Type type;
+    private final int min;
+    private final int max;
+    private final double shape;
+    private final double median;
+    // Cumulative probabilities of the ranks, only for ZIPF
+    private final double[] cdf;
+
+    private Distribution(Type type, int min, int max, double shape, double median) {
+        if (min > max) {
+            throw new IllegalArgumentException("min must not be greater than max: " + min + " > " + max);
+        }
+        if ((type == Type.PARETO || type == Type.LOGNORMAL) && shape <= 0) {
+            throw new IllegalArgumentException(type + " needs a positive shape");
+        }
+        if (type == Type.PARETO && min < 1) {
+            throw new IllegalArgumentException("PARETO needs min >= 1");
+        }
+        this.type = type;
+        this.min = min;
+        this.max = max;
+        this.shape = shape;
+        this.median = median;
+        this.cdf = type == Type.ZIPF ? zipfCdf(max - min + 1, shape) : null;
+    }
+
+    public static Distribution constant(int value) {
+        return new Distribution(Type.CONSTANT, value, value, 0, value);
+    }
+
+    public static Distribution uniform(int min, int max) {
+        return new Distribution(Type.UNIFORM, min, max, 0, 0);
+    }
+
+    public static Distribution pareto(int min, int max, double shape) {
+        return new Distribution(Type.PARETO, min, max, shape, 0);
+    }
+
+    public static Distribution lognormal(int min, int max, double median, double shape) {
+        return new Distribution(Type.LOGNORMAL, min, max, shape, median);
+    }
+
+    public static Distribution zipf(int min, int max, double shape) {
+        return new Distribution(Type.ZIPF, min, max, shape, 0);
+    }
+
+    public static Distribution parse(String text) {
+        var open = text.indexOf('(');
+        var name = (open < 0 ? text : text.substring(0, open)).trim().toUpperCase(Locale.ENGLISH);
+        Map<String, String> params = new HashMap<>();
+        if (open >= 0) {
+            if (!text.endsWith(")")) {
+                throw new IllegalArgumentException("Invalid distribution: " + text);
+            }
+            for (var param : text.substring(open + 1, text.length() - 1).split(",")) {
+                if (param.isBlank()) {
+                    continue;
+                }
+                var parts = param.split("=", 2);
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Invalid distribution parameter '" + param.trim() + "' in " + text);
+                }
+                params.put(parts[0].trim(), parts[1].trim());
+            }
+        }
+
+        var type = Arrays.stream(Type.values()).filter(t -> t.name().equals(name)).findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown distribution '" + name + "', expected one of " + Arrays.toString(Type.values())));
+        return switch (type) {
+            case CONSTANT -> constant(intParam(params, "value", text));
+            case UNIFORM -> uniform(intParam(params, "min", text), intParam(params, "max", text));
+            case PARETO -> pareto(intParam(params, "min", text), intParam(params, "max", text), doubleParam(params, "shape", text));
+            case LOGNORMAL -> lognormal(intParam(params, "min", text), intParam(params, "max", text),
+                    doubleParam(params, "median", text), doubleParam(params, "shape", text));
+            case ZIPF -> zipf(intParam(params, "min", text), intParam(params, "max", text), doubleParam(params, "shape", text));
+        };
+    }
+
+    public int sample(RandomGenerator random) {
+        var value = switch (type) {
+            case CONSTANT -> min;
+            case UNIFORM -> random.nextLong(min, max + 1L);
+            // Inverse transform sampling; 1 - nextDouble() is in (0, 1], so the power is finite
+            case PARETO -> (long) Math.min(max, Math.floor(min / Math.pow(1.0 - random.nextDouble(), 1.0 / shape)));
+            case LOGNORMAL -> Math.round(Math.min(max, median * Math.exp(shape * random.nextGaussian())));
+            case ZIPF -> min + zipfRank(random.nextDouble());
+        };
+        return (int) Math.max(min, Math.min(max, value));
+    }
+
+    public int min() {
+        return min;
+    }
+
+    public int max() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return switch (type) {
+            case CONSTANT -> "constant(value=" + min + ")";
+            case UNIFORM -> "uniform(min=" + min + ", max=" + max + ")";
+            case PARETO, ZIPF -> type.name().toLowerCase(Locale.ENGLISH) + "(min=" + min + ", max=" + max + ", shape=" + shape + ")";
+            case LOGNORMAL -> "lognormal(min=" + min + ", max=" + max + ", median=" + median + ", shape=" + shape + ")";
+        };
+    }
+
+    private int zipfRank(double u) {
+        var index = Arrays.binarySearch(cdf, u);
+        return Math.min(cdf.length - 1, index >= 0 ? index : -index - 1);
+    }
+
+    private static double[] zipfCdf(int ranks, double exponent) {
+        var cdf = new double[ranks];
+        double sum = 0;
+        for (int k = 1; k <= ranks; k++) {
+            sum += 1.0 / Math.pow(k, exponent);
+            cdf[k - 1] = sum;
+        }
+        for (int i = 0; i < ranks; i++) {
+            cdf[i] /= sum;
+        }
+        return cdf;
+    }
+
+    private static int intParam(Map<String, String> params, String name, String text) {
+        return (int) doubleParam(params, name, text);
+    }
+
+    private static double doubleParam(Map<String, String> params, String name, String text) {
+        var value = params.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing parameter '" + name + "' in distribution " + text);
+        }
+        return Double.parseDouble(value);
+    }
+}
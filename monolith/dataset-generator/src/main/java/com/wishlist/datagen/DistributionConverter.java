@@ -0,0 +1,15 @@
+package com.wishlist.datagen;
+
+import org.springframework.boot.context.properties.ConfigurationPropertiesBinding;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationPropertiesBinding
+public class DistributionConverter implements Converter<String, Distribution> {
+
+    @Override
+    public Distribution convert(String source) {
+        return Distribution.parse(source);
+    }
+}
@@ -0,0 +1,56 @@
+package com.wishlist.datagen;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+// Shape and size of the generated dataset, the same seed and settings always produce the same rows
+@ConfigurationProperties("generator")
+public record GeneratorProperties(
+        @DefaultValue("10000") int users,
+        @DefaultValue("42") long seed,
+        @DefaultValue("false") boolean truncate,
+        @DefaultValue("auto") Loader loader,
+        @DefaultValue("4") int threads,
+        @DefaultValue("5000") int batchSize,
+        @DefaultValue("100000") int commitSize,   // rounded up to a user boundary
+        @DefaultValue("730") int historyDays,
+        @DefaultValue("password") String password,
+        @DefaultValue("user") String usernamePrefix,
+        @DefaultValue Wishes wishes,
+        @DefaultValue Redis redis) {
+
+    public enum Loader {
+        // COPY on PostgreSQL, batched inserts elsewhere
+        AUTO,
+        COPY,
+        JDBC
+    }
+
+    public record Wishes(
+            @DefaultValue("pareto(min=1, max=50000, shape=1.16)") Distribution perUser,
+            @DefaultValue("uniform(min=8, max=80)") Distribution titleLength,
+            @DefaultValue("lognormal(min=1, max=1000, median=120, shape=1.0)") Distribution descriptionLength,
+            @DefaultValue("0.3") double noDescriptionRatio,
+            @DefaultValue({"Electronics", "Books", "Travel", "Clothing", "Home", "Hobby", "Education", "Sports", "Beauty", "Music", "Games", "Garden"})
+            List<String> categories,
+            @DefaultValue("1.1") double categorySkew,   // Zipf exponent over the categories in order, 0 for uniform
+            @DefaultValue("0.15") double noCategoryRatio,
+            @DefaultValue("0.1") double noPriorityRatio,
+            @DefaultValue("0.35") double completedRatio,
+            @DefaultValue("0.4") double dueDateRatio,
+            @DefaultValue("365") int dueWithinDays) {
+    }
+
+    public record Redis(
+            @DefaultValue("false") boolean prewarm,
+            @DefaultValue("0") int usersLimit,   // 0 for all
+            // Each list serves both directions; title lists follow Java string order, not the database collation
+            @DefaultValue("createdAt") List<String> sorts,
+            // As spring.cache.redis.time-to-live and wishlist.cache.user-wishes.window in the monolith
+            @DefaultValue("10m") Duration timeToLive,
+            @DefaultValue("500") int window) {
+    }
+}
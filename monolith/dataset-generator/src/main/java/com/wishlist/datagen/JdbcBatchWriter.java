@@ -0,0 +1,74 @@
+package com.wishlist.datagen;
+
+import lombok.RequiredArgsConstructor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+// Batched inserts, for any database
+@RequiredArgsConstructor
+public class JdbcBatchWriter implements BulkWriter {
+
+    private final int batchSize;
+
+    @Override
+    public void writeUsers(Connection connection, List<UserRow> users) throws SQLException {
+        try (var statement = connection.prepareStatement("INSERT INTO users (" + USER_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)")) {
+            int pending = 0;
+            for (var user : users) {
+                statement.setLong(1, user.id());
+                statement.setString(2, user.username());
+                statement.setString(3, user.email());
+                statement.setString(4, user.password());
+                statement.setObject(5, user.createdAt());
+                statement.setObject(6, user.createdAt());
+                pending = addBatch(statement, pending);
+            }
+            executeRemaining(statement, pending);
+        }
+    }
+
+    @Override
+    public void writeWishes(Connection connection, List<WishRow> wishes) throws SQLException {
+        try (var statement = connection.prepareStatement("INSERT INTO wishes (" + WISH_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            int pending = 0;
+            for (var wish : wishes) {
+                statement.setLong(1, wish.id());
+                statement.setString(2, wish.title());
+                statement.setString(3, wish.description());
+                statement.setBoolean(4, wish.completed());
+                if (wish.priority() != null) {
+                    statement.setInt(5, wish.priority());
+                } else {
+                    statement.setNull(5, Types.INTEGER);
+                }
+                statement.setString(6, wish.category());
+                statement.setObject(7, wish.dueDate(), Types.TIMESTAMP);
+                statement.setObject(8, wish.completedAt(), Types.TIMESTAMP);
+                statement.setLong(9, wish.userId());
+                statement.setObject(10, wish.createdAt());
+                statement.setObject(11, wish.updatedAt());
+                pending = addBatch(statement, pending);
+            }
+            executeRemaining(statement, pending);
+        }
+    }
+
+    private int addBatch(PreparedStatement statement, int pending) throws SQLException {
+        statement.addBatch();
+        if (++pending < batchSize) {
+            return pending;
+        }
+        statement.executeBatch();
+        return 0;
+    }
+
+    private static void executeRemaining(PreparedStatement statement, int pending) throws SQLException {
+        if (pending > 0) {
+            statement.executeBatch();
+        }
+    }
+}
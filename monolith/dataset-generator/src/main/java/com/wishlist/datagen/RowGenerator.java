@@ -0,0 +1,116 @@
+package com.wishlist.datagen;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+// Every user has a random stream of its own, so the rows don't depend on how the users are split between writers
+public class RowGenerator {
+
+    private static final String[] VERBS = {"Buy", "Get", "Learn", "Visit", "Try", "Build", "Read", "Find", "Book", "Make"};
+    private static final String[] WORDS = {
+            "new", "vintage", "wireless", "mechanical", "keyboard", "camera", "guitar", "lessons", "trip", "to",
+            "Japan", "Iceland", "the", "mountains", "a", "cozy", "reading", "chair", "espresso", "machine",
+            "running", "shoes", "watch", "course", "on", "distributed", "systems", "cookbook", "for", "beginners",
+            "garden", "tools", "vinyl", "record", "player", "board", "game", "tent", "bike", "helmet",
+            "headphones", "novel", "painting", "kit", "concert", "tickets", "yoga", "mat", "telescope", "and"};
+
+    private final GeneratorProperties properties;
+    private final GeneratorProperties.Wishes wishes;
+    private final Distribution categoryRank;
+    private final String passwordHash;
+    private final LocalDateTime now;
+
+    public RowGenerator(GeneratorProperties properties, LocalDateTime now) {
+        this.properties = properties;
+        this.wishes = properties.wishes();
+        this.categoryRank = wishes.categories().isEmpty() ? null
+                : Distribution.zipf(0, wishes.categories().size() - 1, wishes.categorySkew());
+        // Hashing is deliberately slow, and all generated users share the password anyway
+        this.passwordHash = new BCryptPasswordEncoder().encode(properties.password());
+        this.now = now.truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    public int[] wishCounts() {
+        var random = new SplittableRandom(properties.seed());
+        var counts = new int[properties.users()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = wishes.perUser().sample(random);
+        }
+        return counts;
+    }
+
+    public RandomGenerator randomFor(int userIndex) {
+        // Golden-ratio mixing keeps the streams of neighbouring users unrelated
+        return new SplittableRandom(properties.seed() ^ (userIndex + 1) * 0x9E3779B97F4A7C15L);
+    }
+
+    public UserRow user(long id, RandomGenerator random) {
+        var username = properties.usernamePrefix() + id;
+        var createdAt = now.minus(random.nextLong(1, historyMillis()), ChronoUnit.MILLIS);
+        return new UserRow(id, username, username + "@example.com", passwordHash, createdAt);
+    }
+
+    // Ids from firstId, in creation order; creation times are distinct
+    public List<WishRow> wishes(UserRow user, long firstId, int count, RandomGenerator random) {
+        var accountAgeMillis = Math.max(1, ChronoUnit.MILLIS.between(user.createdAt(), now));
+        var offsets = new long[count];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = random.nextLong(accountAgeMillis);
+        }
+        Arrays.sort(offsets);
+
+        var rows = new ArrayList<WishRow>(count);
+        var previous = user.createdAt();
+        for (int i = 0; i < count; i++) {
+            var createdAt = user.createdAt().plus(offsets[i], ChronoUnit.MILLIS);
+            if (!createdAt.isAfter(previous)) {
+                createdAt = previous.plus(1, ChronoUnit.MILLIS);
+            }
+            previous = createdAt;
+            rows.add(wish(firstId + i, user.id(), createdAt, random));
+        }
+        return rows;
+    }
+
+    private WishRow wish(long id, long userId, LocalDateTime createdAt, RandomGenerator random) {
+        var title = text(random, VERBS[random.nextInt(VERBS.length)], wishes.titleLength().sample(random));
+        var description = random.nextDouble() < wishes.noDescriptionRatio() ? null
+                : text(random, "Because", wishes.descriptionLength().sample(random));
+        var priority = random.nextDouble() < wishes.noPriorityRatio() ? null : random.nextInt(1, 6);
+        var category = categoryRank == null || random.nextDouble() < wishes.noCategoryRatio() ? null
+                : wishes.categories().get(categoryRank.sample(random));
+        var dueDate = random.nextDouble() < wishes.dueDateRatio()
+                ? createdAt.plusDays(random.nextInt(1, wishes.dueWithinDays() + 1)).truncatedTo(ChronoUnit.DAYS)
+                : null;
+
+        var completed = random.nextDouble() < wishes.completedRatio();
+        LocalDateTime completedAt = null;
+        var updatedAt = createdAt;
+        if (completed) {
+            var sinceCreation = Math.max(1, ChronoUnit.MILLIS.between(createdAt, now));
+            completedAt = createdAt.plus(random.nextLong(sinceCreation), ChronoUnit.MILLIS);
+            updatedAt = completedAt;
+        }
+        return new WishRow(id, title, description, completed, priority, category, dueDate, completedAt, userId, createdAt, updatedAt);
+    }
+
+    private static String text(RandomGenerator random, String firstWord, int length) {
+        var text = new StringBuilder(length + 16).append(firstWord);
+        while (text.length() < length) {
+            text.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        text.setLength(length);
+        return text.toString().stripTrailing();
+    }
+
+    private long historyMillis() {
+        return Math.max(2, properties.historyDays() * 86_400_000L);
+    }
+}
@@ -0,0 +1,6 @@
+package com.wishlist.datagen;
+
+import java.time.LocalDateTime;
+
+public record UserRow(long id, String username, String email, String password, LocalDateTime createdAt) {
+}
@@ -0,0 +1,34 @@
+package com.wishlist.datagen;
+
+import com.wishlist.dto.WishDTO;
+
+import java.time.LocalDateTime;
+
+public record WishRow(long id,
+                      String title,
+                      String description,
+                      boolean completed,
+                      Integer priority,
+                      String category,
+                      LocalDateTime dueDate,
+                      LocalDateTime completedAt,
+                      long userId,
+                      LocalDateTime createdAt,
+                      LocalDateTime updatedAt) {
+
+    // Same fields as WishMapperImpl copies from the entity
+    public WishDTO toDto() {
+        return WishDTO.builder()
+                .id(id)
+                .title(title)
+                .description(description)
+                .completed(completed)
+                .priority(priority)
+                .category(category)
+                .dueDate(dueDate)
+                .completedAt(completedAt)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.wishlist.datagen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class DatasetGeneratorTest {
+
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:generator-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        // H2 has no partial indexes, the generator doesn't need them
+        var schema = new FileSystemResource("../docker/init.sql").getContentAsString(StandardCharsets.UTF_8)
+                .replaceAll("(?m)^CREATE INDEX [^;]* WHERE [^;]*;", "");
+        try (var connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ByteArrayResource(schema.getBytes(StandardCharsets.UTF_8)));
+        }
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void generate_shouldLoadUsersAndWishesMatchingTheSchema() throws Exception {
+        var properties = properties(Map.of("generator.users", "200", "generator.threads", "3", "generator.commit-size", "500"));
+
+        var result = generator(properties).generate();
+
+        assertEquals(200, result.users());
+        assertEquals(200, count("SELECT COUNT(*) FROM users"));
+        assertEquals(result.wishes(), count("SELECT COUNT(*) FROM wishes"));
+        assertEquals(0, count("SELECT COUNT(*) FROM wishes w LEFT JOIN users u ON u.id = w.user_id WHERE u.id IS NULL"));
+        assertEquals(0, count("SELECT COUNT(*) FROM wishes WHERE completed AND completed_at IS NULL"));
+        assertEquals(0, count("SELECT COUNT(*) FROM wishes WHERE LENGTH(description) > 1000"));
+    }
+
+    @Test
+    void generate_shouldBeReproducibleAndAppendAfterExistingRows() throws Exception {
+        var properties = properties(Map.of("generator.users", "50"));
+
+        var first = generator(properties).generate();
+        var second = generator(properties).generate();
+
+        assertEquals(first.wishes(), second.wishes());
+        assertEquals(100, count("SELECT COUNT(*) FROM users"));
+        // The identity columns continue after the generated ids
+        jdbcTemplate.update("INSERT INTO users (username, email, password, created_at, updated_at) VALUES ('x', 'x@x', 'x', NOW(), NOW())");
+        assertEquals(101, count("SELECT id FROM users WHERE username = 'x'"));
+    }
+
+    @Test
+    void slices_shouldSplitUsersByWishCount() {
+        // Users 0..3 own 1, 1, 10 and 1 wishes
+        var slices = DatasetGenerator.slices(new long[]{0, 1, 2, 12, 13}, 2);
+
+        assertEquals(2, slices.size());
+        assertArrayEquals(new int[]{0, 3}, slices.get(0));
+        assertArrayEquals(new int[]{3, 4}, slices.get(1));
+    }
+
+    private DatasetGenerator generator(GeneratorProperties properties) {
+        var cachePrewarmer = new CachePrewarmer(mock(RedisConnectionFactory.class), new ObjectMapper(), properties);
+        return new DatasetGenerator(dataSource, properties, cachePrewarmer);
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+
+    private static GeneratorProperties properties(Map<String, String> values) {
+        var conversionService = new ApplicationConversionService();
+        conversionService.addConverter(new DistributionConverter());
+        var binder = new Binder(List.of(new MapConfigurationPropertySource(values)), null, conversionService);
+        return binder.bindOrCreate("generator", Bindable.of(GeneratorProperties.class));
+    }
+}
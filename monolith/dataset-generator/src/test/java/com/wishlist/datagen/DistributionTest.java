@@ -0,0 +1,63 @@
+package com.wishlist.datagen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistributionTest {
+
+    private static final int SAMPLES = 100_000;
+
+    @Test
+    void parse_shouldReadTypeAndParameters() {
+        var distribution = Distribution.parse("lognormal(min=1, max=1000, median=120, shape=1.0)");
+
+        assertEquals(1, distribution.min());
+        assertEquals(1000, distribution.max());
+        assertEquals("lognormal(min=1, max=1000, median=120.0, shape=1.0)", distribution.toString());
+    }
+
+    @Test
+    void parse_shouldRejectInvalidDefinitions() {
+        assertThrows(IllegalArgumentException.class, () -> Distribution.parse("gaussian(min=1, max=2)"));
+        assertThrows(IllegalArgumentException.class, () -> Distribution.parse("pareto(min=1, max=10)"));
+        assertThrows(IllegalArgumentException.class, () -> Distribution.parse("uniform(min=10, max=1)"));
+    }
+
+    @Test
+    void sample_shouldStayWithinBounds() {
+        var random = new SplittableRandom(1);
+        for (var definition : new String[]{"uniform(min=3, max=7)", "pareto(min=2, max=50, shape=0.5)",
+                "lognormal(min=5, max=20, median=10, shape=3)", "zipf(min=1, max=10, shape=1.2)", "constant(value=4)"}) {
+            var distribution = Distribution.parse(definition);
+            IntStream.range(0, SAMPLES).map(i -> distribution.sample(random)).forEach(value ->
+                    assertTrue(value >= distribution.min() && value <= distribution.max(), definition + " produced " + value));
+        }
+    }
+
+    @Test
+    void pareto_shouldBeHeavyTailed() {
+        var random = new SplittableRandom(1);
+        var samples = IntStream.range(0, SAMPLES).map(i -> Distribution.pareto(1, 50_000, 1.16).sample(random)).sorted().toArray();
+
+        var median = samples[SAMPLES / 2];
+        var p99 = samples[SAMPLES * 99 / 100];
+        assertTrue(median <= 2, "median " + median);
+        assertTrue(p99 >= 40, "p99 " + p99);
+    }
+
+    @Test
+    void zipf_shouldFavourLowRanks() {
+        var random = new SplittableRandom(1);
+        var distribution = Distribution.zipf(0, 9, 1.1);
+        var counts = new int[10];
+        IntStream.range(0, SAMPLES).forEach(i -> counts[distribution.sample(random)]++);
+
+        for (int rank = 1; rank < counts.length; rank++) {
+            assertTrue(counts[rank - 1] > counts[rank], "rank " + (rank - 1) + " should be more frequent than " + rank);
+        }
+    }
+}
@@ -22,6 +22,7 @@ CREATE TABLE wishes
     user_id      BIGINT                                  NOT NULL,
     created_at   TIMESTAMP                               NOT NULL,
     updated_at   TIMESTAMP                               NOT NULL,
+    version      BIGINT                        DEFAULT 0 NOT NULL,
     CONSTRAINT pk_wishes PRIMARY KEY (id)
 );
 
@@ -32,4 +33,27 @@ ALTER TABLE users
     ADD CONSTRAINT uc_users_username UNIQUE (username);
 
 ALTER TABLE wishes
-    ADD CONSTRAINT FK_WISHES_ON_USER FOREIGN KEY (user_id) REFERENCES users (id);
\ No newline at end of file
+    ADD CONSTRAINT FK_WISHES_ON_USER FOREIGN KEY (user_id) REFERENCES users (id);
+
+-- Sortable fields of GET /wishes (see WishSortField), the id breaks ties
+CREATE INDEX idx_wishes_user_created_at ON wishes (user_id, created_at, id);
+CREATE INDEX idx_wishes_user_due_date ON wishes (user_id, due_date, id);
+CREATE INDEX idx_wishes_user_priority ON wishes (user_id, priority, id);
+CREATE INDEX idx_wishes_user_title ON wishes (user_id, title, id);
+
+-- Overdue wishes: only pending wishes with a due date are indexed.
+-- GET /wishes/overdue and the user's next due date
+CREATE INDEX idx_wishes_pending_due_by_user ON wishes (user_id, due_date) WHERE completed = false AND due_date IS NOT NULL;
+-- Overdue scanner, keyset over (due_date, id)
+CREATE INDEX idx_wishes_pending_due ON wishes (due_date, id) WHERE completed = false AND due_date IS NOT NULL;
+
+-- Wish changes not yet relayed to the wishChanges stream and the listeners (see WishOutboxRelay), read in id order
+CREATE TABLE wish_outbox
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
+    user_id    BIGINT                                  NOT NULL,
+    wish_id    BIGINT                                  NOT NULL,
+    payload    VARCHAR(4000)                           NOT NULL,
+    created_at TIMESTAMP                               NOT NULL,
+    CONSTRAINT pk_wish_outbox PRIMARY KEY (id)
+);
@@ -0,0 +1,60 @@
+package com.wishlist.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Load test parameters, read from system properties (e.g. {@code -DarrivalRate=50}).
+ * SLOs default to the {@code slo.*} values and can be overridden per endpoint,
+ * e.g. {@code -Dslo.login.p99=800} or {@code -Dslo.search.errorRate=0.5}.
+ */
+record LoadTestSettings(
+        String baseUrl,
+        int accounts,
+        int seedWishesPerAccount,
+        double arrivalRate,
+        Duration rampUp,
+        Duration duration,
+        int actionsPerSession,
+        Duration thinkTime,
+        double minThroughput) {
+
+    static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                System.getProperty("baseUrl", "http://localhost:8080/api"),
+                Integer.getInteger("accounts", 50),
+                Integer.getInteger("seedWishes", 20),
+                doubleProperty("arrivalRate", 10),
+                Duration.ofSeconds(Integer.getInteger("rampUpSeconds", 30)),
+                Duration.ofSeconds(Integer.getInteger("durationSeconds", 120)),
+                Integer.getInteger("actionsPerSession", 10),
+                Duration.ofMillis(Integer.getInteger("thinkTimeMillis", 500)),
+                doubleProperty("slo.minThroughput", 0));
+    }
+
+    Slo slo(String endpoint) {
+        // Login is dominated by BCrypt, so it gets looser defaults than the other endpoints
+        var defaults = endpoint.equals("login")
+                ? new Slo(300, 1000, 2000, 1.0)
+                : new Slo(100, 500, 1000, 1.0);
+        return new Slo(
+                intProperty("slo." + endpoint + ".p50", intProperty("slo.p50", defaults.p50Millis())),
+                intProperty("slo." + endpoint + ".p99", intProperty("slo.p99", defaults.p99Millis())),
+                intProperty("slo." + endpoint + ".p999", intProperty("slo.p999", defaults.p999Millis())),
+                doubleProperty("slo." + endpoint + ".errorRate", doubleProperty("slo.errorRate", defaults.maxErrorPercent())));
+    }
+
+    /**
+     * Latency limits in milliseconds and the maximum share of failed requests in percent.
+     */
+    record Slo(int p50Millis, int p99Millis, int p999Millis, double maxErrorPercent) {
+    }
+
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger(name, defaultValue);
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        var value = System.getProperty(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+}
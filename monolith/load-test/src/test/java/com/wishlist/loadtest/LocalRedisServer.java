@@ -0,0 +1,27 @@
+package com.wishlist.loadtest;
+
+import com.github.fppt.jedismock.RedisServer;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * In-memory Redis stand-in for local load tests, listening on {@code -Dredis.port} (6379 by default).
+ * Runs until the process is stopped.
+ */
+public class LocalRedisServer {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        var port = Integer.getInteger("redis.port", 6379);
+        var server = RedisServer.newRedisServer(port).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.stop();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        System.out.println("Redis stand-in listening on port " + server.getBindPort());
+        new CountDownLatch(1).await();
+    }
+}
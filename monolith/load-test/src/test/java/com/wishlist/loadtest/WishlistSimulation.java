@@ -0,0 +1,165 @@
+package com.wishlist.loadtest;
+
+import io.gatling.javaapi.core.Assertion;
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Session;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+/**
+ * Drives a realistic traffic mix against a running monolith using an open workload model:
+ * sessions arrive at a fixed rate regardless of how fast the server responds.
+ * <p>
+ * A seeding phase registers the test accounts and gives each of them some wishes, then every
+ * arriving session logs in, loads the first page and performs a weighted mix of reads and writes.
+ * The run fails when any endpoint misses its SLO (see {@link LoadTestSettings}).
+ */
+public class WishlistSimulation extends Simulation {
+
+    private static final String PASSWORD = "loadtest-password";
+    private static final List<String> WORDS = List.of("book", "bike", "trip", "guitar", "course", "camera", "garden", "concert");
+    private static final List<String> CATEGORIES = List.of("Books", "Travel", "Hobby", "Education", "Home");
+
+    // Request names used in the report and for the SLO assertions
+    private static final Map<String, String> ENDPOINTS = Map.of(
+            "login", "login",
+            "list", "GET /wishes",
+            "getById", "GET /wishes/{id}",
+            "search", "GET /wishes/search",
+            "create", "POST /wishes",
+            "update", "PUT /wishes/{id}",
+            "complete", "PATCH /wishes/{id}/complete");
+
+    private final LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+    // Unique per run, so the accounts can always be registered
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private final List<Map<String, Object>> accounts = IntStream.range(0, settings.accounts())
+            .mapToObj(i -> Map.<String, Object>of("username", "lt-" + runId + "-" + i, "password", PASSWORD))
+            .toList();
+
+    private final HttpProtocolBuilder httpProtocol = http
+            .baseUrl(settings.baseUrl())
+            .acceptHeader("application/json")
+            .contentTypeHeader("application/json");
+
+    private final ChainBuilder login = exec(http(ENDPOINTS.get("login"))
+            .post("/auth/login")
+            .body(StringBody("{\"username\":\"#{username}\",\"password\":\"#{password}\"}"))
+            .check(jsonPath("$.accessToken").saveAs("token")));
+
+    private final ChainBuilder listWishes = exec(http(ENDPOINTS.get("list"))
+            .get("/wishes")
+            .header("Authorization", "Bearer #{token}")
+            .queryParam("page", session -> ThreadLocalRandom.current().nextInt(3))
+            .queryParam("size", 10)
+            .check(jsonPath("$.wishes[*].id").findAll().optional().saveAs("wishIds")));
+
+    private final ChainBuilder getWish = doIf(WishlistSimulation::hasWishes).then(
+            exec(http(ENDPOINTS.get("getById"))
+                    .get(session -> "/wishes/" + randomWishId(session))
+                    .header("Authorization", "Bearer #{token}")));
+
+    private final ChainBuilder searchWishes = exec(http(ENDPOINTS.get("search"))
+            .get("/wishes/search")
+            .header("Authorization", "Bearer #{token}")
+            .queryParam("term", session -> randomOf(WORDS)));
+
+    private final ChainBuilder createWish = exec(http(ENDPOINTS.get("create"))
+            .post("/wishes")
+            .header("Authorization", "Bearer #{token}")
+            .body(StringBody(session -> wishJson()))
+            .check(status().is(201)));
+
+    private final ChainBuilder updateWish = doIf(WishlistSimulation::hasWishes).then(
+            exec(http(ENDPOINTS.get("update"))
+                    .put(session -> "/wishes/" + randomWishId(session))
+                    .header("Authorization", "Bearer #{token}")
+                    .body(StringBody(session -> wishJson()))));
+
+    private final ChainBuilder completeWish = doIf(WishlistSimulation::hasWishes).then(
+            exec(http(ENDPOINTS.get("complete"))
+                    .patch(session -> "/wishes/" + randomWishId(session) + "/complete")
+                    .header("Authorization", "Bearer #{token}")));
+
+    private final ScenarioBuilder seed = scenario("Seed accounts")
+            .feed(listFeeder(accounts))
+            .group("seed").on(
+                    exec(http("signup")
+                            .post("/auth/signup")
+                            .body(StringBody("{\"username\":\"#{username}\",\"email\":\"#{username}@loadtest.local\",\"password\":\"#{password}\"}"))
+                            .check(status().is(201)))
+                            .exec(login)
+                            .repeat(settings.seedWishesPerAccount()).on(createWish));
+
+    private final ScenarioBuilder traffic = scenario("Wishlist traffic")
+            .feed(listFeeder(accounts).circular())
+            .exec(login)
+            .exec(listWishes)
+            .repeat(settings.actionsPerSession()).on(
+                    pause(settings.thinkTime()),
+                    randomSwitch().on(
+                            percent(45.0).then(listWishes),
+                            percent(15.0).then(getWish),
+                            percent(10.0).then(searchWishes),
+                            percent(10.0).then(createWish),
+                            percent(12.0).then(updateWish),
+                            percent(8.0).then(completeWish)));
+
+    {
+        setUp(seed.injectOpen(rampUsers(settings.accounts()).during(settings.rampUp()))
+                .andThen(traffic.injectOpen(
+                        rampUsersPerSec(1).to(settings.arrivalRate()).during(settings.rampUp()),
+                        constantUsersPerSec(settings.arrivalRate()).during(settings.duration()))))
+                .protocols(httpProtocol)
+                .assertions(sloAssertions());
+    }
+
+    private List<Assertion> sloAssertions() {
+        var assertions = new ArrayList<Assertion>();
+        ENDPOINTS.forEach((key, requestName) -> {
+            var slo = settings.slo(key);
+            assertions.add(details(requestName).responseTime().percentile(50.0).lte(slo.p50Millis()));
+            assertions.add(details(requestName).responseTime().percentile(99.0).lte(slo.p99Millis()));
+            assertions.add(details(requestName).responseTime().percentile(99.9).lte(slo.p999Millis()));
+            assertions.add(details(requestName).failedRequests().percent().lte(slo.maxErrorPercent()));
+        });
+        if (settings.minThroughput() > 0) {
+            assertions.add(global().requestsPerSec().gte(settings.minThroughput()));
+        }
+        return assertions;
+    }
+
+    private static boolean hasWishes(Session session) {
+        return session.contains("wishIds") && !session.getList("wishIds").isEmpty();
+    }
+
+    private static String randomWishId(Session session) {
+        Object wishId = randomOf(session.getList("wishIds"));
+        return String.valueOf(wishId);
+    }
+
+    private static String wishJson() {
+        var random = ThreadLocalRandom.current();
+        return "{\"title\":\"Get a " + randomOf(WORDS) + " #" + random.nextInt(10_000) + "\","
+                + "\"description\":\"Generated by the load test\","
+                + "\"priority\":" + random.nextInt(1, 6) + ","
+                + "\"category\":\"" + randomOf(CATEGORIES) + "\"}";
+    }
+
+    private static <T> T randomOf(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+}
@@ -0,0 +1,65 @@
+#!/usr/bin/env bash
+# Compares the JVM build (target/wishlist-service-exec.jar) with the native executable (target/wishlist-service)
+# on the default (H2) profile: startup via measure-startup.sh, then throughput, latency and memory under the
+# Gatling load test. Needs the Redis stand-in on port 6379 (make load-test-redis).
+#
+#   scripts/compare-native.sh [-n startup runs] [-r arrival rate] [-d duration in seconds]
+#
+#   rps:      mean requests per second over the whole Gatling run
+#   p50, p99: response time percentiles over all requests (ms)
+#   rss:      resident memory after the run
+set -euo pipefail
+
+runs=3
+arrival_rate=10
+duration=120
+while getopts "n:r:d:" opt; do
+  case $opt in
+    n) runs=$OPTARG ;;
+    r) arrival_rate=$OPTARG ;;
+    d) duration=$OPTARG ;;
+    *) exit 2 ;;
+  esac
+done
+
+cd "$(dirname "$0")/.."
+port=8080
+app_args=(--spring.jpa.show-sql=false --logging.level.com.wishlist=INFO)
+declare -A builds=(
+  [jvm]="java -jar target/wishlist-service-exec.jar"
+  [native]="target/wishlist-service"
+)
+
+# First "total" value of a statistic in the global section of the last Gatling report
+gatling_stat() {
+  local report
+  report=$(ls -td load-test/target/gatling/*/ | head -1)
+  awk -v key="\"$1\"" '$0 ~ key { found = 1 } found && /"total"/ { gsub(/[",]/, "", $2); print $2; exit }' "$report/js/stats.js"
+}
+
+results=()
+for build in jvm native; do
+  read -ra command <<< "${builds[$build]}"
+  [[ -e ${command[-1]} ]] || { echo "${command[-1]} not found, build it first (see README)" >&2; exit 1; }
+
+  echo "== $build: startup"
+  startup=$(scripts/measure-startup.sh -n "$runs" -p "$port" cmd "${command[@]}" "${app_args[@]}" | tee /dev/stderr | tail -1)
+
+  echo "== $build: load test"
+  "${command[@]}" "${app_args[@]}" --server.port="$port" > "/tmp/compare-$build.log" 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null "http://localhost:$port/api/actuator/health/readiness"; do sleep 0.1; done
+  # A missed SLO fails the Maven build, but the numbers are still wanted
+  mvn -q -f load-test/pom.xml gatling:test -DbaseUrl="http://localhost:$port/api" \
+    -DarrivalRate="$arrival_rate" -DdurationSeconds="$duration" || true
+  rss=$(($(awk '/VmRSS/ { print $2 }' "/proc/$pid/status") / 1024))
+  kill "$pid" && wait "$pid" 2> /dev/null || true
+
+  load="$(gatling_stat meanNumberOfRequestsPerSecond) rps, p50 $(gatling_stat percentiles1) ms, p99 $(gatling_stat percentiles4) ms"
+  results+=("| $build | ${startup#median of $runs: } | $load | $rss MB |")
+done
+
+echo
+echo "| Build | Startup (median of $runs) | Load test ($arrival_rate sessions/s, ${duration}s) | RSS after load |"
+echo "|---|---|---|---|"
+printf '%s\n' "${results[@]}"
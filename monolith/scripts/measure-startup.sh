@@ -0,0 +1,73 @@
+#!/usr/bin/env bash
+# Measures startup time and time-to-first-request of the app, started either from a Docker image
+# or from a command, on the default (H2) profile.
+#
+#   scripts/measure-startup.sh [-n runs] [-p port] image <image>
+#   scripts/measure-startup.sh [-n runs] [-p port] cmd <command...>
+#
+#   ready:         process start until the readiness probe answers 200
+#   first request: process start until the first signup (a cold request through security, JPA and BCrypt) has completed
+#   first latency: latency of that first request alone
+#   rss:           resident memory right after the first request (cmd mode only)
+set -euo pipefail
+
+runs=5
+port=8080
+while getopts "n:p:" opt; do
+  case $opt in
+    n) runs=$OPTARG ;;
+    p) port=$OPTARG ;;
+    *) exit 2 ;;
+  esac
+done
+shift $((OPTIND - 1))
+mode=${1:?"usage: $0 [-n runs] [-p port] image <image> | cmd <command...>"}
+shift
+
+base="http://localhost:$port/api"
+now_ms() { date +%s%3N; }
+
+start_app() {
+  if [[ $mode == image ]]; then
+    container=$(docker run -d --rm -p "$port:8080" "$1")
+  else
+    "$@" --server.port="$port" > /tmp/measure-startup.log 2>&1 &
+    pid=$!
+  fi
+}
+
+stop_app() {
+  if [[ $mode == image ]]; then
+    docker stop "$container" > /dev/null
+  else
+    kill "$pid" && wait "$pid" 2> /dev/null || true
+  fi
+}
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'; }
+
+ready=() first=() latency=() rss=()
+for run in $(seq 1 "$runs"); do
+  t0=$(now_ms)
+  start_app "$@"
+  until curl -sf -o /dev/null "$base/actuator/health/readiness"; do sleep 0.05; done
+  t_ready=$(now_ms)
+
+  t_request=$(now_ms)
+  curl -sf -o /dev/null -X POST "$base/auth/signup" -H 'Content-Type: application/json' \
+    -d "{\"username\":\"startup$run\",\"email\":\"startup$run@example.com\",\"password\":\"password$run\"}"
+  t_first=$(now_ms)
+
+  ready+=($((t_ready - t0)))
+  first+=($((t_first - t0)))
+  latency+=($((t_first - t_request)))
+  if [[ $mode == cmd ]]; then
+    rss+=($(($(awk '/VmRSS/ { print $2 }' "/proc/$pid/status") / 1024)))
+  fi
+  stop_app
+  echo "run $run: ready ${ready[-1]} ms, first request ${first[-1]} ms (latency ${latency[-1]} ms)${rss:+, rss ${rss[-1]} MB}"
+done
+
+echo "median of $runs: ready $(printf '%s\n' "${ready[@]}" | median) ms," \
+  "first request $(printf '%s\n' "${first[@]}" | median) ms," \
+  "first latency $(printf '%s\n' "${latency[@]}" | median) ms${rss:+, rss $(printf '%s\n' "${rss[@]}" | median) MB}"
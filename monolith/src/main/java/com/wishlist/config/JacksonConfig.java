@@ -0,0 +1,31 @@
+package com.wishlist.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wishlist.dto.json.TimestampNegotiatingJsonConverter;
+import com.wishlist.dto.json.WishlistJsonModule;
+import com.wishlist.dto.json.WishlistJsonPageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module wishlistJsonModule() {
+        return new WishlistJsonModule();
+    }
+
+    // Replaces Spring Boot's default JSON converter
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimestampNegotiatingJsonConverter(objectMapper);
+    }
+
+    // Added ahead of the default converters by Spring Boot
+    @Bean
+    public WishlistJsonPageConverter wishlistJsonPageConverter() {
+        return new WishlistJsonPageConverter();
+    }
+}
@@ -0,0 +1,20 @@
+package com.wishlist.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+// The first rule matching a request applies, requests matching none aren't limited
+@ConfigurationProperties("wishlist.rate-limit")
+public record RateLimitProperties(@DefaultValue("true") boolean enabled, List<Rule> rules) {
+
+    public RateLimitProperties {
+        rules = rules != null ? List.copyOf(rules) : List.of();
+    }
+
+    // Bursts of capacity requests, refilled evenly over period; any method if not set
+    public record Rule(String name, String method, String path, long capacity, Duration period) {
+    }
+}
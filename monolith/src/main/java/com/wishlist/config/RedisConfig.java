@@ -1,7 +1,7 @@
 package com.wishlist.config;
 
-import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wishlist.dto.OverdueWishes;
 import com.wishlist.dto.WishDTO;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
@@ -9,6 +9,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
@@ -16,6 +17,11 @@ import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.wishlist.service.CacheServiceImpl.*;
 
 @Configuration
 public class RedisConfig {
@@ -25,7 +31,7 @@ public class RedisConfig {
 
     @Bean
     public RedisTemplate<String, WishDTO> wishRedisTemplate(RedisConnectionFactory redisConnectionFactory, ObjectMapper objectMapper) {
-        Jackson2JsonRedisSerializer<WishDTO> serializer = new Jackson2JsonRedisSerializer<>(objectMapper, WishDTO.class);
+        var serializer = wishSerializer(objectMapper);
         RedisTemplate<String, WishDTO> template = new RedisTemplate<>();
         template.setConnectionFactory(redisConnectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
@@ -38,18 +44,52 @@ public class RedisConfig {
 
     @Bean
     public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory, ObjectMapper objectMapper) {
-        ObjectMapper redisObjectMapper = objectMapper.copy();
-        redisObjectMapper.activateDefaultTyping(redisObjectMapper.getPolymorphicTypeValidator(), ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
-        Jackson2JsonRedisSerializer<WishDTO> serializer = new Jackson2JsonRedisSerializer<>(objectMapper, WishDTO.class);
         RedisCacheConfiguration cacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMillis(timeToLive))
                 .disableCachingNullValues()
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer));
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(wishSerializer(objectMapper)));
+        // The list caches hold List<WishDTO>, which the WishDTO serializer can write but not read back
+        RedisCacheConfiguration listCacheConfiguration = cacheConfiguration
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(wishListSerializer(objectMapper)));
+        RedisCacheConfiguration overdueCacheConfiguration = cacheConfiguration
+                .entryTtl(overdueWishesTtl(Duration.ofMillis(timeToLive)))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new Jackson2JsonRedisSerializer<>(objectMapper, OverdueWishes.class)));
 
         return RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(cacheConfiguration)
+                // Declared upfront so the caches are bound to the meter registry at startup
+                .withInitialCacheConfigurations(Map.of(
+                        WISH_CACHE_NAME, cacheConfiguration,
+                        COMPLETED_WISHES_CACHE_NAME, listCacheConfiguration,
+                        PENDING_WISHES_CACHE_NAME, listCacheConfiguration,
+                        CATEGORY_WISHES_CACHE_NAME, listCacheConfiguration,
+                        OVERDUE_WISHES_CACHE_NAME, overdueCacheConfiguration))
+                .enableStatistics()
                 .transactionAware()
                 .build();
     }
+
+    // Until the next due date, at most maxTimeToLive; a zero TTL would never expire
+    static RedisCacheWriter.TtlFunction overdueWishesTtl(Duration maxTimeToLive) {
+        return (key, value) -> {
+            if (!(value instanceof OverdueWishes overdueWishes) || overdueWishes.nextDueDate() == null) {
+                return maxTimeToLive;
+            }
+            var untilNextDueDate = Duration.between(LocalDateTime.now(), overdueWishes.nextDueDate());
+            if (untilNextDueDate.compareTo(Duration.ofMillis(1)) < 0) {
+                return Duration.ofMillis(1);
+            }
+            return untilNextDueDate.compareTo(maxTimeToLive) < 0 ? untilNextDueDate : maxTimeToLive;
+        };
+    }
+
+    public static Jackson2JsonRedisSerializer<WishDTO> wishSerializer(ObjectMapper objectMapper) {
+        return new Jackson2JsonRedisSerializer<>(objectMapper, WishDTO.class);
+    }
+
+    public static Jackson2JsonRedisSerializer<List<WishDTO>> wishListSerializer(ObjectMapper objectMapper) {
+        return new Jackson2JsonRedisSerializer<>(objectMapper, objectMapper.getTypeFactory().constructCollectionType(List.class, WishDTO.class));
+    }
 }
\ No newline at end of file
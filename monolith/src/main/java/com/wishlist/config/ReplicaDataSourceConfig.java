@@ -0,0 +1,72 @@
+package com.wishlist.config;
+
+import com.wishlist.datasource.ReadYourWrites;
+import com.wishlist.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+// With DB_REPLICA_URL set, a Hikari pool per database (primary and replica in the metrics) behind the routing
+@Configuration
+@ConditionalOnExpression("!'${wishlist.datasource.replica.url:}'.isEmpty()")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("wishlist.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${wishlist.datasource.replica.url}") String url,
+                                              @Value("${wishlist.datasource.replica.username:${spring.datasource.username}}") String username,
+                                              @Value("${wishlist.datasource.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(StringRedisTemplate redisTemplate,
+                                         @Value("${wishlist.datasource.replica.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWrites(redisTemplate, window);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+                                                             ReadYourWrites readYourWrites, MeterRegistry meterRegistry,
+                                                             @Value("${wishlist.datasource.replica.lag-query}") String lagQuery,
+                                                             @Value("${wishlist.datasource.replica.max-lag:1s}") Duration maxLag) {
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, readYourWrites, lagQuery, maxLag, meterRegistry);
+    }
+
+    // Picks the database at the first statement of a transaction, once its read-only flag is known
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,32 @@
+package com.wishlist.config;
+
+import com.wishlist.datasource.StatementRecordingDataSource;
+import com.wishlist.metrics.StatementStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Only the DataSource JPA and JdbcTemplate use is wrapped, so each statement is recorded once
+@Configuration
+@ConditionalOnProperty(name = "wishlist.db.statements.enabled", havingValue = "true", matchIfMissing = true)
+public class StatementStatsConfig {
+
+    static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    @Bean
+    static BeanPostProcessor statementRecordingPostProcessor(ObjectProvider<StatementStats> statementStats) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && DATA_SOURCE_BEAN_NAME.equals(beanName)) {
+                    return new StatementRecordingDataSource(dataSource, statementStats.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
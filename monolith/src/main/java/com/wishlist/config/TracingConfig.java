@@ -0,0 +1,58 @@
+package com.wishlist.config;
+
+import com.wishlist.tracing.TraceRecorder;
+import io.lettuce.core.tracing.MicrometerTracing;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.util.function.SingletonSupplier;
+
+// Spans for the repository calls of sampled traces, and for every Redis command
+@Configuration
+public class TracingConfig {
+
+    public static final String REPOSITORY_OBSERVATION = "wishlist.repository";
+
+    @Bean
+    static BeanPostProcessor repositoryObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor((proxyFactory, information) ->
+                            proxyFactory.addAdvice(observing(observationRegistry, information.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    // Not for Redis: Lettuce sets the parent of a command only after the predicates ran
+    @Bean
+    public ObservationPredicate repositoryCallsInTracesOnly(ObjectProvider<ObservationRegistry> observationRegistry) {
+        var registry = SingletonSupplier.of(observationRegistry::getObject);
+        return (name, context) -> !name.equals(REPOSITORY_OBSERVATION)
+                || TraceRecorder.isTraced(registry.obtain().getCurrentObservation());
+    }
+
+    @Bean
+    public ClientResourcesBuilderCustomizer redisCommandObservations(ObservationRegistry observationRegistry) {
+        return builder -> builder.tracing(new MicrometerTracing(observationRegistry, "redis"));
+    }
+
+    private static MethodInterceptor observing(ObjectProvider<ObservationRegistry> observationRegistry, String repository) {
+        var registry = SingletonSupplier.of(observationRegistry::getObject);
+        return invocation -> Observation.createNotStarted(REPOSITORY_OBSERVATION, registry.obtain())
+                .contextualName(repository + "#" + invocation.getMethod().getName())
+                .lowCardinalityKeyValue("repository", repository)
+                .lowCardinalityKeyValue("method", invocation.getMethod().getName())
+                .observeChecked(invocation::proceed);
+    }
+}
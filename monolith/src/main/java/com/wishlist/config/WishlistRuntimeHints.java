@@ -0,0 +1,82 @@
+package com.wishlist.config;
+
+import com.wishlist.dto.AuthRequest;
+import com.wishlist.dto.AuthResponse;
+import com.wishlist.dto.BulkDeleteResponse;
+import com.wishlist.dto.BulkWishRequest;
+import com.wishlist.dto.CategoryDTO;
+import com.wishlist.dto.OverdueWishes;
+import com.wishlist.dto.QueryShapeDTO;
+import com.wishlist.dto.SignupRequest;
+import com.wishlist.dto.SpanDTO;
+import com.wishlist.dto.TraceDTO;
+import com.wishlist.dto.UserDTO;
+import com.wishlist.dto.WishDTO;
+import com.wishlist.dto.WishStatsDTO;
+import com.wishlist.dto.WishlistDTO;
+import com.wishlist.event.WishChangedEvent;
+import com.wishlist.model.User;
+import com.wishlist.model.Wish;
+import com.wishlist.model.WishOutboxEntry;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.util.List;
+
+// What the native image needs beyond what Spring's AOT processing infers
+public class WishlistRuntimeHints implements RuntimeHintsRegistrar {
+
+    // jjwt-api finds its implementation by class name (jjwt-impl is a runtime-only dependency)
+    static final List<String> JJWT_IMPL_CLASSES = List.of(
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        JJWT_IMPL_CLASSES.forEach(className -> hints.reflection().registerType(TypeReference.of(className),
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS));
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.io.*");
+
+        // Hibernate reads and writes the entity fields directly
+        for (Class<?> entity : List.of(User.class, Wish.class, WishOutboxEntry.class)) {
+            hints.reflection().registerType(entity, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+        hints.reflection().registerType(AuditingEntityListener.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // Request and response bodies, and the values of the Redis serializers
+        bindingRegistrar.registerReflectionHints(hints.reflection(), WishDTO.class, WishlistDTO.class, WishStatsDTO.class, CategoryDTO.class,
+                OverdueWishes.class, BulkWishRequest.class, BulkDeleteResponse.class, QueryShapeDTO.class, TraceDTO.class, SpanDTO.class, AuthRequest.class, AuthResponse.class, SignupRequest.class, UserDTO.class);
+
+        bindingRegistrar.registerReflectionHints(hints.reflection(), WishChangedEvent.class);
+
+        // Swagger UI static files (springdoc registers hints for its own model classes)
+        hints.resources().registerPattern("META-INF/resources/webjars/swagger-ui/**");
+    }
+}
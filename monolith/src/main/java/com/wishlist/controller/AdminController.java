@@ -0,0 +1,66 @@
+package com.wishlist.controller;
+
+import com.wishlist.dto.BulkSignupRequest;
+import com.wishlist.dto.BulkSignupResponse;
+import com.wishlist.dto.QueryShapeDTO;
+import com.wishlist.dto.TraceDTO;
+import com.wishlist.exception.BadRequestException;
+import com.wishlist.metrics.StatementStats;
+import com.wishlist.service.UserProvisioningService;
+import com.wishlist.tracing.TraceRecorder;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "JWT Authentication")
+@Tag(name = "Administration", description = "API for administrators, requires the ADMIN role")
+public class AdminController {
+
+    private final UserProvisioningService userProvisioningService;
+    private final StatementStats statementStats;
+    private final TraceRecorder traceRecorder;
+
+    @PostMapping("/users/bulk")
+    @Operation(
+        summary = "Register users in bulk",
+        description = "Create up to " + BulkSignupRequest.MAX_USERS + " users at once. Users whose username or email is taken are skipped and reported."
+    )
+    public ResponseEntity<BulkSignupResponse> registerUsers(@Valid @RequestBody BulkSignupRequest bulkSignupRequest) {
+        var response = userProvisioningService.registerUsers(bulkSignupRequest.getUsers());
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/queries")
+    @Operation(
+        summary = "List the slowest query shapes",
+        description = "Statements run since startup, grouped by their SQL with literals replaced by ?, the shapes that took the most time in total first"
+    )
+    public ResponseEntity<List<QueryShapeDTO>> getSlowestQueries(@RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1) {
+            throw new BadRequestException("limit must be positive");
+        }
+        return ResponseEntity.ok(statementStats.topShapes(limit));
+    }
+
+    @GetMapping("/traces")
+    @Operation(
+        summary = "List recent request traces",
+        description = "The most recent sampled traces that took at least minDurationMillis, each with its spans: filters, controller, services, cache, repository calls and Redis commands"
+    )
+    public ResponseEntity<List<TraceDTO>> getRecentTraces(@RequestParam(defaultValue = "20") int limit,
+                                                          @RequestParam(defaultValue = "0") long minDurationMillis) {
+        if (limit < 1) {
+            throw new BadRequestException("limit must be positive");
+        }
+        return ResponseEntity.ok(traceRecorder.recentTraces(limit, minDurationMillis));
+    }
+}
@@ -12,6 +12,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -45,6 +46,17 @@ public class AuthController {
         return ResponseEntity.status(HttpStatus.CREATED).body("User registered successfully");
     }
 
+    @PostMapping("/logout")
+    @Operation(
+        summary = "Logout",
+        description = "Revoke the JWT token of the request, it can't be used anymore.",
+        security = @SecurityRequirement(name = "JWT Authentication")
+    )
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        authService.logout(authorization.startsWith("Bearer ") ? authorization.substring(7) : authorization);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/me")
     @Operation(
         summary = "Get current user data",
@@ -1,42 +1,80 @@
 package com.wishlist.controller;
 
+import com.wishlist.dto.BulkDeleteResponse;
+import com.wishlist.dto.BulkWishRequest;
+import com.wishlist.dto.CategoryDTO;
 import com.wishlist.dto.WishDTO;
+import com.wishlist.dto.WishStatsDTO;
 import com.wishlist.dto.WishlistDTO;
+import com.wishlist.dto.json.TimestampFormat;
+import com.wishlist.exception.PreconditionFailedException;
+import com.wishlist.model.WishSortField;
 import com.wishlist.service.AuthService;
+import com.wishlist.service.WishEventStream;
+import com.wishlist.service.WishStatsService;
 import com.wishlist.service.WishlistService;
+import io.micrometer.observation.annotation.Observed;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
 @RequestMapping("/wishes")
 @RequiredArgsConstructor
+@Observed(name = "wishlist.controller")
 @SecurityRequirement(name = "JWT Authentication")
 @Tag(name = "Wishes", description = "API for managing user's wishlist")
 public class WishlistController {
 
+    // Sent by EventSource clients when they reconnect
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
     private final WishlistService wishlistService;
     private final AuthService authService;
+    private final WishStatsService wishStatsService;
+    private final WishEventStream wishEventStream;
+
+    @Value("${wishlist.cache.raw-json:true}")
+    private boolean rawJsonPages;
 
     @GetMapping
     @Operation(summary = "Get user's wishlist")
-    public ResponseEntity<WishlistDTO> getUserWishes(
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = WishlistDTO.class)))
+    public ResponseEntity<?> getUserWishes(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String direction) {
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         var sortDirection = direction.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
-        var pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
+        // Only the indexed fields
+        var sortField = WishSortField.fromProperty(sortBy);
+        var pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortField.getProperty()));
         var userId = authService.getCurrentUser().getId();
+        // The cached JSON has ISO timestamps
+        if (rawJsonPages && TimestampFormat.fromAcceptHeader(accept) == TimestampFormat.ISO) {
+            var cachedPage = wishlistService.getUserWishesJson(userId, pageable);
+            if (cachedPage.isPresent()) {
+                return ResponseEntity.ok(cachedPage.get());
+            }
+        }
         var wishlistDTO = wishlistService.getUserWishes(userId, pageable);
         return ResponseEntity.ok(wishlistDTO);
     }
@@ -46,7 +84,7 @@ public class WishlistController {
     public ResponseEntity<WishDTO> getWishById(@PathVariable Long wishId) {
         var userId = authService.getCurrentUser().getId();
         var wishDTO = wishlistService.getUserWishById(wishId, userId);
-        return ResponseEntity.ok(wishDTO);
+        return withETag(wishDTO);
     }
 
     @PostMapping
@@ -57,12 +95,16 @@ public class WishlistController {
     }
 
     @PutMapping("/{wishId}")
-    @Operation(summary = "Update existing wish")
+    @Operation(
+        summary = "Update existing wish",
+        description = "With If-Match set to the wish's ETag (its version), the update is rejected with 412 if the wish changed since."
+    )
     public ResponseEntity<WishDTO> updateWish(
             @PathVariable Long wishId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody WishDTO wishDTO) {
-        var updatedWish = wishlistService.updateWish(wishId, wishDTO);
-        return ResponseEntity.ok(updatedWish);
+        var updatedWish = wishlistService.updateWish(wishId, wishDTO, expectedVersion(wishId, ifMatch));
+        return withETag(updatedWish);
     }
 
     @DeleteMapping("/{wishId}")
@@ -79,6 +121,26 @@ public class WishlistController {
         return ResponseEntity.ok(completedWish);
     }
 
+    @PatchMapping("/bulk/complete")
+    @Operation(
+        summary = "Mark wishes as completed",
+        description = "Complete up to " + BulkWishRequest.MAX_WISHES + " pending wishes at once. Returns the wishes completed, ids that aren't pending wishes of the user are skipped."
+    )
+    public ResponseEntity<List<WishDTO>> markWishesAsCompleted(@Valid @RequestBody BulkWishRequest bulkWishRequest) {
+        var completedWishes = wishlistService.markWishesAsCompleted(bulkWishRequest.getIds());
+        return ResponseEntity.ok(completedWishes);
+    }
+
+    @PostMapping("/bulk/delete")
+    @Operation(
+        summary = "Delete wishes",
+        description = "Delete up to " + BulkWishRequest.MAX_WISHES + " wishes at once. Ids that aren't wishes of the user are skipped."
+    )
+    public ResponseEntity<BulkDeleteResponse> deleteWishes(@Valid @RequestBody BulkWishRequest bulkWishRequest) {
+        var deletedIds = wishlistService.deleteWishes(bulkWishRequest.getIds());
+        return ResponseEntity.ok(BulkDeleteResponse.builder().deleted(deletedIds.size()).ids(deletedIds).build());
+    }
+
     @GetMapping("/completed")
     @Operation(summary = "Get completed wishes")
     public ResponseEntity<List<WishDTO>> getCompletedWishes() {
@@ -95,6 +157,39 @@ public class WishlistController {
         return ResponseEntity.ok(pendingWishes);
     }
 
+    @GetMapping("/overdue")
+    @Operation(summary = "Get pending wishes past their due date")
+    public ResponseEntity<WishlistDTO> getOverdueWishes(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        var userId = authService.getCurrentUser().getId();
+        var overdueWishes = wishlistService.getOverdueWishes(userId, PageRequest.of(page, size));
+        return ResponseEntity.ok(overdueWishes);
+    }
+
+    @GetMapping("/stats")
+    @Operation(summary = "Get counts of the user's wishes by status, category and priority")
+    public ResponseEntity<WishStatsDTO> getWishStats() {
+        var userId = authService.getCurrentUser().getId();
+        return ResponseEntity.ok(wishStatsService.getStats(userId));
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream changes to the user's wishes as Server-Sent Events",
+            description = "Sends a wishChanged event per change, with the change as data. Reconnecting with "
+                    + "Last-Event-ID resumes after that event; a reset event means changes were missed, reload the wishlist.")
+    public SseEmitter streamWishEvents(@RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        var userId = authService.getCurrentUser().getId();
+        return wishEventStream.subscribe(userId, lastEventId);
+    }
+
+    @GetMapping("/categories")
+    @Operation(summary = "Get the user's categories with their number of wishes")
+    public ResponseEntity<List<CategoryDTO>> getCategories() {
+        var userId = authService.getCurrentUser().getId();
+        return ResponseEntity.ok(wishStatsService.getCategories(userId));
+    }
+
     @GetMapping("/category/{category}")
     @Operation(summary = "Get wishes by category")
     public ResponseEntity<List<WishDTO>> getWishesByCategory(@PathVariable String category) {
@@ -109,4 +204,34 @@ public class WishlistController {
         var searchResults = wishlistService.searchWishes(term);
         return ResponseEntity.ok(searchResults);
     }
+
+    // Wishes cached before versions were added have none
+    private static ResponseEntity<WishDTO> withETag(WishDTO wishDTO) {
+        var response = ResponseEntity.ok();
+        if (wishDTO.getVersion() != null) {
+            response.eTag(String.valueOf(wishDTO.getVersion()));
+        }
+        return response.body(wishDTO);
+    }
+
+    // Null without If-Match or for "*"; weak tags never match, If-Match compares strongly (RFC 9110)
+    private static Long expectedVersion(Long wishId, String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        var versions = Arrays.stream(ifMatch.split(","))
+                .map(String::strip)
+                .filter(tag -> tag.matches("\"\\d{1,18}\""))
+                .map(tag -> Long.valueOf(tag.substring(1, tag.length() - 1)))
+                .distinct()
+                .toList();
+        if (versions.isEmpty()) {
+            throw new PreconditionFailedException("If-Match " + ifMatch + " doesn't match any version of wish " + wishId);
+        }
+        if (versions.size() > 1) {
+            throw new PreconditionFailedException("If-Match " + ifMatch + " lists several versions of wish " + wishId
+                    + ", send only the one the change is based on");
+        }
+        return versions.getFirst();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,89 @@
+package com.wishlist.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users who wrote within the last {@code read-your-writes-window}, whose reads stay on the primary. Kept in Redis for
+ * every node, and asked at most once per request and user: later writes of the request are in the local copy.
+ */
+@Slf4j
+public class ReadYourWrites {
+
+    public static final String KEY_PREFIX = "recentWrite::";
+    static final String REQUEST_ATTRIBUTE_PREFIX = ReadYourWrites.class.getName() + ".";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration window;
+    // Username -> end of its window in epoch millis
+    private final Map<String, Long> localWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(StringRedisTemplate redisTemplate, Duration window) {
+        this.redisTemplate = redisTemplate;
+        this.window = window;
+    }
+
+    // Once the current transaction commits
+    public void recordOnCommit() {
+        String username = RoutingSubject.current();
+        if (username == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(username);
+            }
+        });
+    }
+
+    void record(String username) {
+        localWrites.put(username, System.currentTimeMillis() + window.toMillis());
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + username, "", window);
+        } catch (DataAccessException e) {
+            log.warn("Could not record a write by {}, other nodes may serve them stale reads: {}", username, e.getMessage());
+        }
+    }
+
+    public boolean wroteRecently(String username) {
+        Long until = localWrites.get(username);
+        if (until != null && until > System.currentTimeMillis()) {
+            return true;
+        }
+        var request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(REQUEST_ATTRIBUTE_PREFIX + username, RequestAttributes.SCOPE_REQUEST) instanceof Boolean wrote) {
+            return wrote;
+        }
+        boolean wrote = wroteRecentlyOnAnyNode(username);
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE_PREFIX + username, wrote, RequestAttributes.SCOPE_REQUEST);
+        }
+        return wrote;
+    }
+
+    private boolean wroteRecentlyOnAnyNode(String username) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(KEY_PREFIX + username));
+        } catch (DataAccessException e) {
+            // Unknown, the primary is always consistent
+            return true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${wishlist.datasource.replica.read-your-writes-window:5s}")
+    public void purge() {
+        long now = System.currentTimeMillis();
+        localWrites.values().removeIf(until -> until <= now);
+    }
+}
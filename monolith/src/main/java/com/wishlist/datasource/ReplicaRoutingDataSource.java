@@ -0,0 +1,99 @@
+package com.wishlist.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica, behind a {@link LazyConnectionDataSourceProxy}. Reads stay on the
+ * primary while the replica lags more than {@code maxLag}, and for users within their read-your-writes window.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String ROUTING_METRIC = "wishlist.datasource.routing";
+
+    public enum Route {PRIMARY, REPLICA}
+
+    private final ReadYourWrites readYourWrites;
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+    private final MeterRegistry meterRegistry;
+
+    // NaN until the first lag check, reads use the primary until then
+    private volatile double replicaLagSeconds = Double.NaN;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReadYourWrites readYourWrites,
+                                    String lagQuery, Duration maxLag, MeterRegistry meterRegistry) {
+        this.readYourWrites = readYourWrites;
+        this.replicaJdbcTemplate = new JdbcTemplate(replica);
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.meterRegistry = meterRegistry;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        Gauge.builder("wishlist.datasource.replica.lag", this, dataSource -> dataSource.replicaLagSeconds)
+                .description("Replication lag of the read replica, NaN while it can't be reached")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Auto-commit statements outside a transaction (e.g. schema checks at startup)
+            return route(Route.PRIMARY, "no_transaction");
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readYourWrites.recordOnCommit();
+            return route(Route.PRIMARY, "read_write");
+        }
+        if (!(replicaLagSeconds <= maxLagSeconds)) {
+            return route(Route.PRIMARY, "replica_lagging");
+        }
+        String username = RoutingSubject.current();
+        if (username != null && readYourWrites.wroteRecently(username)) {
+            return route(Route.PRIMARY, "read_your_writes");
+        }
+        return route(Route.REPLICA, "read_only");
+    }
+
+    @Scheduled(fixedDelayString = "${wishlist.datasource.replica.lag-check-interval:1s}")
+    public void checkReplicaLag() {
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(lagQuery, Double.class);
+            boolean wasUsable = replicaLagSeconds <= maxLagSeconds;
+            replicaLagSeconds = lag != null ? lag : 0;
+            if (wasUsable && replicaLagSeconds > maxLagSeconds) {
+                log.warn("Read replica is {}s behind, reading from the primary", replicaLagSeconds);
+            }
+        } catch (DataAccessException e) {
+            if (!Double.isNaN(replicaLagSeconds)) {
+                log.warn("Read replica unavailable, reading from the primary: {}", e.getMessage());
+            }
+            replicaLagSeconds = Double.NaN;
+        }
+    }
+
+    private Route route(Route route, String reason) {
+        Counter.builder(ROUTING_METRIC)
+                .description("Transactions by the database they were sent to, and why")
+                .tag("target", route.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return route;
+    }
+}
@@ -0,0 +1,40 @@
+package com.wishlist.datasource;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.function.Supplier;
+
+// The authenticated user, or the one named with runAs before authentication (signup, login)
+public final class RoutingSubject {
+
+    private static final ThreadLocal<String> USERNAME = new ThreadLocal<>();
+
+    private RoutingSubject() {
+    }
+
+    public static <T> T runAs(String username, Supplier<T> action) {
+        String previous = USERNAME.get();
+        USERNAME.set(username);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                USERNAME.set(previous);
+            } else {
+                USERNAME.remove();
+            }
+        }
+    }
+
+    public static String current() {
+        String username = USERNAME.get();
+        if (username != null) {
+            return username;
+        }
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)
+                ? authentication.getName()
+                : null;
+    }
+}
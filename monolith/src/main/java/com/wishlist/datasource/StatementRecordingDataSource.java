@@ -0,0 +1,107 @@
+package com.wishlist.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+
+// Reports each statement with its SQL, parameters and time; a batch once, when it's executed
+public class StatementRecordingDataSource extends DelegatingDataSource {
+
+    @FunctionalInterface
+    public interface StatementListener {
+
+        void onStatement(String sql, List<Object> parameters, long nanos);
+    }
+
+    private final StatementListener listener;
+
+    public StatementRecordingDataSource(DataSource targetDataSource, StatementListener listener) {
+        super(targetDataSource);
+        this.listener = listener;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return recording(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return recording(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection recording(Connection connection) {
+        return proxy(Connection.class, connection, (proxy, method, args) -> {
+            var result = invoke(connection, method, args);
+            return switch (method.getName()) {
+                case "createStatement" -> recording(Statement.class, (Statement) result, null);
+                case "prepareStatement" -> recording(PreparedStatement.class, (Statement) result, (String) args[0]);
+                case "prepareCall" -> recording(CallableStatement.class, (Statement) result, (String) args[0]);
+                default -> result;
+            };
+        });
+    }
+
+    private <S extends Statement> S recording(Class<S> type, Statement statement, String preparedSql) {
+        var parameters = new TreeMap<Integer, Object>();
+        var batchSql = new String[1];
+        return proxy(type, statement, (proxy, method, args) -> {
+            var name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.equals("addBatch") && args != null && batchSql[0] == null) {
+                batchSql[0] = (String) args[0];
+            } else if (name.startsWith("execute")) {
+                var sql = args != null && args.length > 0 && args[0] instanceof String executed ? executed
+                        : preparedSql != null ? preparedSql : batchSql[0];
+                long start = System.nanoTime();
+                try {
+                    return invoke(statement, method, args);
+                } finally {
+                    long nanos = System.nanoTime() - start;
+                    if (sql != null) {
+                        listener.onStatement(sql, Collections.unmodifiableList(new ArrayList<>(parameters.values())), nanos);
+                    }
+                    if (name.equals("executeBatch")) {
+                        batchSql[0] = null;
+                    }
+                }
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(StatementRecordingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    // Pools and Hibernate keep connections in maps, compare the proxies themselves
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> "Recording " + target;
+                    default -> handler.invoke(proxy, method, args);
+                }));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
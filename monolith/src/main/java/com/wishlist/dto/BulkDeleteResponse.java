@@ -0,0 +1,17 @@
+package com.wishlist.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Generated
+public class BulkDeleteResponse {
+
+    private int deleted;
+    // Without the ids that weren't the user's wishes
+    private List<Long> ids;
+}
@@ -0,0 +1,22 @@
+package com.wishlist.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Generated
+public class BulkSignupRequest {
+
+    public static final int MAX_USERS = 1000;
+
+    @NotEmpty(message = "Users are required")
+    @Size(max = MAX_USERS, message = "At most " + MAX_USERS + " users per request")
+    private List<@Valid SignupRequest> users;
+}
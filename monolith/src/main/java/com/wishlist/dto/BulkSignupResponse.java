@@ -0,0 +1,27 @@
+package com.wishlist.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Generated
+public class BulkSignupResponse {
+
+    private int created;
+    private List<Rejection> rejected;
+
+    // index is the position in the request
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Generated
+    public static class Rejection {
+        private int index;
+        private String username;
+        private String reason;
+    }
+}
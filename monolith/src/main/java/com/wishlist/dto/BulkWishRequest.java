@@ -0,0 +1,22 @@
+package com.wishlist.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Generated
+public class BulkWishRequest {
+
+    public static final int MAX_WISHES = 1000;
+
+    @NotEmpty(message = "Wish ids are required")
+    @Size(max = MAX_WISHES, message = "At most " + MAX_WISHES + " wishes per request")
+    private List<@NotNull Long> ids;
+}
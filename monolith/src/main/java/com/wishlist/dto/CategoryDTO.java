@@ -0,0 +1,15 @@
+package com.wishlist.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Generated
+public class CategoryDTO {
+
+    private String name;
+    // Completed or not
+    private long count;
+}
@@ -0,0 +1,8 @@
+package com.wishlist.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Cached until nextDueDate, the next pending wish falls due
+public record OverdueWishes(List<WishDTO> wishes, LocalDateTime nextDueDate) {
+}
@@ -0,0 +1,17 @@
+package com.wishlist.dto;
+
+import lombok.*;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Generated
+public class QueryShapeDTO {
+
+    private String sql;
+    private long count;
+    private double totalMillis;
+    private double meanMillis;
+    private double maxMillis;
+}
@@ -0,0 +1,24 @@
+package com.wishlist.dto;
+
+import lombok.*;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Generated
+public class SpanDTO {
+
+    private String spanId;
+    // Null for the root span
+    private String parentId;
+    private String name;
+    // Since the start of the root span
+    private double offsetMillis;
+    // Null while the span is running
+    private Double durationMillis;
+    private Map<String, String> tags;
+    private String error;
+}
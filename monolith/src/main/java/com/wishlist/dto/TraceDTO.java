@@ -0,0 +1,22 @@
+package com.wishlist.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Generated
+public class TraceDTO {
+
+    private String traceId;
+    // The root span's
+    private String name;
+    private Instant start;
+    private double durationMillis;
+    // In the order they started, the root first
+    private List<SpanDTO> spans;
+}
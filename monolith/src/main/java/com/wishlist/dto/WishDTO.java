@@ -35,4 +35,7 @@ public class WishDTO {
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
+
+    // The ETag of the wish
+    private Long version;
 }
\ No newline at end of file
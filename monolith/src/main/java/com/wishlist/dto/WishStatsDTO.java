@@ -0,0 +1,21 @@
+package com.wishlist.dto;
+
+import lombok.*;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Generated
+public class WishStatsDTO {
+
+    private long total;
+    private long completed;
+    private long pending;
+    private long overdue;
+    // Wishes without a category or priority are only in the totals
+    private Map<String, Long> categories;
+    private Map<Integer, Long> priorities;
+}
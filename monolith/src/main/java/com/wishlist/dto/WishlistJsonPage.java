@@ -0,0 +1,19 @@
+package com.wishlist.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// A page whose wishes are the JSON cached in Redis, written out as a WishlistDTO
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Generated
+public class WishlistJsonPage {
+
+    private List<byte[]> wishes;
+    private long totalItems;
+    private int totalPages;
+    private int currentPage;
+}
@@ -0,0 +1,104 @@
+package com.wishlist.dto.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Objects;
+
+// How the hand-written serializers write LocalDateTime fields, chosen with e.g. Accept: application/json;timestamps=epoch
+public enum TimestampFormat {
+
+    // As Jackson writes them
+    ISO,
+
+    // Milliseconds, in the server's time zone
+    EPOCH;
+
+    public static final String MEDIA_TYPE_PARAMETER = "timestamps";
+
+    static final String ATTRIBUTE = TimestampFormat.class.getName();
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    public static TimestampFormat of(SerializerProvider provider) {
+        return provider.getAttribute(ATTRIBUTE) instanceof TimestampFormat format ? format : ISO;
+    }
+
+    public static TimestampFormat fromParameter(String value) {
+        return "epoch".equalsIgnoreCase(value) ? EPOCH : ISO;
+    }
+
+    // The format requested by any of the media types in an Accept header
+    public static TimestampFormat fromAcceptHeader(String accept) {
+        if (!StringUtils.hasText(accept) || !accept.contains(MEDIA_TYPE_PARAMETER)) {
+            return ISO;
+        }
+        return MediaType.parseMediaTypes(accept).stream()
+                .map(mediaType -> mediaType.getParameter(MEDIA_TYPE_PARAMETER))
+                .filter(Objects::nonNull)
+                .map(TimestampFormat::fromParameter)
+                .findFirst()
+                .orElse(ISO);
+    }
+
+    void write(JsonGenerator generator, LocalDateTime value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (this == EPOCH) {
+            generator.writeNumber(value.atZone(ZONE).toInstant().toEpochMilli());
+        } else {
+            var buffer = new char[29];
+            var length = formatIso(value, buffer);
+            if (length < 0) {
+                generator.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+            } else {
+                generator.writeString(buffer, 0, length);
+            }
+        }
+    }
+
+    // As ISO_LOCAL_DATE_TIME with the seconds always written; the chars written, or -1 for years beyond four digits
+    static int formatIso(LocalDateTime value, char[] buffer) {
+        var year = value.getYear();
+        if (year < 0 || year > 9999) {
+            return -1;
+        }
+        digits(buffer, 0, year, 4);
+        buffer[4] = '-';
+        digits(buffer, 5, value.getMonthValue(), 2);
+        buffer[7] = '-';
+        digits(buffer, 8, value.getDayOfMonth(), 2);
+        buffer[10] = 'T';
+        digits(buffer, 11, value.getHour(), 2);
+        buffer[13] = ':';
+        digits(buffer, 14, value.getMinute(), 2);
+        buffer[16] = ':';
+        digits(buffer, 17, value.getSecond(), 2);
+
+        var nano = value.getNano();
+        if (nano == 0) {
+            return 19;
+        }
+        buffer[19] = '.';
+        var fractionDigits = 9;
+        while (nano % 10 == 0) {
+            nano /= 10;
+            fractionDigits--;
+        }
+        digits(buffer, 20, nano, fractionDigits);
+        return 20 + fractionDigits;
+    }
+
+    private static void digits(char[] buffer, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
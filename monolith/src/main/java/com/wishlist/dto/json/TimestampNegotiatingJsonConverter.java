@@ -0,0 +1,24 @@
+package com.wishlist.dto.json;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+// Honours the timestamps parameter of the negotiated media type
+public class TimestampNegotiatingJsonConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimestampNegotiatingJsonConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, MediaType contentType) {
+        var parameter = contentType != null ? contentType.getParameter(TimestampFormat.MEDIA_TYPE_PARAMETER) : null;
+        if (parameter == null) {
+            return writer;
+        }
+        return writer.withAttribute(TimestampFormat.ATTRIBUTE, TimestampFormat.fromParameter(parameter));
+    }
+}
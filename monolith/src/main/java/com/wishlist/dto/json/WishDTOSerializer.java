@@ -0,0 +1,75 @@
+package com.wishlist.dto.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.wishlist.dto.WishDTO;
+
+import java.io.IOException;
+
+// The same JSON as the bean serializer; fields added to WishDTO must be added here, WishlistJsonModuleTest checks it
+public class WishDTOSerializer extends StdSerializer<WishDTO> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString DESCRIPTION = new SerializedString("description");
+    private static final SerializedString COMPLETED = new SerializedString("completed");
+    private static final SerializedString PRIORITY = new SerializedString("priority");
+    private static final SerializedString CATEGORY = new SerializedString("category");
+    private static final SerializedString DUE_DATE = new SerializedString("dueDate");
+    private static final SerializedString COMPLETED_AT = new SerializedString("completedAt");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+    private static final SerializedString VERSION = new SerializedString("version");
+
+    public WishDTOSerializer() {
+        super(WishDTO.class);
+    }
+
+    @Override
+    public void serialize(WishDTO wish, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        write(wish, generator, TimestampFormat.of(provider));
+    }
+
+    static void write(WishDTO wish, JsonGenerator generator, TimestampFormat timestamps) throws IOException {
+        generator.writeStartObject(wish);
+
+        generator.writeFieldName(ID);
+        if (wish.getId() != null) {
+            generator.writeNumber(wish.getId());
+        } else {
+            generator.writeNull();
+        }
+        generator.writeFieldName(TITLE);
+        generator.writeString(wish.getTitle());
+        generator.writeFieldName(DESCRIPTION);
+        generator.writeString(wish.getDescription());
+        generator.writeFieldName(COMPLETED);
+        generator.writeBoolean(wish.isCompleted());
+        generator.writeFieldName(PRIORITY);
+        if (wish.getPriority() != null) {
+            generator.writeNumber(wish.getPriority());
+        } else {
+            generator.writeNull();
+        }
+        generator.writeFieldName(CATEGORY);
+        generator.writeString(wish.getCategory());
+        generator.writeFieldName(DUE_DATE);
+        timestamps.write(generator, wish.getDueDate());
+        generator.writeFieldName(COMPLETED_AT);
+        timestamps.write(generator, wish.getCompletedAt());
+        generator.writeFieldName(CREATED_AT);
+        timestamps.write(generator, wish.getCreatedAt());
+        generator.writeFieldName(UPDATED_AT);
+        timestamps.write(generator, wish.getUpdatedAt());
+        generator.writeFieldName(VERSION);
+        if (wish.getVersion() != null) {
+            generator.writeNumber(wish.getVersion());
+        } else {
+            generator.writeNull();
+        }
+
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,52 @@
+package com.wishlist.dto.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.wishlist.dto.WishlistDTO;
+
+import java.io.IOException;
+
+// Writes a page of wishes without looking up a serializer per element, see WishDTOSerializer
+public class WishlistDTOSerializer extends StdSerializer<WishlistDTO> {
+
+    private static final SerializedString WISHES = new SerializedString("wishes");
+    private static final SerializedString TOTAL_ITEMS = new SerializedString("totalItems");
+    private static final SerializedString TOTAL_PAGES = new SerializedString("totalPages");
+    private static final SerializedString CURRENT_PAGE = new SerializedString("currentPage");
+
+    public WishlistDTOSerializer() {
+        super(WishlistDTO.class);
+    }
+
+    @Override
+    public void serialize(WishlistDTO wishlist, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        var timestamps = TimestampFormat.of(provider);
+        generator.writeStartObject(wishlist);
+
+        generator.writeFieldName(WISHES);
+        var wishes = wishlist.getWishes();
+        if (wishes != null) {
+            generator.writeStartArray(wishes, wishes.size());
+            for (var wish : wishes) {
+                if (wish != null) {
+                    WishDTOSerializer.write(wish, generator, timestamps);
+                } else {
+                    generator.writeNull();
+                }
+            }
+            generator.writeEndArray();
+        } else {
+            generator.writeNull();
+        }
+        generator.writeFieldName(TOTAL_ITEMS);
+        generator.writeNumber(wishlist.getTotalItems());
+        generator.writeFieldName(TOTAL_PAGES);
+        generator.writeNumber(wishlist.getTotalPages());
+        generator.writeFieldName(CURRENT_PAGE);
+        generator.writeNumber(wishlist.getCurrentPage());
+
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,15 @@
+package com.wishlist.dto.json;
+
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.wishlist.dto.WishDTO;
+import com.wishlist.dto.WishlistDTO;
+
+// Hand-written serializers for the DTOs on the hot paths, for responses and the Redis cache
+public class WishlistJsonModule extends SimpleModule {
+
+    public WishlistJsonModule() {
+        super("WishlistJsonModule");
+        addSerializer(WishDTO.class, new WishDTOSerializer());
+        addSerializer(WishlistDTO.class, new WishlistDTOSerializer());
+    }
+}
@@ -0,0 +1,66 @@
+package com.wishlist.dto.json;
+
+import com.wishlist.dto.WishlistJsonPage;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// Copies the cached wish JSON between the fixed parts of the WishlistDTO layout
+public class WishlistJsonPageConverter extends AbstractHttpMessageConverter<WishlistJsonPage> {
+
+    private static final byte[] WISHES_START = "{\"wishes\":[".getBytes(StandardCharsets.US_ASCII);
+
+    public WishlistJsonPageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return WishlistJsonPage.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected WishlistJsonPage readInternal(Class<? extends WishlistJsonPage> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("WishlistJsonPage can only be written", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(WishlistJsonPage page, MediaType contentType) {
+        long length = WISHES_START.length + pageEnd(page).length;
+        for (var wish : page.getWishes()) {
+            length += wish.length;
+        }
+        return length + Math.max(0, page.getWishes().size() - 1);
+    }
+
+    @Override
+    protected void writeInternal(WishlistJsonPage page, HttpOutputMessage outputMessage) throws IOException {
+        var body = outputMessage.getBody();
+        body.write(WISHES_START);
+        var first = true;
+        for (var wish : page.getWishes()) {
+            if (!first) {
+                body.write(',');
+            }
+            body.write(wish);
+            first = false;
+        }
+        body.write(pageEnd(page));
+    }
+
+    private static byte[] pageEnd(WishlistJsonPage page) {
+        return ("],\"totalItems\":" + page.getTotalItems()
+                + ",\"totalPages\":" + page.getTotalPages()
+                + ",\"currentPage\":" + page.getCurrentPage() + "}").getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,4 @@
+package com.wishlist.event;
+
+public record UserLoggedInEvent(Long userId, String username) {
+}
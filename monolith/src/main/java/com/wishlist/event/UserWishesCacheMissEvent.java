@@ -0,0 +1,6 @@
+package com.wishlist.event;
+
+import com.wishlist.model.WishSortField;
+
+public record UserWishesCacheMissEvent(Long userId, String username, WishSortField sortField) {
+}
@@ -0,0 +1,9 @@
+package com.wishlist.event;
+
+import java.util.List;
+
+// The committed changes of all nodes, possibly twice, in outbox id order, which isn't the commit order
+public interface WishChangeListener {
+
+    void onWishChanges(List<WishChangedEvent> events);
+}
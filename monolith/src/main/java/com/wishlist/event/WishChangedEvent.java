@@ -0,0 +1,25 @@
+package com.wishlist.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.wishlist.model.Wish;
+
+import java.time.LocalDateTime;
+
+// before is null for a new wish, after for a deleted one; outboxId is set by the relay
+public record WishChangedEvent(Long userId, Long wishId, WishState before, WishState after, @JsonIgnore Long outboxId) {
+
+    public WishChangedEvent(Long userId, Long wishId, WishState before, WishState after) {
+        this(userId, wishId, before, after, null);
+    }
+
+    public WishChangedEvent withOutboxId(Long outboxId) {
+        return new WishChangedEvent(userId, wishId, before, after, outboxId);
+    }
+
+    public record WishState(boolean completed, String category, Integer priority, LocalDateTime dueDate) {
+
+        public static WishState of(Wish wish) {
+            return new WishState(wish.isCompleted(), wish.getCategory(), wish.getPriority(), wish.getDueDate());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.wishlist.event;
+
+import java.util.List;
+
+// At least once per wish that fell due
+public record WishesOverdueEvent(Long userId, List<Long> wishIds) {
+}
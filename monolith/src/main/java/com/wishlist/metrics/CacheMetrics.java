@@ -0,0 +1,66 @@
+package com.wishlist.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+// Metrics for the caches kept by hand, e.g. the userWishes lists
+@Component
+@RequiredArgsConstructor
+public class CacheMetrics {
+
+    public static final String CACHE_GETS_METRIC = "wishlist.cache.gets";
+    public static final String CACHE_LOAD_METRIC = "wishlist.cache.load";
+    public static final String CACHE_FIRST_PAGE_GETS_METRIC = "wishlist.cache.first-page.gets";
+
+    private final MeterRegistry meterRegistry;
+
+    public void recordHit(String cacheName) {
+        gets(cacheName, "hit").increment();
+    }
+
+    public void recordMiss(String cacheName) {
+        gets(cacheName, "miss").increment();
+    }
+
+    // Lookups the cache can't answer by design, e.g. pages beyond the windows
+    public void recordBypass(String cacheName) {
+        gets(cacheName, "bypass").increment();
+    }
+
+    public void recordFirstPage(String cacheName, boolean hit) {
+        Counter.builder(CACHE_FIRST_PAGE_GETS_METRIC)
+                .description("Number of cache lookups for the first page of a list")
+                .tag("cache", cacheName)
+                .tag("result", hit ? "hit" : "miss")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    public void recordLoad(String cacheName, Runnable loader) {
+        loadTimer(cacheName).record(loader);
+    }
+
+    public <T> T recordLoad(String cacheName, Supplier<T> loader) {
+        return loadTimer(cacheName).record(loader);
+    }
+
+    private Timer loadTimer(String cacheName) {
+        return Timer.builder(CACHE_LOAD_METRIC)
+                .description("Time spent loading entries into the cache")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+    }
+
+    private Counter gets(String cacheName, String result) {
+        return Counter.builder(CACHE_GETS_METRIC)
+                .description("Number of cache lookups")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
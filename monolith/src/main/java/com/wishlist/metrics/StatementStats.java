@@ -0,0 +1,194 @@
+package com.wishlist.metrics;
+
+import com.wishlist.datasource.StatementRecordingDataSource;
+import com.wishlist.dto.QueryShapeDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Counts and times the statements by shape since startup, and per request between {@link #startRequest()} and
+ * {@link #finishRequest(String)}. Requests are flagged for more than {@code max-statements}, one shape more than
+ * {@code max-repeats} times (N+1 queries), or the same statement with the same parameters twice.
+ */
+@Component
+@Slf4j
+public class StatementStats implements StatementRecordingDataSource.StatementListener {
+
+    public static final String REQUEST_STATEMENTS_METRIC = "wishlist.db.request.statements";
+    public static final String FLAGGED_REQUESTS_METRIC = "wishlist.db.request.flagged";
+    public static final String SLOW_STATEMENTS_METRIC = "wishlist.db.statements.slow";
+
+    public static final String TOO_MANY_STATEMENTS = "too_many_statements";
+    public static final String REPEATED_SHAPE = "repeated_shape";
+    public static final String DUPLICATE_STATEMENT = "duplicate_statement";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final ThreadLocal<RequestStatements> CURRENT_REQUEST = new ThreadLocal<>();
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final int maxStatements;
+    private final int maxRepeats;
+    private final int maxShapes;
+    private final ConcurrentMap<String, Shape> shapes = new ConcurrentHashMap<>();
+
+    public StatementStats(MeterRegistry meterRegistry,
+                          @Value("${wishlist.db.statements.slow-threshold:100ms}") Duration slowThreshold,
+                          @Value("${wishlist.db.statements.max-statements:20}") int maxStatements,
+                          @Value("${wishlist.db.statements.max-repeats:5}") int maxRepeats,
+                          @Value("${wishlist.db.statements.max-shapes:1000}") int maxShapes) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+        this.maxShapes = maxShapes;
+    }
+
+    @Override
+    public void onStatement(String sql, List<Object> parameters, long nanos) {
+        var shape = normalize(sql);
+        // Past max-shapes (e.g. SQL built with literals) new shapes are only counted per request
+        var stats = shapes.size() < maxShapes ? shapes.computeIfAbsent(shape, key -> new Shape()) : shapes.get(shape);
+        if (stats != null) {
+            stats.record(nanos);
+        }
+        if (nanos >= slowThresholdNanos) {
+            log.warn("Slow statement ({} ms): {}", TimeUnit.NANOSECONDS.toMillis(nanos), shape);
+            Counter.builder(SLOW_STATEMENTS_METRIC)
+                    .description("Statements that took longer than the slow-threshold")
+                    .register(meterRegistry)
+                    .increment();
+        }
+        var request = CURRENT_REQUEST.get();
+        if (request != null) {
+            request.record(shape, new Execution(sql, parameters), nanos);
+        }
+    }
+
+    public void startRequest() {
+        CURRENT_REQUEST.set(new RequestStatements());
+    }
+
+    public void finishRequest(String description) {
+        var request = CURRENT_REQUEST.get();
+        CURRENT_REQUEST.remove();
+        if (request == null) {
+            return;
+        }
+        DistributionSummary.builder(REQUEST_STATEMENTS_METRIC)
+                .description("Statements run per HTTP request")
+                .register(meterRegistry)
+                .record(request.statements);
+
+        var reasons = new ArrayList<String>();
+        if (request.statements > maxStatements) {
+            reasons.add(TOO_MANY_STATEMENTS);
+        }
+        var repeatedShapes = request.countsByShape.entrySet().stream()
+                .filter(entry -> entry.getValue() > maxRepeats)
+                .map(entry -> entry.getValue() + "x " + entry.getKey())
+                .toList();
+        if (!repeatedShapes.isEmpty()) {
+            reasons.add(REPEATED_SHAPE);
+        }
+        var duplicates = request.countsByExecution.entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .map(entry -> entry.getValue() + "x " + normalize(entry.getKey().sql()))
+                .toList();
+        if (!duplicates.isEmpty()) {
+            reasons.add(DUPLICATE_STATEMENT);
+        }
+        if (reasons.isEmpty()) {
+            return;
+        }
+        reasons.forEach(reason -> Counter.builder(FLAGGED_REQUESTS_METRIC)
+                .description("HTTP requests running too many, repeated or duplicate statements")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment());
+        log.warn("{} ran {} statements in {} ms {}; repeated shapes: {}; duplicate statements: {}", description,
+                request.statements, TimeUnit.NANOSECONDS.toMillis(request.nanos), reasons, repeatedShapes, duplicates);
+    }
+
+    // The most time in total first
+    public List<QueryShapeDTO> topShapes(int limit) {
+        return shapes.entrySet().stream()
+                .map(entry -> entry.getValue().toDto(entry.getKey()))
+                .sorted(Comparator.comparingDouble(QueryShapeDTO::getTotalMillis).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    // Lists of literals (IN, multi-row VALUES) become a single ?
+    static String normalize(String sql) {
+        var shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("?");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private record Execution(String sql, List<Object> parameters) {
+    }
+
+    // Only ever used by the request's own thread
+    private static class RequestStatements {
+
+        private final Map<String, Integer> countsByShape = new HashMap<>();
+        private final Map<Execution, Integer> countsByExecution = new HashMap<>();
+        private int statements;
+        private long nanos;
+
+        void record(String shape, Execution execution, long nanos) {
+            statements++;
+            this.nanos += nanos;
+            countsByShape.merge(shape, 1, Integer::sum);
+            countsByExecution.merge(execution, 1, Integer::sum);
+        }
+    }
+
+    private static class Shape {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+
+        QueryShapeDTO toDto(String sql) {
+            long count = this.count.sum();
+            double totalMillis = totalNanos.sum() / 1e6;
+            return QueryShapeDTO.builder()
+                    .sql(sql)
+                    .count(count)
+                    .totalMillis(totalMillis)
+                    .meanMillis(count > 0 ? totalMillis / count : 0)
+                    .maxMillis(maxNanos.get() / 1e6)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.wishlist.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Ahead of the security filters, so that the user lookups of JwtAuthenticationFilter count towards the request
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class StatementStatsFilter extends OncePerRequestFilter {
+
+    private final StatementStats statementStats;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        statementStats.startRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statementStats.finishRequest(request.getMethod() + " " + request.getRequestURI());
+        }
+    }
+}
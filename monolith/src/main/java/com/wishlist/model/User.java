@@ -13,7 +13,11 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        // Named as in docker/init.sql, see SignupConflicts
+        @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"),
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
+})
 @Getter
 @Setter
 @ToString
@@ -25,14 +29,17 @@ import java.util.Set;
 @JsonIgnoreProperties({"wishes"})
 public class User implements Serializable {
 
+    public static final String USERNAME_CONSTRAINT = "uc_users_username";
+    public static final String EMAIL_CONSTRAINT = "uc_users_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String username;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String email;
 
     @Column(nullable = false)
@@ -11,7 +11,12 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "wishes")
+@Table(name = "wishes", indexes = {
+        @Index(name = "idx_wishes_user_created_at", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_wishes_user_due_date", columnList = "user_id, due_date, id"),
+        @Index(name = "idx_wishes_user_priority", columnList = "user_id, priority, id"),
+        @Index(name = "idx_wishes_user_title", columnList = "user_id, title, id")
+})
 @Getter
 @Setter
 @ToString
@@ -63,6 +68,11 @@ public class Wish implements Serializable {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    // Incremented by every change, including the bulk statements of WishWriteRepository
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // Convenience method to mark a wish as completed
     public void markAsCompleted() {
         this.completed = true;
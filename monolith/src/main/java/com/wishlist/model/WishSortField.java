@@ -0,0 +1,45 @@
+package com.wishlist.model;
+
+import com.wishlist.exception.BadRequestException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+// Each field has an index on (user_id, field, id); ties are broken by id, so descending is ascending read backwards
+@Getter
+@RequiredArgsConstructor
+public enum WishSortField {
+
+    CREATED_AT("createdAt"),
+    DUE_DATE("dueDate"),
+    PRIORITY("priority"),
+    TITLE("title");
+
+    private final String property;
+
+    public static WishSortField fromProperty(String property) {
+        return Arrays.stream(values())
+                .filter(field -> field.property.equals(property))
+                .findFirst()
+                .orElseThrow(() -> new BadRequestException("Wishes can't be sorted by " + property + ", only by "
+                        + Arrays.stream(values()).map(WishSortField::getProperty).collect(Collectors.joining(", "))));
+    }
+
+    // By creation date by default
+    public static WishSortField of(Sort sort) {
+        return sort.stream().findFirst()
+                .map(order -> fromProperty(order.getProperty()))
+                .orElse(CREATED_AT);
+    }
+
+    public Sort ascending() {
+        return sorted(Sort.Direction.ASC);
+    }
+
+    public Sort sorted(Sort.Direction direction) {
+        return Sort.by(new Sort.Order(direction, property), new Sort.Order(direction, "id"));
+    }
+}
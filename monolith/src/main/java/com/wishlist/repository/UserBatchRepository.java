@@ -0,0 +1,11 @@
+package com.wishlist.repository;
+
+import com.wishlist.model.User;
+
+import java.util.List;
+
+public interface UserBatchRepository {
+
+    // Batched JDBC inserts, bypassing the persistence context
+    void insertAll(List<User> users);
+}
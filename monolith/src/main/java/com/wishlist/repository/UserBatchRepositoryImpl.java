@@ -0,0 +1,33 @@
+package com.wishlist.repository;
+
+import com.wishlist.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class UserBatchRepositoryImpl implements UserBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO users (username, email, password, created_at, updated_at) VALUES (?, ?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void insertAll(List<User> users) {
+        // No JPA auditing here
+        var now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, users, BATCH_SIZE, (statement, user) -> {
+            statement.setString(1, user.getUsername());
+            statement.setString(2, user.getEmail());
+            statement.setString(3, user.getPassword());
+            statement.setTimestamp(4, now);
+            statement.setTimestamp(5, now);
+        });
+    }
+}
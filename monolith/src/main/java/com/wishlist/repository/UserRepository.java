@@ -3,12 +3,17 @@ package com.wishlist.repository;
 import com.wishlist.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserBatchRepository {
 
+    // For the replica; the lookups guarding signups stay on the primary
+    @Transactional(readOnly = true)
     Optional<User> findByUsername(String username);
 
     @SuppressWarnings("unused")
@@ -17,4 +22,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    List<User> findByUsernameInOrEmailIn(Collection<String> usernames, Collection<String> emails);
 }
\ No newline at end of file
@@ -0,0 +1,4 @@
+package com.wishlist.repository;
+
+public record WishCount(boolean completed, String category, Integer priority, Long count) {
+}
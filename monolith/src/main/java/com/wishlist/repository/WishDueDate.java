@@ -0,0 +1,6 @@
+package com.wishlist.repository;
+
+import java.time.LocalDateTime;
+
+public record WishDueDate(Long id, Long userId, LocalDateTime dueDate) {
+}
@@ -0,0 +1,11 @@
+package com.wishlist.repository;
+
+import com.wishlist.model.WishOutboxEntry;
+
+import java.util.List;
+
+public interface WishOutboxBatchRepository {
+
+    // In the current transaction
+    void insertAll(List<WishOutboxEntry> entries);
+}
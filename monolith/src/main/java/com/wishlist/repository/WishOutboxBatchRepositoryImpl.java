@@ -0,0 +1,29 @@
+package com.wishlist.repository;
+
+import com.wishlist.model.WishOutboxEntry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class WishOutboxBatchRepositoryImpl implements WishOutboxBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO wish_outbox (user_id, wish_id, payload, created_at) VALUES (?, ?, ?, ?)";
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void insertAll(List<WishOutboxEntry> entries) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, BATCH_SIZE, (statement, entry) -> {
+            statement.setLong(1, entry.getUserId());
+            statement.setLong(2, entry.getWishId());
+            statement.setString(3, entry.getPayload());
+            statement.setTimestamp(4, Timestamp.valueOf(entry.getCreatedAt()));
+        });
+    }
+}
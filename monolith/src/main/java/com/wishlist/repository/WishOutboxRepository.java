@@ -0,0 +1,22 @@
+package com.wishlist.repository;
+
+import com.wishlist.model.WishOutboxEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Repository
+public interface WishOutboxRepository extends JpaRepository<WishOutboxEntry, Long>, WishOutboxBatchRepository {
+
+    // Not read-only: a replica may still have entries relayed and deleted
+    @Transactional
+    List<WishOutboxEntry> findAllByOrderByIdAsc(Limit limit);
+
+    @Query("SELECT e.id FROM WishOutboxEntry e WHERE e.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+}
@@ -1,36 +1,84 @@
 package com.wishlist.repository;
 
 import com.wishlist.model.Wish;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface WishRepository extends JpaRepository<Wish, Long> {
+public interface WishRepository extends JpaRepository<Wish, Long>, WishWriteRepository {
 
+    // Query methods are read-only, for the replica
+    @Transactional(readOnly = true)
     Page<Wish> findByUserId(Long userId, Pageable pageable);
 
+    // A page without the count query, for lists whose total is cached
+    @Transactional(readOnly = true)
+    List<Wish> findAllByUserId(Long userId, Pageable pageable);
+
+    // Served by the index of the sort field
+    @Transactional(readOnly = true)
+    List<Wish> findByUserId(Long userId, Sort sort, Limit limit);
+
+    @Transactional(readOnly = true)
+    long countByUserId(Long userId);
+
+    @Transactional(readOnly = true)
     List<Wish> findByUserIdAndCompletedFalse(Long userId);
 
+    @Transactional(readOnly = true)
     List<Wish> findByUserIdAndCompletedTrue(Long userId);
 
+    @Transactional(readOnly = true)
     @Query("SELECT w FROM Wish w WHERE w.user.id = :userId AND w.id = :wishId")
     Optional<Wish> findByIdAndUserId(@Param("wishId") Long wishId, @Param("userId") Long userId);
 
+    @Transactional(readOnly = true)
     @Query("SELECT w FROM Wish w WHERE w.user.id = :userId AND w.category = :category")
     List<Wish> findByUserIdAndCategory(@Param("userId") Long userId, @Param("category") String category);
 
-    @SuppressWarnings("unused")
-    @Query("SELECT w FROM Wish w WHERE w.user.id = :userId AND w.dueDate < :date AND w.completed = false")
+    // Served by partial indexes on the pending wishes with a due date, see docker/init.sql
+    @Transactional(readOnly = true)
+    @Query("SELECT w FROM Wish w WHERE w.user.id = :userId AND w.dueDate < :date AND w.completed = false ORDER BY w.dueDate, w.id")
     List<Wish> findOverdueWishes(@Param("userId") Long userId, @Param("date") LocalDateTime date);
 
+    @Transactional(readOnly = true)
+    @Query("SELECT MIN(w.dueDate) FROM Wish w WHERE w.user.id = :userId AND w.dueDate >= :date AND w.completed = false")
+    Optional<LocalDateTime> findNextDueDate(@Param("userId") Long userId, @Param("date") LocalDateTime date);
+
+    // Due in (after, until], after the (dueDate, id) key, of the users in the partition
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.wishlist.repository.WishDueDate(w.id, w.user.id, w.dueDate) FROM Wish w " +
+            "WHERE w.completed = false AND w.dueDate <= :until " +
+            "AND (w.dueDate > :afterDueDate OR (w.dueDate = :afterDueDate AND w.id > :afterId)) " +
+            "AND MOD(w.user.id, :partitions) = :partition " +
+            "ORDER BY w.dueDate, w.id")
+    List<WishDueDate> findOverdueWishesChunk(@Param("partitions") int partitions, @Param("partition") int partition,
+                                             @Param("afterDueDate") LocalDateTime afterDueDate, @Param("afterId") long afterId,
+                                             @Param("until") LocalDateTime until, Limit limit);
+
+    // For WishStatsService
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.wishlist.repository.WishCount(w.completed, w.category, w.priority, COUNT(w)) FROM Wish w " +
+            "WHERE w.user.id = :userId GROUP BY w.completed, w.category, w.priority")
+    List<WishCount> countByUserIdGrouped(@Param("userId") Long userId);
+
+    @Transactional(readOnly = true)
+    @Query("SELECT new com.wishlist.repository.WishDueDate(w.id, w.user.id, w.dueDate) FROM Wish w " +
+            "WHERE w.user.id = :userId AND w.dueDate IS NOT NULL AND w.completed = false")
+    List<WishDueDate> findPendingDueDates(@Param("userId") Long userId);
+
+    @Transactional(readOnly = true)
     @Query("SELECT w FROM Wish w WHERE w.user.id = :userId AND " +
             "(LOWER(w.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
             "LOWER(w.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')))")
@@ -0,0 +1,6 @@
+package com.wishlist.repository;
+
+import com.wishlist.model.Wish;
+
+public record WishUpdate(Wish before, Wish after) {
+}
@@ -0,0 +1,20 @@
+package com.wishlist.repository;
+
+import com.wishlist.model.Wish;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface WishWriteRepository {
+
+    // Only the user's pending wishes, returned as they are now
+    List<Wish> completeAll(Long userId, Collection<Long> wishIds, LocalDateTime completedAt);
+
+    // Empty if the wish isn't the user's or, with an expected version, isn't at that version anymore
+    Optional<WishUpdate> update(Long userId, Long wishId, Long expectedVersion, Wish changes, LocalDateTime updatedAt);
+
+    // Returned as they were
+    List<Wish> deleteAll(Long userId, Collection<Long> wishIds);
+}
@@ -0,0 +1,134 @@
+package com.wishlist.repository;
+
+import com.wishlist.model.Wish;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class WishWriteRepositoryImpl implements WishWriteRepository {
+
+    // One array parameter, so that any number of ids is the same statement
+    private static final String COMPLETE = "UPDATE wishes SET completed = true, completed_at = ?, updated_at = ?, version = version + 1 " +
+            "WHERE user_id = ? AND id = ANY(?) AND completed = false";
+    private static final String UPDATE = "UPDATE wishes w SET title = ?, description = ?, priority = ?, category = ?, due_date = ?, " +
+            "updated_at = ?, version = w.version + 1 ";
+    private static final String UPDATE_CONDITION = "w.id = ? AND w.user_id = ?";
+    private static final String VERSION_CONDITION = " AND w.version = ?";
+    private static final String DELETE = "DELETE FROM wishes WHERE user_id = ? AND id = ANY(?)";
+
+    private static final RowMapper<Wish> WISH_ROW_MAPPER = (resultSet, rowNum) -> Wish.builder()
+            .id(resultSet.getLong("id"))
+            .title(resultSet.getString("title"))
+            .description(resultSet.getString("description"))
+            .completed(resultSet.getBoolean("completed"))
+            .priority(resultSet.getObject("priority", Integer.class))
+            .category(resultSet.getString("category"))
+            .dueDate(resultSet.getObject("due_date", LocalDateTime.class))
+            .completedAt(resultSet.getObject("completed_at", LocalDateTime.class))
+            .createdAt(resultSet.getObject("created_at", LocalDateTime.class))
+            .updatedAt(resultSet.getObject("updated_at", LocalDateTime.class))
+            .version(resultSet.getLong("version"))
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<Wish> completeAll(Long userId, Collection<Long> wishIds, LocalDateTime completedAt) {
+        if (wishIds.isEmpty()) {
+            return List.of();
+        }
+        var now = Timestamp.valueOf(completedAt);
+        return jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(returning(connection, COMPLETE, "FINAL"));
+            statement.setTimestamp(1, now);
+            statement.setTimestamp(2, now);
+            statement.setLong(3, userId);
+            statement.setArray(4, ids(connection, wishIds));
+            return statement;
+        }, WISH_ROW_MAPPER);
+    }
+
+    @Override
+    @Transactional
+    public Optional<WishUpdate> update(Long userId, Long wishId, Long expectedVersion, Wish changes, LocalDateTime updatedAt) {
+        var condition = expectedVersion != null ? UPDATE_CONDITION + VERSION_CONDITION : UPDATE_CONDITION;
+        // As stored, the wish returned isn't read back
+        var now = updatedAt.truncatedTo(ChronoUnit.MICROS);
+        var before = jdbcTemplate.query(connection -> {
+            // RETURNING has only the new values, the old ones come from joining the row at its version
+            var sql = isPostgreSQL(connection)
+                    ? UPDATE + "FROM wishes prev WHERE prev.id = w.id AND prev.version = w.version AND " + condition + " RETURNING prev.*"
+                    : "SELECT * FROM OLD TABLE (" + UPDATE + "WHERE " + condition + ")";
+            var statement = connection.prepareStatement(sql);
+            statement.setString(1, changes.getTitle());
+            statement.setString(2, changes.getDescription());
+            statement.setObject(3, changes.getPriority(), Types.INTEGER);
+            statement.setString(4, changes.getCategory());
+            statement.setObject(5, changes.getDueDate(), Types.TIMESTAMP);
+            statement.setTimestamp(6, Timestamp.valueOf(now));
+            statement.setLong(7, wishId);
+            statement.setLong(8, userId);
+            if (expectedVersion != null) {
+                statement.setLong(9, expectedVersion);
+            }
+            return statement;
+        }, WISH_ROW_MAPPER);
+        return before.stream().findFirst().map(wish -> new WishUpdate(wish, Wish.builder()
+                .id(wish.getId())
+                .title(changes.getTitle())
+                .description(changes.getDescription())
+                .completed(wish.isCompleted())
+                .priority(changes.getPriority())
+                .category(changes.getCategory())
+                .dueDate(changes.getDueDate())
+                .completedAt(wish.getCompletedAt())
+                .createdAt(wish.getCreatedAt())
+                .updatedAt(now)
+                .version(wish.getVersion() + 1)
+                .build()));
+    }
+
+    @Override
+    @Transactional
+    public List<Wish> deleteAll(Long userId, Collection<Long> wishIds) {
+        if (wishIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(returning(connection, DELETE, "OLD"));
+            statement.setLong(1, userId);
+            statement.setArray(2, ids(connection, wishIds));
+            return statement;
+        }, WISH_ROW_MAPPER);
+    }
+
+    // RETURNING on PostgreSQL, a data change delta table on H2 (OLD or FINAL)
+    private static String returning(Connection connection, String sql, String deltaTable) throws SQLException {
+        if (isPostgreSQL(connection)) {
+            return sql + " RETURNING *";
+        }
+        return "SELECT * FROM " + deltaTable + " TABLE (" + sql + ")";
+    }
+
+    private static boolean isPostgreSQL(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().equals("PostgreSQL");
+    }
+
+    private static Array ids(Connection connection, Collection<Long> wishIds) throws SQLException {
+        return connection.createArrayOf("BIGINT", wishIds.toArray());
+    }
+}
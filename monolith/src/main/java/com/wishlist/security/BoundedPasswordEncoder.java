@@ -0,0 +1,129 @@
+package com.wishlist.security;
+
+import com.wishlist.exception.ServiceUnavailableException;
+import com.wishlist.tracing.ObservationPropagation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs BCrypt on a small pool of its own, so a burst of logins can't take the request threads. Hashes that can't be
+ * queued, or don't complete within {@code maxWait}, fail with a {@link ServiceUnavailableException} (503).
+ */
+@Slf4j
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    public static final String HASH_METRIC = "wishlist.password.hash";
+    public static final String REJECTIONS_METRIC = "wishlist.password.rejections";
+    public static final String OBSERVATION = "wishlist.password";
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, Duration maxWait,
+                                  MeterRegistry meterRegistry, ObservationRegistry observationRegistry) {
+        this.delegate = delegate;
+        this.maxWait = maxWait;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "passwordHash", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute("encode", () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute("matches", () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    // On the calling thread, for callers with bounded threads of their own, so they don't queue behind logins
+    public String encodeOnCurrentThread(CharSequence rawPassword) {
+        return Timer.builder(HASH_METRIC)
+                .description("Time spent hashing passwords, excluding the wait for a free hashing thread")
+                .tag("operation", "bulk_encode")
+                .register(meterRegistry)
+                .record(() -> delegate.encode(rawPassword));
+    }
+
+    // Only parses the stored hash, cheap enough for the calling thread
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T execute(String operation, Callable<T> hashing) {
+        return Observation.createNotStarted(OBSERVATION, observationRegistry)
+                .contextualName("password " + operation)
+                .lowCardinalityKeyValue("operation", operation)
+                .observe(() -> submit(operation, hashing));
+    }
+
+    private <T> T submit(String operation, Callable<T> hashing) {
+        var timer = Timer.builder(HASH_METRIC)
+                .description("Time spent hashing passwords, excluding the wait for a free hashing thread")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Future<T> future;
+        try {
+            future = executor.submit(ObservationPropagation.wrap(observationRegistry, () -> timer.recordCallable(hashing)));
+        } catch (RejectedExecutionException e) {
+            throw reject("queue_full", "Too many concurrent password checks, please retry shortly");
+        }
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw reject("timeout", "Password check timed out, please retry shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw reject("interrupted", "Password check was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private ServiceUnavailableException reject(String reason, String message) {
+        log.warn("Password hashing rejected ({}): {} active, {} queued", reason, executor.getActiveCount(), executor.getQueue().size());
+        Counter.builder(REJECTIONS_METRIC)
+                .description("Password hashing requests rejected because the hashing pool was saturated")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return new ServiceUnavailableException(message);
+    }
+}
@@ -1,5 +1,6 @@
 package com.wishlist.security;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
@@ -14,6 +15,8 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
 
 @Component
 @Slf4j
@@ -30,6 +33,7 @@ public class JwtTokenProvider {
         Date issuedAtDate = new Date();
         Date expirationDate = new Date(issuedAtDate.getTime() + jwtExpirationMs);
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(userPrincipal.getUsername())
                 .issuedAt(issuedAtDate)
                 .expiration(expirationDate)
@@ -51,9 +55,13 @@ public class JwtTokenProvider {
     }
 
     public boolean validateToken(String token) {
+        return parseToken(token).isPresent();
+    }
+
+    // Empty if the token is invalid or expired
+    public Optional<Claims> parseToken(String token) {
         try {
-            Jwts.parser().verifyWith(key()).build().parseSignedClaims(token);
-            return true;
+            return Optional.of(Jwts.parser().verifyWith(key()).build().parseSignedClaims(token).getPayload());
         } catch (MalformedJwtException e) {
             log.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -63,6 +71,6 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException e) {
             log.error("JWT claims string is empty: {}", e.getMessage());
         }
-        return false;
+        return Optional.empty();
     }
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.wishlist.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.time.Duration;
+
+// After JwtAuthenticationFilter, to limit authenticated requests per user and the others per client address
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    private final RateLimiter rateLimiter;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+        var decision = rateLimiter.tryAcquire(request.getMethod(), UrlPathHelper.defaultInstance.getPathWithinApplication(request), subject(request));
+        if (decision.isPresent()) {
+            var limit = decision.get();
+            response.setHeader(LIMIT_HEADER, String.valueOf(limit.limit()));
+            response.setHeader(REMAINING_HEADER, String.valueOf(limit.remaining()));
+            response.setHeader(RESET_HEADER, String.valueOf(seconds(limit.reset())));
+            if (!limit.allowed()) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds(limit.retryAfter())));
+                response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String subject(HttpServletRequest request) {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    // Rounded up, so that clients retrying on time aren't limited again
+    private static long seconds(Duration duration) {
+        return (duration.toMillis() + 999) / 1000;
+    }
+}
@@ -0,0 +1,131 @@
+package com.wishlist.security;
+
+import com.wishlist.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Admits requests from in-memory {@link TokenBucket}s, one per rule and user. Every {@code sync-interval} each node
+ * adds the tokens it handed out to a counter per bucket in Redis and debits those other nodes handed out, so a user
+ * spreading requests over nodes exceeds a limit for at most one interval. Without Redis each node limits on its own.
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    public static final String KEY_PREFIX = "rateLimit::";
+    public static final String REQUESTS_METRIC = "wishlist.rate-limit.requests";
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final List<MatchingRule> rules;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry, RateLimitProperties properties) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = properties.enabled();
+        this.rules = properties.rules().stream()
+                .map(rule -> new MatchingRule(rule, PathPatternParser.defaultInstance.parse(rule.path())))
+                .toList();
+        Gauge.builder("wishlist.rate-limit.buckets", buckets, Map::size)
+                .description("Users currently tracked by the rate limiter, per node")
+                .register(meterRegistry);
+    }
+
+    // Empty if no rule applies
+    public Optional<Decision> tryAcquire(String method, String path, String subject) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        var pathContainer = PathContainer.parsePath(path);
+        return rules.stream()
+                .filter(rule -> rule.matches(method, pathContainer))
+                .findFirst()
+                .map(rule -> tryAcquire(rule.rule(), subject));
+    }
+
+    private Decision tryAcquire(RateLimitProperties.Rule rule, String subject) {
+        long now = System.nanoTime();
+        var bucket = buckets.computeIfAbsent(KEY_PREFIX + rule.name() + "::" + subject,
+                key -> new Bucket(rule, new TokenBucket(rule.capacity(), rule.period().toNanos(), now))).tokens();
+        boolean allowed = bucket.tryConsume(now);
+        Counter.builder(REQUESTS_METRIC)
+                .description("Requests checked by the rate limiter")
+                .tag("rule", rule.name())
+                .tag("result", allowed ? "allowed" : "limited")
+                .register(meterRegistry)
+                .increment();
+        return new Decision(allowed, rule.capacity(), bucket.remaining(now),
+                Duration.ofNanos(bucket.nanosUntil(rule.capacity(), now)),
+                Duration.ofNanos(allowed ? 0 : bucket.nanosUntil(1, now)));
+    }
+
+    @Scheduled(fixedDelayString = "${wishlist.rate-limit.sync-interval:1s}")
+    public void synchronize() {
+        long now = System.nanoTime();
+        var reports = new ArrayList<Report>();
+        buckets.forEach((key, bucket) -> {
+            // Drops buckets that refilled completely, they'd start over as new ones anyway
+            if (buckets.computeIfPresent(key, (k, b) -> b.tokens().isIdle(now) ? null : b) != null) {
+                reports.add(new Report(key, bucket, bucket.tokens().takeUnsynced()));
+            }
+        });
+        if (reports.isEmpty()) {
+            return;
+        }
+        try {
+            var results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (var report : reports) {
+                    byte[] key = report.key().getBytes(StandardCharsets.UTF_8);
+                    connection.stringCommands().incrBy(key, report.count());
+                    connection.keyCommands().pExpire(key, report.bucket().rule().period().multipliedBy(2).toMillis());
+                }
+                return null;
+            });
+            for (int i = 0; i < reports.size(); i++) {
+                var report = reports.get(i);
+                report.bucket().tokens().reconcile(report.count(), (Long) results.get(2 * i));
+            }
+        } catch (DataAccessException e) {
+            reports.forEach(report -> report.bucket().tokens().restoreUnsynced(report.count()));
+            log.warn("Could not synchronize rate limits: {}", e.getMessage());
+        }
+    }
+
+    // reset is the time until the bucket is full again, retryAfter zero if the request was allowed
+    public record Decision(boolean allowed, long limit, long remaining, Duration reset, Duration retryAfter) {
+    }
+
+    private record MatchingRule(RateLimitProperties.Rule rule, PathPattern pattern) {
+
+        boolean matches(String method, PathContainer path) {
+            return (rule.method() == null || rule.method().equalsIgnoreCase(method)) && pattern.matches(path);
+        }
+    }
+
+    private record Bucket(RateLimitProperties.Rule rule, TokenBucket tokens) {
+    }
+
+    private record Report(String key, Bucket bucket, long count) {
+    }
+}
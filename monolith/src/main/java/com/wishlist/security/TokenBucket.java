@@ -0,0 +1,78 @@
+package com.wishlist.security;
+
+// Refilled continuously over period; times are System.nanoTime() values
+class TokenBucket {
+
+    private final long capacity;
+    private final double tokensPerNano;
+
+    private double tokens;
+    private long refilledAt;
+    private long unsynced;
+    // Shared counter value seen at the last reconciliation, -1 before the first one
+    private long lastSeenTotal = -1;
+
+    TokenBucket(long capacity, long periodNanos, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = (double) capacity / periodNanos;
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    synchronized boolean tryConsume(long now) {
+        refill(now);
+        if (tokens < 1) {
+            return false;
+        }
+        tokens--;
+        unsynced++;
+        return true;
+    }
+
+    synchronized long remaining(long now) {
+        refill(now);
+        return (long) tokens;
+    }
+
+    // Time until the bucket holds at least the given number of tokens
+    synchronized long nanosUntil(double wanted, long now) {
+        refill(now);
+        return tokens >= wanted ? 0 : (long) Math.ceil((wanted - tokens) / tokensPerNano);
+    }
+
+    synchronized long takeUnsynced() {
+        long taken = unsynced;
+        unsynced = 0;
+        return taken;
+    }
+
+    // Gives back tokens that couldn't be reported, so they are included in the next reconciliation
+    synchronized void restoreUnsynced(long count) {
+        unsynced += count;
+    }
+
+    // total is the shared counter right after adding the reported tokens taken on this node
+    synchronized void reconcile(long reported, long total) {
+        // The first reconciliation only establishes the baseline; a counter that went backwards has expired
+        if (lastSeenTotal >= 0) {
+            long takenElsewhere = total - lastSeenTotal - reported;
+            if (takenElsewhere > 0) {
+                tokens = Math.max(0, tokens - takenElsewhere);
+            }
+        }
+        lastSeenTotal = total;
+    }
+
+    // A full bucket with nothing left to report behaves exactly like a new one
+    synchronized boolean isIdle(long now) {
+        refill(now);
+        return tokens >= capacity && unsynced == 0;
+    }
+
+    private void refill(long now) {
+        if (now > refilledAt) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.wishlist.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Revoked token ids, kept in Redis as keys expiring with the tokens and logged in a sorted set by revocation time.
+ * Each node mirrors the log into a {@link BloomFilter} and only asks Redis about the ids the filter contains, so
+ * revocations made on other nodes take effect after at most one {@code sync-interval}.
+ */
+@Component
+@Slf4j
+public class TokenDenyList {
+
+    public static final String REVOKED_TOKEN_KEY_PREFIX = "revokedToken::";
+    public static final String REVOCATION_LOG_KEY = "revokedTokens";
+    public static final String CHECKS_METRIC = "wishlist.token.revocation.checks";
+
+    // Revocations logged by other nodes may be timestamped slightly behind this node's clock
+    private static final long CLOCK_SKEW_MILLIS = 5_000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long tokenLifetimeMillis;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+    private final long rebuildIntervalMillis;
+
+    private volatile BloomFilter filter;
+    private volatile long lastRebuild;
+    private volatile long lastSync;
+
+    public TokenDenyList(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry,
+                         @Value("${jwt.expiration}") long tokenLifetimeMillis,
+                         @Value("${wishlist.security.revocation.expected-revocations:100000}") long expectedRevocations,
+                         @Value("${wishlist.security.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                         @Value("${wishlist.security.revocation.rebuild-interval:1h}") Duration rebuildInterval) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.tokenLifetimeMillis = tokenLifetimeMillis;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildIntervalMillis = rebuildInterval.toMillis();
+        Gauge.builder("wishlist.token.revocation.sync.age", this, denyList -> denyList.lastSync == 0 ? Double.NaN : (System.currentTimeMillis() - denyList.lastSync) / 1000.0)
+                .description("Seconds since the local deny list was last synchronized with Redis")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public void revoke(String tokenId, Instant expiresAt) {
+        long now = System.currentTimeMillis();
+        var timeToLive = Duration.ofMillis(expiresAt.toEpochMilli() - now);
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            return;
+        }
+        redisTemplate.opsForValue().set(REVOKED_TOKEN_KEY_PREFIX + tokenId, "", timeToLive);
+        redisTemplate.opsForZSet().add(REVOCATION_LOG_KEY, tokenId, now);
+        var current = filter;
+        if (current != null) {
+            current.put(tokenId);
+        }
+        log.info("Revoked token {} until {}", tokenId, expiresAt);
+    }
+
+    // Tokens without an id were issued before revocation existed and can't be revoked
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        var current = filter;
+        if (current == null) {
+            // Not synchronized yet (startup, or Redis unavailable since)
+            return confirm(tokenId, "unsynchronized");
+        }
+        if (!current.mightContain(tokenId)) {
+            count("filter_miss");
+            return false;
+        }
+        return confirm(tokenId, null);
+    }
+
+    @Scheduled(fixedDelayString = "${wishlist.security.revocation.sync-interval:1s}")
+    public void synchronize() {
+        long now = System.currentTimeMillis();
+        try {
+            var current = filter;
+            if (current == null || now - lastRebuild >= rebuildIntervalMillis) {
+                rebuild(now);
+            } else {
+                var revoked = redisTemplate.opsForZSet().rangeByScore(REVOCATION_LOG_KEY, lastSync - CLOCK_SKEW_MILLIS, Double.POSITIVE_INFINITY);
+                if (revoked != null) {
+                    revoked.forEach(current::put);
+                }
+            }
+            lastSync = now;
+        } catch (DataAccessException e) {
+            log.warn("Could not synchronize the token deny list: {}", e.getMessage());
+        }
+    }
+
+    private void rebuild(long now) {
+        // Older entries belong to tokens that have expired anyway
+        redisTemplate.opsForZSet().removeRangeByScore(REVOCATION_LOG_KEY, Double.NEGATIVE_INFINITY, now - tokenLifetimeMillis);
+        var revoked = redisTemplate.opsForZSet().range(REVOCATION_LOG_KEY, 0, -1);
+        int size = revoked != null ? revoked.size() : 0;
+        var rebuilt = new BloomFilter(Math.max(expectedRevocations, 2L * size), falsePositiveRate);
+        if (revoked != null) {
+            revoked.forEach(rebuilt::put);
+        }
+        filter = rebuilt;
+        lastRebuild = now;
+        log.debug("Rebuilt the token deny list with {} revoked tokens", size);
+    }
+
+    private boolean confirm(String tokenId, String result) {
+        try {
+            boolean revoked = Boolean.TRUE.equals(redisTemplate.hasKey(REVOKED_TOKEN_KEY_PREFIX + tokenId));
+            count(result != null ? result : revoked ? "revoked" : "false_positive");
+            return revoked;
+        } catch (DataAccessException e) {
+            // Fails closed, this only affects tokens the filter can't rule out
+            log.warn("Could not check whether token {} is revoked: {}", tokenId, e.getMessage());
+            count("error");
+            return true;
+        }
+    }
+
+    private void count(String result) {
+        Counter.builder(CHECKS_METRIC)
+                .description("Token revocation checks, by how they were decided")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -13,4 +13,6 @@ public interface AuthService {
     User registerUser(SignupRequest signupRequest);
 
     User getCurrentUser();
+
+    void logout(String token);
 }
\ No newline at end of file
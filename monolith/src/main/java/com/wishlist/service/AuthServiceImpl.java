@@ -1,14 +1,19 @@
 package com.wishlist.service;
 
+import com.wishlist.datasource.RoutingSubject;
 import com.wishlist.dto.AuthRequest;
 import com.wishlist.dto.AuthResponse;
 import com.wishlist.dto.SignupRequest;
+import com.wishlist.event.UserLoggedInEvent;
 import com.wishlist.exception.ResourceNotFoundException;
 import com.wishlist.exception.UnauthorizedException;
 import com.wishlist.model.User;
 import com.wishlist.repository.UserRepository;
 import com.wishlist.security.JwtTokenProvider;
+import com.wishlist.security.TokenDenyList;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -26,6 +31,8 @@ public class AuthServiceImpl implements AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
+    private final TokenDenyList tokenDenyList;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public AuthResponse authenticateUser(AuthRequest authRequest) {
@@ -41,6 +48,7 @@ public class AuthServiceImpl implements AuthService {
 
         User user = userRepository.findByUsername(authRequest.getUsername())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + authRequest.getUsername()));
+        eventPublisher.publishEvent(new UserLoggedInEvent(user.getId(), user.getUsername()));
 
         return AuthResponse.builder()
                 .accessToken(jwt)
@@ -52,21 +60,19 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public User registerUser(SignupRequest signupRequest) {
-        if (userRepository.existsByUsername(signupRequest.getUsername())) {
-            throw new IllegalArgumentException("Username is already taken!");
-        }
-
-        if (userRepository.existsByEmail(signupRequest.getEmail())) {
-            throw new IllegalArgumentException("Email is already in use!");
-        }
-
         User user = User.builder()
                 .username(signupRequest.getUsername())
                 .email(signupRequest.getEmail())
                 .password(passwordEncoder.encode(signupRequest.getPassword()))
                 .build();
 
-        return userRepository.save(user);
+        // The unique constraints tell whether the username or email is taken, also under concurrent signups
+        try {
+            // Attributed to the new user, whose first login then reads from the primary if the replica lags
+            return RoutingSubject.runAs(user.getUsername(), () -> userRepository.save(user));
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException(SignupConflicts.messageFor(e).orElseThrow(() -> e), e);
+        }
     }
 
     @Override
@@ -76,4 +82,15 @@ public class AuthServiceImpl implements AuthService {
         return userRepository.findByUsername(authentication.getName())
                 .orElseThrow(() -> new ResourceNotFoundException("Current user not found"));
     }
-}
\ No newline at end of file
+
+    @Override
+    public void logout(String token) {
+        var claims = jwtTokenProvider.parseToken(token)
+                .orElseThrow(() -> new UnauthorizedException("Invalid token"));
+        if (claims.getId() == null) {
+            throw new UnauthorizedException("Token can't be revoked, it was issued without an id");
+        }
+        tokenDenyList.revoke(claims.getId(), claims.getExpiration().toInstant());
+        SecurityContextHolder.clearContext();
+    }
+}
@@ -1,18 +1,25 @@
 package com.wishlist.service;
 
+import com.wishlist.dto.OverdueWishes;
 import com.wishlist.dto.WishDTO;
+import com.wishlist.model.WishSortField;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 
 import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
 
 public interface CacheService {
 
-    void cacheUserWishes(Long userId, List<WishDTO> wishes, Sort sort);
+    // The windows of the user's wishes, with their total
+    void cacheUserWishes(Long userId, List<WishDTO> wishes, long totalCount, WishSortField sortField);
 
     List<WishDTO> getUserWishesPage(Long userId, Pageable pageable);
 
-    long getUserWishesTotalCount(Long userId, Sort sort);
+    List<byte[]> getUserWishesPageJson(Long userId, Pageable pageable);
+
+    // Empty when not cached
+    OptionalLong getUserWishesTotalCount(Long userId, WishSortField sortField);
 
     void evictUserWishesCache(Long userId);
 
@@ -20,7 +27,11 @@ public interface CacheService {
 
     void evictUserPendingWishesCache(Long userId);
 
-    void evictUserCategoryWishesCache(Long userId);
+    void evictUserCategoryWishesCache(Long userId, String category);
+
+    OverdueWishes getUserOverdueWishes(Long userId, Supplier<OverdueWishes> loader);
+
+    void evictUserOverdueWishesCache(Long userId);
 
     void evictWishCache(Long wishId, Long userId);
 
@@ -1,22 +1,31 @@
 package com.wishlist.service;
 
+import com.wishlist.dto.OverdueWishes;
 import com.wishlist.dto.WishDTO;
+import com.wishlist.model.WishSortField;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Locale;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
+@Observed(name = "wishlist.cache")
 public class CacheServiceImpl implements CacheService {
 
     @Value("${spring.cache.redis.time-to-live:600000}")
@@ -27,39 +36,58 @@ public class CacheServiceImpl implements CacheService {
     public static final String PENDING_WISHES_CACHE_NAME = "pendingWishes";
     public static final String CATEGORY_WISHES_CACHE_NAME = "categoryWishes";
     public static final String USER_WISHES_CACHE_NAME = "userWishes";
+    public static final String OVERDUE_WISHES_CACHE_NAME = "overdueWishes";
 
     private final CacheManager cacheManager;
     private final RedisTemplate<String, WishDTO> wishRedisTemplate;
 
+    // In the field's ascending order; the list and its total are replaced in one transaction
     @Override
-    public void cacheUserWishes(Long userId, List<WishDTO> wishes, Sort sort) {
-        if (!wishes.isEmpty()) {
-            var sortOrder = getUserWishesSortOrder(sort);
-            var key = buildKey(userId, sortOrder.getProperty(), sortOrder.getDirection());
-            wishRedisTemplate.delete(key);
-            wishRedisTemplate.opsForList().rightPushAll(key, wishes);
-            wishRedisTemplate.expire(key, Duration.ofMillis(timeToLive));
-        }
+    @SuppressWarnings("unchecked")
+    public void cacheUserWishes(Long userId, List<WishDTO> wishes, long totalCount, WishSortField sortField) {
+        var serializer = (RedisSerializer<WishDTO>) wishRedisTemplate.getValueSerializer();
+        var key = buildKey(userId, sortField).getBytes(StandardCharsets.UTF_8);
+        var totalKey = totalKey(buildKey(userId, sortField));
+        var values = wishes.stream().map(serializer::serialize).toArray(byte[][]::new);
+        var total = String.valueOf(totalCount).getBytes(StandardCharsets.UTF_8);
+        wishRedisTemplate.execute((RedisCallback<List<Object>>) connection -> {
+            connection.multi();
+            connection.keyCommands().del(key, totalKey);
+            if (values.length > 0) {
+                connection.listCommands().rPush(key, values);
+                connection.keyCommands().pExpire(key, timeToLive);
+            }
+            connection.stringCommands().set(totalKey, total, Expiration.milliseconds(timeToLive), RedisStringCommands.SetOption.upsert());
+            return connection.exec();
+        });
     }
 
     @Override
     public List<WishDTO> getUserWishesPage(Long userId, Pageable pageable) {
         var sortOrder = getUserWishesSortOrder(pageable.getSort());
-        var key = buildKey(userId, sortOrder.getProperty(), sortOrder.getDirection());
+        var key = buildKey(userId, WishSortField.of(pageable.getSort()));
+        var range = range(pageable, sortOrder.getDirection());
 
-        var start = pageable.getOffset();
-        var end = start + pageable.getPageSize() - 1;
+        var result = wishRedisTemplate.opsForList().range(key, range[0], range[1]);
+        return result != null ? inOrder(result, sortOrder.getDirection()) : List.of();
+    }
+
+    // Same page as getUserWishesPage, but the wishes stay the JSON they are stored as
+    @Override
+    public List<byte[]> getUserWishesPageJson(Long userId, Pageable pageable) {
+        var sortOrder = getUserWishesSortOrder(pageable.getSort());
+        var key = buildKey(userId, WishSortField.of(pageable.getSort())).getBytes(StandardCharsets.UTF_8);
+        var range = range(pageable, sortOrder.getDirection());
 
-        var result = wishRedisTemplate.opsForList().range(key, start, end);
-        return result != null ? result : List.of();
+        var result = wishRedisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.listCommands().lRange(key, range[0], range[1]));
+        return result != null ? inOrder(result, sortOrder.getDirection()) : List.of();
     }
 
     @Override
-    public long getUserWishesTotalCount(Long userId, Sort sort) {
-        var sortOrder = getUserWishesSortOrder(sort);
-        var key = buildKey(userId, sortOrder.getProperty(), sortOrder.getDirection());
-        var size = wishRedisTemplate.opsForList().size(key);
-        return size != null ? size : 0;
+    public OptionalLong getUserWishesTotalCount(Long userId, WishSortField sortField) {
+        var totalKey = totalKey(buildKey(userId, sortField));
+        var total = wishRedisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(totalKey));
+        return total != null ? OptionalLong.of(Long.parseLong(new String(total, StandardCharsets.UTF_8))) : OptionalLong.empty();
     }
 
     @Override
@@ -84,11 +112,22 @@ public class CacheServiceImpl implements CacheService {
                 .evict(userId);
     }
 
+    // Entries are per category
     @Override
-    public void evictUserCategoryWishesCache(Long userId) {
-        Optional.ofNullable(cacheManager.getCache(CATEGORY_WISHES_CACHE_NAME))
-                .orElseThrow(() -> new IllegalStateException("Couldn't create cache " + CATEGORY_WISHES_CACHE_NAME))
-                .evict(userId);
+    public void evictUserCategoryWishesCache(Long userId, String category) {
+        if (category != null) {
+            getCache(CATEGORY_WISHES_CACHE_NAME).evict(category + "::" + userId);
+        }
+    }
+
+    @Override
+    public OverdueWishes getUserOverdueWishes(Long userId, Supplier<OverdueWishes> loader) {
+        return getCache(OVERDUE_WISHES_CACHE_NAME).get(userId, loader::get);
+    }
+
+    @Override
+    public void evictUserOverdueWishesCache(Long userId) {
+        getCache(OVERDUE_WISHES_CACHE_NAME).evict(userId);
     }
 
     @Override
@@ -103,16 +142,37 @@ public class CacheServiceImpl implements CacheService {
         cacheManager.getCacheNames().forEach(this::clearCache);
     }
 
+    private Cache getCache(String cacheName) {
+        return Optional.ofNullable(cacheManager.getCache(cacheName))
+                .orElseThrow(() -> new IllegalStateException("Couldn't create cache " + cacheName));
+    }
+
     private void clearCache(String cacheName) {
         Optional.ofNullable(cacheManager.getCache(cacheName)).ifPresent(Cache::clear);
     }
 
-    private static Sort.Order getUserWishesSortOrder(Sort pageable) {
+    static Sort.Order getUserWishesSortOrder(Sort pageable) {
         return pageable.stream().findFirst()
-                .orElse(new Sort.Order(Sort.Direction.ASC, "createdAt"));
+                .orElse(new Sort.Order(Sort.Direction.ASC, WishSortField.CREATED_AT.getProperty()));
+    }
+
+    // Counted from the end for a descending page
+    private static long[] range(Pageable pageable, Sort.Direction direction) {
+        var start = pageable.getOffset();
+        var end = start + pageable.getPageSize() - 1;
+        return direction.isAscending() ? new long[]{start, end} : new long[]{-end - 1, -start - 1};
+    }
+
+    private static <T> List<T> inOrder(List<T> range, Sort.Direction direction) {
+        return direction.isAscending() ? range : range.reversed();
+    }
+
+    public static String buildKey(Long userId, WishSortField sortField) {
+        return String.format("%s::%s::sort=%s", USER_WISHES_CACHE_NAME, userId, sortField.getProperty());
     }
 
-    private String buildKey(Long userId, String sortBy, Sort.Direction direction) {
-        return String.format("%s::%s::sort=%s::%s", USER_WISHES_CACHE_NAME, userId, sortBy, direction.name().toLowerCase(Locale.ENGLISH));
+    // Can be more than the list holds
+    public static byte[] totalKey(String key) {
+        return (key + "::total").getBytes(StandardCharsets.UTF_8);
     }
 }
@@ -0,0 +1,11 @@
+package com.wishlist.service;
+
+import com.wishlist.model.WishSortField;
+
+public interface CacheWarmupService {
+
+    // The newest wishes and the pending ones, in the background; warm-ups that can't be queued are dropped
+    void warmUp(Long userId, String username);
+
+    void refill(Long userId, String username, WishSortField sortField);
+}
@@ -0,0 +1,125 @@
+package com.wishlist.service;
+
+import com.wishlist.datasource.RoutingSubject;
+import com.wishlist.event.UserLoggedInEvent;
+import com.wishlist.event.UserWishesCacheMissEvent;
+import com.wishlist.model.WishSortField;
+import com.wishlist.tracing.ObservationPropagation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Service
+@Slf4j
+public class CacheWarmupServiceImpl implements CacheWarmupService, DisposableBean {
+
+    public static final String WARMUP_METRIC = "wishlist.cache.warmup";
+    public static final WishSortField DEFAULT_SORT_FIELD = WishSortField.CREATED_AT;
+
+    private final WishlistService wishlistService;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final ThreadPoolExecutor executor;
+    // Queued or running loads, not queued again
+    private final Set<Load> pending = ConcurrentHashMap.newKeySet();
+
+    public CacheWarmupServiceImpl(WishlistService wishlistService, MeterRegistry meterRegistry, ObservationRegistry observationRegistry,
+                                  @Value("${wishlist.cache.warmup.threads:1}") int threads,
+                                  @Value("${wishlist.cache.warmup.queue-capacity:100}") int queueCapacity) {
+        this.wishlistService = wishlistService;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("cache-warmup-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "cacheWarmup", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    @EventListener
+    public void onUserLoggedIn(UserLoggedInEvent event) {
+        warmUp(event.userId(), event.username());
+    }
+
+    @EventListener
+    public void onUserWishesCacheMiss(UserWishesCacheMissEvent event) {
+        refill(event.userId(), event.username(), event.sortField());
+    }
+
+    @Override
+    public void warmUp(Long userId, String username) {
+        submit(new Load(userId, DEFAULT_SORT_FIELD), "login", username, () -> {
+            boolean loaded = wishlistService.preloadUserWishes(userId, DEFAULT_SORT_FIELD);
+            wishlistService.getPendingWishes(userId);
+            return loaded;
+        });
+    }
+
+    @Override
+    public void refill(Long userId, String username, WishSortField sortField) {
+        submit(new Load(userId, sortField), "miss", username, () -> wishlistService.preloadUserWishes(userId, sortField));
+    }
+
+    private void submit(Load load, String trigger, String username, Supplier<Boolean> loader) {
+        if (!pending.add(load)) {
+            count(trigger, "deduplicated");
+            return;
+        }
+        try {
+            executor.execute(ObservationPropagation.wrap(observationRegistry, () -> {
+                try {
+                    RoutingSubject.runAs(username, () -> run(load, trigger, loader));
+                } finally {
+                    pending.remove(load);
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            // A later miss queues it again
+            pending.remove(load);
+            count(trigger, "rejected");
+        }
+    }
+
+    private Void run(Load load, String trigger, Supplier<Boolean> loader) {
+        try {
+            count(trigger, loader.get() ? "loaded" : "already_cached");
+        } catch (RuntimeException e) {
+            log.warn("Could not load the caches of user {}: {}", load.userId(), e.getMessage());
+            count(trigger, "failed");
+        }
+        return null;
+    }
+
+    private void count(String trigger, String result) {
+        Counter.builder(WARMUP_METRIC)
+                .description("Background cache loads after a login or a miss, by outcome")
+                .tag("trigger", trigger)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    // A login and a miss of the default sort field load the same list
+    private record Load(Long userId, WishSortField sortField) {
+    }
+}
@@ -0,0 +1,226 @@
+package com.wishlist.service;
+
+import com.wishlist.event.WishesOverdueEvent;
+import com.wishlist.repository.WishDueDate;
+import com.wishlist.repository.WishRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Publishes a {@link WishesOverdueEvent} per user and chunk for the wishes that fell due since the watermark, under
+ * a lock extended on each pause. The watermark only moves once every partition is done, so a failed scan is repeated.
+ */
+@Component
+@Slf4j
+public class OverdueWishScanner implements DisposableBean {
+
+    public static final String LOCK_KEY = "overdueScan::lock";
+    public static final String WATERMARK_KEY = "overdueScan::watermark";
+    public static final String WISHES_METRIC = "wishlist.overdue.scan.wishes";
+    public static final String DURATION_METRIC = "wishlist.overdue.scan.duration";
+
+    // Requests waiting for a connection, per pool
+    static final String PENDING_CONNECTIONS_METRIC = "hikaricp.connections.pending";
+
+    private final WishRepository wishRepository;
+    private final CacheService cacheService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int partitions;
+    private final int chunkSize;
+    private final Duration chunkPause;
+    private final RedisLock lock;
+    private final ExecutorService executor;
+    private final AtomicBoolean scanning = new AtomicBoolean();
+
+    public OverdueWishScanner(WishRepository wishRepository, CacheService cacheService,
+                              ApplicationEventPublisher eventPublisher, StringRedisTemplate redisTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${wishlist.overdue.scan.enabled:true}") boolean enabled,
+                              @Value("${wishlist.overdue.scan.partitions:4}") int partitions,
+                              @Value("${wishlist.overdue.scan.threads:2}") int threads,
+                              @Value("${wishlist.overdue.scan.chunk-size:500}") int chunkSize,
+                              @Value("${wishlist.overdue.scan.chunk-pause:50ms}") Duration chunkPause,
+                              @Value("${wishlist.overdue.scan.lock-ttl:1m}") Duration lockTimeToLive) {
+        this.wishRepository = wishRepository;
+        this.cacheService = cacheService;
+        this.eventPublisher = eventPublisher;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.partitions = partitions;
+        this.chunkSize = chunkSize;
+        this.chunkPause = chunkPause;
+        this.lock = new RedisLock(redisTemplate, LOCK_KEY, lockTimeToLive);
+        var threadFactory = new CustomizableThreadFactory("overdue-scan-");
+        threadFactory.setThreadPriority(Thread.MIN_PRIORITY);
+        this.executor = Executors.newFixedThreadPool(threads, threadFactory);
+        Gauge.builder("wishlist.overdue.scan.watermark.age", this, OverdueWishScanner::watermarkAgeSeconds)
+                .description("Seconds since the due date up to which overdue wishes have been processed")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${wishlist.overdue.scan.interval:1m}", initialDelayString = "${wishlist.overdue.scan.interval:1m}")
+    public void scan() {
+        if (!enabled || !scanning.compareAndSet(false, true)) {
+            return;
+        }
+        var lockToken = UUID.randomUUID().toString();
+        try {
+            if (!lock.tryLock(lockToken)) {
+                scanning.set(false);
+                return;
+            }
+            // As the database keeps it, or the watermark would be rounded differently than the due dates
+            var until = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            var watermark = readWatermark();
+            if (watermark == null) {
+                // First scan ever: wishes overdue before now aren't "newly" overdue
+                writeWatermark(until);
+                finish(lockToken);
+                return;
+            }
+            scan(watermark, until, lockToken)
+                    .whenComplete((processed, error) -> {
+                        if (error != null) {
+                            log.warn("Overdue scan up to {} failed, will be repeated: {}", until, error.getMessage());
+                        } else {
+                            writeWatermark(until);
+                            log.debug("Processed {} overdue wishes due up to {}", processed, until);
+                        }
+                        finish(lockToken);
+                    });
+        } catch (DataAccessException e) {
+            log.warn("Could not start the overdue scan: {}", e.getMessage());
+            finish(lockToken);
+        }
+    }
+
+    // The wishes due in (after, until], while lockToken holds the lock
+    CompletableFuture<Long> scan(LocalDateTime after, LocalDateTime until, String lockToken) {
+        var sample = Timer.start(meterRegistry);
+        var scans = IntStream.range(0, partitions)
+                .mapToObj(partition -> CompletableFuture.supplyAsync(() -> scanPartition(partition, after, until, lockToken), executor))
+                .toList();
+        return CompletableFuture.allOf(scans.toArray(CompletableFuture[]::new))
+                .thenApply(done -> scans.stream().mapToLong(CompletableFuture::join).sum())
+                .whenComplete((processed, error) -> sample.stop(Timer.builder(DURATION_METRIC)
+                        .description("Time taken by overdue scans")
+                        .tag("result", error == null ? "success" : "failure")
+                        .register(meterRegistry)));
+    }
+
+    private long scanPartition(int partition, LocalDateTime after, LocalDateTime until, String lockToken) {
+        var afterDueDate = after;
+        // No id is greater, so the first chunk starts after the watermark's due date
+        var afterId = Long.MAX_VALUE;
+        long processed = 0;
+        while (true) {
+            throttle(lockToken);
+            var chunk = wishRepository.findOverdueWishesChunk(partitions, partition, afterDueDate, afterId, until, Limit.of(chunkSize));
+            if (chunk.isEmpty()) {
+                return processed;
+            }
+            process(chunk);
+            processed += chunk.size();
+            if (chunk.size() < chunkSize) {
+                return processed;
+            }
+            var last = chunk.getLast();
+            afterDueDate = last.dueDate();
+            afterId = last.id();
+        }
+    }
+
+    private void process(List<WishDueDate> chunk) {
+        var wishIdsByUser = new LinkedHashMap<Long, List<Long>>();
+        chunk.forEach(wish -> wishIdsByUser.computeIfAbsent(wish.userId(), userId -> new ArrayList<>()).add(wish.id()));
+        wishIdsByUser.forEach((userId, wishIds) -> {
+            cacheService.evictUserOverdueWishesCache(userId);
+            eventPublisher.publishEvent(new WishesOverdueEvent(userId, wishIds));
+        });
+        Counter.builder(WISHES_METRIC)
+                .description("Wishes found overdue by the overdue scan")
+                .register(meterRegistry)
+                .increment(chunk.size());
+    }
+
+    private void throttle(String lockToken) {
+        try {
+            do {
+                Thread.sleep(chunkPause);
+                if (!lock.extend(lockToken)) {
+                    throw new IllegalStateException("Lost the overdue scan lock");
+                }
+            } while (requestsWaitForConnections());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Overdue scan interrupted", e);
+        }
+    }
+
+    private boolean requestsWaitForConnections() {
+        return meterRegistry.find(PENDING_CONNECTIONS_METRIC).gauges().stream()
+                .anyMatch(gauge -> gauge.value() > 0);
+    }
+
+    private LocalDateTime readWatermark() {
+        var watermark = redisTemplate.opsForValue().get(WATERMARK_KEY);
+        return watermark != null ? LocalDateTime.parse(watermark) : null;
+    }
+
+    private void writeWatermark(LocalDateTime watermark) {
+        try {
+            redisTemplate.opsForValue().set(WATERMARK_KEY, watermark.toString());
+        } catch (DataAccessException e) {
+            log.warn("Could not save the overdue scan watermark {}: {}", watermark, e.getMessage());
+        }
+    }
+
+    private void finish(String lockToken) {
+        lock.unlock(lockToken);
+        scanning.set(false);
+    }
+
+    private double watermarkAgeSeconds() {
+        try {
+            var watermark = readWatermark();
+            return watermark != null ? Duration.between(watermark, LocalDateTime.now()).toMillis() / 1000.0 : Double.NaN;
+        } catch (DataAccessException e) {
+            return Double.NaN;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,49 @@
+package com.wishlist.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+// For the jobs one node at a time runs; it expires after timeToLive, so a node that dies doesn't keep it
+@Slf4j
+final class RedisLock {
+
+    private static final RedisScript<Long> UNLOCK_SCRIPT = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
+    // Restarts the expiry only if the token still holds the lock
+    private static final RedisScript<Long> EXTEND_SCRIPT = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String key;
+    private final Duration timeToLive;
+
+    RedisLock(StringRedisTemplate redisTemplate, String key, Duration timeToLive) {
+        this.redisTemplate = redisTemplate;
+        this.key = key;
+        this.timeToLive = timeToLive;
+    }
+
+    boolean tryLock(String token) {
+        return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(key, token, timeToLive));
+    }
+
+    // For another timeToLive from now; false once the lock expired, the job must then stop
+    boolean extend(String token) {
+        return Long.valueOf(1).equals(redisTemplate.execute(EXTEND_SCRIPT, List.of(key), token, String.valueOf(timeToLive.toMillis())));
+    }
+
+    // Doesn't throw, a lock that can't be released expires
+    void unlock(String token) {
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(key), token);
+        } catch (DataAccessException e) {
+            log.warn("Could not release the lock {}, it expires in {}: {}", key, timeToLive, e.getMessage());
+        }
+    }
+}
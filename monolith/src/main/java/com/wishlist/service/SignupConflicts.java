@@ -0,0 +1,31 @@
+package com.wishlist.service;
+
+import com.wishlist.model.User;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+import java.util.Optional;
+
+// Turns violations of the unique constraints on users into signup errors
+final class SignupConflicts {
+
+    static final String USERNAME_TAKEN = "Username is already taken!";
+    static final String EMAIL_IN_USE = "Email is already in use!";
+
+    private SignupConflicts() {
+    }
+
+    static Optional<String> messageFor(DataIntegrityViolationException e) {
+        // PostgreSQL reports the constraint name, H2 only the name of its index ("PUBLIC.UC_USERS_EMAIL_INDEX_4 ON ...")
+        String constraintName = e.getCause() instanceof ConstraintViolationException violation ? violation.getConstraintName() : null;
+        String detail = (constraintName + " " + e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (detail.contains(User.USERNAME_CONSTRAINT)) {
+            return Optional.of(USERNAME_TAKEN);
+        }
+        if (detail.contains(User.EMAIL_CONSTRAINT)) {
+            return Optional.of(EMAIL_IN_USE);
+        }
+        return Optional.empty();
+    }
+}
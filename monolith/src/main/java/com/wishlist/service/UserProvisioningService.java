@@ -0,0 +1,12 @@
+package com.wishlist.service;
+
+import com.wishlist.dto.BulkSignupResponse;
+import com.wishlist.dto.SignupRequest;
+
+import java.util.List;
+
+public interface UserProvisioningService {
+
+    // Creates the users that conflict with no one, reports the rest
+    BulkSignupResponse registerUsers(List<SignupRequest> signupRequests);
+}
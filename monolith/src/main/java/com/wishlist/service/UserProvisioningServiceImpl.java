@@ -0,0 +1,97 @@
+package com.wishlist.service;
+
+import com.wishlist.dto.BulkSignupResponse;
+import com.wishlist.dto.SignupRequest;
+import com.wishlist.exception.ConflictException;
+import com.wishlist.model.User;
+import com.wishlist.repository.UserRepository;
+import com.wishlist.security.BoundedPasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.wishlist.service.SignupConflicts.EMAIL_IN_USE;
+import static com.wishlist.service.SignupConflicts.USERNAME_TAKEN;
+
+@Service
+@Slf4j
+public class UserProvisioningServiceImpl implements UserProvisioningService, DisposableBean {
+
+    private final UserRepository userRepository;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final ExecutorService hashingExecutor;
+
+    public UserProvisioningServiceImpl(UserRepository userRepository, BoundedPasswordEncoder passwordEncoder,
+                                       @Value("${wishlist.admin.bulk-signup.hash-threads:0}") int hashThreads) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        // Half the cores by default, the rest stays available for logins
+        int threads = hashThreads > 0 ? hashThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.hashingExecutor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("bulk-password-hash-"));
+    }
+
+    @Override
+    public BulkSignupResponse registerUsers(List<SignupRequest> signupRequests) {
+        var rejected = new ArrayList<BulkSignupResponse.Rejection>();
+        var accepted = new ArrayList<SignupRequest>();
+
+        // The constraints still guard against concurrent signups
+        var existing = userRepository.findByUsernameInOrEmailIn(
+                signupRequests.stream().map(SignupRequest::getUsername).toList(),
+                signupRequests.stream().map(SignupRequest::getEmail).toList());
+        Set<String> usernames = new HashSet<>(existing.stream().map(User::getUsername).toList());
+        Set<String> emails = new HashSet<>(existing.stream().map(User::getEmail).toList());
+
+        for (int i = 0; i < signupRequests.size(); i++) {
+            var request = signupRequests.get(i);
+            if (usernames.contains(request.getUsername())) {
+                rejected.add(new BulkSignupResponse.Rejection(i, request.getUsername(), USERNAME_TAKEN));
+            } else if (emails.contains(request.getEmail())) {
+                rejected.add(new BulkSignupResponse.Rejection(i, request.getUsername(), EMAIL_IN_USE));
+            } else {
+                usernames.add(request.getUsername());
+                emails.add(request.getEmail());
+                accepted.add(request);
+            }
+        }
+
+        var users = accepted.stream()
+                .map(request -> CompletableFuture.supplyAsync(() -> User.builder()
+                        .username(request.getUsername())
+                        .email(request.getEmail())
+                        .password(passwordEncoder.encodeOnCurrentThread(request.getPassword()))
+                        .build(), hashingExecutor))
+                .toList().stream()
+                .map(CompletableFuture::join)
+                .toList();
+
+        try {
+            userRepository.insertAll(users);
+        } catch (DataIntegrityViolationException e) {
+            var reason = SignupConflicts.messageFor(e).orElseThrow(() -> e);
+            throw new ConflictException(reason + " No users were created, please retry.");
+        }
+        log.info("Registered {} users in bulk, rejected {}", users.size(), rejected.size());
+
+        return BulkSignupResponse.builder()
+                .created(users.size())
+                .rejected(rejected)
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        hashingExecutor.shutdownNow();
+    }
+}
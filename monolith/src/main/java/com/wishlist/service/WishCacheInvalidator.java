@@ -0,0 +1,55 @@
+package com.wishlist.service;
+
+import com.wishlist.event.WishChangeListener;
+import com.wishlist.event.WishChangedEvent;
+import com.wishlist.event.WishChangedEvent.WishState;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+// Once after the commit, and again on delivery, for what a request cached from the rows as they were in between
+@Component
+@RequiredArgsConstructor
+public class WishCacheInvalidator implements WishChangeListener {
+
+    private final CacheService cacheService;
+
+    @Override
+    public void onWishChanges(List<WishChangedEvent> events) {
+        var changesByUser = new LinkedHashMap<Long, List<WishChangedEvent>>();
+        events.forEach(event -> changesByUser.computeIfAbsent(event.userId(), userId -> new ArrayList<>()).add(event));
+        changesByUser.forEach(this::evict);
+    }
+
+    private void evict(Long userId, List<WishChangedEvent> changes) {
+        var states = changes.stream()
+                .flatMap(change -> Stream.of(change.before(), change.after()))
+                .filter(Objects::nonNull)
+                .toList();
+        // A new wish can't be cached yet
+        changes.stream()
+                .filter(change -> change.before() != null)
+                .forEach(change -> cacheService.evictWishCache(change.wishId(), userId));
+        cacheService.evictUserWishesCache(userId);
+        if (states.stream().anyMatch(WishState::completed)) {
+            cacheService.evictUserCompletedWishesCache(userId);
+        }
+        if (states.stream().anyMatch(state -> !state.completed())) {
+            cacheService.evictUserPendingWishesCache(userId);
+        }
+        if (states.stream().anyMatch(state -> !state.completed() && state.dueDate() != null)) {
+            cacheService.evictUserOverdueWishesCache(userId);
+        }
+        // Both categories of a wish that moved
+        states.stream()
+                .map(WishState::category)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(category -> cacheService.evictUserCategoryWishesCache(userId, category));
+    }
+}
@@ -0,0 +1,352 @@
+package com.wishlist.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.DefaultStringRedisConnection;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import static com.wishlist.service.WishOutboxRelay.*;
+
+/**
+ * Pushes the changes of the {@code wishChanges} stream to the open {@code GET /wishes/events} connections of their
+ * users, under their stream ids. An open connection holds no thread, events are written by a virtual thread when
+ * there is something to send. A client resuming from a change that may be gone from its user stream gets a
+ * {@code reset} event, and should reload the wishlist.
+ */
+@Component
+@Slf4j
+public class WishEventStream implements SmartLifecycle {
+
+    public static final String CHANGE_EVENT = "wishChanged";
+    public static final String RESET_EVENT = "reset";
+    public static final String CONNECTIONS_METRIC = "wishlist.events.connections";
+    public static final String EVENTS_METRIC = "wishlist.events.sent";
+    public static final String DROPPED_METRIC = "wishlist.events.dropped";
+
+    private static final Pattern STREAM_ID = Pattern.compile("\\d{1,19}-\\d{1,19}");
+    private static final Change HEARTBEAT = new Change(null, null);
+
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeout;
+    private final Duration pollTimeout;
+    private final int maxQueued;
+    private final long userStreamMaxLength;
+    private final Duration userStreamTimeToLive;
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ExecutorService senders = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("wish-events-", 0).factory());
+    private final ExecutorService reader = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("wish-events-reader-"));
+    private final AtomicBoolean reading = new AtomicBoolean();
+    private volatile boolean running = true;
+
+    public WishEventStream(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry,
+                           @Value("${wishlist.events.timeout:30m}") Duration timeout,
+                           @Value("${wishlist.events.poll-timeout:5s}") Duration pollTimeout,
+                           @Value("${wishlist.events.max-queued:100}") int maxQueued,
+                           @Value("${wishlist.outbox.user-stream-max-length:100}") long userStreamMaxLength,
+                           @Value("${wishlist.outbox.user-stream-ttl:24h}") Duration userStreamTimeToLive) {
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.timeout = timeout;
+        this.pollTimeout = pollTimeout;
+        this.maxQueued = maxQueued;
+        this.userStreamMaxLength = userStreamMaxLength;
+        this.userStreamTimeToLive = userStreamTimeToLive;
+        Gauge.builder(CONNECTIONS_METRIC, connections, AtomicInteger::get)
+                .description("Open GET /wishes/events connections")
+                .register(meterRegistry);
+    }
+
+    // From now on without lastEventId
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        // Read before the connection is registered: later changes are sent live, or found in the user stream
+        var latestId = latestId();
+        startReader(latestId);
+        var emitter = new SseEmitter(timeout.toMillis());
+        var subscription = new Subscription(userId, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onError(error -> unsubscribe(subscription));
+        // Clients reconnect with the last event id
+        emitter.onTimeout(emitter::complete);
+        subscriptions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        connections.incrementAndGet();
+        subscription.start(() -> resume(subscription, lastEventId, latestId));
+        return emitter;
+    }
+
+    // So that proxies keep idle connections open, and closed ones are noticed
+    @Scheduled(fixedDelayString = "${wishlist.events.heartbeat:30s}", initialDelayString = "${wishlist.events.heartbeat:30s}")
+    public void heartbeat() {
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(subscription -> subscription.offer(HEARTBEAT)));
+    }
+
+    private void resume(Subscription subscription, String lastEventId, String latestId) throws IOException {
+        if (lastEventId == null) {
+            // Sets the client's last event id without an event, so that it can resume from here
+            subscription.lastSentId = latestId;
+            subscription.emitter.send(SseEmitter.event().id(latestId));
+            replay(subscription, latestId);
+        } else if (!STREAM_ID.matcher(lastEventId).matches()
+                || timestamp(lastEventId) < System.currentTimeMillis() - userStreamTimeToLive.toMillis()) {
+            reset(subscription, latestId);
+        } else {
+            subscription.lastSentId = lastEventId;
+            replay(subscription, lastEventId);
+        }
+    }
+
+    private void replay(Subscription subscription, String lastEventId) throws IOException {
+        var changes = redisTemplate.opsForStream().range(USER_STREAM_KEY_PREFIX + subscription.userId, Range.unbounded());
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+        // Full and starting after the last event id: older changes were trimmed
+        if (changes.size() >= userStreamMaxLength && compare(changes.getFirst().getId().getValue(), lastEventId) > 0) {
+            reset(subscription, changes.getLast().getId().getValue());
+            return;
+        }
+        for (var change : changes) {
+            subscription.send(new Change(change.getId().getValue(), (String) change.getValue().get(EVENT_FIELD)));
+        }
+    }
+
+    private void reset(Subscription subscription, String id) throws IOException {
+        subscription.emitter.send(SseEmitter.event().id(id).name(RESET_EVENT).data("reload"));
+        subscription.lastSentId = id;
+        countEvent(RESET_EVENT);
+    }
+
+    private String latestId() {
+        var latest = redisTemplate.opsForStream().reverseRange(STREAM_KEY, Range.unbounded(), Limit.limit().count(1));
+        return latest == null || latest.isEmpty() ? "0-0" : latest.getFirst().getId().getValue();
+    }
+
+    private void startReader(String from) {
+        if (reading.compareAndSet(false, true)) {
+            reader.execute(() -> read(from));
+        }
+    }
+
+    private void read(String from) {
+        var offset = from;
+        var options = StreamReadOptions.empty().block(pollTimeout);
+        while (running) {
+            // Its own connection, a blocking read would hold up the shared one
+            try (var connection = new DefaultStringRedisConnection(redisTemplate.getRequiredConnectionFactory().getConnection())) {
+                while (running) {
+                    var changes = connection.xReadAsString(options, StreamOffset.create(STREAM_KEY, ReadOffset.from(offset)));
+                    if (changes == null) {
+                        continue;
+                    }
+                    for (var change : changes) {
+                        offset = change.getId().getValue();
+                        var userSubscriptions = subscriptions.get(Long.valueOf(change.getValue().get(USER_ID_FIELD)));
+                        if (userSubscriptions != null) {
+                            var event = new Change(offset, change.getValue().get(EVENT_FIELD));
+                            userSubscriptions.forEach(subscription -> subscription.offer(event));
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Could not read the wish changes after {}, retrying: {}", offset, e.getMessage());
+                try {
+                    Thread.sleep(pollTimeout);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscription.closed = true;
+        var userSubscriptions = subscriptions.get(subscription.userId);
+        if (userSubscriptions != null && userSubscriptions.remove(subscription)) {
+            connections.decrementAndGet();
+            subscriptions.computeIfPresent(subscription.userId, (userId, remaining) -> remaining.isEmpty() ? null : remaining);
+        }
+    }
+
+    private void countEvent(String type) {
+        Counter.builder(EVENTS_METRIC)
+                .description("Events sent on GET /wishes/events connections, by type")
+                .tag("type", type)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    static int compare(String id, String other) {
+        var comparison = Long.compare(timestamp(id), timestamp(other));
+        return comparison != 0 ? comparison
+                : Long.compare(Long.parseLong(id.substring(id.indexOf('-') + 1)), Long.parseLong(other.substring(other.indexOf('-') + 1)));
+    }
+
+    private static long timestamp(String id) {
+        return Long.parseLong(id.substring(0, id.indexOf('-')));
+    }
+
+    @Override
+    public void start() {
+        // Runs from construction, the reader starts with the first connection
+    }
+
+    // In the last phase: before the web server's graceful shutdown, which would wait for the open connections, and
+    // before the Redis connections are closed
+    @Override
+    public void stop() {
+        running = false;
+        reader.shutdownNow();
+        // Clients reconnect to another node
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(subscription -> subscription.emitter.complete()));
+        senders.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private record Change(String id, String event) {
+    }
+
+    // Its events are written by one virtual thread at a time, in order
+    private final class Subscription {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Queue<Change> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        // Set while a thread writes the queue, and from the start until the missed changes are written
+        private final AtomicBoolean draining = new AtomicBoolean(true);
+        // Written by the draining thread only; changes up to it aren't sent again
+        private String lastSentId;
+        private volatile boolean closed;
+
+        Subscription(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void start(EventWriter resume) {
+            execute(() -> {
+                try {
+                    resume.write();
+                } catch (IOException | IllegalStateException | DataAccessException e) {
+                    close(e);
+                    return;
+                }
+                drain();
+            });
+        }
+
+        void offer(Change change) {
+            if (closed) {
+                return;
+            }
+            if (queued.incrementAndGet() > maxQueued) {
+                Counter.builder(DROPPED_METRIC)
+                        .description("GET /wishes/events connections closed because the client didn't keep up")
+                        .register(meterRegistry)
+                        .increment();
+                closed = true;
+                emitter.complete();
+                return;
+            }
+            queue.add(change);
+            if (draining.compareAndSet(false, true)) {
+                execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                var change = queue.poll();
+                if (change == null) {
+                    draining.set(false);
+                    // Offered after the poll, and no other thread took over
+                    if (queue.isEmpty() || !draining.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                queued.decrementAndGet();
+                try {
+                    send(change);
+                } catch (IOException | IllegalStateException e) {
+                    close(e);
+                    return;
+                }
+            }
+        }
+
+        void send(Change change) throws IOException {
+            if (closed) {
+                return;
+            }
+            if (change == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+                return;
+            }
+            if (lastSentId != null && compare(change.id(), lastSentId) <= 0) {
+                return;
+            }
+            emitter.send(SseEmitter.event().id(change.id()).name(CHANGE_EVENT).data(change.event(), MediaType.APPLICATION_JSON));
+            lastSentId = change.id();
+            countEvent(CHANGE_EVENT);
+        }
+
+        private void close(Exception e) {
+            log.debug("Closing the wish events of user {}: {}", userId, e.getMessage());
+            unsubscribe(this);
+            emitter.completeWithError(e);
+        }
+
+        private void execute(Runnable task) {
+            try {
+                senders.execute(task);
+            } catch (RejectedExecutionException e) {
+                // Shutting down
+                closed = true;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface EventWriter {
+        void write() throws IOException;
+    }
+}
@@ -0,0 +1,65 @@
+package com.wishlist.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wishlist.event.WishChangedEvent;
+import com.wishlist.model.WishOutboxEntry;
+import com.wishlist.repository.WishOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Changes are relayed if and only if the transaction writing them commits; the caches are evicted before it answers
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WishOutbox {
+
+    private final WishOutboxRepository outboxRepository;
+    private final WishOutboxRelay relay;
+    private final WishCacheInvalidator cacheInvalidator;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(List<WishChangedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        var createdAt = LocalDateTime.now();
+        outboxRepository.insertAll(events.stream()
+                .map(event -> WishOutboxEntry.builder()
+                        .userId(event.userId())
+                        .wishId(event.wishId())
+                        .payload(toJson(event))
+                        .createdAt(createdAt)
+                        .build())
+                .toList());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    cacheInvalidator.onWishChanges(events);
+                } catch (RuntimeException e) {
+                    // The write is committed, the relay evicts them again
+                    log.warn("Could not evict the caches after {} wish changes: {}", events.size(), e.getMessage());
+                }
+                relay.requestRelay();
+            }
+        });
+    }
+
+    private String toJson(WishChangedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + event, e);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.wishlist.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wishlist.event.WishChangeListener;
+import com.wishlist.event.WishChangedEvent;
+import com.wishlist.model.WishOutboxEntry;
+import com.wishlist.repository.WishOutboxRepository;
+import com.wishlist.tracing.ObservationPropagation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Adds the outbox entries to the {@code wishChanges} stream and the user streams, passes them to every
+ * {@link WishChangeListener}, then deletes them, on one node at a time. An entry is only deleted once relayed, so
+ * changes are delivered at least once; a failing listener isn't retried.
+ */
+@Component
+@Slf4j
+public class WishOutboxRelay implements DisposableBean {
+
+    public static final String STREAM_KEY = "wishChanges";
+    // The last changes of each user under the same ids, for GET /wishes/events to resume from
+    public static final String USER_STREAM_KEY_PREFIX = "wishChanges::";
+    public static final String LOCK_KEY = "wishOutboxRelay::lock";
+    public static final String RELAYED_METRIC = "wishlist.outbox.relayed";
+    public static final String LISTENER_FAILURES_METRIC = "wishlist.outbox.listener.failures";
+
+    public static final String ID_FIELD = "id";
+    public static final String USER_ID_FIELD = "userId";
+    public static final String WISH_ID_FIELD = "wishId";
+    public static final String EVENT_FIELD = "event";
+
+    // KEYS: the stream, then the user stream of each change; ARGV: max length of the stream, max length and time to
+    // live (ms) of the user streams, then id/user id/wish id/event of each change. Both streams get the change under
+    // the same id at once, so a reader of the stream never sees a change that isn't in the user stream yet.
+    private static final RedisScript<Long> ADD_SCRIPT = RedisScript.of("""
+            for i = 2, #KEYS do
+              local change = 4 + (i - 2) * 4
+              local fields = {'id', ARGV[change], 'userId', ARGV[change + 1], 'wishId', ARGV[change + 2], 'event', ARGV[change + 3]}
+              local id = redis.call('xadd', KEYS[1], 'MAXLEN', '~', ARGV[1], '*', unpack(fields))
+              redis.call('xadd', KEYS[i], 'MAXLEN', ARGV[2], id, unpack(fields))
+              redis.call('pexpire', KEYS[i], ARGV[3])
+            end
+            return #KEYS - 1
+            """, Long.class);
+
+    private final WishOutboxRepository outboxRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<WishChangeListener> listeners;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final int batchSize;
+    private final Duration lockTimeToLive;
+    private final RedisLock lock;
+    private final long streamMaxLength;
+    private final long userStreamMaxLength;
+    private final Duration userStreamTimeToLive;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("outbox-relay-"));
+    // A run is queued and hasn't started yet
+    private final AtomicBoolean requested = new AtomicBoolean();
+
+    public WishOutboxRelay(WishOutboxRepository outboxRepository, StringRedisTemplate redisTemplate,
+                           ObjectMapper objectMapper, ObjectProvider<WishChangeListener> listeners,
+                           MeterRegistry meterRegistry, ObservationRegistry observationRegistry,
+                           @Value("${wishlist.outbox.batch-size:100}") int batchSize,
+                           @Value("${wishlist.outbox.lock-ttl:30s}") Duration lockTimeToLive,
+                           @Value("${wishlist.outbox.stream-max-length:100000}") long streamMaxLength,
+                           @Value("${wishlist.outbox.user-stream-max-length:100}") long userStreamMaxLength,
+                           @Value("${wishlist.outbox.user-stream-ttl:24h}") Duration userStreamTimeToLive) {
+        this.outboxRepository = outboxRepository;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.listeners = listeners;
+        this.meterRegistry = meterRegistry;
+        this.observationRegistry = observationRegistry;
+        this.batchSize = batchSize;
+        this.lockTimeToLive = lockTimeToLive;
+        this.lock = new RedisLock(redisTemplate, LOCK_KEY, lockTimeToLive);
+        this.streamMaxLength = streamMaxLength;
+        this.userStreamMaxLength = userStreamMaxLength;
+        this.userStreamTimeToLive = userStreamTimeToLive;
+    }
+
+    @Scheduled(fixedDelayString = "${wishlist.outbox.interval:1s}", initialDelayString = "${wishlist.outbox.interval:1s}")
+    public void requestRelay() {
+        if (!requested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(ObservationPropagation.wrap(observationRegistry, () -> {
+                requested.set(false);
+                relay();
+            }));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            requested.set(false);
+        }
+    }
+
+    int relay() {
+        var lockToken = UUID.randomUUID().toString();
+        try {
+            if (!lock.tryLock(lockToken)) {
+                return 0;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not relay the wish outbox, will retry: {}", e.getMessage());
+            return 0;
+        }
+        // Well before the lock expires, the rest is relayed by the next run
+        var deadline = System.nanoTime() + lockTimeToLive.toNanos() / 2;
+        var relayed = 0;
+        try {
+            while (true) {
+                var batch = outboxRepository.findAllByOrderByIdAsc(Limit.of(batchSize));
+                if (batch.isEmpty()) {
+                    return relayed;
+                }
+                relay(batch);
+                relayed += batch.size();
+                if (batch.size() < batchSize) {
+                    return relayed;
+                }
+                if (System.nanoTime() > deadline) {
+                    requestRelay();
+                    return relayed;
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not relay the wish outbox after {} entries, will retry: {}", relayed, e.getMessage());
+            return relayed;
+        } finally {
+            lock.unlock(lockToken);
+        }
+    }
+
+    private void relay(List<WishOutboxEntry> batch) {
+        var keys = new ArrayList<String>(batch.size() + 1);
+        keys.add(STREAM_KEY);
+        var args = new ArrayList<String>(List.of(String.valueOf(streamMaxLength), String.valueOf(userStreamMaxLength),
+                String.valueOf(userStreamTimeToLive.toMillis())));
+        for (var entry : batch) {
+            keys.add(USER_STREAM_KEY_PREFIX + entry.getUserId());
+            args.addAll(List.of(String.valueOf(entry.getId()), String.valueOf(entry.getUserId()),
+                    String.valueOf(entry.getWishId()), entry.getPayload()));
+        }
+        redisTemplate.execute(ADD_SCRIPT, keys, args.toArray());
+        dispatch(events(batch));
+        outboxRepository.deleteAllByIdInBatch(batch.stream().map(WishOutboxEntry::getId).toList());
+        Counter.builder(RELAYED_METRIC)
+                .description("Wish changes relayed from the outbox")
+                .register(meterRegistry)
+                .increment(batch.size());
+    }
+
+    private List<WishChangedEvent> events(List<WishOutboxEntry> batch) {
+        var events = new ArrayList<WishChangedEvent>(batch.size());
+        for (var entry : batch) {
+            try {
+                events.add(objectMapper.readValue(entry.getPayload(), WishChangedEvent.class).withOutboxId(entry.getId()));
+            } catch (JsonProcessingException e) {
+                // Written by a version with another format, only relayed to the stream
+                log.warn("Could not read wish outbox entry {}: {}", entry.getId(), e.getMessage());
+            }
+        }
+        return events;
+    }
+
+    private void dispatch(List<WishChangedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                listener.onWishChanges(events);
+            } catch (RuntimeException e) {
+                log.warn("{} failed on {} wish changes: {}", ClassUtils.getUserClass(listener).getSimpleName(), events.size(), e.getMessage());
+                Counter.builder(LISTENER_FAILURES_METRIC)
+                        .description("Batches of wish changes a listener failed on")
+                        .tag("listener", ClassUtils.getUserClass(listener).getSimpleName())
+                        .register(meterRegistry)
+                        .increment();
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
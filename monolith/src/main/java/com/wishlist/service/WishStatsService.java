@@ -0,0 +1,17 @@
+package com.wishlist.service;
+
+import com.wishlist.dto.CategoryDTO;
+import com.wishlist.dto.WishStatsDTO;
+
+import java.util.List;
+
+public interface WishStatsService {
+
+    WishStatsDTO getStats(Long userId);
+
+    // The largest first
+    List<CategoryDTO> getCategories(Long userId);
+
+    // Drops the counters that drifted from the database
+    void reconcile();
+}
@@ -0,0 +1,384 @@
+package com.wishlist.service;
+
+import com.wishlist.dto.CategoryDTO;
+import com.wishlist.dto.WishStatsDTO;
+import com.wishlist.event.WishChangeListener;
+import com.wishlist.event.WishChangedEvent;
+import com.wishlist.event.WishChangedEvent.WishState;
+import com.wishlist.metrics.CacheMetrics;
+import com.wishlist.repository.WishCount;
+import com.wishlist.repository.WishDueDate;
+import com.wishlist.repository.WishOutboxRepository;
+import com.wishlist.repository.WishRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Per-user counters in a Redis hash, and the due dates of the pending wishes in a sorted set counted up to now. Both
+ * are built on the first read, then updated from the changes relayed by {@link WishOutboxRelay}, skipping the last
+ * {@value #APPLIED_CHANGES_KEPT} outbox ids applied. Counters that drift anyway are dropped by the reconciliation.
+ */
+@Service
+@Slf4j
+public class WishStatsServiceImpl implements WishStatsService, WishChangeListener, DisposableBean {
+
+    public static final String KEY_PREFIX = "wishStats::";
+    public static final String DUE_DATES_KEY_PREFIX = "wishDueDates::";
+    public static final String APPLIED_KEY_PREFIX = "wishStatsApplied::";
+    public static final String RECONCILE_LOCK_KEY = "wishStatsReconciliation::lock";
+    public static final String STATS_CACHE_NAME = "wishStats";
+    public static final String UPDATES_METRIC = "wishlist.stats.updates";
+    public static final String RECONCILIATIONS_METRIC = "wishlist.stats.reconciliations";
+
+    static final String TOTAL = "total";
+    static final String COMPLETED = "completed";
+    static final String CATEGORY_PREFIX = "category:";
+    static final String PRIORITY_PREFIX = "priority:";
+    static final int APPLIED_CHANGES_KEPT = 1000;
+
+    // KEYS: counters, due dates, applied outbox ids. ARGV: time to live (ms), now (ms), then for each change: outbox
+    // id ('' if none), wish id, due date score ('' unless pending with a due date), number of field/delta pairs, the
+    // pairs. Returns 0 if the counters aren't loaded, -1 if every change was applied already
+    private static final RedisScript<Long> UPDATE_SCRIPT = RedisScript.of("""
+            if redis.call('exists', KEYS[1]) == 0 then return 0 end
+            local applied = 0
+            local i = 3
+            while i <= #ARGV do
+              local fields = tonumber(ARGV[i + 3])
+              if ARGV[i] == '' or not redis.call('zscore', KEYS[3], ARGV[i]) then
+                for j = i + 4, i + 3 + fields * 2, 2 do
+                  local count = redis.call('hincrby', KEYS[1], ARGV[j], ARGV[j + 1])
+                  if count <= 0 and ARGV[j] ~= 'total' and ARGV[j] ~= 'completed' then redis.call('hdel', KEYS[1], ARGV[j]) end
+                end
+                if ARGV[i + 2] == '' then redis.call('zrem', KEYS[2], ARGV[i + 1]) else redis.call('zadd', KEYS[2], ARGV[i + 2], ARGV[i + 1]) end
+                if ARGV[i] ~= '' then redis.call('zadd', KEYS[3], ARGV[2], ARGV[i]) end
+                applied = applied + 1
+              end
+              i = i + 4 + fields * 2
+            end
+            if applied == 0 then return -1 end
+            redis.call('zremrangebyrank', KEYS[3], 0, -%d)
+            for k = 1, 3 do redis.call('pexpire', KEYS[k], ARGV[1]) end
+            return 1
+            """.formatted(APPLIED_CHANGES_KEPT + 1), Long.class);
+
+    // ARGV: time to live (ms), now (ms), number of field arguments, number of due date arguments, field/count pairs,
+    // due date score/wish id pairs, then the outbox ids to record as applied
+    private static final RedisScript<Long> REPLACE_SCRIPT = RedisScript.of("""
+            redis.call('del', KEYS[1], KEYS[2], KEYS[3])
+            local fields, dueDates = tonumber(ARGV[3]), tonumber(ARGV[4])
+            for i = 5, fields + 4, 2 do redis.call('hset', KEYS[1], ARGV[i], ARGV[i + 1]) end
+            for i = fields + 5, fields + dueDates + 4, 2 do redis.call('zadd', KEYS[2], ARGV[i], ARGV[i + 1]) end
+            for i = fields + dueDates + 5, #ARGV do redis.call('zadd', KEYS[3], ARGV[2], ARGV[i]) end
+            for k = 1, 3 do redis.call('pexpire', KEYS[k], ARGV[1]) end
+            return 1
+            """, Long.class);
+
+    private final WishRepository wishRepository;
+    private final WishOutboxRepository outboxRepository;
+    private final TransactionTemplate snapshotTransaction;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheMetrics cacheMetrics;
+    private final MeterRegistry meterRegistry;
+    private final Duration timeToLive;
+    private final Duration reconcilePause;
+    private final RedisLock reconcileLock;
+    private final ExecutorService reconcileExecutor;
+    private final AtomicBoolean reconciling = new AtomicBoolean();
+
+    public WishStatsServiceImpl(WishRepository wishRepository, WishOutboxRepository outboxRepository,
+                                PlatformTransactionManager transactionManager, StringRedisTemplate redisTemplate,
+                                CacheMetrics cacheMetrics, MeterRegistry meterRegistry,
+                                @Value("${wishlist.stats.ttl:24h}") Duration timeToLive,
+                                @Value("${wishlist.stats.reconcile-pause:10ms}") Duration reconcilePause,
+                                @Value("${wishlist.stats.reconcile-lock-ttl:1m}") Duration reconcileLockTimeToLive) {
+        this.wishRepository = wishRepository;
+        this.outboxRepository = outboxRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        snapshotTransaction.setReadOnly(true);
+        snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.redisTemplate = redisTemplate;
+        this.cacheMetrics = cacheMetrics;
+        this.meterRegistry = meterRegistry;
+        this.timeToLive = timeToLive;
+        this.reconcilePause = reconcilePause;
+        this.reconcileLock = new RedisLock(redisTemplate, RECONCILE_LOCK_KEY, reconcileLockTimeToLive);
+        var threadFactory = new CustomizableThreadFactory("stats-reconcile-");
+        threadFactory.setThreadPriority(Thread.MIN_PRIORITY);
+        this.reconcileExecutor = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    @Override
+    public WishStatsDTO getStats(Long userId) {
+        var counters = readCounters(userId);
+        // Due before now, to the millisecond
+        var overdue = redisTemplate.opsForZSet().count(DUE_DATES_KEY_PREFIX + userId, Double.NEGATIVE_INFINITY, score(LocalDateTime.now()) - 1);
+        return toStats(counters, overdue != null ? overdue : 0);
+    }
+
+    @Override
+    public List<CategoryDTO> getCategories(Long userId) {
+        return readCounters(userId).entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(CATEGORY_PREFIX))
+                .map(entry -> CategoryDTO.builder()
+                        .name(entry.getKey().substring(CATEGORY_PREFIX.length()))
+                        .count(entry.getValue())
+                        .build())
+                .sorted(Comparator.comparingLong(CategoryDTO::getCount).reversed().thenComparing(CategoryDTO::getName))
+                .toList();
+    }
+
+    // One update per user
+    @Override
+    public void onWishChanges(List<WishChangedEvent> events) {
+        var changesByUser = new LinkedHashMap<Long, List<WishChangedEvent>>();
+        events.stream()
+                .filter(event -> !Objects.equals(event.before(), event.after()))
+                .forEach(event -> changesByUser.computeIfAbsent(event.userId(), userId -> new ArrayList<>()).add(event));
+        changesByUser.forEach(this::update);
+    }
+
+    private void update(Long userId, List<WishChangedEvent> changes) {
+        var args = new ArrayList<String>(List.of(String.valueOf(timeToLive.toMillis()), String.valueOf(System.currentTimeMillis())));
+        for (var change : changes) {
+            var deltas = new HashMap<String, Long>();
+            count(deltas, change.before(), -1);
+            count(deltas, change.after(), 1);
+            deltas.values().removeIf(delta -> delta == 0);
+            args.addAll(List.of(change.outboxId() != null ? String.valueOf(change.outboxId()) : "",
+                    String.valueOf(change.wishId()), dueDateScore(change.after()), String.valueOf(deltas.size())));
+            deltas.forEach((field, delta) -> {
+                args.add(field);
+                args.add(String.valueOf(delta));
+            });
+        }
+        try {
+            var applied = redisTemplate.execute(UPDATE_SCRIPT, keys(userId), args.toArray());
+            countUpdate(applied == null || applied == 0 ? "not_loaded" : applied > 0 ? "applied" : "duplicate");
+        } catch (DataAccessException e) {
+            // Corrected by the next reconciliation
+            log.warn("Could not update the statistics of user {}: {}", userId, e.getMessage());
+            countUpdate("failed");
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${wishlist.stats.reconcile-interval:1h}", initialDelayString = "${wishlist.stats.reconcile-interval:1h}")
+    public void reconcile() {
+        if (!reconciling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            reconcileExecutor.execute(() -> {
+                try {
+                    reconcileAll();
+                } finally {
+                    reconciling.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            reconciling.set(false);
+        }
+    }
+
+    long reconcileAll() {
+        var lockToken = UUID.randomUUID().toString();
+        long reconciled = 0;
+        try {
+            if (!reconcileLock.tryLock(lockToken)) {
+                return 0;
+            }
+            try (var keys = redisTemplate.scan(ScanOptions.scanOptions().match(KEY_PREFIX + "*").count(500).build())) {
+                while (keys.hasNext()) {
+                    if (!reconcileLock.extend(lockToken)) {
+                        log.warn("Lost the statistics reconciliation lock after {} users, stopping", reconciled);
+                        return reconciled;
+                    }
+                    reconcile(Long.valueOf(keys.next().substring(KEY_PREFIX.length())));
+                    reconciled++;
+                    Thread.sleep(reconcilePause);
+                }
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not reconcile the wish statistics: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            reconcileLock.unlock(lockToken);
+        }
+        return reconciled;
+    }
+
+    void reconcile(Long userId) {
+        var counters = counters(wishRepository.countByUserIdGrouped(userId));
+        var dueDates = dueDates(wishRepository.findPendingDueDates(userId));
+        var cachedCounters = redisTemplate.<String, String>opsForHash().entries(KEY_PREFIX + userId);
+        var cachedDueDates = redisTemplate.opsForZSet().rangeWithScores(DUE_DATES_KEY_PREFIX + userId, 0, -1);
+        if (cachedCounters.isEmpty()) {
+            // Expired in the meantime
+            return;
+        }
+        Map<Long, Long> cachedDueDateScores = cachedDueDates == null ? Map.of() : cachedDueDates.stream()
+                .collect(Collectors.toMap(tuple -> Long.valueOf(tuple.getValue()), tuple -> tuple.getScore().longValue()));
+        var matches = cachedCounters.equals(toStrings(counters)) && cachedDueDateScores.equals(dueDates);
+        if (!matches) {
+            // Rebuilt on the next read, from the database as it is then
+            redisTemplate.delete(keys(userId));
+            log.info("Dropped the statistics of user {}, they differed from the database", userId);
+        }
+        Counter.builder(RECONCILIATIONS_METRIC)
+                .description("Users whose statistics were compared with the database, by outcome")
+                .tag("result", matches ? "match" : "corrected")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Map<String, Long> readCounters(Long userId) {
+        Map<String, Long> counters = redisTemplate.<String, String>opsForHash().entries(KEY_PREFIX + userId).entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> Long.parseLong(entry.getValue())));
+        if (counters.isEmpty()) {
+            cacheMetrics.recordMiss(STATS_CACHE_NAME);
+            return cacheMetrics.recordLoad(STATS_CACHE_NAME, () -> load(userId));
+        }
+        cacheMetrics.recordHit(STATS_CACHE_NAME);
+        return counters;
+    }
+
+    private Map<String, Long> load(Long userId) {
+        var snapshot = snapshotTransaction.execute(status -> new Snapshot(counters(wishRepository.countByUserIdGrouped(userId)),
+                dueDates(wishRepository.findPendingDueDates(userId)), outboxRepository.findIdsByUserId(userId)));
+        var args = new ArrayList<String>();
+        args.add(String.valueOf(timeToLive.toMillis()));
+        args.add(String.valueOf(System.currentTimeMillis()));
+        args.add(String.valueOf(snapshot.counters().size() * 2));
+        args.add(String.valueOf(snapshot.dueDates().size() * 2));
+        snapshot.counters().forEach((field, count) -> {
+            args.add(field);
+            args.add(String.valueOf(count));
+        });
+        snapshot.dueDates().forEach((wishId, score) -> {
+            args.add(String.valueOf(score));
+            args.add(String.valueOf(wishId));
+        });
+        snapshot.pendingChanges().forEach(id -> args.add(String.valueOf(id)));
+        redisTemplate.execute(REPLACE_SCRIPT, keys(userId), args.toArray());
+        return snapshot.counters();
+    }
+
+    private static Map<String, Long> counters(List<WishCount> wishCounts) {
+        var counters = new HashMap<String, Long>();
+        counters.put(TOTAL, 0L);
+        counters.put(COMPLETED, 0L);
+        for (var wishCount : wishCounts) {
+            count(counters, new WishState(wishCount.completed(), wishCount.category(), wishCount.priority(), null), wishCount.count());
+        }
+        return counters;
+    }
+
+    private static void count(Map<String, Long> counters, WishState wish, long count) {
+        if (wish == null) {
+            return;
+        }
+        counters.merge(TOTAL, count, Long::sum);
+        if (wish.completed()) {
+            counters.merge(COMPLETED, count, Long::sum);
+        }
+        if (wish.category() != null) {
+            counters.merge(CATEGORY_PREFIX + wish.category(), count, Long::sum);
+        }
+        if (wish.priority() != null) {
+            counters.merge(PRIORITY_PREFIX + wish.priority(), count, Long::sum);
+        }
+    }
+
+    private static Map<Long, Long> dueDates(List<WishDueDate> wishDueDates) {
+        return wishDueDates.stream().collect(Collectors.toMap(WishDueDate::id, wish -> score(wish.dueDate())));
+    }
+
+    private static String dueDateScore(WishState wish) {
+        return wish != null && !wish.completed() && wish.dueDate() != null ? String.valueOf(score(wish.dueDate())) : "";
+    }
+
+    private static long score(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static Map<String, String> toStrings(Map<String, Long> counters) {
+        return counters.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> String.valueOf(entry.getValue())));
+    }
+
+    private static WishStatsDTO toStats(Map<String, Long> counters, long overdue) {
+        var categories = new TreeMap<String, Long>();
+        var priorities = new TreeMap<Integer, Long>();
+        counters.forEach((field, count) -> {
+            if (field.startsWith(CATEGORY_PREFIX)) {
+                categories.put(field.substring(CATEGORY_PREFIX.length()), count);
+            } else if (field.startsWith(PRIORITY_PREFIX)) {
+                priorities.put(Integer.valueOf(field.substring(PRIORITY_PREFIX.length())), count);
+            }
+        });
+        long total = counters.getOrDefault(TOTAL, 0L);
+        long completed = counters.getOrDefault(COMPLETED, 0L);
+        return WishStatsDTO.builder()
+                .total(total)
+                .completed(completed)
+                .pending(total - completed)
+                .overdue(overdue)
+                .categories(categories)
+                .priorities(priorities)
+                .build();
+    }
+
+    private static List<String> keys(Long userId) {
+        return List.of(KEY_PREFIX + userId, DUE_DATES_KEY_PREFIX + userId, APPLIED_KEY_PREFIX + userId);
+    }
+
+    private void countUpdate(String result) {
+        Counter.builder(UPDATES_METRIC)
+                .description("Statistics updates after writes, by outcome")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    // pendingChanges are the outbox ids counted already
+    private record Snapshot(Map<String, Long> counters, Map<Long, Long> dueDates, List<Long> pendingChanges) {
+    }
+
+    @Override
+    public void destroy() {
+        reconcileExecutor.shutdownNow();
+    }
+}
@@ -2,29 +2,48 @@ package com.wishlist.service;
 
 import com.wishlist.dto.WishDTO;
 import com.wishlist.dto.WishlistDTO;
+import com.wishlist.dto.WishlistJsonPage;
+import com.wishlist.model.WishSortField;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface WishlistService {
 
     WishlistDTO getUserWishes(Long userId, Pageable pageable);
 
+    // Empty when the page isn't cached
+    Optional<WishlistJsonPage> getUserWishesJson(Long userId, Pageable pageable);
+
+    // True if they weren't cached yet
+    boolean preloadUserWishes(Long userId, WishSortField sortField);
+
     WishDTO getUserWishById(Long wishId, Long userId);
 
     WishDTO createWish(WishDTO wishDTO);
 
-    WishDTO updateWish(Long wishId, WishDTO wishDTO);
+    // Unconditional without an expected version
+    WishDTO updateWish(Long wishId, WishDTO wishDTO, Long expectedVersion);
 
     void deleteWish(Long wishId);
 
+    // The ids of the wishes deleted
+    List<Long> deleteWishes(List<Long> wishIds);
+
     WishDTO markWishAsCompleted(Long wishId);
 
+    // The wishes it completed
+    List<WishDTO> markWishesAsCompleted(List<Long> wishIds);
+
     List<WishDTO> getCompletedWishes(Long userId);
 
     List<WishDTO> getPendingWishes(Long userId);
 
     List<WishDTO> getWishesByCategory(String category, Long userId);
 
+    // The earliest first
+    WishlistDTO getOverdueWishes(Long userId, Pageable pageable);
+
     List<WishDTO> searchWishes(String searchTerm);
 }
\ No newline at end of file
@@ -1,43 +1,118 @@
 package com.wishlist.service;
 
+import com.wishlist.datasource.RoutingSubject;
+import com.wishlist.dto.OverdueWishes;
 import com.wishlist.dto.WishDTO;
 import com.wishlist.dto.WishlistDTO;
+import com.wishlist.dto.WishlistJsonPage;
+import com.wishlist.event.UserWishesCacheMissEvent;
+import com.wishlist.event.WishChangedEvent;
+import com.wishlist.event.WishChangedEvent.WishState;
+import com.wishlist.exception.ConflictException;
+import com.wishlist.exception.PreconditionFailedException;
 import com.wishlist.exception.ResourceNotFoundException;
+import com.wishlist.metrics.CacheMetrics;
 import com.wishlist.model.User;
 import com.wishlist.model.Wish;
+import com.wishlist.model.WishSortField;
 import com.wishlist.repository.WishRepository;
 import com.wishlist.service.mapper.WishMapper;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.stream.Stream;
 
 import static com.wishlist.service.CacheServiceImpl.*;
 
 @Service
 @RequiredArgsConstructor
+@Observed(name = "wishlist.service")
 public class WishlistServiceImpl implements WishlistService {
 
     private final WishRepository wishRepository;
     private final AuthService authService;
     private final CacheService cacheService;
     private final WishMapper wishMapper;
+    private final CacheMetrics cacheMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WishOutbox wishOutbox;
+
+    // Wishes cached from each end of a list
+    @Value("${wishlist.cache.user-wishes.window:500}")
+    private int window;
 
     @Override
     public WishlistDTO getUserWishes(Long userId, Pageable pageable) {
-        var userWishes = cacheService.getUserWishesPage(userId, pageable);
+        var sortField = WishSortField.of(pageable.getSort());
+        var totalItems = cacheService.getUserWishesTotalCount(userId, sortField);
+
+        if (totalItems.isPresent() && inWindow(pageable, totalItems.getAsLong())) {
+            var wishes = cacheService.getUserWishesPage(userId, pageable);
+            if (!evictedMeanwhile(wishes, pageable, totalItems.getAsLong())) {
+                recordLookup(pageable, true);
+                return buildResult(wishes, totalItems.getAsLong(), pageable);
+            }
+            totalItems = OptionalLong.empty();
+        }
+        if (totalItems.isPresent()) {
+            cacheMetrics.recordBypass(USER_WISHES_CACHE_NAME);
+        } else {
+            recordLookup(pageable, false);
+            eventPublisher.publishEvent(new UserWishesCacheMissEvent(userId, RoutingSubject.current(), sortField));
+        }
+        var direction = getUserWishesSortOrder(pageable.getSort()).getDirection();
+        var query = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sortField.sorted(direction));
+        if (totalItems.isPresent()) {
+            var wishes = wishRepository.findAllByUserId(userId, query);
+            return buildResult(wishes.stream().map(wishMapper::map).toList(), totalItems.getAsLong(), pageable);
+        }
+        var page = wishRepository.findByUserId(userId, query);
+        return buildResult(page.map(wishMapper::map).getContent(), page.getTotalElements(), pageable);
+    }
 
-        if (userWishes.isEmpty()) {
-            updateUserWishesCache(userId, pageable.getSort());
-            userWishes = cacheService.getUserWishesPage(userId, pageable);
+    // Empty when the page isn't cached
+    @Override
+    public Optional<WishlistJsonPage> getUserWishesJson(Long userId, Pageable pageable) {
+        var totalItems = cacheService.getUserWishesTotalCount(userId, WishSortField.of(pageable.getSort()));
+        if (totalItems.isEmpty() || !inWindow(pageable, totalItems.getAsLong())) {
+            return Optional.empty();
         }
+        var wishes = cacheService.getUserWishesPageJson(userId, pageable);
+        if (evictedMeanwhile(wishes, pageable, totalItems.getAsLong())) {
+            return Optional.empty();
+        }
+        recordLookup(pageable, true);
+        return Optional.of(WishlistJsonPage.builder()
+                .wishes(wishes)
+                .totalItems(totalItems.getAsLong())
+                .totalPages(totalPages(totalItems.getAsLong(), pageable))
+                .currentPage(pageable.getPageNumber())
+                .build());
+    }
 
-        var totalItems = cacheService.getUserWishesTotalCount(userId, pageable.getSort());
-        return buildResult(userWishes, totalItems, pageable);
+    // One snapshot, so that the first and last window and the total agree
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public boolean preloadUserWishes(Long userId, WishSortField sortField) {
+        if (cacheService.getUserWishesTotalCount(userId, sortField).isPresent()) {
+            return false;
+        }
+        updateUserWishesCache(userId, sortField);
+        return true;
     }
 
     @Override
@@ -56,84 +131,98 @@ public class WishlistServiceImpl implements WishlistService {
         Wish wish = wishMapper.map(wishDTO, currentUser);
 
         Wish savedWish = wishRepository.save(wish);
-        cacheService.evictUserWishesCache(currentUser.getId());
-        cacheService.evictUserPendingWishesCache(currentUser.getId());
-        cacheService.evictUserCategoryWishesCache(currentUser.getId());
+        wishOutbox.append(List.of(new WishChangedEvent(currentUser.getId(), savedWish.getId(), null, WishState.of(savedWish))));
         return wishMapper.map(savedWish);
     }
 
     @Override
     @Transactional
-    public WishDTO updateWish(Long wishId, WishDTO wishDTO) {
+    public WishDTO updateWish(Long wishId, WishDTO wishDTO, Long expectedVersion) {
         User currentUser = authService.getCurrentUser();
 
-        Wish wish = wishRepository.findByIdAndUserId(wishId, currentUser.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Wish not found with id: " + wishId));
-
-        wish.setTitle(wishDTO.getTitle());
-        wish.setDescription(wishDTO.getDescription());
-        wish.setPriority(wishDTO.getPriority());
-        wish.setCategory(wishDTO.getCategory());
-        wish.setDueDate(wishDTO.getDueDate());
-
         // Don't update completed status here, use markWishAsCompleted instead
-        var updatedWish = getUpdatedWish(wish, currentUser);
-
+        var changes = Wish.builder()
+                .title(wishDTO.getTitle())
+                .description(wishDTO.getDescription())
+                .priority(wishDTO.getPriority())
+                .category(wishDTO.getCategory())
+                .dueDate(wishDTO.getDueDate())
+                .build();
+        var update = wishRepository.update(currentUser.getId(), wishId, expectedVersion, changes, LocalDateTime.now())
+                .orElseThrow(() -> updateFailed(wishId, currentUser.getId(), expectedVersion));
+        var updatedWish = update.after();
+        wishOutbox.append(List.of(new WishChangedEvent(currentUser.getId(), wishId, WishState.of(update.before()), WishState.of(updatedWish))));
         return wishMapper.map(updatedWish);
     }
 
-    private Wish getUpdatedWish(Wish wish, User currentUser) {
-        Wish updatedWish = wishRepository.save(wish);
-
-        // Evict caches
-        cacheService.evictWishCache(wish.getId(), currentUser.getId());
-        cacheService.evictUserWishesCache(currentUser.getId());
-        cacheService.evictUserCompletedWishesCache(currentUser.getId());
-        cacheService.evictUserPendingWishesCache(currentUser.getId());
-        cacheService.evictUserCategoryWishesCache(currentUser.getId());
-        return updatedWish;
+    // The wish isn't the user's, or it changed since the expected version or during the update
+    private RuntimeException updateFailed(Long wishId, Long userId, Long expectedVersion) {
+        if (wishRepository.findByIdAndUserId(wishId, userId).isEmpty()) {
+            return new ResourceNotFoundException("Wish not found with id: " + wishId);
+        }
+        if (expectedVersion != null) {
+            return new PreconditionFailedException("Wish " + wishId + " was changed since version " + expectedVersion);
+        }
+        return new ConflictException("Wish " + wishId + " was changed at the same time, try again");
     }
 
     @Override
     @Transactional
     public void deleteWish(Long wishId) {
-        User currentUser = authService.getCurrentUser();
-
-        Wish wish = wishRepository.findByIdAndUserId(wishId, currentUser.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("Wish not found with id: " + wishId));
+        if (deleteWishes(List.of(wishId)).isEmpty()) {
+            throw new ResourceNotFoundException("Wish not found with id: " + wishId);
+        }
+    }
 
-        wishRepository.delete(wish);
+    @Override
+    @Transactional
+    public List<Long> deleteWishes(List<Long> wishIds) {
+        User currentUser = authService.getCurrentUser();
 
-        // Evict caches
-        cacheService.evictWishCache(wishId, currentUser.getId());
-        cacheService.evictUserWishesCache(currentUser.getId());
-        if (wish.isCompleted()) {
-            cacheService.evictUserCompletedWishesCache(currentUser.getId());
-        } else {
-            cacheService.evictUserPendingWishesCache(currentUser.getId());
+        var deleted = wishRepository.deleteAll(currentUser.getId(), wishIds);
+        if (deleted.isEmpty()) {
+            return List.of();
         }
-        cacheService.evictUserCategoryWishesCache(currentUser.getId());
+        wishOutbox.append(deleted.stream()
+                .map(wish -> new WishChangedEvent(currentUser.getId(), wish.getId(), WishState.of(wish), null))
+                .toList());
+        return deleted.stream().map(Wish::getId).toList();
     }
 
     @Override
     @Transactional
     public WishDTO markWishAsCompleted(Long wishId) {
+        var completed = markWishesAsCompleted(List.of(wishId));
+        if (!completed.isEmpty()) {
+            return completed.getFirst();
+        }
+        // Already completed, or not the user's
         User currentUser = authService.getCurrentUser();
-
-        Wish wish = wishRepository.findByIdAndUserId(wishId, currentUser.getId())
+        return wishRepository.findByIdAndUserId(wishId, currentUser.getId())
+                .map(wishMapper::map)
                 .orElseThrow(() -> new ResourceNotFoundException("Wish not found with id: " + wishId));
+    }
 
-        wish.markAsCompleted();
-        var updatedWish = getUpdatedWish(wish, currentUser);
+    @Override
+    @Transactional
+    public List<WishDTO> markWishesAsCompleted(List<Long> wishIds) {
+        User currentUser = authService.getCurrentUser();
 
-        return wishMapper.map(updatedWish);
+        var completed = wishRepository.completeAll(currentUser.getId(), wishIds, LocalDateTime.now());
+        if (completed.isEmpty()) {
+            return List.of();
+        }
+        wishOutbox.append(completed.stream()
+                .map(wish -> new WishChangedEvent(currentUser.getId(), wish.getId(),
+                        new WishState(false, wish.getCategory(), wish.getPriority(), wish.getDueDate()), WishState.of(wish)))
+                .toList());
+        return completed.stream().map(wishMapper::map).toList();
     }
 
     @Override
     @Cacheable(value = COMPLETED_WISHES_CACHE_NAME, key = "#userId")
     public List<WishDTO> getCompletedWishes(Long userId) {
-        User currentUser = authService.getCurrentUser();
-        return wishRepository.findByUserIdAndCompletedTrue(currentUser.getId()).stream()
+        return wishRepository.findByUserIdAndCompletedTrue(userId).stream()
                 .map(wishMapper::map)
                 .toList();
     }
@@ -141,8 +230,7 @@ public class WishlistServiceImpl implements WishlistService {
     @Override
     @Cacheable(value = PENDING_WISHES_CACHE_NAME, key = "#userId")
     public List<WishDTO> getPendingWishes(Long userId) {
-        User currentUser = authService.getCurrentUser();
-        return wishRepository.findByUserIdAndCompletedFalse(currentUser.getId()).stream()
+        return wishRepository.findByUserIdAndCompletedFalse(userId).stream()
                 .map(wishMapper::map)
                 .toList();
     }
@@ -150,12 +238,28 @@ public class WishlistServiceImpl implements WishlistService {
     @Override
     @Cacheable(value = CATEGORY_WISHES_CACHE_NAME, key = "#category + '::' + #userId")
     public List<WishDTO> getWishesByCategory(String category, Long userId) {
-        User currentUser = authService.getCurrentUser();
-        return wishRepository.findByUserIdAndCategory(currentUser.getId(), category).stream()
+        return wishRepository.findByUserIdAndCategory(userId, category).stream()
                 .map(wishMapper::map)
                 .toList();
     }
 
+    // Pages are cut from the whole list, cached until the next due date
+    @Override
+    public WishlistDTO getOverdueWishes(Long userId, Pageable pageable) {
+        var overdueWishes = cacheService.getUserOverdueWishes(userId, () -> loadOverdueWishes(userId)).wishes();
+        var from = (int) Math.min(pageable.getOffset(), overdueWishes.size());
+        var to = Math.min(from + pageable.getPageSize(), overdueWishes.size());
+        return buildResult(overdueWishes.subList(from, to), overdueWishes.size(), pageable);
+    }
+
+    private OverdueWishes loadOverdueWishes(Long userId) {
+        var now = LocalDateTime.now();
+        var wishes = wishRepository.findOverdueWishes(userId, now).stream()
+                .map(wishMapper::map)
+                .toList();
+        return new OverdueWishes(wishes, wishRepository.findNextDueDate(userId, now).orElse(null));
+    }
+
     @Override
     public List<WishDTO> searchWishes(String searchTerm) {
         User currentUser = authService.getCurrentUser();
@@ -164,24 +268,70 @@ public class WishlistServiceImpl implements WishlistService {
                 .toList();
     }
 
-    private static WishlistDTO buildResult(List<WishDTO> wishes, long totalItems, Pageable pageable) {
-        var pageSize = pageable.getPageSize();
-        var currentPage = pageable.getPageNumber();
-        var totalPages = (int) Math.ceil((double) totalItems / pageSize);
+    private void recordLookup(Pageable pageable, boolean hit) {
+        if (hit) {
+            cacheMetrics.recordHit(USER_WISHES_CACHE_NAME);
+        } else {
+            cacheMetrics.recordMiss(USER_WISHES_CACHE_NAME);
+        }
+        // How often users wait for a cache load on their first screen
+        if (pageable.getPageNumber() == 0) {
+            cacheMetrics.recordFirstPage(USER_WISHES_CACHE_NAME, hit);
+        }
+    }
 
+    private static WishlistDTO buildResult(List<WishDTO> wishes, long totalItems, Pageable pageable) {
         return WishlistDTO.builder()
                 .wishes(wishes)
                 .totalItems(totalItems)
-                .totalPages(totalPages)
-                .currentPage(currentPage)
+                .totalPages(totalPages(totalItems, pageable))
+                .currentPage(pageable.getPageNumber())
                 .build();
     }
 
-    private void updateUserWishesCache(Long userId, Sort sort) {
-        var allUserWishesSorted = wishRepository.findByUserId(userId, Pageable.unpaged(sort)).stream()
-                .map(wishMapper::map)
-                .toList();
-        cacheService.cacheUserWishes(userId, allUserWishesSorted, sort);
+    private static int totalPages(long totalItems, Pageable pageable) {
+        return (int) Math.ceil((double) totalItems / pageable.getPageSize());
+    }
+
+    // Only if the list was evicted after its total was read
+    private static boolean evictedMeanwhile(List<?> wishes, Pageable pageable, long totalItems) {
+        return wishes.isEmpty() && pageable.getOffset() < totalItems;
+    }
+
+    // Where the windows overlap, they hold the same wishes
+    private static boolean consistent(List<Wish> first, List<Wish> last, long totalItems) {
+        if (totalItems < first.size() || totalItems < last.size()) {
+            return false;
+        }
+        for (int i = 0; i < last.size(); i++) {
+            var position = totalItems - last.size() + i;
+            if (position < first.size() && !first.get((int) position).getId().equals(last.get(i).getId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Lists up to twice the window are cached whole
+    private boolean inWindow(Pageable pageable, long totalItems) {
+        return totalItems <= 2L * window || pageable.getOffset() + pageable.getPageSize() <= window;
+    }
+
+    private void updateUserWishesCache(Long userId, WishSortField sortField) {
+        cacheMetrics.recordLoad(USER_WISHES_CACHE_NAME, () -> {
+            var wishes = wishRepository.findByUserId(userId, sortField.ascending(), Limit.of(2 * window + 1));
+            long totalItems = wishes.size();
+            if (wishes.size() > 2 * window) {
+                var last = wishRepository.findByUserId(userId, sortField.sorted(Sort.Direction.DESC), Limit.of(window)).reversed();
+                totalItems = wishRepository.countByUserId(userId);
+                if (!consistent(wishes, last, totalItems)) {
+                    // Loaded again on the next miss
+                    return;
+                }
+                wishes = Stream.concat(wishes.subList(0, window).stream(), last.stream()).toList();
+            }
+            cacheService.cacheUserWishes(userId, wishes.stream().map(wishMapper::map).toList(), totalItems, sortField);
+        });
     }
 
-}
\ No newline at end of file
+}
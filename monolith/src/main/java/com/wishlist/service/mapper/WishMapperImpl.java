@@ -33,6 +33,7 @@ public class WishMapperImpl implements WishMapper {
                 .completedAt(wish.getCompletedAt())
                 .createdAt(wish.getCreatedAt())
                 .updatedAt(wish.getUpdatedAt())
+                .version(wish.getVersion())
                 .build();
     }
 }
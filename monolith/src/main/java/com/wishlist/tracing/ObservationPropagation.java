@@ -0,0 +1,36 @@
+package com.wishlist.tracing;
+
+import io.micrometer.observation.ObservationRegistry;
+
+import java.util.concurrent.Callable;
+
+// Tasks run on our own thread pools join the caller's current observation
+public final class ObservationPropagation {
+
+    private ObservationPropagation() {
+    }
+
+    public static Runnable wrap(ObservationRegistry registry, Runnable task) {
+        var observation = registry.getCurrentObservation();
+        if (observation == null) {
+            return task;
+        }
+        return () -> {
+            try (var ignored = observation.openScope()) {
+                task.run();
+            }
+        };
+    }
+
+    public static <T> Callable<T> wrap(ObservationRegistry registry, Callable<T> task) {
+        var observation = registry.getCurrentObservation();
+        if (observation == null) {
+            return task;
+        }
+        return () -> {
+            try (var ignored = observation.openScope()) {
+                return task.call();
+            }
+        };
+    }
+}
@@ -0,0 +1,280 @@
+package com.wishlist.tracing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wishlist.dto.SpanDTO;
+import com.wishlist.dto.TraceDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records observations as the spans of traces, without a tracing library. Only the {@code roots} without a parent
+ * start a trace, for a {@code sample-rate} share of them. Spans ending after their root, like background cache
+ * loads, only show in memory, not in the {@code file}.
+ */
+@Component
+@Slf4j
+public class TraceRecorder implements ObservationHandler<Observation.Context>, DisposableBean {
+
+    public static final String TRACE_ID_KEY = "traceId";
+    public static final String SPAN_ID_KEY = "spanId";
+    public static final String DROPPED_METRIC = "wishlist.tracing.dropped";
+
+    // Further spans of a trace aren't recorded
+    static final int MAX_SPANS_PER_TRACE = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> roots;
+    private final double sampleRate;
+    private final int maxTraces;
+    private final Path file;
+    private final ThreadPoolExecutor fileWriter;
+    // Most recent first
+    private final Deque<Trace> traces = new ArrayDeque<>();
+
+    public TraceRecorder(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                         @Value("${wishlist.tracing.roots:http.server.requests}") Set<String> roots,
+                         @Value("${wishlist.tracing.sample-rate:0.01}") double sampleRate,
+                         @Value("${wishlist.tracing.max-traces:200}") int maxTraces,
+                         @Value("${wishlist.tracing.file:}") String file) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.roots = roots;
+        this.sampleRate = sampleRate;
+        this.maxTraces = maxTraces;
+        this.file = file.isBlank() ? null : Path.of(file);
+        this.fileWriter = this.file == null ? null : new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1000), new CustomizableThreadFactory("trace-writer-"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return true;
+    }
+
+    @Override
+    public void onStart(Observation.Context context) {
+        var parent = context.getParentObservation();
+        Span span;
+        if (parent != null) {
+            // null when the parent's trace wasn't sampled
+            Span parentSpan = parent.getContextView().get(Span.class);
+            span = parentSpan != null ? parentSpan.trace.start(parentSpan.id) : null;
+        } else if (roots.contains(context.getName()) && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            span = new Trace(newId(16)).start(null);
+        } else {
+            span = null;
+        }
+        if (span != null) {
+            span.name = context.getContextualName() != null ? context.getContextualName() : context.getName();
+            context.put(Span.class, span);
+        }
+    }
+
+    @Override
+    public void onStop(Observation.Context context) {
+        Span span = context.get(Span.class);
+        if (span == null) {
+            return;
+        }
+        span.finish(context);
+        if (span.parentId == null) {
+            keep(span.trace);
+        }
+    }
+
+    @Override
+    public void onScopeOpened(Observation.Context context) {
+        putInMdc(context.get(Span.class));
+    }
+
+    @Override
+    public void onScopeClosed(Observation.Context context) {
+        var parent = context.getParentObservation();
+        putInMdc(parent != null ? parent.getContextView().get(Span.class) : null);
+    }
+
+    public static boolean isTraced(Observation observation) {
+        return observation != null && observation.getContextView().get(Span.class) != null;
+    }
+
+    // The most recent traces whose root took at least minDurationMillis
+    public List<TraceDTO> recentTraces(int limit, long minDurationMillis) {
+        List<Trace> recent;
+        synchronized (traces) {
+            recent = List.copyOf(traces);
+        }
+        return recent.stream()
+                .map(Trace::toDto)
+                .filter(trace -> trace.getDurationMillis() >= minDurationMillis)
+                .limit(limit)
+                .toList();
+    }
+
+    private void keep(Trace trace) {
+        synchronized (traces) {
+            traces.addFirst(trace);
+            if (traces.size() > maxTraces) {
+                traces.removeLast();
+            }
+        }
+        if (fileWriter != null) {
+            try {
+                fileWriter.execute(() -> write(trace));
+            } catch (RejectedExecutionException e) {
+                dropped("file_queue_full");
+            }
+        }
+    }
+
+    private void write(Trace trace) {
+        try {
+            Files.writeString(file, objectMapper.writeValueAsString(trace.toDto()) + "\n",
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize trace {}: {}", trace.id, e.getMessage());
+        } catch (IOException e) {
+            log.warn("Could not write trace {} to {}: {}", trace.id, file, e.getMessage());
+            dropped("file_error");
+        }
+    }
+
+    private void dropped(String reason) {
+        Counter.builder(DROPPED_METRIC)
+                .description("Traces or spans that weren't recorded")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static void putInMdc(Span span) {
+        if (span != null) {
+            MDC.put(TRACE_ID_KEY, span.trace.id);
+            MDC.put(SPAN_ID_KEY, span.id);
+        } else {
+            MDC.remove(TRACE_ID_KEY);
+            MDC.remove(SPAN_ID_KEY);
+        }
+    }
+
+    private static String newId(int bytes) {
+        var id = new byte[bytes];
+        ThreadLocalRandom.current().nextBytes(id);
+        return HexFormat.of().formatHex(id);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (fileWriter != null) {
+            fileWriter.shutdown();
+            fileWriter.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private final class Trace {
+
+        private final String id;
+        private final Queue<Span> spans = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        Trace(String id) {
+            this.id = id;
+        }
+
+        Span start(String parentId) {
+            if (size.incrementAndGet() > MAX_SPANS_PER_TRACE) {
+                dropped("too_many_spans");
+                return null;
+            }
+            var span = new Span(this, newId(8), parentId);
+            spans.add(span);
+            return span;
+        }
+
+        TraceDTO toDto() {
+            var sorted = spans.stream().sorted(Comparator.comparingLong(span -> span.startNanos)).toList();
+            var root = sorted.getFirst();
+            return TraceDTO.builder()
+                    .traceId(id)
+                    .name(root.name)
+                    .start(root.start)
+                    .durationMillis(root.durationNanos / 1e6)
+                    .spans(sorted.stream().map(span -> span.toDto(root.startNanos)).toList())
+                    .build();
+        }
+    }
+
+    // Written by the thread stopping the observation, read once the trace is kept
+    private static final class Span {
+
+        private final Trace trace;
+        private final String id;
+        private final String parentId;
+        private final Instant start = Instant.now();
+        private final long startNanos = System.nanoTime();
+        private volatile String name;
+        private volatile long durationNanos = -1;
+        private volatile Map<String, String> tags = Map.of();
+        private volatile String error;
+
+        Span(Trace trace, String id, String parentId) {
+            this.trace = trace;
+            this.id = id;
+            this.parentId = parentId;
+        }
+
+        void finish(Observation.Context context) {
+            var tags = new LinkedHashMap<String, String>();
+            context.getLowCardinalityKeyValues().forEach(keyValue -> tags.put(keyValue.getKey(), keyValue.getValue()));
+            context.getHighCardinalityKeyValues().forEach(keyValue -> tags.put(keyValue.getKey(), keyValue.getValue()));
+            this.tags = tags;
+            var thrown = context.getError();
+            this.error = thrown != null ? thrown.getClass().getSimpleName() + ": " + thrown.getMessage() : null;
+            this.name = context.getContextualName() != null ? context.getContextualName() : context.getName();
+            this.durationNanos = System.nanoTime() - startNanos;
+        }
+
+        SpanDTO toDto(long rootStartNanos) {
+            return SpanDTO.builder()
+                    .spanId(id)
+                    .parentId(parentId)
+                    .name(name)
+                    .offsetMillis((startNanos - rootStartNanos) / 1e6)
+                    .durationMillis(durationNanos >= 0 ? durationNanos / 1e6 : null)
+                    .tags(tags)
+                    .error(error)
+                    .build();
+        }
+    }
+}
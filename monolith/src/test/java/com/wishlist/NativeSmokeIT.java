@@ -0,0 +1,230 @@
+package com.wishlist;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * End-to-end smoke test of the packaged application, run by failsafe in the {@code native} profile
+ * (against the native executable) and the {@code smoke} profile (against the executable jar).
+ * <p>
+ * The application runs with its default in-memory H2 database and an in-process Redis stand-in, and is
+ * driven over HTTP through the paths that depend on reflection: JPA entities, JWT, JSON bodies, the
+ * Redis caches and the API docs.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class NativeSmokeIT {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final String PASSWORD = "smoke-password";
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private RedisServer redisServer;
+    private Process application;
+    private Path applicationLog;
+    private String baseUrl;
+    private String managementUrl;
+
+    private String token;
+    private long wishId;
+
+    @BeforeAll
+    void startApplication() throws Exception {
+        redisServer = RedisServer.newRedisServer(0).start();
+        int port = freePort();
+        baseUrl = "http://localhost:" + port + "/api";
+        int managementPort = freePort();
+        managementUrl = "http://localhost:" + managementPort;
+
+        var command = new ArrayList<>(Arrays.asList(System.getProperty("smoke.command", "java -jar target/wishlist-service-exec.jar").split(" ")));
+        command.addAll(List.of(
+                "--server.port=" + port,
+                "--management.server.port=" + managementPort,
+                "--spring.data.redis.port=" + redisServer.getBindPort(),
+                "--spring.jpa.show-sql=false"));
+        applicationLog = Files.createTempFile("wishlist-smoke", ".log");
+        application = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(applicationLog.toFile())
+                .start();
+        awaitReadiness();
+    }
+
+    @AfterAll
+    void stopApplication() throws Exception {
+        if (application != null) {
+            application.destroy();
+            if (!application.waitFor(30, TimeUnit.SECONDS)) {
+                application.destroyForcibly();
+            }
+        }
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @Test
+    @Order(1)
+    void signupAndLogin() throws Exception {
+        var username = "smoke-" + System.currentTimeMillis();
+        var signup = post("/auth/signup", """
+                {"username":"%s","email":"%s@smoke.local","password":"%s"}""".formatted(username, username, PASSWORD));
+        assertEquals(201, signup.statusCode(), signup.body());
+
+        var login = post("/auth/login", """
+                {"username":"%s","password":"%s"}""".formatted(username, PASSWORD));
+        assertEquals(200, login.statusCode(), login.body());
+        token = json(login).get("accessToken").asText();
+
+        var me = send(authorized("/auth/me").GET());
+        assertEquals(200, me.statusCode(), me.body());
+        assertEquals(username, json(me).get("username").asText());
+    }
+
+    @Test
+    @Order(2)
+    void createAndReadWish() throws Exception {
+        var created = send(authorized("/wishes").POST(body("""
+                {"title":"Smoke test","description":"From NativeSmokeIT","priority":2,"category":"Books","dueDate":"2030-01-01T12:00:00"}""")));
+        assertEquals(201, created.statusCode(), created.body());
+        wishId = json(created).get("id").asLong();
+        assertNotNull(json(created).get("createdAt").textValue());
+
+        // The second page read is served from the Redis list
+        for (int i = 0; i < 2; i++) {
+            var page = send(authorized("/wishes").GET());
+            assertEquals(200, page.statusCode(), page.body());
+            assertEquals(1, json(page).get("totalItems").asInt());
+            assertEquals("Smoke test", json(page).get("wishes").get(0).get("title").asText());
+        }
+
+        var epoch = send(authorized("/wishes").header("Accept", "application/json;timestamps=epoch").GET());
+        assertEquals(200, epoch.statusCode(), epoch.body());
+        assertTrue(json(epoch).get("wishes").get(0).get("dueDate").isNumber());
+
+        var wish = send(authorized("/wishes/" + wishId).GET());
+        assertEquals(200, wish.statusCode(), wish.body());
+        assertEquals("Books", json(wish).get("category").asText());
+    }
+
+    @Test
+    @Order(3)
+    void updateCompleteAndQueryWish() throws Exception {
+        var updated = send(authorized("/wishes/" + wishId).PUT(body("""
+                {"title":"Smoke test, updated","priority":4,"category":"Travel"}""")));
+        assertEquals(200, updated.statusCode(), updated.body());
+
+        var completed = send(authorized("/wishes/" + wishId + "/complete").method("PATCH", HttpRequest.BodyPublishers.noBody()));
+        assertEquals(200, completed.statusCode(), completed.body());
+        assertTrue(json(completed).get("completed").asBoolean());
+
+        assertEquals(1, json(send(authorized("/wishes/completed").GET())).size());
+        assertEquals(0, json(send(authorized("/wishes/pending").GET())).size());
+        assertEquals(1, json(send(authorized("/wishes/category/Travel").GET())).size());
+        assertEquals(1, json(send(authorized("/wishes/search?term=updated").GET())).size());
+    }
+
+    @Test
+    @Order(4)
+    void deleteWish() throws Exception {
+        assertEquals(204, send(authorized("/wishes/" + wishId).DELETE()).statusCode());
+        assertEquals(404, send(authorized("/wishes/" + wishId).GET()).statusCode());
+    }
+
+    @Test
+    @Order(5)
+    void rejectInvalidToken() throws Exception {
+        var response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/wishes"))
+                .header("Authorization", "Bearer not-a-token")
+                .GET());
+        assertTrue(response.statusCode() == 401 || response.statusCode() == 403, response.body());
+    }
+
+    @Test
+    @Order(6)
+    void serveOperationalEndpoints() throws Exception {
+        var prometheus = send(HttpRequest.newBuilder(URI.create(managementUrl + "/actuator/prometheus")).GET());
+        assertEquals(200, prometheus.statusCode());
+        assertTrue(prometheus.body().contains("http_server_requests_seconds_count"));
+        assertEquals(403, send(authorized("/actuator/prometheus").GET()).statusCode());
+
+        var apiDocs = send(HttpRequest.newBuilder(URI.create(baseUrl + "/v3/api-docs")).GET());
+        assertEquals(200, apiDocs.statusCode(), apiDocs.body());
+        assertTrue(json(apiDocs).get("paths").has("/wishes/{wishId}"));
+
+        var swaggerUi = send(HttpRequest.newBuilder(URI.create(baseUrl + "/swagger-ui/index.html")).GET());
+        assertEquals(200, swaggerUi.statusCode());
+    }
+
+    private void awaitReadiness() throws Exception {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!application.isAlive()) {
+                fail("Application exited with " + application.exitValue() + ":\n" + Files.readString(applicationLog));
+            }
+            try {
+                var readiness = send(HttpRequest.newBuilder(URI.create(managementUrl + "/actuator/health/readiness")).GET());
+                if (readiness.statusCode() == 200) {
+                    return;
+                }
+            } catch (ConnectException e) {
+                // Not listening yet
+            }
+            Thread.sleep(250);
+        }
+        fail("Application not ready after " + STARTUP_TIMEOUT + ":\n" + Files.readString(applicationLog));
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path)).POST(body(json)));
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).header("Authorization", "Bearer " + token);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.header("Content-Type", "application/json").build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode json(HttpResponse<String> response) throws IOException {
+        return objectMapper.readTree(response.body());
+    }
+
+    private static HttpRequest.BodyPublisher body(String json) {
+        return HttpRequest.BodyPublishers.ofString(json);
+    }
+
+    private static int freePort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.wishlist.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.wishlist.dto.OverdueWishes;
+import com.wishlist.dto.WishDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.wishlist.service.CacheServiceImpl.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class RedisConfigTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .addModule(new JacksonConfig().wishlistJsonModule())
+            .build();
+    private RedisCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = (RedisCacheManager) new RedisConfig().cacheManager(mock(RedisConnectionFactory.class), objectMapper);
+        cacheManager.afterPropertiesSet();
+    }
+
+    @Test
+    void listCaches_shouldReadBackTheListsTheyStore() {
+        var wishes = List.of(WishDTO.builder().id(1L).title("A").priority(1).build(),
+                WishDTO.builder().id(2L).title("B").priority(2).build());
+
+        for (var cacheName : List.of(COMPLETED_WISHES_CACHE_NAME, PENDING_WISHES_CACHE_NAME, CATEGORY_WISHES_CACHE_NAME)) {
+            assertEquals(wishes, roundTrip(cacheName, wishes), cacheName);
+        }
+    }
+
+    @Test
+    void wishCache_shouldReadBackWishes() {
+        var wish = WishDTO.builder().id(1L).title("A").priority(1).build();
+
+        assertEquals(wish, roundTrip(WISH_CACHE_NAME, wish));
+    }
+
+    @Test
+    void overdueWishesCache_shouldReadBackTheOverdueWishes() {
+        var overdue = new OverdueWishes(List.of(WishDTO.builder().id(1L).title("A").dueDate(LocalDateTime.of(2025, 1, 1, 12, 0)).build()),
+                LocalDateTime.of(2025, 2, 1, 12, 0));
+
+        assertEquals(overdue, roundTrip(OVERDUE_WISHES_CACHE_NAME, overdue));
+    }
+
+    @Test
+    void overdueWishesTtl_shouldLastUntilTheNextDueDate_atMostTheDefault() {
+        var ttl = RedisConfig.overdueWishesTtl(Duration.ofMinutes(10));
+
+        var untilNextDueDate = ttl.getTimeToLive("1", new OverdueWishes(List.of(), LocalDateTime.now().plusMinutes(5)));
+
+        assertTrue(untilNextDueDate.compareTo(Duration.ofMinutes(4)) > 0 && untilNextDueDate.compareTo(Duration.ofMinutes(5)) <= 0);
+        assertEquals(Duration.ofMinutes(10), ttl.getTimeToLive("1", new OverdueWishes(List.of(), LocalDateTime.now().plusDays(1))));
+        assertEquals(Duration.ofMinutes(10), ttl.getTimeToLive("1", new OverdueWishes(List.of(), null)));
+        // Already due by the time it's cached, expires right away
+        assertEquals(Duration.ofMillis(1), ttl.getTimeToLive("1", new OverdueWishes(List.of(), LocalDateTime.now().minusSeconds(1))));
+    }
+
+    private Object roundTrip(String cacheName, Object value) {
+        var cache = (RedisCache) ((TransactionAwareCacheDecorator) cacheManager.getCache(cacheName)).getTargetCache();
+        var valuePair = cache.getCacheConfiguration().getValueSerializationPair();
+        ByteBuffer written = valuePair.write(value);
+        return valuePair.read(written);
+    }
+}
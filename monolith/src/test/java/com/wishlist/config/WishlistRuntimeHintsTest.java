@@ -0,0 +1,43 @@
+package com.wishlist.config;
+
+import com.wishlist.dto.WishDTO;
+import com.wishlist.model.Wish;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import org.springframework.util.ClassUtils;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WishlistRuntimeHintsTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    @BeforeEach
+    void setUp() {
+        new WishlistRuntimeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void registerHints_shouldCoverJjwtImplementation() {
+        for (String className : WishlistRuntimeHints.JJWT_IMPL_CLASSES) {
+            // Catches classes renamed or moved by a jjwt upgrade
+            assertTrue(ClassUtils.isPresent(className, getClass().getClassLoader()), className);
+            assertTrue(RuntimeHintsPredicates.reflection().onType(TypeReference.of(className))
+                    .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints), className);
+        }
+        assertTrue(RuntimeHintsPredicates.resource().forResource("META-INF/services/io.jsonwebtoken.io.Serializer").test(hints));
+    }
+
+    @Test
+    void registerHints_shouldCoverEntitiesAndDtos() {
+        assertTrue(RuntimeHintsPredicates.reflection().onType(Wish.class)
+                .withMemberCategory(MemberCategory.DECLARED_FIELDS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(WishDTO.class, "getTitle").test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("META-INF/resources/webjars/swagger-ui/5.18.3/index.html").test(hints));
+    }
+}
@@ -1,9 +1,14 @@
 package com.wishlist.controller;
 
+import com.wishlist.dto.CategoryDTO;
 import com.wishlist.dto.WishDTO;
+import com.wishlist.dto.WishStatsDTO;
 import com.wishlist.dto.WishlistDTO;
+import com.wishlist.dto.WishlistJsonPage;
 import com.wishlist.model.User;
 import com.wishlist.service.AuthService;
+import com.wishlist.service.WishEventStream;
+import com.wishlist.service.WishStatsService;
 import com.wishlist.service.WishlistService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,10 +18,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,6 +44,12 @@ class WishlistControllerTest {
     @Mock
     private WishlistService wishlistService;
 
+    @Mock
+    private WishStatsService wishStatsService;
+
+    @Mock
+    private WishEventStream wishEventStream;
+
     @InjectMocks
     private WishlistController wishlistController;
 
@@ -59,7 +74,7 @@ class WishlistControllerTest {
                 .thenReturn(wishlistDTO);
 
         // Act
-        var response = wishlistController.getUserWishes(0, 10, "createdAt", "desc");
+        var response = wishlistController.getUserWishes(0, 10, "createdAt", "desc", null);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
@@ -70,6 +85,35 @@ class WishlistControllerTest {
         verify(wishlistService).getUserWishes(eq(USER_ID), any(Pageable.class));
     }
 
+    @Test
+    void shouldReturnCachedJsonPageUnlessEpochTimestampsAreRequested() {
+        // Arrange
+        ReflectionTestUtils.setField(wishlistController, "rawJsonPages", true);
+        var jsonPage = WishlistJsonPage.builder().wishes(List.of("{\"id\":100}".getBytes())).totalItems(1L).totalPages(1).build();
+        var wishlistDTO = WishlistDTO.builder().wishes(List.of(WishDTO.builder().id(100L).build())).totalItems(1L).totalPages(1).build();
+        when(wishlistService.getUserWishesJson(eq(USER_ID), any(Pageable.class))).thenReturn(Optional.of(jsonPage));
+        when(wishlistService.getUserWishes(eq(USER_ID), any(Pageable.class))).thenReturn(wishlistDTO);
+
+        // Act & Assert
+        assertEquals(jsonPage, wishlistController.getUserWishes(0, 10, "createdAt", "desc", "application/json").getBody());
+        assertEquals(wishlistDTO, wishlistController.getUserWishes(0, 10, "createdAt", "desc", "application/json;timestamps=epoch").getBody());
+    }
+
+    @Test
+    void shouldReturnTheDtoPage_whenThePageIsNotCached() {
+        // Arrange
+        ReflectionTestUtils.setField(wishlistController, "rawJsonPages", true);
+        var wishlistDTO = WishlistDTO.builder().wishes(List.of(WishDTO.builder().id(100L).build())).totalItems(1L).totalPages(1).build();
+        when(wishlistService.getUserWishesJson(eq(USER_ID), any(Pageable.class))).thenReturn(Optional.empty());
+        when(wishlistService.getUserWishes(eq(USER_ID), any(Pageable.class))).thenReturn(wishlistDTO);
+
+        // Act
+        var response = wishlistController.getUserWishes(5, 10, "createdAt", "desc", "application/json");
+
+        // Assert
+        assertEquals(wishlistDTO, response.getBody());
+    }
+
     @Test
     void shouldCreateNewWishAndReturnWithId() {
         // Arrange
@@ -112,17 +156,17 @@ class WishlistControllerTest {
         // Arrange
         var wishId = 1L;
         var updatedWish = WishDTO.builder().id(wishId).title("Updated").build();
-        when(wishlistService.updateWish(eq(wishId), any(WishDTO.class))).thenReturn(updatedWish);
+        when(wishlistService.updateWish(eq(wishId), any(WishDTO.class), isNull())).thenReturn(updatedWish);
 
         // Act
-        var response = wishlistController.updateWish(wishId, updatedWish);
+        var response = wishlistController.updateWish(wishId, null, updatedWish);
 
         // Assert
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(updatedWish, response.getBody());
 
         // Verify
-        verify(wishlistService).updateWish(wishId, updatedWish);
+        verify(wishlistService).updateWish(wishId, updatedWish, null);
     }
 
     @Test
@@ -222,6 +266,57 @@ class WishlistControllerTest {
         verify(wishlistService).getWishesByCategory(category, USER_ID);
     }
 
+    @Test
+    void shouldReturnOverdueWishesPage() {
+        // Arrange
+        var overdue = WishlistDTO.builder()
+                .wishes(List.of(WishDTO.builder().id(100L).title("Late").build()))
+                .totalItems(1L)
+                .totalPages(1)
+                .currentPage(0)
+                .build();
+        when(wishlistService.getOverdueWishes(USER_ID, PageRequest.of(0, 20))).thenReturn(overdue);
+
+        // Act
+        var response = wishlistController.getOverdueWishes(0, 20);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(overdue, response.getBody());
+
+        // Verify
+        verify(wishlistService).getOverdueWishes(USER_ID, PageRequest.of(0, 20));
+    }
+
+    @Test
+    void shouldReturnWishStats() {
+        // Arrange
+        var stats = WishStatsDTO.builder().total(3).completed(1).pending(2).overdue(1)
+                .categories(Map.of("books", 2L)).priorities(Map.of(1, 3L)).build();
+        when(wishStatsService.getStats(USER_ID)).thenReturn(stats);
+
+        // Act
+        var response = wishlistController.getWishStats();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(stats, response.getBody());
+    }
+
+    @Test
+    void shouldReturnCategories() {
+        // Arrange
+        var categories = List.of(new CategoryDTO("books", 2), new CategoryDTO("travel", 1));
+        when(wishStatsService.getCategories(USER_ID)).thenReturn(categories);
+
+        // Act
+        var response = wishlistController.getCategories();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(categories, response.getBody());
+    }
+
     @Test
     void shouldSearchWishesByKeyword() {
         // Arrange
@@ -1,36 +1,60 @@
 package com.wishlist.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wishlist.config.JacksonConfig;
+import com.wishlist.dto.BulkWishRequest;
+import com.wishlist.dto.CategoryDTO;
 import com.wishlist.dto.WishDTO;
+import com.wishlist.dto.WishStatsDTO;
 import com.wishlist.dto.WishlistDTO;
+import com.wishlist.dto.WishlistJsonPage;
+import com.wishlist.exception.PreconditionFailedException;
 import com.wishlist.exception.ResourceNotFoundException;
+import com.wishlist.metrics.StatementStats;
 import com.wishlist.model.User;
 import com.wishlist.security.JwtTokenProvider;
+import com.wishlist.security.RateLimiter;
+import com.wishlist.security.TokenDenyList;
 import com.wishlist.service.AuthService;
+import com.wishlist.service.WishEventStream;
+import com.wishlist.service.WishStatsService;
 import com.wishlist.service.WishlistService;
+import io.micrometer.observation.ObservationRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.mapping.JpaMetamodelMappingContext;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SuppressWarnings("unused")
 @WebMvcTest(WishlistController.class)
 @AutoConfigureMockMvc(addFilters = false)
+@Import(JacksonConfig.class)
 class WishlistControllerTestIT {
 
     @Autowired
@@ -45,9 +69,27 @@ class WishlistControllerTestIT {
     @MockitoBean
     private WishlistService wishlistService;
 
+    @MockitoBean
+    private WishStatsService wishStatsService;
+
+    @MockitoBean
+    private WishEventStream wishEventStream;
+
     @MockitoBean
     private JwtTokenProvider jwtTokenProvider;
 
+    @MockitoBean
+    private TokenDenyList tokenDenyList;
+
+    @MockitoBean
+    private RateLimiter rateLimiter;
+
+    @MockitoBean
+    private StatementStats statementStats;
+
+    @MockitoBean
+    private ObservationRegistry observationRegistry;
+
     @MockitoBean
     private JpaMetamodelMappingContext jpaMetamodelMappingContext;
 
@@ -61,14 +103,14 @@ class WishlistControllerTestIT {
     @Test
     void getUserWishesTest() throws Exception {
         var wish = WishDTO.builder().id(1L).title("Test Wish").build();
-        var wishlistDTO = WishlistDTO.builder()
-                .wishes(List.of(wish))
+        var wishlistJsonPage = WishlistJsonPage.builder()
+                .wishes(List.of(objectMapper.writeValueAsBytes(wish)))
                 .totalItems(1L)
                 .totalPages(1)
                 .currentPage(0)
                 .build();
 
-        when(wishlistService.getUserWishes(anyLong(), any())).thenReturn(wishlistDTO);
+        when(wishlistService.getUserWishesJson(anyLong(), any())).thenReturn(Optional.of(wishlistJsonPage));
 
         mockMvc.perform(get("/wishes")
                         .param("page", "0")
@@ -79,7 +121,29 @@ class WishlistControllerTestIT {
                 .andExpect(jsonPath("$.totalItems").value(1))
                 .andExpect(jsonPath("$.wishes[0].title").value("Test Wish"));
 
-        verify(wishlistService, times(1)).getUserWishes(eq(1L), any(Pageable.class));
+        verify(wishlistService, times(1)).getUserWishesJson(eq(1L), any(Pageable.class));
+    }
+
+    @Test
+    void getUserWishes_withUnknownSortField_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/wishes").param("sortBy", "description"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(wishlistService);
+    }
+
+    @Test
+    void getUserWishes_withEpochTimestampsRequested_writesEpochMillis() throws Exception {
+        var createdAt = LocalDateTime.of(2025, 4, 1, 12, 30, 15, 123_000_000);
+        var wish = WishDTO.builder().id(1L).title("Test Wish").createdAt(createdAt).build();
+        var wishlistDTO = WishlistDTO.builder().wishes(List.of(wish)).totalItems(1L).totalPages(1).build();
+
+        when(wishlistService.getUserWishes(anyLong(), any())).thenReturn(wishlistDTO);
+
+        mockMvc.perform(get("/wishes").accept("application/json;timestamps=epoch"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.wishes[0].createdAt").value(createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()))
+                .andExpect(jsonPath("$.wishes[0].dueDate").doesNotExist());
     }
 
     @Test
@@ -115,7 +179,7 @@ class WishlistControllerTestIT {
     @Test
     void updateWishTest() throws Exception {
         var updatedWish = WishDTO.builder().id(3L).title("Updated Wish").build();
-        when(wishlistService.updateWish(anyLong(), any())).thenReturn(updatedWish);
+        when(wishlistService.updateWish(anyLong(), any(), any())).thenReturn(updatedWish);
 
         mockMvc.perform(put("/wishes/3")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -124,7 +188,72 @@ class WishlistControllerTestIT {
                 .andExpect(jsonPath("$.id").value(3))
                 .andExpect(jsonPath("$.title").value("Updated Wish"));
 
-        verify(wishlistService).updateWish(3L, updatedWish);
+        verify(wishlistService).updateWish(3L, updatedWish, null);
+    }
+
+    @Test
+    void updateWish_shouldPassTheIfMatchVersion_andReturnTheNewETag() throws Exception {
+        var wish = WishDTO.builder().id(3L).title("Updated Wish").build();
+        when(wishlistService.updateWish(anyLong(), any(), any())).thenReturn(WishDTO.builder().id(3L).title("Updated Wish").version(8L).build());
+
+        mockMvc.perform(put("/wishes/3")
+                        .header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(wish)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"8\""))
+                .andExpect(jsonPath("$.version").value(8));
+
+        verify(wishlistService).updateWish(3L, wish, 7L);
+    }
+
+    @Test
+    void updateWish_shouldReturn412_ifTheWishChanged() throws Exception {
+        var wish = WishDTO.builder().id(3L).title("Updated Wish").build();
+        when(wishlistService.updateWish(anyLong(), any(), any())).thenThrow(new PreconditionFailedException("changed"));
+
+        mockMvc.perform(put("/wishes/3")
+                        .header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(wish)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(wishlistService).updateWish(3L, wish, 7L);
+    }
+
+    @Test
+    void updateWish_shouldReturn412_forIfMatchTagsThatCantMatch() throws Exception {
+        // Not a version, and weak tags, which If-Match never matches
+        for (var ifMatch : List.of("\"abc\"", "W/\"7\"", "W/\"7\", \"abc\"")) {
+            mockMvc.perform(put("/wishes/3")
+                            .header(HttpHeaders.IF_MATCH, ifMatch)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(WishDTO.builder().title("Updated Wish").build())))
+                    .andExpect(status().isPreconditionFailed());
+        }
+
+        verifyNoInteractions(wishlistService);
+    }
+
+    @Test
+    void updateWish_shouldTakeTheOneVersionOfAnIfMatchList() throws Exception {
+        var wish = WishDTO.builder().id(3L).title("Updated Wish").build();
+        when(wishlistService.updateWish(anyLong(), any(), any())).thenReturn(WishDTO.builder().id(3L).version(8L).build());
+
+        mockMvc.perform(put("/wishes/3")
+                        .header(HttpHeaders.IF_MATCH, "W/\"6\", \"7\", \"abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(wish)))
+                .andExpect(status().isOk());
+        mockMvc.perform(put("/wishes/3")
+                        .header(HttpHeaders.IF_MATCH, "\"3\", \"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(wish)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(result -> assertEquals("If-Match \"3\", \"4\" lists several versions of wish 3, send only the one the change is based on",
+                        result.getResolvedException().getMessage()));
+
+        verify(wishlistService, times(1)).updateWish(3L, wish, 7L);
     }
 
     @Test
@@ -147,6 +276,41 @@ class WishlistControllerTestIT {
         verify(wishlistService).markWishAsCompleted(5L);
     }
 
+    @Test
+    void markWishesAsCompletedTest() throws Exception {
+        var completed = List.of(WishDTO.builder().id(5L).completed(true).build());
+        when(wishlistService.markWishesAsCompleted(List.of(5L, 6L))).thenReturn(completed);
+
+        mockMvc.perform(patch("/wishes/bulk/complete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkWishRequest(List.of(5L, 6L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(5))
+                .andExpect(jsonPath("$[0].completed").value(true));
+    }
+
+    @Test
+    void deleteWishesTest() throws Exception {
+        when(wishlistService.deleteWishes(List.of(4L, 7L))).thenReturn(List.of(4L));
+
+        mockMvc.perform(post("/wishes/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkWishRequest(List.of(4L, 7L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(1))
+                .andExpect(jsonPath("$.ids[0]").value(4));
+    }
+
+    @Test
+    void deleteWishes_shouldRejectAnEmptyList() throws Exception {
+        mockMvc.perform(post("/wishes/bulk/delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new BulkWishRequest(List.of()))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(wishlistService);
+    }
+
     @Test
     void getCompletedWishesTest() throws Exception {
         var wishes = List.of(WishDTO.builder().completed(true).build());
@@ -196,6 +360,48 @@ class WishlistControllerTestIT {
         verify(wishlistService).searchWishes("bike");
     }
 
+    @Test
+    void getWishStatsTest() throws Exception {
+        var stats = WishStatsDTO.builder().total(3).completed(1).pending(2).overdue(1)
+                .categories(Map.of("books", 2L)).priorities(Map.of(1, 3L)).build();
+        when(wishStatsService.getStats(1L)).thenReturn(stats);
+
+        mockMvc.perform(get("/wishes/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pending").value(2))
+                .andExpect(jsonPath("$.overdue").value(1))
+                .andExpect(jsonPath("$.categories.books").value(2))
+                .andExpect(jsonPath("$.priorities.1").value(3));
+    }
+
+    @Test
+    void streamWishEvents_shouldPassTheLastEventId_andStreamTheEvents() throws Exception {
+        var emitter = new SseEmitter();
+        when(wishEventStream.subscribe(1L, "1743510615000-0")).thenReturn(emitter);
+
+        var result = mockMvc.perform(get("/wishes/events").header("Last-Event-ID", "1743510615000-0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().id("1743510615001-0").name("wishChanged").data("{}"));
+        emitter.complete();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.TEXT_EVENT_STREAM_VALUE))
+                .andExpect(content().string("id:1743510615001-0\nevent:wishChanged\ndata:{}\n\n"));
+    }
+
+    @Test
+    void getCategoriesTest() throws Exception {
+        when(wishStatsService.getCategories(1L)).thenReturn(List.of(new CategoryDTO("books", 2), new CategoryDTO("travel", 1)));
+
+        mockMvc.perform(get("/wishes/categories"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("books"))
+                .andExpect(jsonPath("$[0].count").value(2))
+                .andExpect(jsonPath("$[1].name").value("travel"));
+    }
+
     @Test
     void getWishByIdNotFoundReturns404() throws Exception {
         var wishId = 999L;
@@ -0,0 +1,123 @@
+package com.wishlist.datasource;
+
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Against an in-memory Redis stand-in, two trackers play two application nodes
+class ReadYourWritesTest {
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final TransactionTemplate transaction = new TransactionTemplate(
+            new DataSourceTransactionManager(new DriverManagerDataSource("jdbc:h2:mem:readYourWrites", "sa", "")));
+    private ReadYourWrites readYourWrites;
+    private ReadYourWrites otherNode;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redisServer = RedisServer.newRedisServer(0).start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        readYourWrites = new ReadYourWrites(redisTemplate, Duration.ofSeconds(5));
+        otherNode = new ReadYourWrites(redisTemplate, Duration.ofSeconds(5));
+    }
+
+    @Test
+    void recordOnCommit_shouldRecordTheWriteOnAllNodes_afterCommit() {
+        RoutingSubject.runAs("anna", () -> transaction.execute(status -> {
+            readYourWrites.recordOnCommit();
+            assertFalse(readYourWrites.wroteRecently("anna"));
+            return null;
+        }));
+
+        assertTrue(readYourWrites.wroteRecently("anna"));
+        assertTrue(otherNode.wroteRecently("anna"));
+        assertFalse(otherNode.wroteRecently("ben"));
+    }
+
+    @Test
+    void recordOnCommit_shouldIgnoreRolledBackTransactions() {
+        RoutingSubject.runAs("anna", () -> transaction.execute(status -> {
+            readYourWrites.recordOnCommit();
+            status.setRollbackOnly();
+            return null;
+        }));
+
+        assertFalse(readYourWrites.wroteRecently("anna"));
+    }
+
+    @Test
+    void wroteRecently_shouldExpireAfterTheWindow() throws InterruptedException {
+        var shortWindow = new ReadYourWrites(redisTemplate, Duration.ofMillis(100));
+        shortWindow.record("anna");
+        assertTrue(shortWindow.wroteRecently("anna"));
+
+        Thread.sleep(200);
+        shortWindow.purge();
+
+        assertFalse(shortWindow.wroteRecently("anna"));
+    }
+
+    @Test
+    void wroteRecently_shouldAskRedisOncePerRequest_andSeeTheRequestsOwnWrites() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            assertFalse(readYourWrites.wroteRecently("anna"));
+            otherNode.record("anna");
+            // The answer from Redis is kept for the rest of the request
+            assertFalse(readYourWrites.wroteRecently("anna"));
+            readYourWrites.record("anna");
+            assertTrue(readYourWrites.wroteRecently("anna"));
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        assertTrue(new ReadYourWrites(redisTemplate, Duration.ofSeconds(5)).wroteRecently("anna"));
+    }
+
+    @Test
+    void wroteRecently_shouldAssumeAWrite_whenRedisIsUnavailable() {
+        var unreachable = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", 1));
+        unreachable.afterPropertiesSet();
+        try {
+            assertTrue(new ReadYourWrites(new StringRedisTemplate(unreachable), Duration.ofSeconds(5)).wroteRecently("anna"));
+        } finally {
+            unreachable.destroy();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.wishlist.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.UUID;
+
+import static com.wishlist.datasource.ReplicaRoutingDataSource.ROUTING_METRIC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+// Two in-memory databases play the primary and the replica, each knows its own name
+class ReplicaRoutingDataSourceTest {
+
+    private final ReadYourWrites readYourWrites = mock(ReadYourWrites.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DataSource primary;
+    private DataSource replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWriteTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+    }
+
+    @Test
+    void shouldSendReadWriteTransactionsToThePrimary() {
+        routeWithLagQuery("SELECT 0").checkReplicaLag();
+
+        assertEquals("primary", readWriteTransaction.execute(status -> databaseName()));
+
+        verify(readYourWrites).recordOnCommit();
+    }
+
+    @Test
+    void shouldSendReadOnlyTransactionsToTheReplica() {
+        routeWithLagQuery("SELECT 0").checkReplicaLag();
+
+        assertEquals("replica", readOnlyTransaction.execute(status -> databaseName()));
+        assertEquals(1, meterRegistry.get(ROUTING_METRIC).tags("target", "replica", "reason", "read_only").counter().count());
+    }
+
+    @Test
+    void shouldReadFromThePrimary_untilTheReplicaLagIsKnown() {
+        routeWithLagQuery("SELECT 0");
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> databaseName()));
+    }
+
+    @Test
+    void shouldReadFromThePrimary_whileTheReplicaLags() {
+        routeWithLagQuery("SELECT 5").checkReplicaLag();
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> databaseName()));
+        assertEquals(5.0, meterRegistry.get("wishlist.datasource.replica.lag").gauge().value());
+    }
+
+    @Test
+    void shouldReadFromThePrimary_whenTheReplicaIsUnavailable() {
+        routeWithLagQuery("SELECT lag FROM missing_table").checkReplicaLag();
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> databaseName()));
+        assertEquals(1, meterRegistry.get(ROUTING_METRIC).tags("target", "primary", "reason", "replica_lagging").counter().count());
+    }
+
+    @Test
+    void shouldReadFromThePrimary_forUsersWhoWroteRecently() {
+        routeWithLagQuery("SELECT 0").checkReplicaLag();
+        when(readYourWrites.wroteRecently("anna")).thenReturn(true);
+
+        assertEquals("primary", RoutingSubject.runAs("anna", () -> readOnlyTransaction.execute(status -> databaseName())));
+        assertEquals("replica", RoutingSubject.runAs("ben", () -> readOnlyTransaction.execute(status -> databaseName())));
+    }
+
+    private ReplicaRoutingDataSource routeWithLagQuery(String lagQuery) {
+        var routing = new ReplicaRoutingDataSource(primary, replica, readYourWrites, lagQuery, Duration.ofSeconds(1), meterRegistry);
+        routing.afterPropertiesSet();
+        var dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        return routing;
+    }
+
+    private String databaseName() {
+        return jdbcTemplate.queryForObject("SELECT name FROM database_name", String.class);
+    }
+
+    private static DataSource database(String name) {
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE database_name (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO database_name VALUES (?)", name);
+        return dataSource;
+    }
+}
@@ -0,0 +1,76 @@
+package com.wishlist.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Against an in-memory database
+class StatementRecordingDataSourceTest {
+
+    private final List<Recorded> recorded = new ArrayList<>();
+    private DriverManagerDataSource target;
+    private StatementRecordingDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        target = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        dataSource = new StatementRecordingDataSource(target,
+                (sql, parameters, nanos) -> recorded.add(new Recorded(sql, parameters, nanos)));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE wish (id BIGINT PRIMARY KEY, title VARCHAR(100))");
+        recorded.clear();
+    }
+
+    @Test
+    void shouldReportPreparedStatements_withTheirParameters() {
+        jdbcTemplate.update("INSERT INTO wish (id, title) VALUES (?, ?)", 1L, "Book");
+
+        var titles = jdbcTemplate.queryForList("SELECT title FROM wish WHERE id = ?", String.class, 1L);
+
+        assertEquals(List.of("Book"), titles);
+        assertEquals(2, recorded.size());
+        assertEquals("INSERT INTO wish (id, title) VALUES (?, ?)", recorded.get(0).sql());
+        assertEquals(List.of(1L, "Book"), recorded.get(0).parameters());
+        assertEquals("SELECT title FROM wish WHERE id = ?", recorded.get(1).sql());
+        assertEquals(List.of(1L), recorded.get(1).parameters());
+        assertTrue(recorded.get(1).nanos() > 0);
+    }
+
+    @Test
+    void shouldReportPlainStatements_andBatchesOnce() {
+        jdbcTemplate.batchUpdate("INSERT INTO wish (id, title) VALUES (?, ?)",
+                List.of(new Object[]{1L, "Book"}, new Object[]{2L, "Bike"}, new Object[]{3L, null}));
+
+        jdbcTemplate.execute("DELETE FROM wish WHERE id = 3");
+
+        assertEquals(List.of("INSERT INTO wish (id, title) VALUES (?, ?)", "DELETE FROM wish WHERE id = 3"),
+                recorded.stream().map(Recorded::sql).toList());
+        assertEquals(List.of(), recorded.get(1).parameters());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM wish", Long.class));
+    }
+
+    @Test
+    void shouldReportFailedStatements_andRethrowTheirError() {
+        assertThrows(Exception.class, () -> jdbcTemplate.execute("SELECT * FROM missing"));
+
+        assertEquals(1, recorded.size());
+        assertEquals("SELECT * FROM missing", recorded.get(0).sql());
+    }
+
+    @Test
+    void unwrap_shouldReachTheTargetDataSource() throws Exception {
+        assertSame(target, dataSource.unwrap(DriverManagerDataSource.class));
+        assertTrue(dataSource.isWrapperFor(DriverManagerDataSource.class));
+    }
+
+    private record Recorded(String sql, List<Object> parameters, long nanos) {
+    }
+}
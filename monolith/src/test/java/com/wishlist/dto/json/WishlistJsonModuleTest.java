@@ -0,0 +1,91 @@
+package com.wishlist.dto.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.wishlist.dto.WishDTO;
+import com.wishlist.dto.WishlistDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WishlistJsonModuleTest {
+
+    // Configured like Spring Boot's ObjectMapper, with and without the module
+    private final ObjectMapper reflective = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper handWritten = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(new WishlistJsonModule())
+            .build();
+
+    @Test
+    void serializers_shouldProduceTheSameJsonAsTheBeanSerializer() throws Exception {
+        var wishes = new ArrayList<WishDTO>();
+        wishes.add(new WishDTO());
+        wishes.add(WishDTO.builder()
+                .id(42L)
+                .title("Title with \"quotes\", unicode é and \n newline")
+                .description("Description")
+                .completed(true)
+                .priority(3)
+                .category("Books")
+                .dueDate(LocalDateTime.of(2025, 1, 1, 0, 0))
+                .completedAt(LocalDateTime.of(2025, 4, 1, 12, 30, 15, 100_000_000))
+                .createdAt(LocalDateTime.of(2024, 12, 31, 23, 59, 59, 999_999_999))
+                .updatedAt(LocalDateTime.of(2025, 4, 1, 12, 30, 15, 1_000))
+                .version(7L)
+                .build());
+        wishes.add(null);
+        var wishlist = WishlistDTO.builder().wishes(wishes).totalItems(21).totalPages(3).currentPage(1).build();
+
+        assertEquals(reflective.writeValueAsString(wishes.get(1)), handWritten.writeValueAsString(wishes.get(1)));
+        assertEquals(reflective.writeValueAsString(wishlist), handWritten.writeValueAsString(wishlist));
+        assertEquals(reflective.writeValueAsString(new WishlistDTO()), handWritten.writeValueAsString(new WishlistDTO()));
+    }
+
+    @Test
+    void serializers_shouldWriteEpochMillisWhenRequested() throws Exception {
+        var createdAt = LocalDateTime.of(2025, 4, 1, 12, 30, 15, 123_000_000);
+        var wishlist = WishlistDTO.builder()
+                .wishes(List.of(WishDTO.builder().id(1L).title("A").createdAt(createdAt).build()))
+                .build();
+
+        var json = handWritten.writer()
+                .withAttribute(TimestampFormat.ATTRIBUTE, TimestampFormat.EPOCH)
+                .writeValueAsString(wishlist);
+
+        var epochMillis = createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        assertEquals("{\"wishes\":[{\"id\":1,\"title\":\"A\",\"description\":null,\"completed\":false,\"priority\":null,"
+                + "\"category\":null,\"dueDate\":null,\"completedAt\":null,\"createdAt\":" + epochMillis + ",\"updatedAt\":null,\"version\":null}],"
+                + "\"totalItems\":0,\"totalPages\":0,\"currentPage\":0}", json);
+    }
+
+    @Test
+    void formatIso_shouldMatchIsoLocalDateTime() {
+        var random = new Random(1);
+        var buffer = new char[29];
+        for (int i = 0; i < 10_000; i++) {
+            var nano = switch (i % 4) {
+                case 0 -> 0;
+                case 1 -> random.nextInt(1000) * 1_000_000;
+                case 2 -> random.nextInt(1_000_000) * 1_000;
+                default -> random.nextInt(1_000_000_000);
+            };
+            var value = LocalDateTime.of(random.nextInt(10_000), random.nextInt(1, 13), random.nextInt(1, 29),
+                    random.nextInt(24), random.nextInt(60), random.nextInt(60), nano);
+
+            var length = TimestampFormat.formatIso(value, buffer);
+
+            assertEquals(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value), new String(buffer, 0, length));
+        }
+    }
+}
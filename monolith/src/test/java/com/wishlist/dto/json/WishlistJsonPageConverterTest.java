@@ -0,0 +1,64 @@
+package com.wishlist.dto.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.wishlist.dto.WishDTO;
+import com.wishlist.dto.WishlistDTO;
+import com.wishlist.dto.WishlistJsonPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WishlistJsonPageConverterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(new WishlistJsonModule())
+            .build();
+
+    private final WishlistJsonPageConverter converter = new WishlistJsonPageConverter();
+
+    @Test
+    void write_shouldProduceTheSameJsonAsWishlistDTO() throws Exception {
+        for (int size : new int[]{0, 1, 3}) {
+            var wishes = new ArrayList<WishDTO>();
+            var json = new ArrayList<byte[]>();
+            for (int i = 0; i < size; i++) {
+                var wish = WishDTO.builder().id((long) i).title("Wish " + i).priority(i).createdAt(LocalDateTime.of(2025, 4, 1, 12, i)).build();
+                wishes.add(wish);
+                json.add(objectMapper.writeValueAsBytes(wish));
+            }
+            var wishlist = WishlistDTO.builder().wishes(wishes).totalItems(13).totalPages(2).currentPage(1).build();
+            var page = WishlistJsonPage.builder().wishes(json).totalItems(13).totalPages(2).currentPage(1).build();
+            var output = new MockHttpOutputMessage();
+
+            converter.write(page, MediaType.APPLICATION_JSON, output);
+
+            var expected = objectMapper.writeValueAsString(wishlist);
+            assertEquals(expected, output.getBodyAsString());
+            assertEquals(expected.length(), output.getHeaders().getContentLength());
+            assertEquals(MediaType.APPLICATION_JSON, output.getHeaders().getContentType());
+        }
+    }
+
+    @Test
+    void canWrite_shouldOnlyAcceptJsonPages() {
+        assertTrue(converter.canWrite(WishlistJsonPage.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(WishlistDTO.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canRead(WishlistJsonPage.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(WishlistJsonPage.class, MediaType.APPLICATION_XML));
+    }
+
+    @Test
+    void fromAcceptHeader_shouldFindTheTimestampsParameter() {
+        assertEquals(TimestampFormat.ISO, TimestampFormat.fromAcceptHeader(null));
+        assertEquals(TimestampFormat.ISO, TimestampFormat.fromAcceptHeader("application/json, */*"));
+        assertEquals(TimestampFormat.EPOCH, TimestampFormat.fromAcceptHeader("text/plain, application/json;timestamps=epoch"));
+    }
+}
@@ -0,0 +1,116 @@
+package com.wishlist.metrics;
+
+import com.wishlist.dto.QueryShapeDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.wishlist.metrics.StatementStats.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+// At most 3 statements per request and 2 of one shape, shapes slower than 50ms are slow
+class StatementStatsTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StatementStats statementStats;
+
+    @BeforeEach
+    void setUp() {
+        statementStats = new StatementStats(meterRegistry, Duration.ofMillis(50), 3, 2, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statementStats.finishRequest("test");
+    }
+
+    @Test
+    void normalize_shouldReplaceLiterals_andCollapseListsAndWhitespace() {
+        assertEquals("select w1_0.id from wishes w1_0 where w1_0.user_id=? and w1_0.category=? and w1_0.id in (?)",
+                normalize("select w1_0.id\n  from wishes w1_0 where w1_0.user_id=42 and w1_0.category='it''s' and w1_0.id in (?, ?,?)"));
+        assertEquals("insert into wishes (title,priority) values (?)", normalize("insert into wishes (title,priority) values (?,?)"));
+        assertEquals("select * from wishes limit ? offset ?", normalize("select * from wishes limit 10 offset 2.5"));
+    }
+
+    @Test
+    void topShapes_shouldGroupStatementsByShape_mostTimeFirst() {
+        statementStats.onStatement("select * from wishes where id = 1", List.of(), 10 * MILLIS);
+        statementStats.onStatement("select * from wishes where id = 2", List.of(), 30 * MILLIS);
+        statementStats.onStatement("select * from users where id = ?", List.of(1L), 60 * MILLIS);
+        // A third shape is beyond max-shapes
+        statementStats.onStatement("delete from wishes", List.of(), 100 * MILLIS);
+
+        var shapes = statementStats.topShapes(10);
+
+        assertEquals(List.of("select * from users where id = ?", "select * from wishes where id = ?"),
+                shapes.stream().map(QueryShapeDTO::getSql).toList());
+        var wishes = shapes.get(1);
+        assertEquals(2, wishes.getCount());
+        assertEquals(40, wishes.getTotalMillis(), 0.001);
+        assertEquals(20, wishes.getMeanMillis(), 0.001);
+        assertEquals(30, wishes.getMaxMillis(), 0.001);
+        assertEquals(1, statementStats.topShapes(1).size());
+        assertEquals(2, meterRegistry.get(SLOW_STATEMENTS_METRIC).counter().count());
+    }
+
+    @Test
+    void finishRequest_shouldNotFlagRequestsWithinTheLimits() {
+        statementStats.startRequest();
+        statementStats.onStatement("select * from users where username = ?", List.of("anna"), MILLIS);
+        statementStats.onStatement("select * from wishes where user_id = ?", List.of(1L), MILLIS);
+
+        statementStats.finishRequest("GET /api/wishes");
+
+        assertEquals(2, meterRegistry.get(REQUEST_STATEMENTS_METRIC).summary().totalAmount());
+        assertTrue(meterRegistry.find(FLAGGED_REQUESTS_METRIC).counters().isEmpty());
+    }
+
+    @Test
+    void finishRequest_shouldFlagTooManyStatements_andRepeatedShapes() {
+        statementStats.startRequest();
+        statementStats.onStatement("select * from users where username = ?", List.of("anna"), MILLIS);
+        for (long id = 1; id <= 3; id++) {
+            statementStats.onStatement("select * from wishes where id = ?", List.of(id), MILLIS);
+        }
+
+        statementStats.finishRequest("GET /api/wishes");
+
+        assertEquals(1, flagged(TOO_MANY_STATEMENTS));
+        assertEquals(1, flagged(REPEATED_SHAPE));
+        assertNull(meterRegistry.find(FLAGGED_REQUESTS_METRIC).tag("reason", DUPLICATE_STATEMENT).counter());
+    }
+
+    @Test
+    void finishRequest_shouldFlagTheSameStatementWithTheSameParameters() {
+        statementStats.startRequest();
+        statementStats.onStatement("select * from users where username = ?", List.of("anna"), MILLIS);
+        statementStats.onStatement("select * from users where username = ?", List.of("anna"), MILLIS);
+
+        statementStats.finishRequest("GET /api/wishes");
+
+        assertEquals(1, flagged(DUPLICATE_STATEMENT));
+    }
+
+    @Test
+    void onStatement_shouldOnlyCountStatementsOfTheRequestsThread() throws InterruptedException {
+        statementStats.startRequest();
+        var other = new Thread(() -> statementStats.onStatement("select 1", List.of(), MILLIS));
+        other.start();
+        other.join();
+
+        statementStats.finishRequest("GET /api/wishes");
+
+        assertEquals(0, meterRegistry.get(REQUEST_STATEMENTS_METRIC).summary().totalAmount());
+        assertEquals(1, statementStats.topShapes(10).getFirst().getCount());
+    }
+
+    private double flagged(String reason) {
+        return meterRegistry.get(FLAGGED_REQUESTS_METRIC).tag("reason", reason).counter().count();
+    }
+}
@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @DataJpaTest
@@ -67,4 +69,18 @@ class UserRepositoryTest {
 
         assertTrue(exists);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("should batch insert users and find them by username or email")
+    void insertAllAndFindByUsernameInOrEmailIn() {
+        userRepository.insertAll(List.of(
+                User.builder().username("carol").email("carol@example.com").password("pw").build(),
+                User.builder().username("dave").email("dave@example.com").password("pw").build()));
+
+        var found = userRepository.findByUsernameInOrEmailIn(List.of("carol", "nobody"), List.of("dave@example.com"));
+
+        assertEquals(2, found.size());
+        assertNotNull(found.getFirst().getCreatedAt());
+        assertEquals(2, userRepository.count());
+    }
+}
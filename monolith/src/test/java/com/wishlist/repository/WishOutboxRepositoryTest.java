@@ -0,0 +1,36 @@
+package com.wishlist.repository;
+
+import com.wishlist.model.WishOutboxEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class WishOutboxRepositoryTest {
+
+    @Autowired
+    private WishOutboxRepository outboxRepository;
+
+    @Test
+    void insertAll_shouldAppendTheEntries_inOrder() {
+        var createdAt = LocalDateTime.of(2025, 3, 1, 12, 0);
+        outboxRepository.insertAll(List.of(entry(1L, "first", createdAt), entry(2L, "second", createdAt), entry(1L, "third", createdAt)));
+
+        var oldest = outboxRepository.findAllByOrderByIdAsc(Limit.of(2));
+        outboxRepository.deleteAllByIdInBatch(oldest.stream().map(WishOutboxEntry::getId).toList());
+
+        assertEquals(List.of("first", "second"), oldest.stream().map(WishOutboxEntry::getPayload).toList());
+        assertEquals(createdAt, oldest.getFirst().getCreatedAt());
+        assertEquals(List.of("third"), outboxRepository.findAllByOrderByIdAsc(Limit.of(2)).stream().map(WishOutboxEntry::getPayload).toList());
+    }
+
+    private static WishOutboxEntry entry(Long wishId, String payload, LocalDateTime createdAt) {
+        return WishOutboxEntry.builder().userId(7L).wishId(wishId).payload(payload).createdAt(createdAt).build();
+    }
+}
@@ -6,9 +6,11 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -79,10 +81,72 @@ class WishRepositoryTest {
         wishRepository.save(Wish.builder().title("Late").user(user).dueDate(LocalDateTime.now().minusDays(2)).completed(false).build());
         wishRepository.save(Wish.builder().title("Done").user(user).dueDate(LocalDateTime.now().minusDays(2)).completed(true).build());
 
+        wishRepository.save(Wish.builder().title("Later").user(user).dueDate(LocalDateTime.now().minusDays(1)).completed(false).build());
+        wishRepository.save(Wish.builder().title("Latest").user(user).dueDate(LocalDateTime.now().minusDays(3)).completed(false).build());
+        wishRepository.save(Wish.builder().title("Upcoming").user(user).dueDate(LocalDateTime.now().plusDays(1)).completed(false).build());
+
         var overdue = wishRepository.findOverdueWishes(user.getId(), LocalDateTime.now());
 
-        assertEquals(1, overdue.size());
-        assertEquals("Late", overdue.getFirst().getTitle());
+        assertEquals(List.of("Latest", "Late", "Later"), overdue.stream().map(Wish::getTitle).toList());
+    }
+
+    @Test
+    @DisplayName("should find the next due date of pending wishes")
+    void findNextDueDate() {
+        var user = persistUser("user7");
+        var now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        wishRepository.save(Wish.builder().title("Late").user(user).dueDate(now.minusDays(1)).build());
+        wishRepository.save(Wish.builder().title("Done").user(user).dueDate(now.plusHours(1)).completed(true).build());
+        wishRepository.save(Wish.builder().title("Next").user(user).dueDate(now.plusDays(1)).build());
+        wishRepository.save(Wish.builder().title("After").user(user).dueDate(now.plusDays(2)).build());
+
+        assertEquals(now.plusDays(1), wishRepository.findNextDueDate(user.getId(), now).orElseThrow());
+        assertTrue(wishRepository.findNextDueDate(user.getId(), now.plusDays(3)).isEmpty());
+    }
+
+    @Test
+    @DisplayName("should page through newly overdue wishes of a partition by due date and id")
+    void findOverdueWishesChunk() {
+        var first = persistUser("user8");
+        var second = persistUser("user9");
+        var until = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        var after = until.minusHours(1);
+        var dueDate = after.plusMinutes(10);
+        var owner = first.getId() % 2 == 0 ? first : second;
+        var other = owner == first ? second : first;
+        var a = wishRepository.save(Wish.builder().title("A").user(owner).dueDate(dueDate).build());
+        var b = wishRepository.save(Wish.builder().title("B").user(owner).dueDate(dueDate).build());
+        var c = wishRepository.save(Wish.builder().title("C").user(owner).dueDate(dueDate.plusMinutes(1)).build());
+        wishRepository.save(Wish.builder().title("Other partition").user(other).dueDate(dueDate).build());
+        wishRepository.save(Wish.builder().title("Done").user(owner).dueDate(dueDate).completed(true).build());
+        wishRepository.save(Wish.builder().title("Already processed").user(owner).dueDate(after).build());
+        wishRepository.save(Wish.builder().title("Not yet due").user(owner).dueDate(until.plusMinutes(1)).build());
+
+        var firstChunk = wishRepository.findOverdueWishesChunk(2, 0, after, Long.MAX_VALUE, until, Limit.of(2));
+        var last = firstChunk.getLast();
+        var secondChunk = wishRepository.findOverdueWishesChunk(2, 0, last.dueDate(), last.id(), until, Limit.of(2));
+
+        assertEquals(List.of(a.getId(), b.getId()), firstChunk.stream().map(WishDueDate::id).toList());
+        assertEquals(List.of(c.getId()), secondChunk.stream().map(WishDueDate::id).toList());
+        assertEquals(owner.getId(), secondChunk.getFirst().userId());
+    }
+
+    @Test
+    @DisplayName("should count wishes by status, category and priority, and list pending due dates")
+    void countByUserIdGroupedAndFindPendingDueDates() {
+        var user = persistUser("user10");
+        var dueDate = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+        wishRepository.save(Wish.builder().title("A").user(user).category("books").priority(1).build());
+        var due = wishRepository.save(Wish.builder().title("B").user(user).category("books").priority(1).dueDate(dueDate).build());
+        wishRepository.save(Wish.builder().title("C").user(user).completed(true).dueDate(dueDate).build());
+
+        var counts = wishRepository.countByUserIdGrouped(user.getId());
+        var dueDates = wishRepository.findPendingDueDates(user.getId());
+
+        assertEquals(2, counts.size());
+        assertTrue(counts.contains(new WishCount(false, "books", 1, 2L)));
+        assertTrue(counts.contains(new WishCount(true, null, null, 1L)));
+        assertEquals(List.of(new WishDueDate(due.getId(), user.getId(), dueDate)), dueDates);
     }
 
     @Test
@@ -98,6 +162,83 @@ class WishRepositoryTest {
         assertEquals("Read book", result.getFirst().getTitle());
     }
 
+    @Test
+    @DisplayName("should complete the user's pending wishes in one statement and return them")
+    void completeAll() {
+        var user = persistUser("user11");
+        var other = persistUser("user12");
+        var pending = wishRepository.save(Wish.builder().title("Pending").category("home").priority(2).user(user).build());
+        var done = wishRepository.save(Wish.builder().title("Done").user(user).completed(true).build());
+        var notTheirs = wishRepository.save(Wish.builder().title("Not theirs").user(other).build());
+        var completedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+        var completed = wishRepository.completeAll(user.getId(), List.of(pending.getId(), done.getId(), notTheirs.getId()), completedAt);
+
+        assertEquals(1, completed.size());
+        var wish = completed.getFirst();
+        assertEquals(pending.getId(), wish.getId());
+        assertTrue(wish.isCompleted());
+        assertEquals(completedAt, wish.getCompletedAt());
+        assertEquals(completedAt, wish.getUpdatedAt());
+        assertEquals("Pending", wish.getTitle());
+        assertEquals("home", wish.getCategory());
+        assertEquals(2, wish.getPriority());
+        // Now completed too
+        assertEquals(pending.getVersion() + 1, wish.getVersion());
+        assertEquals(List.of(), wishRepository.completeAll(user.getId(), List.of(pending.getId()), completedAt));
+        assertEquals(1, wishRepository.completeAll(other.getId(), List.of(notTheirs.getId()), completedAt).size());
+    }
+
+    @Test
+    @DisplayName("should update the user's wish in one statement if it is still at the expected version")
+    void update() {
+        var user = persistUser("user15");
+        var wish = wishRepository.save(Wish.builder().title("Old").category("home").priority(1).user(user).build());
+        var changes = Wish.builder().title("New").description("Described").category("books").build();
+        var updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+        var update = wishRepository.update(user.getId(), wish.getId(), wish.getVersion(), changes, updatedAt).orElseThrow();
+
+        assertEquals("Old", update.before().getTitle());
+        assertEquals("home", update.before().getCategory());
+        assertEquals(1, update.before().getPriority());
+        assertEquals(wish.getVersion(), update.before().getVersion());
+        assertEquals("New", update.after().getTitle());
+        assertEquals("books", update.after().getCategory());
+        assertNull(update.after().getPriority());
+        assertEquals(updatedAt, update.after().getUpdatedAt());
+        assertEquals(wish.getVersion() + 1, update.after().getVersion());
+        // The version moved on, and other users can't update the wish
+        assertTrue(wishRepository.update(user.getId(), wish.getId(), wish.getVersion(), changes, updatedAt).isEmpty());
+        assertTrue(wishRepository.update(persistUser("user16").getId(), wish.getId(), null, changes, updatedAt).isEmpty());
+        var unconditional = wishRepository.update(user.getId(), wish.getId(), null, changes, updatedAt).orElseThrow();
+        assertEquals("New", unconditional.before().getTitle());
+        assertEquals(wish.getVersion() + 2, unconditional.after().getVersion());
+    }
+
+    @Test
+    @DisplayName("should delete the user's wishes in one statement and return them as they were")
+    void deleteAll() {
+        var user = persistUser("user13");
+        var other = persistUser("user14");
+        var dueDate = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.MILLIS);
+        var first = wishRepository.save(Wish.builder().title("First").category("books").dueDate(dueDate).user(user).build());
+        var second = wishRepository.save(Wish.builder().title("Second").user(user).completed(true).build());
+        wishRepository.save(Wish.builder().title("Kept").user(user).build());
+        var notTheirs = wishRepository.save(Wish.builder().title("Not theirs").user(other).build());
+
+        var deleted = wishRepository.deleteAll(user.getId(), List.of(first.getId(), second.getId(), notTheirs.getId(), -1L));
+
+        assertEquals(List.of(first.getId(), second.getId()), deleted.stream().map(Wish::getId).sorted().toList());
+        var deletedFirst = deleted.stream().filter(wish -> wish.getId().equals(first.getId())).findFirst().orElseThrow();
+        assertEquals("books", deletedFirst.getCategory());
+        assertEquals(dueDate, deletedFirst.getDueDate());
+        assertFalse(deletedFirst.isCompleted());
+        assertEquals(1, wishRepository.countByUserId(user.getId()));
+        assertEquals(1, wishRepository.countByUserId(other.getId()));
+        assertEquals(List.of(), wishRepository.deleteAll(user.getId(), List.of()));
+    }
+
     private User persistUser(String username) {
         var user = User.builder()
                 .username(username)
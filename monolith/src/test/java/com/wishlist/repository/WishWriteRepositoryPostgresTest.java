@@ -0,0 +1,103 @@
+package com.wishlist.repository;
+
+import com.wishlist.model.User;
+import com.wishlist.model.Wish;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.MountableFile;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The PostgreSQL branches of WishWriteRepositoryImpl (RETURNING, id = ANY(array)), on the schema of docker/init.sql
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=validate")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class WishWriteRepositoryPostgresTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:15.4")
+            .withCopyFileToContainer(MountableFile.forHostPath("docker/init.sql"), "/docker-entrypoint-initdb.d/init.sql");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private WishRepository wishRepository;
+
+    @Test
+    @DisplayName("should update the wish only at the expected version, and return it as it was")
+    void update() {
+        var user = persistUser("pg1");
+        var wish = wishRepository.save(Wish.builder().title("Old").category("home").priority(1).user(user).build());
+        var changes = Wish.builder().title("New").description("Described").category("books").build();
+        var updatedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+        var update = wishRepository.update(user.getId(), wish.getId(), wish.getVersion(), changes, updatedAt).orElseThrow();
+
+        assertEquals("Old", update.before().getTitle());
+        assertEquals("home", update.before().getCategory());
+        assertEquals(1, update.before().getPriority());
+        assertEquals(wish.getVersion(), update.before().getVersion());
+        assertEquals(wish.getVersion() + 1, update.after().getVersion());
+        assertTrue(wishRepository.update(user.getId(), wish.getId(), wish.getVersion(), changes, updatedAt).isEmpty());
+        assertTrue(wishRepository.update(persistUser("pg2").getId(), wish.getId(), null, changes, updatedAt).isEmpty());
+        var unconditional = wishRepository.update(user.getId(), wish.getId(), null, changes, updatedAt).orElseThrow();
+        assertEquals(wish.getVersion() + 1, unconditional.before().getVersion());
+    }
+
+    @Test
+    @DisplayName("should complete the user's pending wishes by an id array, and return them as they are")
+    void completeAll() {
+        var user = persistUser("pg3");
+        var other = persistUser("pg4");
+        var pending = wishRepository.save(Wish.builder().title("Pending").category("home").user(user).build());
+        var done = wishRepository.save(Wish.builder().title("Done").user(user).completed(true).build());
+        var notTheirs = wishRepository.save(Wish.builder().title("Not theirs").user(other).build());
+        var completedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+        var completed = wishRepository.completeAll(user.getId(), List.of(pending.getId(), done.getId(), notTheirs.getId()), completedAt);
+
+        assertEquals(List.of(pending.getId()), completed.stream().map(Wish::getId).toList());
+        assertTrue(completed.getFirst().isCompleted());
+        assertEquals(completedAt, completed.getFirst().getCompletedAt());
+        assertEquals(pending.getVersion() + 1, completed.getFirst().getVersion());
+        assertEquals(List.of(), wishRepository.completeAll(user.getId(), List.of(pending.getId()), completedAt));
+    }
+
+    @Test
+    @DisplayName("should delete the user's wishes by an id array, and return them as they were")
+    void deleteAll() {
+        var user = persistUser("pg5");
+        var other = persistUser("pg6");
+        var first = wishRepository.save(Wish.builder().title("First").category("books").user(user).build());
+        var second = wishRepository.save(Wish.builder().title("Second").user(user).completed(true).build());
+        var notTheirs = wishRepository.save(Wish.builder().title("Not theirs").user(other).build());
+
+        var deleted = wishRepository.deleteAll(user.getId(), List.of(first.getId(), second.getId(), notTheirs.getId(), -1L));
+
+        assertEquals(List.of(first.getId(), second.getId()), deleted.stream().map(Wish::getId).sorted().toList());
+        assertEquals("books", deleted.stream().filter(wish -> wish.getId().equals(first.getId())).findFirst().orElseThrow().getCategory());
+        assertEquals(0, wishRepository.countByUserId(user.getId()));
+        assertEquals(1, wishRepository.countByUserId(other.getId()));
+    }
+
+    private User persistUser(String username) {
+        return userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@mail.com")
+                .password("pw")
+                .build());
+    }
+}
@@ -0,0 +1,43 @@
+package com.wishlist.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_shouldFindEveryAddedValue() {
+        var filter = new BloomFilter(10_000, 0.01);
+        var values = randomIds(10_000);
+
+        values.forEach(filter::put);
+
+        assertTrue(values.stream().allMatch(filter::mightContain));
+    }
+
+    @Test
+    void mightContain_shouldKeepFalsePositivesNearTheConfiguredRate() {
+        var filter = new BloomFilter(10_000, 0.01);
+        randomIds(10_000).forEach(filter::put);
+
+        long falsePositives = randomIds(100_000).stream().filter(filter::mightContain).count();
+
+        assertTrue(falsePositives < 1_500, "False positives: " + falsePositives);
+        assertEquals(7, filter.hashCount());
+    }
+
+    @Test
+    void constructor_shouldRejectInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1));
+    }
+
+    private static List<String> randomIds(int count) {
+        return IntStream.range(0, count).mapToObj(i -> UUID.randomUUID().toString()).toList();
+    }
+}
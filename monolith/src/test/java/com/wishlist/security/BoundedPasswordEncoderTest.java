@@ -0,0 +1,128 @@
+package com.wishlist.security;
+
+import com.wishlist.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void encodeAndMatches_shouldHashOnThePoolAndRecordLatency() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 1, 1, Duration.ofSeconds(5), meterRegistry, observationRegistry);
+
+        var hash = encoder.encode("secret");
+
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(1, meterRegistry.get(BoundedPasswordEncoder.HASH_METRIC).tags("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get(BoundedPasswordEncoder.HASH_METRIC).tags("operation", "matches").timer().count());
+    }
+
+    @Test
+    void upgradeEncoding_shouldDetectHashesWithALowerStrength() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 1, Duration.ofSeconds(5), meterRegistry, observationRegistry);
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+    }
+
+    @Test
+    void matches_shouldRejectWhenTheQueueIsFull() throws Exception {
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, Duration.ofSeconds(5), meterRegistry, observationRegistry);
+        // One hash running, one queued
+        CompletableFuture.runAsync(() -> encoder.matches("a", "hash"));
+        CompletableFuture.runAsync(() -> encoder.matches("b", "hash"));
+        awaitQueued();
+
+        var exception = assertThrows(ServiceUnavailableException.class, () -> encoder.matches("c", "hash"));
+
+        assertEquals("Too many concurrent password checks, please retry shortly", exception.getMessage());
+        assertEquals(1, meterRegistry.get(BoundedPasswordEncoder.REJECTIONS_METRIC).tags("reason", "queue_full").counter().count());
+    }
+
+    @Test
+    void matches_shouldRejectWhenTheHashTakesLongerThanMaxWait() {
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, Duration.ofMillis(50), meterRegistry, observationRegistry);
+
+        assertThrows(ServiceUnavailableException.class, () -> encoder.matches("a", "hash"));
+
+        assertEquals(1, meterRegistry.get(BoundedPasswordEncoder.REJECTIONS_METRIC).tags("reason", "timeout").counter().count());
+    }
+
+    @Test
+    void matches_shouldPropagateEncoderExceptions() {
+        var delegate = mock(PasswordEncoder.class);
+        when(delegate.matches(any(), any())).thenThrow(new IllegalArgumentException("Invalid hash"));
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5), meterRegistry, observationRegistry);
+
+        var exception = assertThrows(IllegalArgumentException.class, () -> encoder.matches("a", "hash"));
+
+        assertEquals("Invalid hash", exception.getMessage());
+    }
+
+    @Test
+    void matches_shouldBeObserved_andHashWithinTheObservation() {
+        // Observations are only recorded with a handler
+        observationRegistry.observationConfig().observationHandler(context -> true);
+        var onHashingThread = new AtomicReference<Observation>();
+        var delegate = mock(PasswordEncoder.class);
+        when(delegate.matches(any(), any())).thenAnswer(invocation -> {
+            onHashingThread.set(observationRegistry.getCurrentObservation());
+            return true;
+        });
+        encoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(5), meterRegistry, observationRegistry);
+        var login = Observation.start("login", observationRegistry);
+
+        try (var ignored = login.openScope()) {
+            encoder.matches("a", "hash");
+        } finally {
+            login.stop();
+        }
+
+        var observation = onHashingThread.get().getContextView();
+        assertEquals(BoundedPasswordEncoder.OBSERVATION, observation.getName());
+        assertEquals("matches", observation.getLowCardinalityKeyValue("operation").getValue());
+        assertSame(login, observation.getParentObservation());
+    }
+
+    private PasswordEncoder blockingEncoder() {
+        var delegate = mock(PasswordEncoder.class);
+        when(delegate.matches(any(), any())).thenAnswer(invocation -> release.await(10, TimeUnit.SECONDS));
+        return delegate;
+    }
+
+    private void awaitQueued() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("executor.queued").tags("name", "passwordHash").gauge().value() < 1) {
+            assertTrue(System.nanoTime() < deadline, "Hash was not queued");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.wishlist.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +18,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,6 +31,9 @@ class JwtAuthenticationFilterTest {
     @Mock
     private UserDetailsService userDetailsService;
 
+    @Mock
+    private TokenDenyList tokenDenyList;
+
     @InjectMocks
     private JwtAuthenticationFilter filter;
 
@@ -51,8 +57,7 @@ class JwtAuthenticationFilterTest {
         var response = new MockHttpServletResponse();
         var chain = mock(FilterChain.class);
 
-        when(jwtTokenProvider.validateToken(jwt)).thenReturn(true);
-        when(jwtTokenProvider.getUsernameFromToken(jwt)).thenReturn(username);
+        when(jwtTokenProvider.parseToken(jwt)).thenReturn(Optional.of(claims("token-id", username)));
         when(userDetailsService.loadUserByUsername(username)).thenReturn(userDetails);
 
         // when
@@ -76,13 +81,34 @@ class JwtAuthenticationFilterTest {
         var response = new MockHttpServletResponse();
         var chain = mock(FilterChain.class);
 
-        when(jwtTokenProvider.validateToken(jwt)).thenReturn(false);
+        when(jwtTokenProvider.parseToken(jwt)).thenReturn(Optional.empty());
+
+        // when
+        filter.doFilterInternal(request, response, chain);
+
+        // then
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(chain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_shouldNotAuthenticate_whenJwtRevoked() throws ServletException, IOException {
+        // given
+        var jwt = "revoked.jwt.token";
+        var request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + jwt);
+        var response = new MockHttpServletResponse();
+        var chain = mock(FilterChain.class);
+
+        when(jwtTokenProvider.parseToken(jwt)).thenReturn(Optional.of(claims("revoked-id", "testuser")));
+        when(tokenDenyList.isRevoked("revoked-id")).thenReturn(true);
 
         // when
         filter.doFilterInternal(request, response, chain);
 
         // then
         assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verifyNoInteractions(userDetailsService);
         verify(chain).doFilter(request, response);
     }
 
@@ -100,4 +126,8 @@ class JwtAuthenticationFilterTest {
         assertNull(SecurityContextHolder.getContext().getAuthentication());
         verify(chain).doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private static Claims claims(String tokenId, String username) {
+        return Jwts.claims().id(tokenId).subject(username).build();
+    }
+}
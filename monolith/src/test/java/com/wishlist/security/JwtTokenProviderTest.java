@@ -49,6 +49,20 @@ class JwtTokenProviderTest {
         assertEquals("tester", jwtTokenProvider.getUsernameFromToken(token));
     }
 
+    @Test
+    void generateToken_shouldIssueUniqueTokenIds() {
+        UserDetails userDetails = new User("tester", "pass", Collections.emptyList());
+        var auth = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+
+        var first = jwtTokenProvider.parseToken(jwtTokenProvider.generateToken(auth)).orElseThrow();
+        var second = jwtTokenProvider.parseToken(jwtTokenProvider.generateToken(auth)).orElseThrow();
+
+        assertNotNull(first.getId());
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals("tester", first.getSubject());
+        assertNotNull(first.getExpiration());
+    }
+
     @Test
     void getUsernameFromToken() {
         SecretKey key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secret));
@@ -66,6 +80,7 @@ class JwtTokenProviderTest {
     void validateToken() {
         String invalidToken = "this.is.not.a.valid.jwt";
         assertFalse(jwtTokenProvider.validateToken(invalidToken));
+        assertTrue(jwtTokenProvider.parseToken(invalidToken).isEmpty());
     }
 
     @Test
@@ -0,0 +1,97 @@
+package com.wishlist.security;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateLimitFilterTest {
+
+    @Mock
+    private RateLimiter rateLimiter;
+
+    @Mock
+    private FilterChain filterChain;
+
+    @InjectMocks
+    private RateLimitFilter rateLimitFilter;
+
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        request = new MockHttpServletRequest("GET", "/api/wishes");
+        request.setContextPath("/api");
+        request.setRemoteAddr("10.0.0.1");
+        response = new MockHttpServletResponse();
+        SecurityContextHolder.clearContext();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilterInternal_shouldAddHeaders_whenAllowed() throws Exception {
+        // given
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("anna", null, List.of()));
+        when(rateLimiter.tryAcquire("GET", "/wishes", "user:anna"))
+                .thenReturn(Optional.of(new RateLimiter.Decision(true, 60, 59, Duration.ofMillis(1500), Duration.ZERO)));
+
+        // when
+        rateLimitFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(filterChain).doFilter(request, response);
+        assertEquals("60", response.getHeader(RateLimitFilter.LIMIT_HEADER));
+        assertEquals("59", response.getHeader(RateLimitFilter.REMAINING_HEADER));
+        assertEquals("2", response.getHeader(RateLimitFilter.RESET_HEADER));
+        assertNull(response.getHeader("Retry-After"));
+    }
+
+    @Test
+    void doFilterInternal_shouldRespondTooManyRequests_whenLimited() throws Exception {
+        // given
+        when(rateLimiter.tryAcquire("GET", "/wishes", "ip:10.0.0.1"))
+                .thenReturn(Optional.of(new RateLimiter.Decision(false, 60, 0, Duration.ofSeconds(60), Duration.ofMillis(200))));
+
+        // when
+        rateLimitFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verifyNoInteractions(filterChain);
+        assertEquals(429, response.getStatus());
+        assertEquals("0", response.getHeader(RateLimitFilter.REMAINING_HEADER));
+        assertEquals("1", response.getHeader("Retry-After"));
+    }
+
+    @Test
+    void doFilterInternal_shouldPassRequestsWithoutLimit() throws Exception {
+        // given
+        when(rateLimiter.tryAcquire(any(), any(), any())).thenReturn(Optional.empty());
+
+        // when
+        rateLimitFilter.doFilterInternal(request, response, filterChain);
+
+        // then
+        verify(filterChain).doFilter(request, response);
+        assertNull(response.getHeader(RateLimitFilter.LIMIT_HEADER));
+    }
+}
@@ -0,0 +1,141 @@
+package com.wishlist.security;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.wishlist.config.RateLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static com.wishlist.security.RateLimiter.KEY_PREFIX;
+import static com.wishlist.security.RateLimiter.REQUESTS_METRIC;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Against an in-memory Redis stand-in, two limiters play two application nodes
+class RateLimiterTest {
+
+    private static final List<RateLimitProperties.Rule> RULES = List.of(
+            new RateLimitProperties.Rule("search", "GET", "/wishes/search", 2, Duration.ofHours(1)),
+            new RateLimitProperties.Rule("wishes", null, "/wishes/**", 5, Duration.ofHours(1)));
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimiter rateLimiter;
+    private RateLimiter otherNode;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redisServer = RedisServer.newRedisServer(0).start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        rateLimiter = new RateLimiter(redisTemplate, meterRegistry, new RateLimitProperties(true, RULES));
+        otherNode = new RateLimiter(redisTemplate, new SimpleMeterRegistry(), new RateLimitProperties(true, RULES));
+    }
+
+    @Test
+    void tryAcquire_shouldLimitEachUser_toTheCapacityOfTheFirstMatchingRule() {
+        assertTrue(search("anna").allowed());
+        var last = search("anna");
+        var limited = search("anna");
+
+        assertTrue(last.allowed());
+        assertEquals(0, last.remaining());
+        assertFalse(limited.allowed());
+        assertEquals(2, limited.limit());
+        assertTrue(limited.retryAfter().compareTo(Duration.ofMinutes(29)) > 0);
+        assertTrue(search("ben").allowed());
+        assertTrue(rateLimiter.tryAcquire("GET", "/wishes", "anna").orElseThrow().allowed());
+        assertEquals(1, meterRegistry.get(REQUESTS_METRIC).tags("rule", "search", "result", "limited").counter().count());
+    }
+
+    @Test
+    void tryAcquire_shouldNotLimitRequestsMatchingNoRule() {
+        assertTrue(rateLimiter.tryAcquire("GET", "/auth/me", "anna").isEmpty());
+        assertTrue(new RateLimiter(redisTemplate, meterRegistry, new RateLimitProperties(false, RULES))
+                .tryAcquire("GET", "/wishes", "anna").isEmpty());
+    }
+
+    @Test
+    void tryAcquire_shouldRefillTokensOverThePeriod() throws InterruptedException {
+        var limiter = new RateLimiter(redisTemplate, meterRegistry, new RateLimitProperties(true,
+                List.of(new RateLimitProperties.Rule("fast", null, "/**", 1, Duration.ofMillis(100)))));
+        assertTrue(limiter.tryAcquire("GET", "/wishes", "anna").orElseThrow().allowed());
+        assertFalse(limiter.tryAcquire("GET", "/wishes", "anna").orElseThrow().allowed());
+
+        Thread.sleep(150);
+
+        assertTrue(limiter.tryAcquire("GET", "/wishes", "anna").orElseThrow().allowed());
+    }
+
+    @Test
+    void synchronize_shouldDebitRequestsAdmittedByOtherNodes() {
+        wishes(rateLimiter, "anna");
+        wishes(otherNode, "anna");
+        rateLimiter.synchronize();
+        otherNode.synchronize();
+
+        wishes(otherNode, "anna");
+        wishes(otherNode, "anna");
+        otherNode.synchronize();
+        rateLimiter.synchronize();
+
+        // 5 tokens, 1 taken here and 3 on the other node
+        var decision = wishes(rateLimiter, "anna");
+        assertTrue(decision.allowed());
+        assertEquals(0, decision.remaining());
+        assertFalse(wishes(rateLimiter, "anna").allowed());
+        assertEquals("4", redisTemplate.opsForValue().get(KEY_PREFIX + "wishes::anna"));
+    }
+
+    @Test
+    void synchronize_shouldKeepLimitingLocally_whenRedisIsUnavailable() throws IOException {
+        var unreachable = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", 1));
+        unreachable.afterPropertiesSet();
+        var limiter = new RateLimiter(new StringRedisTemplate(unreachable), meterRegistry, new RateLimitProperties(true, RULES));
+        try {
+            assertTrue(limiter.tryAcquire("GET", "/wishes/search", "anna").orElseThrow().allowed());
+
+            limiter.synchronize();
+
+            assertTrue(limiter.tryAcquire("GET", "/wishes/search", "anna").orElseThrow().allowed());
+            assertFalse(limiter.tryAcquire("GET", "/wishes/search", "anna").orElseThrow().allowed());
+        } finally {
+            unreachable.destroy();
+        }
+    }
+
+    private RateLimiter.Decision search(String username) {
+        return rateLimiter.tryAcquire("GET", "/wishes/search", username).orElseThrow();
+    }
+
+    private static RateLimiter.Decision wishes(RateLimiter limiter, String username) {
+        return limiter.tryAcquire("POST", "/wishes", username).orElseThrow();
+    }
+}
@@ -0,0 +1,128 @@
+package com.wishlist.security;
+
+import com.github.fppt.jedismock.RedisServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+import static com.wishlist.security.TokenDenyList.CHECKS_METRIC;
+import static com.wishlist.security.TokenDenyList.REVOCATION_LOG_KEY;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Against an in-memory Redis stand-in, two deny lists play two application nodes
+class TokenDenyListTest {
+
+    private static final long TOKEN_LIFETIME_MILLIS = 60_000;
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TokenDenyList denyList;
+    private TokenDenyList otherNode;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redisServer = RedisServer.newRedisServer(0).start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        denyList = new TokenDenyList(redisTemplate, meterRegistry, TOKEN_LIFETIME_MILLIS, 1000, 0.01, Duration.ofHours(1));
+        otherNode = new TokenDenyList(redisTemplate, new SimpleMeterRegistry(), TOKEN_LIFETIME_MILLIS, 1000, 0.01, Duration.ofHours(1));
+    }
+
+    @Test
+    void isRevoked_shouldCheckRedis_untilSynchronized() {
+        otherNode.revoke("revoked", expiresIn(Duration.ofMinutes(1)));
+
+        assertTrue(denyList.isRevoked("revoked"));
+        assertFalse(denyList.isRevoked("valid"));
+        assertEquals(2, checks("unsynchronized"));
+    }
+
+    @Test
+    void isRevoked_shouldAnswerLocally_forTokensNotInTheFilter() {
+        denyList.synchronize();
+
+        assertFalse(denyList.isRevoked("valid"));
+
+        assertEquals(1, checks("filter_miss"));
+    }
+
+    @Test
+    void isRevoked_shouldConfirmRevocationsOfThisNodeImmediately() {
+        denyList.synchronize();
+
+        denyList.revoke("revoked", expiresIn(Duration.ofMinutes(1)));
+
+        assertTrue(denyList.isRevoked("revoked"));
+        assertEquals(1, checks("revoked"));
+    }
+
+    @Test
+    void synchronize_shouldPickUpRevocationsOfOtherNodes() {
+        denyList.synchronize();
+        otherNode.revoke("revoked", expiresIn(Duration.ofMinutes(1)));
+
+        assertFalse(denyList.isRevoked("revoked"));
+        denyList.synchronize();
+        assertTrue(denyList.isRevoked("revoked"));
+    }
+
+    @Test
+    void isRevoked_shouldIgnoreTokensWithoutId() {
+        assertFalse(denyList.isRevoked(null));
+    }
+
+    @Test
+    void revoke_shouldIgnoreExpiredTokens() {
+        denyList.revoke("expired", Instant.now().minusSeconds(1));
+
+        assertFalse(denyList.isRevoked("expired"));
+        assertEquals(0L, redisTemplate.opsForZSet().zCard(REVOCATION_LOG_KEY));
+    }
+
+    @Test
+    void synchronize_shouldDropRevocationsOfExpiredTokensFromTheLog() {
+        redisTemplate.opsForZSet().add(REVOCATION_LOG_KEY, "old", System.currentTimeMillis() - TOKEN_LIFETIME_MILLIS - 1000);
+        denyList.revoke("recent", expiresIn(Duration.ofMinutes(1)));
+
+        denyList.synchronize();
+
+        assertEquals(1L, redisTemplate.opsForZSet().zCard(REVOCATION_LOG_KEY));
+        assertNull(redisTemplate.opsForZSet().score(REVOCATION_LOG_KEY, "old"));
+    }
+
+    private static Instant expiresIn(Duration duration) {
+        return Instant.now().plus(duration);
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get(CHECKS_METRIC).tags("result", result).counter().count();
+    }
+}
@@ -4,13 +4,17 @@ import com.wishlist.model.User;
 import com.wishlist.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class UserDetailsServiceImplTest {
@@ -42,6 +46,18 @@ class UserDetailsServiceImplTest {
         assertTrue(result.getAuthorities().isEmpty());
     }
 
+    @Test
+    void loadUserByUsername_shouldGrantAdminRole_toConfiguredUsers() {
+        ReflectionTestUtils.setField(userDetailsService, "adminUsernames", Set.of("admin"));
+        var user = User.builder().id(2L).username("admin").password("hashedpassword").build();
+
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(user));
+
+        UserDetails result = userDetailsService.loadUserByUsername("admin");
+
+        assertEquals(Set.of("ROLE_ADMIN"), AuthorityUtils.authorityListToSet(result.getAuthorities()));
+    }
+
     @Test
     void loadUserByUsername_shouldThrowException_whenUserNotFound() {
         when(userRepository.findByUsername("unknown")).thenReturn(Optional.empty());
@@ -52,4 +68,24 @@ class UserDetailsServiceImplTest {
         assertEquals("User not found with username: unknown", exception.getMessage());
     }
 
-}
\ No newline at end of file
+    @Test
+    void updatePassword_shouldStoreTheUpgradedHash() {
+        var user = User.builder()
+                .id(1L)
+                .username("johndoe")
+                .password("oldhash")
+                .build();
+        var userDetails = org.springframework.security.core.userdetails.User
+                .withUsername("johndoe")
+                .password("oldhash")
+                .build();
+
+        when(userRepository.findByUsername("johndoe")).thenReturn(Optional.of(user));
+
+        UserDetails result = userDetailsService.updatePassword(userDetails, "newhash");
+
+        assertEquals("newhash", result.getPassword());
+        assertEquals("newhash", user.getPassword());
+        verify(userRepository).save(user);
+    }
+}
@@ -2,22 +2,32 @@ package com.wishlist.service;
 
 import com.wishlist.dto.AuthRequest;
 import com.wishlist.dto.SignupRequest;
+import com.wishlist.event.UserLoggedInEvent;
 import com.wishlist.exception.ResourceNotFoundException;
 import com.wishlist.exception.UnauthorizedException;
 import com.wishlist.model.User;
 import com.wishlist.repository.UserRepository;
 import com.wishlist.security.JwtTokenProvider;
+import com.wishlist.security.TokenDenyList;
+import io.jsonwebtoken.Jwts;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -38,6 +48,12 @@ class AuthServiceImplTest {
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+    @Mock
+    private TokenDenyList tokenDenyList;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AuthServiceImpl authService;
 
@@ -80,6 +96,7 @@ class AuthServiceImplTest {
         verify(authenticationManager).authenticate(any());
         verify(jwtTokenProvider).generateToken(authentication);
         verify(userRepository).findByUsername(username);
+        verify(eventPublisher).publishEvent(new UserLoggedInEvent(42L, username));
     }
 
     @Test
@@ -88,8 +105,6 @@ class AuthServiceImplTest {
         var signupRequest = new SignupRequest("newuser", "newuser@example.com", "securePass");
         var encodedPassword = "encodedPassword123";
 
-        when(userRepository.existsByUsername("newuser")).thenReturn(false);
-        when(userRepository.existsByEmail("newuser@example.com")).thenReturn(false);
         when(passwordEncoder.encode("securePass")).thenReturn(encodedPassword);
 
         var savedUser = User.builder()
@@ -180,15 +195,14 @@ class AuthServiceImplTest {
         // given
         var signupRequest = new SignupRequest("existingUser", "email@example.com", "pass");
 
-        when(userRepository.existsByUsername("existingUser")).thenReturn(true);
+        when(userRepository.save(any(User.class))).thenThrow(uniqueViolation("uc_users_username"));
 
         // when + then
         var ex = assertThrows(IllegalArgumentException.class,
                 () -> authService.registerUser(signupRequest));
 
         assertEquals("Username is already taken!", ex.getMessage());
-        verify(userRepository).existsByUsername("existingUser");
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).existsByUsername(any());
     }
 
     @Test
@@ -196,17 +210,56 @@ class AuthServiceImplTest {
         // given
         var signupRequest = new SignupRequest("newuser", "taken@example.com", "pass");
 
-        when(userRepository.existsByUsername("newuser")).thenReturn(false);
-        when(userRepository.existsByEmail("taken@example.com")).thenReturn(true);
+        when(userRepository.save(any(User.class))).thenThrow(uniqueViolation("uc_users_email"));
 
         // when + then
         var ex = assertThrows(IllegalArgumentException.class,
                 () -> authService.registerUser(signupRequest));
 
         assertEquals("Email is already in use!", ex.getMessage());
-        verify(userRepository).existsByUsername("newuser");
-        verify(userRepository).existsByEmail("taken@example.com");
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).existsByEmail(any());
+    }
+
+    @Test
+    void registerUser_shouldRethrow_otherIntegrityViolations() {
+        // given
+        var signupRequest = new SignupRequest("newuser", "newuser@example.com", "pass");
+        var violation = uniqueViolation("some_other_constraint");
+
+        when(userRepository.save(any(User.class))).thenThrow(violation);
+
+        // when + then
+        var ex = assertThrows(DataIntegrityViolationException.class, () -> authService.registerUser(signupRequest));
+        assertSame(violation, ex);
+    }
+
+    @Test
+    void logout_shouldRevokeTheToken() {
+        // given
+        var expiration = Date.from(Instant.now().plusSeconds(60).truncatedTo(ChronoUnit.SECONDS));
+        var claims = Jwts.claims().id("token-id").subject("user1").expiration(expiration).build();
+        when(jwtTokenProvider.parseToken("jwt")).thenReturn(Optional.of(claims));
+
+        // when
+        authService.logout("jwt");
+
+        // then
+        verify(tokenDenyList).revoke("token-id", expiration.toInstant());
     }
 
-}
\ No newline at end of file
+    @Test
+    void logout_shouldThrow_ifTokenInvalid() {
+        // given
+        when(jwtTokenProvider.parseToken("jwt")).thenReturn(Optional.empty());
+
+        // when + then
+        assertThrows(UnauthorizedException.class, () -> authService.logout("jwt"));
+        verifyNoInteractions(tokenDenyList);
+    }
+
+    private static DataIntegrityViolationException uniqueViolation(String constraintName) {
+        var cause = new ConstraintViolationException("duplicate key value violates unique constraint",
+                new SQLException("duplicate key", "23505"), constraintName);
+        return new DataIntegrityViolationException("could not execute statement", cause);
+    }
+}
@@ -1,6 +1,8 @@
 package com.wishlist.service;
 
 import com.wishlist.dto.WishDTO;
+import com.wishlist.exception.BadRequestException;
+import com.wishlist.model.WishSortField;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -10,15 +12,24 @@ import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisListCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
 import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.util.List;
+import java.util.OptionalLong;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.Mockito.*;
 
 @SuppressWarnings("unchecked")
@@ -51,17 +62,36 @@ class CacheServiceImplTest {
         var wish2 = WishDTO.builder().id(2L).priority(2).title("B").build();
         var wishes = List.of(wish1, wish2);
 
-        var wishListOps = mock(ListOperations.class);
-        when(wishRedisTemplate.opsForList()).thenReturn(wishListOps);
+        var serializer = mock(RedisSerializer.class);
+        when(wishRedisTemplate.getValueSerializer()).thenReturn(serializer);
+        when(serializer.serialize(wish1)).thenReturn("{\"id\":1}".getBytes());
+        when(serializer.serialize(wish2)).thenReturn("{\"id\":2}".getBytes());
+        var connection = mockConnection();
+
+        cacheService.cacheUserWishes(userId, wishes, 10, WishSortField.PRIORITY);
+
+        var key = "userWishes::42::sort=priority".getBytes();
+        var totalKey = "userWishes::42::sort=priority::total".getBytes();
+        var transaction = inOrder(connection, connection.keyCommands(), connection.listCommands(), connection.stringCommands());
+        transaction.verify(connection).multi();
+        transaction.verify(connection.keyCommands()).del(aryEq(key), aryEq(totalKey));
+        transaction.verify(connection.listCommands()).rPush(aryEq(key), aryEq("{\"id\":1}".getBytes()), aryEq("{\"id\":2}".getBytes()));
+        transaction.verify(connection.keyCommands()).pExpire(aryEq(key), anyLong());
+        transaction.verify(connection.stringCommands()).set(aryEq(totalKey), aryEq("10".getBytes()), any(), any());
+        transaction.verify(connection).exec();
+    }
 
-        var sort = Sort.by(Sort.Order.asc("priority"));
+    @Test
+    void cacheUserWishes_empty_shouldOnlyWriteTheTotal() {
+        when(wishRedisTemplate.getValueSerializer()).thenReturn(mock(RedisSerializer.class));
+        var connection = mockConnection();
 
-        cacheService.cacheUserWishes(userId, wishes, sort);
+        cacheService.cacheUserWishes(42L, List.of(), 0, WishSortField.PRIORITY);
 
-        var expectedKey = "userWishes::42::sort=priority::asc";
-        verify(wishRedisTemplate).delete(expectedKey);
-        verify(wishListOps).rightPushAll(expectedKey, wishes);
-        verify(wishRedisTemplate).expire(eq(expectedKey), any());
+        verify(connection.keyCommands()).del(any(byte[].class), any(byte[].class));
+        verifyNoInteractions(connection.listCommands());
+        verify(connection.stringCommands()).set(aryEq("userWishes::42::sort=priority::total".getBytes()), aryEq("0".getBytes()), any(), any());
+        verify(connection).exec();
     }
 
     @Test
@@ -75,7 +105,7 @@ class CacheServiceImplTest {
         var pageable = PageRequest.of(0, 2, sort);
 
         when(wishRedisTemplate.opsForList()).thenReturn(listOperations);
-        when(listOperations.range("userWishes::42::sort=priority::asc", 0, 1)).thenReturn(allWishes);
+        when(listOperations.range("userWishes::42::sort=priority", 0, 1)).thenReturn(allWishes);
 
         var result = cacheService.getUserWishesPage(userId, pageable);
 
@@ -86,26 +116,57 @@ class CacheServiceImplTest {
     }
 
     @Test
-    void getUserWishesTotalCount() {
-        var userId = 42L;
-        var sort = Sort.by(Sort.Order.asc("priority"));
-        var expectedKey = "userWishes::42::sort=priority::asc";
+    void getUserWishesPage_descending_readsTheAscendingListFromTheEnd() {
+        var wish3 = WishDTO.builder().id(3L).title("C").build();
+        var wish4 = WishDTO.builder().id(4L).title("D").build();
+        // Second page of 2 in descending order: the 3rd and 4th wishes from the end
+        when(listOperations.range("userWishes::42::sort=priority", -4, -3)).thenReturn(List.of(wish3, wish4));
 
-        when(wishRedisTemplate.opsForList()).thenReturn(listOperations);
-        when(listOperations.size(expectedKey)).thenReturn(10L);
+        var result = cacheService.getUserWishesPage(42L, PageRequest.of(1, 2, Sort.by(Sort.Order.desc("priority"))));
+
+        assertEquals(List.of(wish4, wish3), result);
+    }
+
+    @Test
+    void getUserWishesPage_unknownSortField_isRejected() {
+        var pageable = PageRequest.of(0, 2, Sort.by("password"));
+
+        assertThrows(BadRequestException.class, () -> cacheService.getUserWishesPage(42L, pageable));
+        verifyNoInteractions(listOperations);
+    }
+
+    @Test
+    void getUserWishesPageJson() {
+        var pageable = PageRequest.of(1, 2, Sort.by(Sort.Order.asc("priority")));
+        var json = List.of("{\"id\":3}".getBytes(), "{\"id\":4}".getBytes());
+        var listCommands = mock(RedisListCommands.class);
+        var connection = mock(RedisConnection.class);
+        when(connection.listCommands()).thenReturn(listCommands);
+        when(listCommands.lRange("userWishes::42::sort=priority".getBytes(), 2, 3)).thenReturn(json);
+        when(wishRedisTemplate.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+
+        var result = cacheService.getUserWishesPageJson(42L, pageable);
+
+        assertEquals(json, result);
+    }
 
-        long count = cacheService.getUserWishesTotalCount(userId, sort);
+    @Test
+    void getUserWishesTotalCount() {
+        var userId = 42L;
+        var stringCommands = mockStringCommands();
+        when(stringCommands.get(aryEq("userWishes::42::sort=priority::total".getBytes()))).thenReturn("10".getBytes());
 
-        assertEquals(10L, count);
-        verify(listOperations).size(expectedKey);
+        assertEquals(OptionalLong.of(10), cacheService.getUserWishesTotalCount(userId, WishSortField.PRIORITY));
+        assertEquals(OptionalLong.empty(), cacheService.getUserWishesTotalCount(userId, WishSortField.TITLE));
     }
 
     @Test
     void evictUserWishesCache() {
         var userId = 99L;
         var keys = Set.of(
-                "userWishes::99::sort=createdAt::asc",
-                "userWishes::99::sort=priority::desc"
+                "userWishes::99::sort=createdAt",
+                "userWishes::99::sort=priority"
         );
 
         when(wishRedisTemplate.keys("userWishes::99::*")).thenReturn(keys);
@@ -155,9 +216,12 @@ class CacheServiceImplTest {
 
         when(cacheManager.getCache("categoryWishes")).thenReturn(mockCache);
 
-        service.evictUserCategoryWishesCache(userId);
+        service.evictUserCategoryWishesCache(userId, "books");
+        service.evictUserCategoryWishesCache(userId, null);
 
-        verify(mockCache).evict(userId);
+        // Same key as WishlistServiceImpl#getWishesByCategory, only that category
+        verify(mockCache).evict("books::" + userId);
+        verifyNoMoreInteractions(mockCache);
     }
 
     @Test
@@ -194,4 +258,26 @@ class CacheServiceImplTest {
         verify(cache1).clear();
         verify(cache2).clear();
     }
-}
\ No newline at end of file
+
+    private RedisConnection mockConnection() {
+        var connection = mock(RedisConnection.class);
+        var keyCommands = mock(RedisKeyCommands.class);
+        var listCommands = mock(RedisListCommands.class);
+        var stringCommands = mock(RedisStringCommands.class);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        when(connection.listCommands()).thenReturn(listCommands);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(wishRedisTemplate.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+        return connection;
+    }
+
+    private RedisStringCommands mockStringCommands() {
+        var stringCommands = mock(RedisStringCommands.class);
+        var connection = mock(RedisConnection.class);
+        when(connection.stringCommands()).thenReturn(stringCommands);
+        when(wishRedisTemplate.execute(any(RedisCallback.class))).thenAnswer(invocation ->
+                invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+        return stringCommands;
+    }
+}
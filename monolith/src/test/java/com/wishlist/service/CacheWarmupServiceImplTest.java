@@ -0,0 +1,109 @@
+package com.wishlist.service;
+
+import com.wishlist.event.UserLoggedInEvent;
+import com.wishlist.event.UserWishesCacheMissEvent;
+import com.wishlist.model.WishSortField;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.wishlist.service.CacheWarmupServiceImpl.DEFAULT_SORT_FIELD;
+import static com.wishlist.service.CacheWarmupServiceImpl.WARMUP_METRIC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CacheWarmupServiceImplTest {
+
+    private final WishlistService wishlistService = mock(WishlistService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CacheWarmupServiceImpl warmupService = new CacheWarmupServiceImpl(wishlistService, meterRegistry, ObservationRegistry.NOOP, 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        warmupService.destroy();
+    }
+
+    @Test
+    void onUserLoggedIn_shouldLoadTheFirstScreenInTheBackground() {
+        when(wishlistService.preloadUserWishes(1L, DEFAULT_SORT_FIELD)).thenReturn(true);
+
+        warmupService.onUserLoggedIn(new UserLoggedInEvent(1L, "anna"));
+
+        verify(wishlistService, timeout(1000)).getPendingWishes(1L);
+        verify(wishlistService).preloadUserWishes(1L, DEFAULT_SORT_FIELD);
+        awaitCount("loaded", 1);
+    }
+
+    @Test
+    void warmUp_shouldDeduplicateAndDropWarmUps_thatCantBeQueued() throws InterruptedException {
+        var running = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(wishlistService.preloadUserWishes(1L, DEFAULT_SORT_FIELD)).thenAnswer(invocation -> {
+            running.countDown();
+            release.await();
+            return false;
+        });
+
+        warmupService.warmUp(1L, "anna");
+        assertTrue(running.await(1, TimeUnit.SECONDS));
+        warmupService.warmUp(1L, "anna");
+        warmupService.warmUp(2L, "ben");
+        warmupService.warmUp(3L, "carl");
+        release.countDown();
+
+        assertEquals(1, count("deduplicated"));
+        assertEquals(1, count("rejected"));
+        verify(wishlistService, timeout(1000)).getPendingWishes(2L);
+        verify(wishlistService, never()).preloadUserWishes(3L, DEFAULT_SORT_FIELD);
+        awaitCount("already_cached", 2);
+    }
+
+    @Test
+    void onUserWishesCacheMiss_shouldLoadTheSortFieldInTheBackground_onceAtATime() throws InterruptedException {
+        var running = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(wishlistService.preloadUserWishes(1L, WishSortField.TITLE)).thenAnswer(invocation -> {
+            running.countDown();
+            release.await();
+            return true;
+        });
+
+        warmupService.onUserWishesCacheMiss(new UserWishesCacheMissEvent(1L, "anna", WishSortField.TITLE));
+        assertTrue(running.await(1, TimeUnit.SECONDS));
+        warmupService.onUserWishesCacheMiss(new UserWishesCacheMissEvent(1L, "anna", WishSortField.TITLE));
+        release.countDown();
+
+        assertEquals(1, count("deduplicated"));
+        awaitCount("loaded", 1);
+        verify(wishlistService, never()).getPendingWishes(any());
+        assertEquals(1, meterRegistry.get(WARMUP_METRIC).tags("trigger", "miss", "result", "loaded").counter().count());
+    }
+
+    @Test
+    void warmUp_shouldCountFailures() {
+        when(wishlistService.preloadUserWishes(1L, DEFAULT_SORT_FIELD)).thenThrow(new IllegalStateException("Redis down"));
+
+        warmupService.warmUp(1L, "anna");
+
+        awaitCount("failed", 1);
+    }
+
+    private double count(String result) {
+        var counter = meterRegistry.find(WARMUP_METRIC).tags("result", result).counter();
+        return counter != null ? counter.count() : 0;
+    }
+
+    private void awaitCount(String result, double expected) {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (count(result) < expected && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(expected, count(result));
+    }
+}
@@ -0,0 +1,199 @@
+package com.wishlist.service;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.wishlist.event.WishesOverdueEvent;
+import com.wishlist.repository.WishDueDate;
+import com.wishlist.repository.WishRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.wishlist.service.OverdueWishScanner.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// Against an in-memory Redis stand-in, with two partitions read in chunks of two wishes
+class OverdueWishScannerTest {
+
+    private static final LocalDateTime AFTER = LocalDateTime.of(2025, 3, 1, 12, 0);
+    private static final LocalDateTime UNTIL = AFTER.plusMinutes(1);
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final WishRepository wishRepository = mock(WishRepository.class);
+    private final CacheService cacheService = mock(CacheService.class);
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private OverdueWishScanner scanner;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redisServer = RedisServer.newRedisServer(0).start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        when(wishRepository.findOverdueWishesChunk(anyInt(), anyInt(), any(), anyLong(), any(), any())).thenReturn(List.of());
+        scanner = new OverdueWishScanner(wishRepository, cacheService, events::add, redisTemplate, meterRegistry,
+                true, 2, 2, 2, Duration.ofMillis(1), Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        scanner.destroy();
+    }
+
+    @Test
+    void scan_shouldProcessEachPartitionInChunks_usingTheLastWishAsTheKey() {
+        var first = new WishDueDate(1L, 10L, AFTER.plusSeconds(1));
+        var second = new WishDueDate(2L, 12L, AFTER.plusSeconds(1));
+        var third = new WishDueDate(3L, 10L, AFTER.plusSeconds(2));
+        when(wishRepository.findOverdueWishesChunk(2, 0, AFTER, Long.MAX_VALUE, UNTIL, Limit.of(2))).thenReturn(List.of(first, second));
+        when(wishRepository.findOverdueWishesChunk(2, 0, second.dueDate(), second.id(), UNTIL, Limit.of(2))).thenReturn(List.of(third));
+
+        var processed = scanLocked().join();
+
+        assertEquals(3, processed);
+        verify(wishRepository).findOverdueWishesChunk(2, 1, AFTER, Long.MAX_VALUE, UNTIL, Limit.of(2));
+        assertEquals(List.of(new WishesOverdueEvent(10L, List.of(1L)), new WishesOverdueEvent(12L, List.of(2L)),
+                new WishesOverdueEvent(10L, List.of(3L))), events);
+        verify(cacheService, times(2)).evictUserOverdueWishesCache(10L);
+        verify(cacheService).evictUserOverdueWishesCache(12L);
+        assertEquals(3, meterRegistry.get(WISHES_METRIC).counter().count());
+    }
+
+    @Test
+    void scan_shouldFail_whenAPartitionFails() {
+        when(wishRepository.findOverdueWishesChunk(2, 1, AFTER, Long.MAX_VALUE, UNTIL, Limit.of(2)))
+                .thenThrow(new IllegalStateException("Database down"));
+
+        var scan = scanLocked();
+
+        assertThrows(CompletionException.class, scan::join);
+        assertEquals(1, meterRegistry.get(DURATION_METRIC).tags("result", "failure").timer().count());
+    }
+
+    @Test
+    void scan_shouldOnlySetTheWatermark_theFirstTime() {
+        scanner.scan();
+
+        assertNotNull(redisTemplate.opsForValue().get(WATERMARK_KEY));
+        assertFalse(redisTemplate.hasKey(LOCK_KEY));
+        verifyNoInteractions(wishRepository);
+    }
+
+    @Test
+    void scan_shouldScanFromTheWatermark_andMoveItOnceDone() {
+        redisTemplate.opsForValue().set(WATERMARK_KEY, AFTER.toString());
+
+        scanner.scan();
+
+        verify(wishRepository, timeout(1000)).findOverdueWishesChunk(eq(2), eq(0), eq(AFTER), eq(Long.MAX_VALUE), any(), eq(Limit.of(2)));
+        verify(wishRepository, timeout(1000)).findOverdueWishesChunk(eq(2), eq(1), eq(AFTER), eq(Long.MAX_VALUE), any(), eq(Limit.of(2)));
+        awaitUnlocked();
+        assertTrue(LocalDateTime.parse(redisTemplate.opsForValue().get(WATERMARK_KEY)).isAfter(AFTER));
+    }
+
+    @Test
+    void scan_shouldKeepTheWatermark_whenTheScanFails() {
+        redisTemplate.opsForValue().set(WATERMARK_KEY, AFTER.toString());
+        when(wishRepository.findOverdueWishesChunk(anyInt(), eq(1), any(), anyLong(), any(), any()))
+                .thenThrow(new IllegalStateException("Database down"));
+
+        scanner.scan();
+
+        verify(wishRepository, timeout(1000)).findOverdueWishesChunk(anyInt(), eq(1), any(), anyLong(), any(), any());
+        awaitUnlocked();
+        assertEquals(AFTER.toString(), redisTemplate.opsForValue().get(WATERMARK_KEY));
+    }
+
+    @Test
+    void scan_shouldSkip_whileAnotherNodeHoldsTheLock() {
+        redisTemplate.opsForValue().set(WATERMARK_KEY, AFTER.toString());
+        redisTemplate.opsForValue().set(LOCK_KEY, "other node");
+
+        scanner.scan();
+
+        verifyNoInteractions(wishRepository);
+        assertEquals("other node", redisTemplate.opsForValue().get(LOCK_KEY));
+        assertEquals(AFTER.toString(), redisTemplate.opsForValue().get(WATERMARK_KEY));
+    }
+
+    @Test
+    void scan_shouldWait_whileRequestsWaitForDatabaseConnections() {
+        var pendingConnections = new AtomicInteger(1);
+        Gauge.builder(PENDING_CONNECTIONS_METRIC, pendingConnections, AtomicInteger::get).tag("pool", "primary").register(meterRegistry);
+
+        var scan = scanLocked();
+
+        verify(wishRepository, after(200).never()).findOverdueWishesChunk(anyInt(), anyInt(), any(), anyLong(), any(), any());
+        pendingConnections.set(0);
+        assertEquals(0, scan.join());
+        verify(wishRepository, times(2)).findOverdueWishesChunk(anyInt(), anyInt(), any(), anyLong(), any(), any());
+    }
+
+    @Test
+    void scan_shouldStop_onceItLostTheLock() {
+        var pendingConnections = new AtomicInteger(1);
+        Gauge.builder(PENDING_CONNECTIONS_METRIC, pendingConnections, AtomicInteger::get).tag("pool", "primary").register(meterRegistry);
+
+        var scan = scanLocked();
+        redisTemplate.opsForValue().set(LOCK_KEY, "other node");
+
+        var error = assertThrows(CompletionException.class, scan::join);
+        assertEquals("Lost the overdue scan lock", error.getCause().getMessage());
+        verifyNoInteractions(wishRepository);
+        assertEquals("other node", redisTemplate.opsForValue().get(LOCK_KEY));
+    }
+
+    // A scan of (AFTER, UNTIL] holding the lock, as scan() does
+    private CompletableFuture<Long> scanLocked() {
+        redisTemplate.opsForValue().set(LOCK_KEY, "token", Duration.ofMinutes(1));
+        return scanner.scan(AFTER, UNTIL, "token");
+    }
+
+    private void awaitUnlocked() {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (redisTemplate.hasKey(LOCK_KEY) && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertFalse(redisTemplate.hasKey(LOCK_KEY));
+    }
+}
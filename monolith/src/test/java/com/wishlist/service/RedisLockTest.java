@@ -0,0 +1,93 @@
+package com.wishlist.service;
+
+import com.github.fppt.jedismock.RedisServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Against an in-memory Redis stand-in, two tokens play two nodes
+class RedisLockTest {
+
+    private static final String KEY = "job::lock";
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final RedisLock lock = new RedisLock(redisTemplate, KEY, Duration.ofMinutes(1));
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redisServer = RedisServer.newRedisServer(0).start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+    }
+
+    @Test
+    void tryLock_shouldLetOneTokenHoldTheLock_untilItIsReleased() {
+        assertTrue(lock.tryLock("node 1"));
+        assertFalse(lock.tryLock("node 2"));
+
+        lock.unlock("node 1");
+
+        assertTrue(lock.tryLock("node 2"));
+    }
+
+    @Test
+    void unlock_shouldKeepTheLock_ofAnotherToken() {
+        assertTrue(lock.tryLock("node 1"));
+
+        lock.unlock("node 2");
+
+        assertEquals("node 1", redisTemplate.opsForValue().get(KEY));
+        assertTrue(redisTemplate.getExpire(KEY) > 0);
+    }
+
+    @Test
+    void extend_shouldRestartTheExpiry_whileTheTokenHoldsTheLock() {
+        assertTrue(lock.tryLock("node 1"));
+        redisTemplate.expire(KEY, Duration.ofSeconds(1));
+
+        assertTrue(lock.extend("node 1"));
+        assertTrue(redisTemplate.getExpire(KEY) > 1);
+
+        redisTemplate.opsForValue().set(KEY, "node 2");
+        assertFalse(lock.extend("node 1"));
+    }
+
+    @Test
+    void unlock_shouldNotThrow_whenRedisIsUnavailable() {
+        var unreachable = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", 1));
+        unreachable.afterPropertiesSet();
+        try {
+            assertDoesNotThrow(() -> new RedisLock(new StringRedisTemplate(unreachable), KEY, Duration.ofMinutes(1)).unlock("node 1"));
+        } finally {
+            unreachable.destroy();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.wishlist.service;
+
+import com.wishlist.model.User;
+import com.wishlist.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// Against the real (H2) constraints, whose violations are reported differently than on PostgreSQL
+@DataJpaTest
+class SignupConflictsTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void messageFor_shouldDetectTheViolatedConstraint() {
+        userRepository.saveAndFlush(user("alice", "alice@example.com"));
+
+        var usernameTaken = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(user("alice", "other@example.com")));
+        var emailInUse = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.insertAll(List.of(user("bob", "alice@example.com"))));
+
+        assertEquals(Optional.of(SignupConflicts.USERNAME_TAKEN), SignupConflicts.messageFor(usernameTaken));
+        assertEquals(Optional.of(SignupConflicts.EMAIL_IN_USE), SignupConflicts.messageFor(emailInUse));
+    }
+
+    private static User user(String username, String email) {
+        return User.builder().username(username).email(email).password("pw").build();
+    }
+}
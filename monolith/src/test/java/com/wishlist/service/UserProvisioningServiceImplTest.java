@@ -0,0 +1,95 @@
+package com.wishlist.service;
+
+import com.wishlist.dto.BulkSignupResponse;
+import com.wishlist.dto.SignupRequest;
+import com.wishlist.exception.ConflictException;
+import com.wishlist.model.User;
+import com.wishlist.repository.UserRepository;
+import com.wishlist.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class UserProvisioningServiceImplTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+    private final BoundedPasswordEncoder passwordEncoder =
+            new BoundedPasswordEncoder(bcrypt, 1, 1, Duration.ofSeconds(5), new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+    private final UserProvisioningServiceImpl provisioningService = new UserProvisioningServiceImpl(userRepository, passwordEncoder, 2);
+
+    @AfterEach
+    void tearDown() {
+        provisioningService.destroy();
+        passwordEncoder.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void registerUsers_shouldInsertNewUsersWithHashedPasswords() {
+        var requests = List.of(
+                new SignupRequest("anna", "anna@example.com", "password1"),
+                new SignupRequest("ben", "ben@example.com", "password2"));
+
+        var response = provisioningService.registerUsers(requests);
+
+        assertEquals(2, response.getCreated());
+        assertTrue(response.getRejected().isEmpty());
+        ArgumentCaptor<List<User>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userRepository).insertAll(captor.capture());
+        var users = captor.getValue();
+        assertEquals(List.of("anna", "ben"), users.stream().map(User::getUsername).toList());
+        assertTrue(bcrypt.matches("password1", users.get(0).getPassword()));
+        assertTrue(bcrypt.matches("password2", users.get(1).getPassword()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void registerUsers_shouldRejectExistingAndDuplicateUsers() {
+        var existing = User.builder().username("taken").email("taken@example.com").build();
+        when(userRepository.findByUsernameInOrEmailIn(anyList(), anyList())).thenReturn(List.of(existing));
+        var requests = List.of(
+                new SignupRequest("taken", "new@example.com", "password"),
+                new SignupRequest("new", "taken@example.com", "password"),
+                new SignupRequest("twice", "twice@example.com", "password"),
+                new SignupRequest("twice", "twice2@example.com", "password"),
+                new SignupRequest("other", "twice@example.com", "password"));
+
+        var response = provisioningService.registerUsers(requests);
+
+        assertEquals(1, response.getCreated());
+        assertEquals(List.of(
+                new BulkSignupResponse.Rejection(0, "taken", "Username is already taken!"),
+                new BulkSignupResponse.Rejection(1, "new", "Email is already in use!"),
+                new BulkSignupResponse.Rejection(3, "twice", "Username is already taken!"),
+                new BulkSignupResponse.Rejection(4, "other", "Email is already in use!")), response.getRejected());
+        ArgumentCaptor<List<User>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userRepository).insertAll(captor.capture());
+        assertEquals(List.of("twice"), captor.getValue().stream().map(User::getUsername).toList());
+    }
+
+    @Test
+    void registerUsers_shouldReportConflict_whenAConcurrentSignupWins() {
+        var cause = new ConstraintViolationException("duplicate", new SQLException("duplicate", "23505"), "uc_users_email");
+        doThrow(new DataIntegrityViolationException("could not execute batch", cause)).when(userRepository).insertAll(any());
+
+        var ex = assertThrows(ConflictException.class,
+                () -> provisioningService.registerUsers(List.of(new SignupRequest("anna", "anna@example.com", "password1"))));
+
+        assertEquals("Email is already in use! No users were created, please retry.", ex.getMessage());
+    }
+}
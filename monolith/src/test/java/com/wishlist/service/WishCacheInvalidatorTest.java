@@ -0,0 +1,103 @@
+package com.wishlist.service;
+
+import com.wishlist.event.WishChangedEvent;
+import com.wishlist.event.WishChangedEvent.WishState;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class WishCacheInvalidatorTest {
+
+    private final CacheService cacheService = mock(CacheService.class);
+    private final WishCacheInvalidator invalidator = new WishCacheInvalidator(cacheService);
+
+    @Test
+    void onWishChanges_shouldEvictTheListsOfANewWish_butNotTheWish() {
+        // when
+        invalidator.onWishChanges(List.of(new WishChangedEvent(1L, 10L, null,
+                new WishState(false, "Books", 1, LocalDateTime.now().plusDays(5)))));
+
+        // then
+        verify(cacheService, never()).evictWishCache(anyLong(), anyLong());
+        verify(cacheService).evictUserWishesCache(1L);
+        verify(cacheService).evictUserPendingWishesCache(1L);
+        verify(cacheService, never()).evictUserCompletedWishesCache(anyLong());
+        verify(cacheService).evictUserOverdueWishesCache(1L);
+        verify(cacheService).evictUserCategoryWishesCache(1L, "Books");
+    }
+
+    @Test
+    void onWishChanges_shouldEvictBothCategories_ofAWishThatMoved() {
+        // when
+        invalidator.onWishChanges(List.of(new WishChangedEvent(1L, 10L,
+                new WishState(false, "Old", 1, null), new WishState(false, "Books", 2, null))));
+
+        // then
+        verify(cacheService).evictWishCache(10L, 1L);
+        verify(cacheService).evictUserCategoryWishesCache(1L, "Old");
+        verify(cacheService).evictUserCategoryWishesCache(1L, "Books");
+        verify(cacheService, never()).evictUserOverdueWishesCache(anyLong());
+    }
+
+    @Test
+    void onWishChanges_shouldEvictTheWish_evenIfOnlyItsTitleChanged() {
+        // given
+        var state = new WishState(false, null, null, null);
+
+        // when
+        invalidator.onWishChanges(List.of(new WishChangedEvent(1L, 10L, state, state)));
+
+        // then
+        verify(cacheService).evictWishCache(10L, 1L);
+        verify(cacheService).evictUserWishesCache(1L);
+        verify(cacheService, never()).evictUserCategoryWishesCache(anyLong(), any());
+    }
+
+    @Test
+    void onWishChanges_shouldEvictEachCacheOnce_perUser() {
+        // given
+        var dueDate = LocalDateTime.now().minusDays(1);
+
+        // when
+        invalidator.onWishChanges(List.of(
+                new WishChangedEvent(1L, 1L, new WishState(true, "Books", null, null), null),
+                new WishChangedEvent(1L, 2L, new WishState(false, "Books", null, dueDate), null),
+                new WishChangedEvent(1L, 3L, new WishState(false, "Travel", null, null), null),
+                new WishChangedEvent(2L, 4L, new WishState(false, "Travel", null, null), new WishState(true, "Travel", null, null))));
+
+        // then
+        verify(cacheService).evictWishCache(1L, 1L);
+        verify(cacheService).evictWishCache(2L, 1L);
+        verify(cacheService).evictWishCache(3L, 1L);
+        verify(cacheService).evictUserWishesCache(1L);
+        verify(cacheService).evictUserCompletedWishesCache(1L);
+        verify(cacheService).evictUserPendingWishesCache(1L);
+        verify(cacheService).evictUserOverdueWishesCache(1L);
+        verify(cacheService).evictUserCategoryWishesCache(1L, "Books");
+        verify(cacheService).evictUserCategoryWishesCache(1L, "Travel");
+        verify(cacheService).evictWishCache(4L, 2L);
+        verify(cacheService).evictUserWishesCache(2L);
+        verify(cacheService).evictUserCompletedWishesCache(2L);
+        verify(cacheService).evictUserPendingWishesCache(2L);
+        verify(cacheService, never()).evictUserOverdueWishesCache(2L);
+        verify(cacheService).evictUserCategoryWishesCache(2L, "Travel");
+        verifyNoMoreInteractions(cacheService);
+    }
+
+    @Test
+    void onWishChanges_shouldKeepThePendingLists_whenOnlyCompletedWishesAreDeleted() {
+        // when
+        invalidator.onWishChanges(List.of(new WishChangedEvent(1L, 22L, new WishState(true, null, null, null), null)));
+
+        // then
+        verify(cacheService).evictWishCache(22L, 1L);
+        verify(cacheService).evictUserCompletedWishesCache(1L);
+        verify(cacheService, never()).evictUserPendingWishesCache(anyLong());
+        verify(cacheService, never()).evictUserOverdueWishesCache(anyLong());
+    }
+}
@@ -0,0 +1,174 @@
+package com.wishlist.service;
+
+import com.github.fppt.jedismock.RedisServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static com.wishlist.service.WishEventStream.*;
+import static com.wishlist.service.WishOutboxRelay.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// Against an in-memory Redis stand-in, through MockMvc for the asynchronous responses; user streams keep three changes
+class WishEventStreamTest {
+
+    private static final Long USER_ID = 7L;
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WishEventStream eventStream;
+    private MockMvc mockMvc;
+    // Recent enough not to have expired from the user streams
+    private final long now = System.currentTimeMillis();
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redisServer = RedisServer.newRedisServer(0).start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        eventStream = new WishEventStream(redisTemplate, meterRegistry, Duration.ofMinutes(1), Duration.ofMillis(100), 100,
+                3, Duration.ofHours(1));
+        mockMvc = MockMvcBuilders.standaloneSetup(new EventsController(eventStream)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventStream.stop();
+    }
+
+    @Test
+    void subscribe_shouldPushTheUsersChanges_asTheyAreRelayed() throws Exception {
+        add(id(1), USER_ID, "{\"before\":1}");
+        var response = subscribe(null);
+        awaitContent(response, content -> content.contains("id:" + id(1)));
+
+        add(id(2), 8L, "{\"other\":true}");
+        add(id(3), USER_ID, "{\"after\":3}");
+
+        var content = awaitContent(response, received -> received.contains("{\"after\":3}"));
+        assertTrue(content.contains("id:" + id(3) + "\nevent:" + CHANGE_EVENT + "\ndata:{\"after\":3}"), content);
+        // Only changes after the connection, only the user's
+        assertFalse(content.contains("{\"before\":1}"));
+        assertFalse(content.contains("other"));
+        assertEquals(1, meterRegistry.get(CONNECTIONS_METRIC).gauge().value());
+    }
+
+    @Test
+    void subscribe_shouldResumeAfterTheLastEventId() throws Exception {
+        add(id(1), USER_ID, "{\"wish\":1}");
+        add(id(2), USER_ID, "{\"wish\":2}");
+        add(id(3), USER_ID, "{\"wish\":3}");
+
+        var content = awaitContent(subscribe(id(1)), received -> received.contains("{\"wish\":3}"));
+
+        assertFalse(content.contains("{\"wish\":1}"));
+        assertTrue(content.indexOf("{\"wish\":2}") < content.indexOf("{\"wish\":3}"), content);
+        assertEquals(2, meterRegistry.get(EVENTS_METRIC).tags("type", CHANGE_EVENT).counter().count());
+    }
+
+    @Test
+    void subscribe_shouldAskForAReload_whenChangesMayHaveBeenMissed() throws Exception {
+        for (int i = 2; i <= 5; i++) {
+            add(id(i), USER_ID, "{\"wish\":" + i + "}");
+        }
+
+        // Changes after 1 were trimmed from the user stream, 1-0 expired long ago, the last one isn't an id
+        for (var lastEventId : new String[]{id(1), "1-0", "last"}) {
+            var content = awaitContent(subscribe(lastEventId), received -> received.contains("event:" + RESET_EVENT));
+            assertFalse(content.contains(CHANGE_EVENT), content);
+        }
+        assertEquals(3, meterRegistry.get(EVENTS_METRIC).tags("type", RESET_EVENT).counter().count());
+    }
+
+    @Test
+    void heartbeat_shouldWriteACommentToEachConnection() throws Exception {
+        var response = subscribe(null);
+        awaitContent(response, content -> content.startsWith("id:"));
+
+        eventStream.heartbeat();
+
+        awaitContent(response, content -> content.contains(":heartbeat"));
+    }
+
+    private MockHttpServletResponse subscribe(String lastEventId) throws Exception {
+        var request = get("/events");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    // As the relay adds it, to the stream and the user stream
+    private static void add(String id, Long userId, String event) {
+        Map<String, String> fields = Map.of(USER_ID_FIELD, String.valueOf(userId), EVENT_FIELD, event);
+        redisTemplate.opsForStream().add(StreamRecords.string(fields).withStreamKey(USER_STREAM_KEY_PREFIX + userId).withId(RecordId.of(id)));
+        redisTemplate.opsForStream().add(StreamRecords.string(fields).withStreamKey(STREAM_KEY).withId(RecordId.of(id)));
+    }
+
+    private String id(int sequence) {
+        return now + "-" + sequence;
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, Predicate<String> expected) throws Exception {
+        var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (true) {
+            var content = response.getContentAsString();
+            if (expected.test(content)) {
+                return content;
+            }
+            if (System.nanoTime() > deadline) {
+                fail("Not received in time: " + content);
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    @RestController
+    private record EventsController(WishEventStream eventStream) {
+
+        @GetMapping("/events")
+        SseEmitter events(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            return eventStream.subscribe(USER_ID, lastEventId);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.wishlist.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.github.fppt.jedismock.RedisServer;
+import com.wishlist.event.WishChangeListener;
+import com.wishlist.event.WishChangedEvent;
+import com.wishlist.event.WishChangedEvent.WishState;
+import com.wishlist.model.WishOutboxEntry;
+import com.wishlist.repository.WishOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.wishlist.service.WishOutboxRelay.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Against an in-memory Redis stand-in, in batches of two entries, keeping the last change of each user
+class WishOutboxRelayTest {
+
+    private static final LocalDateTime DUE_DATE = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final WishOutboxRepository outboxRepository = mock(WishOutboxRepository.class);
+    private final List<List<WishChangedEvent>> received = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+    private final Map<String, Object> listeners = new LinkedHashMap<>();
+    private WishOutboxRelay relay;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redisServer = RedisServer.newRedisServer(0).start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        listeners.put("failing", (WishChangeListener) events -> {
+            throw new IllegalStateException("Redis down");
+        });
+        listeners.put("recording", (WishChangeListener) received::add);
+        relay = new WishOutboxRelay(outboxRepository, redisTemplate, objectMapper,
+                new StaticListableBeanFactory(listeners).getBeanProvider(WishChangeListener.class), meterRegistry, observationRegistry,
+                2, Duration.ofMinutes(1), 1000, 1, Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.destroy();
+    }
+
+    @Test
+    void relay_shouldAddEachBatchToTheStream_passItToTheListeners_andDeleteIt() throws Exception {
+        var created = new WishChangedEvent(7L, 1L, null, new WishState(false, "books", 1, DUE_DATE));
+        var completed = new WishChangedEvent(7L, 1L, created.after(), new WishState(true, "books", 1, DUE_DATE));
+        var deleted = new WishChangedEvent(8L, 2L, new WishState(false, null, null, null), null);
+        var first = List.of(entry(10L, created), entry(11L, completed));
+        var second = List.of(entry(12L, deleted));
+        when(outboxRepository.findAllByOrderByIdAsc(Limit.of(2))).thenReturn(first).thenReturn(second);
+
+        var relayed = relay.relay();
+
+        assertEquals(3, relayed);
+        var stream = redisTemplate.<String, String>opsForStream().range(STREAM_KEY, Range.unbounded());
+        assertEquals(List.of("10", "11", "12"), stream.stream().map(record -> record.getValue().get(ID_FIELD)).toList());
+        assertEquals(Map.of(ID_FIELD, "12", USER_ID_FIELD, "8", WISH_ID_FIELD, "2", EVENT_FIELD, objectMapper.writeValueAsString(deleted)),
+                stream.getLast().getValue());
+        // Under the same ids, only the last change of user 7
+        var userStream = redisTemplate.<String, String>opsForStream().range(USER_STREAM_KEY_PREFIX + 7, Range.unbounded());
+        assertEquals(List.of(stream.get(1).getId()), userStream.stream().map(MapRecord::getId).toList());
+        assertEquals(stream.get(1).getValue(), userStream.getFirst().getValue());
+        assertTrue(redisTemplate.getExpire(USER_STREAM_KEY_PREFIX + 8) > 0);
+        // With the ids of their entries, which aren't part of the payload
+        assertEquals(List.of(List.of(created.withOutboxId(10L), completed.withOutboxId(11L)), List.of(deleted.withOutboxId(12L))), received);
+        assertFalse(stream.getLast().getValue().get(EVENT_FIELD).contains("outboxId"));
+        var inOrder = inOrder(outboxRepository);
+        inOrder.verify(outboxRepository).deleteAllByIdInBatch(List.of(10L, 11L));
+        inOrder.verify(outboxRepository).deleteAllByIdInBatch(List.of(12L));
+        assertEquals(3, meterRegistry.get(RELAYED_METRIC).counter().count());
+        // Not held back by the failing listener
+        assertEquals(2, meterRegistry.get(LISTENER_FAILURES_METRIC).counter().count());
+        assertFalse(redisTemplate.hasKey(LOCK_KEY));
+    }
+
+    @Test
+    void relay_shouldKeepTheEntries_whenTheDatabaseFails() throws Exception {
+        when(outboxRepository.findAllByOrderByIdAsc(Limit.of(2))).thenReturn(List.of(entry(10L, new WishChangedEvent(7L, 1L, null, null))));
+        doThrow(new DataAccessResourceFailureException("Database down"))
+                .when(outboxRepository).deleteAllByIdInBatch(List.of(10L));
+
+        assertEquals(0, relay.relay());
+        assertFalse(redisTemplate.hasKey(LOCK_KEY));
+    }
+
+    @Test
+    void relay_shouldLeaveTheOutboxToTheNodeHoldingTheLock() {
+        redisTemplate.opsForValue().set(LOCK_KEY, "another node");
+
+        assertEquals(0, relay.relay());
+        verifyNoInteractions(outboxRepository);
+        assertEquals("another node", redisTemplate.opsForValue().get(LOCK_KEY));
+    }
+
+    @Test
+    void requestRelay_shouldRelayOnItsThread_withinTheRequestersObservation() throws Exception {
+        // Observations are only recorded with a handler
+        observationRegistry.observationConfig().observationHandler(context -> true);
+        var inListener = new CompletableFuture<Observation>();
+        listeners.put("recording", (WishChangeListener) events -> inListener.complete(observationRegistry.getCurrentObservation()));
+        when(outboxRepository.findAllByOrderByIdAsc(Limit.of(2))).thenReturn(List.of(entry(10L, new WishChangedEvent(7L, 1L, null, null))));
+        var request = Observation.start("request", observationRegistry);
+
+        try (var ignored = request.openScope()) {
+            relay.requestRelay();
+        } finally {
+            request.stop();
+        }
+
+        assertSame(request, inListener.get(5, TimeUnit.SECONDS));
+    }
+
+    private WishOutboxEntry entry(Long id, WishChangedEvent event) throws Exception {
+        return WishOutboxEntry.builder()
+                .id(id)
+                .userId(event.userId())
+                .wishId(event.wishId())
+                .payload(objectMapper.writeValueAsString(event))
+                .createdAt(DUE_DATE)
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.wishlist.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wishlist.event.WishChangedEvent;
+import com.wishlist.event.WishChangedEvent.WishState;
+import com.wishlist.repository.WishOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+// Plays the transaction with the synchronizations Spring would run
+class WishOutboxTest {
+
+    private final WishOutboxRepository outboxRepository = mock(WishOutboxRepository.class);
+    private final WishOutboxRelay relay = mock(WishOutboxRelay.class);
+    private final WishCacheInvalidator cacheInvalidator = mock(WishCacheInvalidator.class);
+    private final WishOutbox outbox = new WishOutbox(outboxRepository, relay, cacheInvalidator, new ObjectMapper());
+
+    private final List<WishChangedEvent> events = List.of(new WishChangedEvent(1L, 10L, null, new WishState(false, "Books", 1, null)));
+
+    @BeforeEach
+    void setUp() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void append_shouldEvictTheCaches_andRequestARelay_onlyOnceCommitted() {
+        // when
+        outbox.append(events);
+
+        // then
+        verify(outboxRepository).insertAll(anyList());
+        verifyNoInteractions(cacheInvalidator, relay);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        InOrder inOrder = inOrder(cacheInvalidator, relay);
+        inOrder.verify(cacheInvalidator).onWishChanges(events);
+        inOrder.verify(relay).requestRelay();
+    }
+
+    @Test
+    void append_shouldRequestARelay_evenIfTheCachesCouldNotBeEvicted() {
+        // given
+        doThrow(new IllegalStateException("Redis is down")).when(cacheInvalidator).onWishChanges(events);
+        outbox.append(events);
+
+        // when
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // then
+        verify(relay).requestRelay();
+    }
+
+    @Test
+    void append_shouldDoNothing_withoutChanges() {
+        // when
+        outbox.append(List.of());
+
+        // then
+        assertEquals(List.of(), TransactionSynchronizationManager.getSynchronizations());
+        verifyNoInteractions(outboxRepository);
+    }
+}
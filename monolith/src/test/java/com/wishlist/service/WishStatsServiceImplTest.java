@@ -0,0 +1,273 @@
+package com.wishlist.service;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.wishlist.dto.CategoryDTO;
+import com.wishlist.event.WishChangedEvent;
+import com.wishlist.event.WishChangedEvent.WishState;
+import com.wishlist.metrics.CacheMetrics;
+import com.wishlist.repository.WishCount;
+import com.wishlist.repository.WishDueDate;
+import com.wishlist.repository.WishOutboxRepository;
+import com.wishlist.repository.WishRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.wishlist.metrics.CacheMetrics.CACHE_GETS_METRIC;
+import static com.wishlist.service.WishStatsServiceImpl.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+// Against an in-memory Redis stand-in
+class WishStatsServiceImplTest {
+
+    private static final Long USER_ID = 7L;
+    private static final LocalDateTime YESTERDAY = LocalDateTime.now().minusDays(1);
+    private static final LocalDateTime TOMORROW = LocalDateTime.now().plusDays(1);
+
+    private static RedisServer redisServer;
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private final WishRepository wishRepository = mock(WishRepository.class);
+    private final WishOutboxRepository outboxRepository = mock(WishOutboxRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private WishStatsServiceImpl statsService;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redisServer = RedisServer.newRedisServer(0).start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", redisServer.getBindPort()));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        // 2 pending "books" wishes of priority 1 (one overdue, one due tomorrow), 1 completed "travel" wish without priority
+        when(wishRepository.countByUserIdGrouped(USER_ID)).thenReturn(List.of(
+                new WishCount(false, "books", 1, 2L),
+                new WishCount(true, "travel", null, 1L)));
+        when(wishRepository.findPendingDueDates(USER_ID)).thenReturn(List.of(
+                new WishDueDate(1L, USER_ID, YESTERDAY),
+                new WishDueDate(2L, USER_ID, TOMORROW)));
+        statsService = new WishStatsServiceImpl(wishRepository, outboxRepository, mock(PlatformTransactionManager.class), redisTemplate,
+                new CacheMetrics(meterRegistry), meterRegistry,
+                Duration.ofHours(1), Duration.ZERO, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        statsService.destroy();
+    }
+
+    @Test
+    void getStats_shouldBuildTheCountersFromTheDatabase_onlyOnce() {
+        var first = statsService.getStats(USER_ID);
+        var second = statsService.getStats(USER_ID);
+
+        assertEquals(first, second);
+        assertEquals(3, first.getTotal());
+        assertEquals(1, first.getCompleted());
+        assertEquals(2, first.getPending());
+        assertEquals(1, first.getOverdue());
+        assertEquals(Map.of("books", 2L, "travel", 1L), first.getCategories());
+        assertEquals(Map.of(1, 2L), first.getPriorities());
+        verify(wishRepository, times(1)).countByUserIdGrouped(USER_ID);
+        assertEquals(1, gets("miss"));
+        assertEquals(1, gets("hit"));
+    }
+
+    @Test
+    void onWishChanges_shouldUpdateTheCounters() {
+        statsService.getStats(USER_ID);
+        var pendingBook = new WishState(false, "books", 1, TOMORROW);
+        var completedBook = new WishState(true, "books", 1, TOMORROW);
+
+        // a new overdue wish, the book due tomorrow completed, the completed travel wish deleted
+        statsService.onWishChanges(List.of(new WishChangedEvent(USER_ID, 3L, null, new WishState(false, "garden", 3, YESTERDAY))));
+        statsService.onWishChanges(List.of(new WishChangedEvent(USER_ID, 2L, pendingBook, completedBook)));
+        statsService.onWishChanges(List.of(new WishChangedEvent(USER_ID, 4L, new WishState(true, "travel", null, null), null)));
+        var stats = statsService.getStats(USER_ID);
+
+        assertEquals(3, stats.getTotal());
+        assertEquals(1, stats.getCompleted());
+        assertEquals(2, stats.getPending());
+        assertEquals(2, stats.getOverdue());
+        assertEquals(Map.of("books", 2L, "garden", 1L), stats.getCategories());
+        assertEquals(Map.of(1, 2L, 3, 1L), stats.getPriorities());
+        assertEquals(3, meterRegistry.get(UPDATES_METRIC).tags("result", "applied").counter().count());
+        verify(wishRepository, times(1)).countByUserIdGrouped(USER_ID);
+    }
+
+    @Test
+    void onWishChanges_shouldUpdateEachUserOnce_perBatch() {
+        statsService.getStats(USER_ID);
+        var newGarden = new WishState(false, "garden", 3, YESTERDAY);
+        var completedGarden = new WishState(true, "garden", 3, YESTERDAY);
+
+        // a new overdue wish completed right away, the overdue book deleted, and a change of a user without counters
+        statsService.onWishChanges(List.of(
+                new WishChangedEvent(USER_ID, 3L, null, newGarden),
+                new WishChangedEvent(8L, 9L, null, newGarden),
+                new WishChangedEvent(USER_ID, 3L, newGarden, completedGarden),
+                new WishChangedEvent(USER_ID, 1L, new WishState(false, "books", 1, YESTERDAY), null)));
+        var stats = statsService.getStats(USER_ID);
+
+        assertEquals(3, stats.getTotal());
+        assertEquals(2, stats.getCompleted());
+        assertEquals(0, stats.getOverdue());
+        assertEquals(Map.of("books", 1L, "garden", 1L, "travel", 1L), stats.getCategories());
+        assertEquals(Map.of(1, 1L, 3, 1L), stats.getPriorities());
+        assertEquals(1, meterRegistry.get(UPDATES_METRIC).tags("result", "applied").counter().count());
+        assertEquals(1, meterRegistry.get(UPDATES_METRIC).tags("result", "not_loaded").counter().count());
+    }
+
+    @Test
+    void onWishChanges_shouldSkipChanges_appliedAlready() {
+        statsService.getStats(USER_ID);
+        var created = new WishChangedEvent(USER_ID, 3L, null, new WishState(false, "garden", 3, YESTERDAY), 10L);
+        var deleted = new WishChangedEvent(USER_ID, 1L, new WishState(false, "books", 1, YESTERDAY), null, 11L);
+
+        // the first batch relayed again after a failure, with a change that wasn't in it
+        statsService.onWishChanges(List.of(created));
+        statsService.onWishChanges(List.of(created));
+        statsService.onWishChanges(List.of(created, deleted));
+        var stats = statsService.getStats(USER_ID);
+
+        assertEquals(3, stats.getTotal());
+        assertEquals(1, stats.getOverdue());
+        assertEquals(Map.of("books", 1L, "garden", 1L, "travel", 1L), stats.getCategories());
+        assertEquals(2, meterRegistry.get(UPDATES_METRIC).tags("result", "applied").counter().count());
+        assertEquals(1, meterRegistry.get(UPDATES_METRIC).tags("result", "duplicate").counter().count());
+        // No drift
+        when(wishRepository.countByUserIdGrouped(USER_ID)).thenReturn(List.of(
+                new WishCount(false, "books", 1, 1L),
+                new WishCount(false, "garden", 3, 1L),
+                new WishCount(true, "travel", null, 1L)));
+        when(wishRepository.findPendingDueDates(USER_ID)).thenReturn(List.of(
+                new WishDueDate(2L, USER_ID, TOMORROW),
+                new WishDueDate(3L, USER_ID, YESTERDAY)));
+        assertEquals(1, statsService.reconcileAll());
+        assertEquals(1, meterRegistry.get(RECONCILIATIONS_METRIC).tags("result", "match").counter().count());
+    }
+
+    @Test
+    void onWishChanges_shouldApplyAChangeCommittedLate_belowTheIdsAppliedAlready() {
+        statsService.getStats(USER_ID);
+
+        statsService.onWishChanges(List.of(new WishChangedEvent(USER_ID, 3L, null, new WishState(false, "garden", 3, null), 11L)));
+        statsService.onWishChanges(List.of(new WishChangedEvent(USER_ID, 4L, null, new WishState(false, "garden", 3, null), 10L)));
+
+        assertEquals(5, statsService.getStats(USER_ID).getTotal());
+        assertEquals(2, meterRegistry.get(UPDATES_METRIC).tags("result", "applied").counter().count());
+    }
+
+    @Test
+    void getStats_shouldRecordTheChangesStillInTheOutbox_asApplied() {
+        // committed before the counters were built, relayed after
+        when(outboxRepository.findIdsByUserId(USER_ID)).thenReturn(List.of(10L));
+        statsService.getStats(USER_ID);
+
+        statsService.onWishChanges(List.of(new WishChangedEvent(USER_ID, 2L, null, new WishState(false, "books", 1, TOMORROW), 10L)));
+
+        assertEquals(3, statsService.getStats(USER_ID).getTotal());
+        assertEquals(1, meterRegistry.get(UPDATES_METRIC).tags("result", "duplicate").counter().count());
+        assertTrue(redisTemplate.getExpire(APPLIED_KEY_PREFIX + USER_ID) > 0);
+    }
+
+    @Test
+    void onWishChanges_shouldLeaveCountersNotBuiltYetAlone() {
+        statsService.onWishChanges(List.of(new WishChangedEvent(USER_ID, 3L, null, new WishState(false, "garden", 3, YESTERDAY))));
+
+        assertFalse(redisTemplate.hasKey(KEY_PREFIX + USER_ID));
+        assertFalse(redisTemplate.hasKey(DUE_DATES_KEY_PREFIX + USER_ID));
+        assertEquals(1, meterRegistry.get(UPDATES_METRIC).tags("result", "not_loaded").counter().count());
+    }
+
+    @Test
+    void getCategories_shouldListTheCategories_largestFirst() {
+        var categories = statsService.getCategories(USER_ID);
+        statsService.onWishChanges(List.of(new WishChangedEvent(USER_ID, 3L, null, new WishState(false, "garden", 3, null))));
+
+        assertEquals(List.of(new CategoryDTO("books", 2), new CategoryDTO("travel", 1)), categories);
+        assertEquals(List.of(new CategoryDTO("books", 2), new CategoryDTO("garden", 1), new CategoryDTO("travel", 1)),
+                statsService.getCategories(USER_ID));
+        verify(wishRepository, times(1)).countByUserIdGrouped(USER_ID);
+    }
+
+    @Test
+    void reconcile_shouldDropCountersThatDrifted() {
+        statsService.getStats(USER_ID);
+        statsService.getStats(8L);
+        // A write that never made it to Redis
+        when(wishRepository.countByUserIdGrouped(8L)).thenReturn(List.of(new WishCount(false, null, null, 1L)));
+
+        assertEquals(2, statsService.reconcileAll());
+
+        assertTrue(redisTemplate.hasKey(KEY_PREFIX + USER_ID));
+        assertFalse(redisTemplate.hasKey(KEY_PREFIX + 8L));
+        assertEquals(1, meterRegistry.get(RECONCILIATIONS_METRIC).tags("result", "match").counter().count());
+        assertEquals(1, meterRegistry.get(RECONCILIATIONS_METRIC).tags("result", "corrected").counter().count());
+        assertEquals(1, statsService.getStats(8L).getTotal());
+        assertFalse(redisTemplate.hasKey(RECONCILE_LOCK_KEY));
+    }
+
+    @Test
+    void reconcile_shouldRunOnAThreadOfItsOwn() throws Exception {
+        statsService.getStats(USER_ID);
+        var thread = new CompletableFuture<String>();
+        when(wishRepository.countByUserIdGrouped(USER_ID)).thenAnswer(invocation -> {
+            thread.complete(Thread.currentThread().getName());
+            return List.of();
+        });
+
+        statsService.reconcile();
+
+        assertTrue(thread.get(5, TimeUnit.SECONDS).startsWith("stats-reconcile-"));
+    }
+
+    @Test
+    void reconcileAll_shouldStop_whenTheLockWasLost() {
+        statsService.getStats(USER_ID);
+        statsService.getStats(8L);
+        // The lock expired during the first user, and another node took it
+        when(wishRepository.countByUserIdGrouped(anyLong())).thenAnswer(invocation -> {
+            redisTemplate.opsForValue().set(RECONCILE_LOCK_KEY, "other node");
+            return List.of();
+        });
+
+        assertEquals(1, statsService.reconcileAll());
+        assertEquals("other node", redisTemplate.opsForValue().get(RECONCILE_LOCK_KEY));
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get(CACHE_GETS_METRIC).tags("cache", STATS_CACHE_NAME, "result", result).counter().count();
+    }
+}
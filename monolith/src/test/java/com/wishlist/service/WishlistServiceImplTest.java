@@ -1,24 +1,43 @@
 package com.wishlist.service;
 
+import com.wishlist.dto.OverdueWishes;
 import com.wishlist.dto.WishDTO;
+import com.wishlist.event.UserWishesCacheMissEvent;
+import com.wishlist.event.WishChangedEvent;
+import com.wishlist.event.WishChangedEvent.WishState;
+import com.wishlist.exception.ConflictException;
+import com.wishlist.exception.PreconditionFailedException;
 import com.wishlist.exception.ResourceNotFoundException;
+import com.wishlist.metrics.CacheMetrics;
 import com.wishlist.model.User;
 import com.wishlist.model.Wish;
+import com.wishlist.model.WishSortField;
 import com.wishlist.repository.WishRepository;
+import com.wishlist.repository.WishUpdate;
 import com.wishlist.service.mapper.WishMapperImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.*;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
 
@@ -33,9 +52,20 @@ class WishlistServiceImplTest {
     @Mock
     private CacheService cacheService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private WishOutbox wishOutbox;
+
     @Spy
     WishMapperImpl wishMapper;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private CacheMetrics cacheMetrics = new CacheMetrics(meterRegistry);
+
     @InjectMocks
     private WishlistServiceImpl wishlistService;
 
@@ -47,6 +77,7 @@ class WishlistServiceImplTest {
             mockUser = new User();
             mockUser.setId(1L);
             when(authService.getCurrentUser()).thenReturn(mockUser);
+            ReflectionTestUtils.setField(wishlistService, "window", 2);
         }
     }
 
@@ -74,13 +105,51 @@ class WishlistServiceImplTest {
         assertNotNull(result);
         assertEquals("Test Wish", result.getTitle());
         verify(wishRepository, times(1)).save(any(Wish.class));
-        verify(cacheService, times(1)).evictUserWishesCache(mockUser.getId());
-        verify(cacheService, times(1)).evictUserPendingWishesCache(mockUser.getId());
-        verify(cacheService, times(1)).evictUserCategoryWishesCache(mockUser.getId());
+        verify(wishOutbox).append(List.of(new WishChangedEvent(mockUser.getId(), 1L, null,
+                new WishState(false, "Books", 1, wishDTO.getDueDate()))));
+    }
+
+    @Test
+    void getUserWishes_shouldServeCachedPages_withinTheWindow() {
+        // given
+        var pageable = PageRequest.of(1, 2, Sort.by("createdAt"));
+        var cached = List.of(WishDTO.builder().id(3L).title("Cached").build());
+        when(cacheService.getUserWishesTotalCount(mockUser.getId(), WishSortField.CREATED_AT)).thenReturn(OptionalLong.of(3));
+        when(cacheService.getUserWishesPage(mockUser.getId(), pageable)).thenReturn(cached);
+
+        // when
+        var result = wishlistService.getUserWishes(mockUser.getId(), pageable);
+
+        // then
+        assertEquals(cached, result.getWishes());
+        assertEquals(3, result.getTotalItems());
+        assertEquals(2, result.getTotalPages());
+        verifyNoInteractions(wishRepository, eventPublisher);
+    }
+
+    @Test
+    void getUserWishes_shouldTreatAnEmptyCachedPage_beforeTheEndOfTheList_asAMiss() {
+        // given: the list was evicted between reading its total and the page
+        var pageable = PageRequest.of(0, 2, Sort.by("createdAt"));
+        var query = PageRequest.of(0, 2, WishSortField.CREATED_AT.ascending());
+        when(cacheService.getUserWishesTotalCount(mockUser.getId(), WishSortField.CREATED_AT)).thenReturn(OptionalLong.of(3));
+        when(cacheService.getUserWishesPage(mockUser.getId(), pageable)).thenReturn(List.of());
+        when(cacheService.getUserWishesPageJson(mockUser.getId(), pageable)).thenReturn(List.of());
+        when(wishRepository.findByUserId(mockUser.getId(), query)).thenReturn(new PageImpl<>(List.of(wish(1L)), query, 1));
+
+        // when
+        var json = wishlistService.getUserWishesJson(mockUser.getId(), pageable);
+        var result = wishlistService.getUserWishes(mockUser.getId(), pageable);
+
+        // then
+        assertTrue(json.isEmpty());
+        assertEquals(1, result.getTotalItems());
+        verify(eventPublisher).publishEvent(new UserWishesCacheMissEvent(mockUser.getId(), null, WishSortField.CREATED_AT));
+        assertEquals(1, meterRegistry.get(CacheMetrics.CACHE_GETS_METRIC).tags("cache", "userWishes", "result", "miss").counter().count());
     }
 
     @Test
-    void getUserWishesTest() {
+    void getUserWishes_onMiss_shouldReadTheDatabase_andRefillTheCacheInTheBackground() {
         // given
         var wish = Wish.builder()
                 .id(1L)
@@ -88,25 +157,132 @@ class WishlistServiceImplTest {
                 .completed(false)
                 .user(mockUser)
                 .build();
-        var pageable = PageRequest.of(0, 10, Sort.by("createdAt"));
-        var wishes = List.of(wish);
-        Page<Wish> page = new PageImpl<>(wishes, pageable, 1);
-        var expected = wishes.stream().map(wishMapper::map).toList();
-
-        // Arrange
-        when(cacheService.getUserWishesPage(mockUser.getId(), pageable)).thenReturn(List.of()).thenReturn(expected);
-        when(wishRepository.findByUserId(eq(mockUser.getId()), eq(Pageable.unpaged(pageable.getSort())))).thenReturn(page);
-        when(cacheService.getUserWishesTotalCount(mockUser.getId(), pageable.getSort())).thenReturn(1L);
+        var pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt"));
+        var query = PageRequest.of(0, 10, WishSortField.CREATED_AT.sorted(Sort.Direction.DESC));
+        when(cacheService.getUserWishesTotalCount(mockUser.getId(), WishSortField.CREATED_AT)).thenReturn(OptionalLong.empty());
+        when(wishRepository.findByUserId(mockUser.getId(), query)).thenReturn(new PageImpl<>(List.of(wish), query, 1));
 
         // when
         var result = wishlistService.getUserWishes(mockUser.getId(), pageable);
 
         // then
-        assertNotNull(result);
         assertEquals(1, result.getTotalItems());
-        assertEquals(1, result.getWishes().size());
         assertEquals("Read book", result.getWishes().getFirst().getTitle());
-        verify(wishRepository, times(1)).findByUserId(mockUser.getId(), Pageable.unpaged(pageable.getSort()));
+        verify(eventPublisher).publishEvent(new UserWishesCacheMissEvent(mockUser.getId(), null, WishSortField.CREATED_AT));
+        verify(cacheService, never()).cacheUserWishes(any(), any(), anyLong(), any());
+        assertEquals(1, meterRegistry.get(CacheMetrics.CACHE_GETS_METRIC).tags("cache", "userWishes", "result", "miss").counter().count());
+        assertEquals(1, meterRegistry.get(CacheMetrics.CACHE_FIRST_PAGE_GETS_METRIC).tags("cache", "userWishes", "result", "miss").counter().count());
+    }
+
+    @Test
+    void getUserWishes_beyondTheWindow_shouldReadTheDatabase() {
+        // given
+        var pageable = PageRequest.of(1, 2, Sort.by("priority"));
+        var query = PageRequest.of(1, 2, WishSortField.PRIORITY.ascending());
+        when(cacheService.getUserWishesTotalCount(mockUser.getId(), WishSortField.PRIORITY)).thenReturn(OptionalLong.of(100));
+        when(wishRepository.findAllByUserId(mockUser.getId(), query)).thenReturn(List.of(wish(3L), wish(4L)));
+
+        // when
+        var result = wishlistService.getUserWishes(mockUser.getId(), pageable);
+
+        // then: the cached total, without a count query
+        assertEquals(100, result.getTotalItems());
+        assertEquals(List.of(3L, 4L), result.getWishes().stream().map(WishDTO::getId).toList());
+        verify(wishRepository, never()).findByUserId(any(), any(Pageable.class));
+        verify(cacheService, never()).getUserWishesPage(any(), any());
+        verifyNoInteractions(eventPublisher);
+        assertEquals(1, meterRegistry.get(CacheMetrics.CACHE_GETS_METRIC).tags("cache", "userWishes", "result", "bypass").counter().count());
+    }
+
+    @Test
+    void getUserWishesJson_shouldOnlyReturnCachedPages() {
+        // given
+        var cached = List.of("{\"id\":3}".getBytes(), "{\"id\":4}".getBytes());
+        when(cacheService.getUserWishesTotalCount(mockUser.getId(), WishSortField.CREATED_AT)).thenReturn(OptionalLong.of(5));
+        when(cacheService.getUserWishesPageJson(eq(mockUser.getId()), any())).thenReturn(cached);
+        when(cacheService.getUserWishesTotalCount(mockUser.getId(), WishSortField.TITLE)).thenReturn(OptionalLong.empty());
+
+        // when
+        var result = wishlistService.getUserWishesJson(mockUser.getId(), PageRequest.of(0, 2, Sort.by("createdAt")));
+        var notCached = wishlistService.getUserWishesJson(mockUser.getId(), PageRequest.of(0, 2, Sort.by("title")));
+        // 5 wishes, more than twice the window: only the first and last 2 are cached
+        var beyondTheWindow = wishlistService.getUserWishesJson(mockUser.getId(), PageRequest.of(1, 2, Sort.by("createdAt")));
+
+        // then
+        assertTrue(result.isPresent());
+        assertEquals(cached, result.get().getWishes());
+        assertEquals(5, result.get().getTotalItems());
+        assertEquals(3, result.get().getTotalPages());
+        assertEquals(0, result.get().getCurrentPage());
+        assertTrue(notCached.isEmpty());
+        assertTrue(beyondTheWindow.isEmpty());
+        verifyNoInteractions(wishRepository, eventPublisher);
+    }
+
+    @Test
+    void preloadUserWishes_shouldCacheWholeLists_upToTwiceTheWindow() {
+        // given
+        var wishes = List.of(wish(1L), wish(2L), wish(3L));
+        when(cacheService.getUserWishesTotalCount(mockUser.getId(), WishSortField.PRIORITY)).thenReturn(OptionalLong.empty());
+        when(wishRepository.findByUserId(mockUser.getId(), WishSortField.PRIORITY.ascending(), Limit.of(5))).thenReturn(wishes);
+
+        // when
+        var loaded = wishlistService.preloadUserWishes(mockUser.getId(), WishSortField.PRIORITY);
+
+        // then
+        assertTrue(loaded);
+        verify(cacheService).cacheUserWishes(mockUser.getId(), wishes.stream().map(wishMapper::map).toList(), 3, WishSortField.PRIORITY);
+        verify(wishRepository, never()).countByUserId(any());
+        assertEquals(1, meterRegistry.get(CacheMetrics.CACHE_LOAD_METRIC).tags("cache", "userWishes").timer().count());
+    }
+
+    @Test
+    void preloadUserWishes_shouldCacheTheFirstAndLastWindow_ofLongerLists() {
+        // given
+        when(cacheService.getUserWishesTotalCount(mockUser.getId(), WishSortField.PRIORITY)).thenReturn(OptionalLong.empty());
+        when(wishRepository.findByUserId(mockUser.getId(), WishSortField.PRIORITY.ascending(), Limit.of(5)))
+                .thenReturn(List.of(wish(1L), wish(2L), wish(3L), wish(4L), wish(5L)));
+        when(wishRepository.findByUserId(mockUser.getId(), WishSortField.PRIORITY.sorted(Sort.Direction.DESC), Limit.of(2)))
+                .thenReturn(List.of(wish(9L), wish(8L)));
+        when(wishRepository.countByUserId(mockUser.getId())).thenReturn(9L);
+
+        // when
+        wishlistService.preloadUserWishes(mockUser.getId(), WishSortField.PRIORITY);
+
+        // then
+        var cached = Stream.of(wish(1L), wish(2L), wish(8L), wish(9L)).map(wishMapper::map).toList();
+        verify(cacheService).cacheUserWishes(mockUser.getId(), cached, 9, WishSortField.PRIORITY);
+    }
+
+    @Test
+    void preloadUserWishes_shouldNotCache_ifTheWindowsAndTheTotalDisagree() {
+        // given: 6 wishes, but the last window overlaps the first one at the wrong place
+        when(cacheService.getUserWishesTotalCount(mockUser.getId(), WishSortField.PRIORITY)).thenReturn(OptionalLong.empty());
+        when(wishRepository.findByUserId(mockUser.getId(), WishSortField.PRIORITY.ascending(), Limit.of(5)))
+                .thenReturn(List.of(wish(1L), wish(2L), wish(3L), wish(4L), wish(5L)));
+        when(wishRepository.findByUserId(mockUser.getId(), WishSortField.PRIORITY.sorted(Sort.Direction.DESC), Limit.of(2)))
+                .thenReturn(List.of(wish(6L), wish(4L)));
+        when(wishRepository.countByUserId(mockUser.getId())).thenReturn(6L);
+
+        // when
+        wishlistService.preloadUserWishes(mockUser.getId(), WishSortField.PRIORITY);
+
+        // then
+        verify(cacheService, never()).cacheUserWishes(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void preloadUserWishes_shouldSkip_ifCached() {
+        // given
+        when(cacheService.getUserWishesTotalCount(mockUser.getId(), WishSortField.CREATED_AT)).thenReturn(OptionalLong.of(0));
+
+        // when
+        var loaded = wishlistService.preloadUserWishes(mockUser.getId(), WishSortField.CREATED_AT);
+
+        // then
+        assertFalse(loaded);
+        verifyNoInteractions(wishRepository);
+        verify(cacheService, never()).cacheUserWishes(any(), any(), anyLong(), any());
     }
 
     @Test
@@ -147,51 +323,56 @@ class WishlistServiceImplTest {
                 .priority(2)
                 .category("Books")
                 .dueDate(LocalDateTime.now().plusDays(10))
-                .completed(true)
+                .completed(true) // Ignored, see markWishAsCompleted
                 .build();
 
-        var existingWish = Wish.builder()
-                .id(wishId)
-                .title("Old wish")
-                .description("Old description")
-                .priority(1)
-                .category("Old")
-                .dueDate(LocalDateTime.now().plusDays(5))
-                .completed(false)
-                .user(mockUser)
-                .build();
+        var oldDueDate = LocalDateTime.now().plusDays(5);
+        var before = Wish.builder().id(wishId).title("Old title").priority(1).category("Old").dueDate(oldDueDate).version(3L).build();
+        var after = Wish.builder().id(wishId).title("Updated wish").description("Updated description").priority(2)
+                .category("Books").dueDate(updateDTO.getDueDate()).version(4L).build();
+        var changes = ArgumentCaptor.forClass(Wish.class);
+        when(wishRepository.update(eq(mockUser.getId()), eq(wishId), eq(3L), changes.capture(), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(new WishUpdate(before, after)));
 
-        var updatedWish = Wish.builder()
-                .id(wishId)
-                .title(updateDTO.getTitle())
-                .description(updateDTO.getDescription())
-                .priority(updateDTO.getPriority())
-                .category(updateDTO.getCategory())
-                .dueDate(updateDTO.getDueDate())
-                .completed(updateDTO.isCompleted())
-                .user(mockUser)
-                .build();
+        // when
+        var result = wishlistService.updateWish(wishId, updateDTO, 3L);
 
-        var updatedDTO = wishMapper.map(updatedWish);
+        // then
+        assertEquals("Updated wish", result.getTitle());
+        assertEquals("Updated description", result.getDescription());
+        assertEquals(4L, result.getVersion());
+        assertFalse(result.isCompleted());
+        assertEquals("Books", changes.getValue().getCategory());
+        assertEquals(updateDTO.getDueDate(), changes.getValue().getDueDate());
+
+        verify(wishRepository, never()).findByIdAndUserId(anyLong(), anyLong());
+        verify(wishRepository, never()).save(any(Wish.class));
+        verify(wishOutbox).append(List.of(new WishChangedEvent(mockUser.getId(), wishId,
+                new WishState(false, "Old", 1, oldDueDate), new WishState(false, "Books", 2, updateDTO.getDueDate()))));
+    }
 
-        when(wishRepository.findByIdAndUserId(wishId, mockUser.getId())).thenReturn(Optional.of(existingWish));
-        when(wishRepository.save(any(Wish.class))).thenReturn(updatedWish);
-        doReturn(updatedDTO).when(wishMapper).map(updatedWish);
+    @Test
+    void updateWish_shouldFailThePrecondition_ifTheWishChangedSinceTheExpectedVersion() {
+        // given
+        var wishId = 16L;
+        var updateDTO = WishDTO.builder().title("Updated").build();
+        when(wishRepository.findByIdAndUserId(wishId, mockUser.getId())).thenReturn(Optional.of(wish(wishId)));
 
-        // when
-        var result = wishlistService.updateWish(wishId, updateDTO);
+        // when + then
+        assertThrows(PreconditionFailedException.class, () -> wishlistService.updateWish(wishId, updateDTO, 3L));
 
-        // then
-        assertNotNull(result);
-        assertEquals(updateDTO.getTitle(), result.getTitle());
-        assertEquals(updateDTO.getDescription(), result.getDescription());
+        verify(wishRepository).update(eq(mockUser.getId()), eq(wishId), eq(3L), any(Wish.class), any(LocalDateTime.class));
+        verifyNoInteractions(cacheService, wishOutbox);
+    }
 
-        verify(wishRepository).findByIdAndUserId(wishId, mockUser.getId());
-        verify(wishRepository).save(any(Wish.class));
-        verify(cacheService).evictUserWishesCache(mockUser.getId());
-        verify(cacheService).evictUserCompletedWishesCache(mockUser.getId());
-        verify(cacheService).evictUserPendingWishesCache(mockUser.getId());
-        verify(cacheService).evictUserCategoryWishesCache(mockUser.getId());
+    @Test
+    void updateWish_withoutAnExpectedVersion_shouldConflict_ifTheWishChangedDuringTheUpdate() {
+        // given
+        var wishId = 17L;
+        when(wishRepository.findByIdAndUserId(wishId, mockUser.getId())).thenReturn(Optional.of(wish(wishId)));
+
+        // when + then
+        assertThrows(ConflictException.class, () -> wishlistService.updateWish(wishId, WishDTO.builder().title("Updated").build(), null));
     }
 
     @Test
@@ -201,49 +382,64 @@ class WishlistServiceImplTest {
         var wish = Wish.builder()
                 .id(wishId)
                 .title("To Delete")
-                .completed(true) // Important for verifying which caches are evicted
-                .user(mockUser)
+                .completed(true)
                 .build();
 
-        when(wishRepository.findByIdAndUserId(wishId, mockUser.getId())).thenReturn(Optional.of(wish));
-        doNothing().when(wishRepository).delete(wish);
+        when(wishRepository.deleteAll(mockUser.getId(), List.of(wishId))).thenReturn(List.of(wish));
 
         // when
         wishlistService.deleteWish(wishId);
 
         // then
-        verify(wishRepository).findByIdAndUserId(wishId, mockUser.getId());
-        verify(wishRepository).delete(wish);
-        verify(cacheService).evictUserWishesCache(mockUser.getId());
-        verify(cacheService).evictUserCompletedWishesCache(mockUser.getId());
-        verify(cacheService, never()).evictUserPendingWishesCache(mockUser.getId()); // wish is completed
-        verify(cacheService).evictUserCategoryWishesCache(mockUser.getId());
+        verify(wishRepository).deleteAll(mockUser.getId(), List.of(wishId));
+        verify(wishRepository, never()).findByIdAndUserId(anyLong(), anyLong());
+        verify(wishOutbox).append(List.of(new WishChangedEvent(mockUser.getId(), wishId, new WishState(true, null, null, null), null)));
+    }
+
+    @Test
+    void deleteWishes_shouldAppendOneBatchOfChanges_andReturnTheDeletedIds() {
+        // given
+        var dueDate = LocalDateTime.now().minusDays(1);
+        var books = Wish.builder().id(1L).category("Books").completed(true).build();
+        var overdueBooks = Wish.builder().id(2L).category("Books").dueDate(dueDate).build();
+        var travel = Wish.builder().id(3L).category("Travel").build();
+        // 4 isn't one of the user's wishes
+        when(wishRepository.deleteAll(mockUser.getId(), List.of(1L, 2L, 3L, 4L))).thenReturn(List.of(books, overdueBooks, travel));
+
+        // when
+        var deleted = wishlistService.deleteWishes(List.of(1L, 2L, 3L, 4L));
+
+        // then
+        assertEquals(List.of(1L, 2L, 3L), deleted);
+        // One append for all of them
+        verify(wishOutbox).append(List.of(
+                new WishChangedEvent(mockUser.getId(), 1L, new WishState(true, "Books", null, null), null),
+                new WishChangedEvent(mockUser.getId(), 2L, new WishState(false, "Books", null, dueDate), null),
+                new WishChangedEvent(mockUser.getId(), 3L, new WishState(false, "Travel", null, null), null)));
+    }
+
+    @Test
+    void deleteWishes_shouldAppendNothing_ifNoneWasDeleted() {
+        // when
+        var deleted = wishlistService.deleteWishes(List.of(5L));
+
+        // then
+        assertEquals(List.of(), deleted);
+        verifyNoInteractions(cacheService, wishOutbox);
     }
 
     @Test
     void markWishAsCompletedTest() {
         // given
         var wishId = 99L;
-        var wish = Wish.builder()
-                .id(wishId)
-                .title("Complete Me")
-                .completed(false)
-                .user(mockUser)
-                .build();
-
         var completedWish = Wish.builder()
                 .id(wishId)
                 .title("Complete Me")
                 .completed(true)
                 .completedAt(LocalDateTime.now())
-                .user(mockUser)
                 .build();
 
-        var completedDTO = wishMapper.map(completedWish);
-
-        when(wishRepository.findByIdAndUserId(wishId, mockUser.getId())).thenReturn(Optional.of(wish));
-        when(wishRepository.save(any(Wish.class))).thenReturn(completedWish);
-        doReturn(completedDTO).when(wishMapper).map(completedWish);
+        when(wishRepository.completeAll(eq(mockUser.getId()), eq(List.of(wishId)), any(LocalDateTime.class))).thenReturn(List.of(completedWish));
 
         // when
         var result = wishlistService.markWishAsCompleted(wishId);
@@ -252,12 +448,45 @@ class WishlistServiceImplTest {
         assertNotNull(result);
         assertTrue(result.isCompleted());
         assertEquals(wishId, result.getId());
-        verify(wishRepository).findByIdAndUserId(wishId, mockUser.getId());
-        verify(wishRepository).save(any(Wish.class));
-        verify(cacheService).evictUserWishesCache(mockUser.getId());
-        verify(cacheService).evictUserCompletedWishesCache(mockUser.getId());
-        verify(cacheService).evictUserPendingWishesCache(mockUser.getId());
-        verify(cacheService).evictUserCategoryWishesCache(mockUser.getId());
+        verify(wishRepository, never()).findByIdAndUserId(anyLong(), anyLong());
+        verify(wishRepository, never()).save(any(Wish.class));
+        verify(wishOutbox).append(List.of(new WishChangedEvent(mockUser.getId(), wishId,
+                new WishState(false, null, null, null), new WishState(true, null, null, null))));
+    }
+
+    @Test
+    void markWishAsCompleted_shouldReturnACompletedWish_asItIs() {
+        // given
+        var wishId = 98L;
+        var completedAt = LocalDateTime.now().minusDays(3);
+        var completedWish = Wish.builder().id(wishId).completed(true).completedAt(completedAt).build();
+        when(wishRepository.findByIdAndUserId(wishId, mockUser.getId())).thenReturn(Optional.of(completedWish));
+
+        // when
+        var result = wishlistService.markWishAsCompleted(wishId);
+
+        // then
+        assertEquals(completedAt, result.getCompletedAt());
+        verify(wishRepository).completeAll(eq(mockUser.getId()), eq(List.of(wishId)), any(LocalDateTime.class));
+        verifyNoInteractions(cacheService, wishOutbox);
+    }
+
+    @Test
+    void markWishesAsCompleted_shouldAppendTheChanges_withTheDueDates() {
+        // given
+        var dueDate = LocalDateTime.now().minusDays(1);
+        var first = Wish.builder().id(1L).category("Books").completed(true).build();
+        var second = Wish.builder().id(2L).category("Books").completed(true).dueDate(dueDate).build();
+        when(wishRepository.completeAll(eq(mockUser.getId()), eq(List.of(1L, 2L)), any(LocalDateTime.class))).thenReturn(List.of(first, second));
+
+        // when
+        var result = wishlistService.markWishesAsCompleted(List.of(1L, 2L));
+
+        // then
+        assertEquals(List.of(1L, 2L), result.stream().map(WishDTO::getId).toList());
+        verify(wishOutbox).append(List.of(
+                new WishChangedEvent(mockUser.getId(), 1L, new WishState(false, "Books", null, null), new WishState(true, "Books", null, null)),
+                new WishChangedEvent(mockUser.getId(), 2L, new WishState(false, "Books", null, dueDate), new WishState(true, "Books", null, dueDate))));
     }
 
     @Test
@@ -306,6 +535,50 @@ class WishlistServiceImplTest {
         verify(wishRepository).findByUserIdAndCompletedFalse(mockUser.getId());
     }
 
+    @Test
+    void getOverdueWishes_shouldLoadTheListOnMiss_andReturnTheRequestedPage() {
+        // given
+        var nextDueDate = LocalDateTime.now().plusDays(1);
+        var overdue = List.of(
+                Wish.builder().id(1L).title("First").user(mockUser).dueDate(LocalDateTime.now().minusDays(3)).build(),
+                Wish.builder().id(2L).title("Second").user(mockUser).dueDate(LocalDateTime.now().minusDays(2)).build(),
+                Wish.builder().id(3L).title("Third").user(mockUser).dueDate(LocalDateTime.now().minusDays(1)).build());
+        when(wishRepository.findOverdueWishes(eq(mockUser.getId()), any(LocalDateTime.class))).thenReturn(overdue);
+        when(wishRepository.findNextDueDate(eq(mockUser.getId()), any(LocalDateTime.class))).thenReturn(Optional.of(nextDueDate));
+        var cached = new AtomicReference<OverdueWishes>();
+        when(cacheService.getUserOverdueWishes(eq(mockUser.getId()), any())).thenAnswer(invocation -> {
+            Supplier<OverdueWishes> loader = invocation.getArgument(1);
+            cached.set(loader.get());
+            return cached.get();
+        });
+
+        // when
+        var result = wishlistService.getOverdueWishes(mockUser.getId(), PageRequest.of(1, 2));
+
+        // then
+        assertEquals(List.of("Third"), result.getWishes().stream().map(WishDTO::getTitle).toList());
+        assertEquals(3, result.getTotalItems());
+        assertEquals(2, result.getTotalPages());
+        assertEquals(1, result.getCurrentPage());
+        assertEquals(3, cached.get().wishes().size());
+        assertEquals(nextDueDate, cached.get().nextDueDate());
+    }
+
+    @Test
+    void getOverdueWishes_shouldReturnAnEmptyPage_pastTheEnd() {
+        // given
+        var cached = new OverdueWishes(List.of(WishDTO.builder().id(1L).title("Late").build()), null);
+        when(cacheService.getUserOverdueWishes(eq(mockUser.getId()), any())).thenReturn(cached);
+
+        // when
+        var result = wishlistService.getOverdueWishes(mockUser.getId(), PageRequest.of(3, 10));
+
+        // then
+        assertTrue(result.getWishes().isEmpty());
+        assertEquals(1, result.getTotalItems());
+        verifyNoInteractions(wishRepository);
+    }
+
     @Test
     void getWishesByCategoryTest() {
         // given
@@ -377,7 +650,7 @@ class WishlistServiceImplTest {
 
         // when + then
         assertThrows(ResourceNotFoundException.class,
-                () -> wishlistService.updateWish(wishId, updateDTO));
+                () -> wishlistService.updateWish(wishId, updateDTO, null));
 
         verify(wishRepository).findByIdAndUserId(wishId, mockUser.getId());
     }
@@ -386,13 +659,13 @@ class WishlistServiceImplTest {
     void deleteWish_shouldThrow_ifWishNotFound() {
         // given
         Long wishId = 123L;
-        when(wishRepository.findByIdAndUserId(wishId, mockUser.getId())).thenReturn(Optional.empty());
+        when(wishRepository.deleteAll(mockUser.getId(), List.of(wishId))).thenReturn(List.of());
 
         // when + then
         assertThrows(ResourceNotFoundException.class,
                 () -> wishlistService.deleteWish(wishId));
 
-        verify(wishRepository).findByIdAndUserId(wishId, mockUser.getId());
+        verifyNoInteractions(cacheService, wishOutbox);
     }
 
     @Test
@@ -405,7 +678,11 @@ class WishlistServiceImplTest {
         assertThrows(ResourceNotFoundException.class,
                 () -> wishlistService.markWishAsCompleted(wishId));
 
+        verify(wishRepository).completeAll(eq(mockUser.getId()), eq(List.of(wishId)), any(LocalDateTime.class));
         verify(wishRepository).findByIdAndUserId(wishId, mockUser.getId());
     }
 
-}
\ No newline at end of file
+    private Wish wish(Long id) {
+        return Wish.builder().id(id).title("Wish " + id).user(mockUser).build();
+    }
+}
@@ -0,0 +1,169 @@
+package com.wishlist.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.wishlist.dto.SpanDTO;
+import com.wishlist.dto.TraceDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.MDC;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.wishlist.tracing.TraceRecorder.SPAN_ID_KEY;
+import static com.wishlist.tracing.TraceRecorder.TRACE_ID_KEY;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceRecorderTest {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private final ObservationRegistry observationRegistry = ObservationRegistry.create();
+    private TraceRecorder traceRecorder;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        traceRecorder.destroy();
+    }
+
+    @Test
+    void shouldRecordNestedObservations_asTheSpansOfOneTrace() {
+        record(1.0, "");
+
+        Observation.createNotStarted("request", observationRegistry).contextualName("GET /wishes").observe(() ->
+                Observation.createNotStarted("service", observationRegistry)
+                        .lowCardinalityKeyValue("method", "getUserWishes")
+                        .observe(() -> Observation.createNotStarted("repository", observationRegistry).observe(() ->
+                                assertTrue(TraceRecorder.isTraced(observationRegistry.getCurrentObservation())))));
+
+        var trace = traceRecorder.recentTraces(10, 0).getFirst();
+        assertEquals("GET /wishes", trace.getName());
+        assertEquals(List.of("GET /wishes", "service", "repository"), trace.getSpans().stream().map(SpanDTO::getName).toList());
+        var spans = trace.getSpans();
+        assertNull(spans.get(0).getParentId());
+        assertEquals(spans.get(0).getSpanId(), spans.get(1).getParentId());
+        assertEquals(spans.get(1).getSpanId(), spans.get(2).getParentId());
+        assertEquals("getUserWishes", spans.get(1).getTags().get("method"));
+        assertTrue(spans.get(2).getDurationMillis() >= 0);
+        assertEquals(32, trace.getTraceId().length());
+    }
+
+    @Test
+    void shouldOnlyStartTracesAtRootObservations() {
+        record(1.0, "");
+
+        Observation.createNotStarted("lettuce", observationRegistry).observe(() -> {
+        });
+
+        assertEquals(List.of(), traceRecorder.recentTraces(10, 0));
+    }
+
+    @Test
+    void shouldSkipUnsampledTraces_withTheirChildren() {
+        record(0.0, "");
+
+        Observation.createNotStarted("request", observationRegistry).observe(() ->
+                Observation.createNotStarted("service", observationRegistry).observe(() ->
+                        assertFalse(TraceRecorder.isTraced(observationRegistry.getCurrentObservation()))));
+
+        assertEquals(List.of(), traceRecorder.recentTraces(10, 0));
+    }
+
+    @Test
+    void shouldRecordErrors() {
+        record(1.0, "");
+
+        assertThrows(IllegalStateException.class, () -> Observation.createNotStarted("request", observationRegistry).observe(() -> {
+            throw new IllegalStateException("Redis down");
+        }));
+
+        assertEquals("IllegalStateException: Redis down", traceRecorder.recentTraces(10, 0).getFirst().getSpans().getFirst().getError());
+    }
+
+    @Test
+    void shouldPutTheCurrentSpanInTheMdc() {
+        record(1.0, "");
+        var inService = new AtomicReference<String>();
+
+        Observation.createNotStarted("request", observationRegistry).observe(() -> {
+            Observation.createNotStarted("service", observationRegistry).observe(() -> inService.set(MDC.get(SPAN_ID_KEY)));
+            assertNotNull(MDC.get(TRACE_ID_KEY));
+        });
+
+        var spans = traceRecorder.recentTraces(10, 0).getFirst().getSpans();
+        assertEquals(spans.get(1).getSpanId(), inService.get());
+        assertNull(MDC.get(TRACE_ID_KEY));
+    }
+
+    @Test
+    void shouldJoinTheTrace_fromTasksOnOtherThreads() throws InterruptedException {
+        record(1.0, "");
+        var task = new AtomicReference<Runnable>();
+
+        Observation.createNotStarted("request", observationRegistry).observe(() ->
+                task.set(ObservationPropagation.wrap(observationRegistry, () ->
+                        Observation.createNotStarted("cache warm-up", observationRegistry).observe(() -> {
+                        }))));
+        // Runs after the request ended, like a queued background load
+        var thread = new Thread(task.get());
+        thread.start();
+        thread.join();
+
+        var spans = traceRecorder.recentTraces(10, 0).getFirst().getSpans();
+        assertEquals(List.of("request", "cache warm-up"), spans.stream().map(SpanDTO::getName).toList());
+        assertEquals(spans.get(0).getSpanId(), spans.get(1).getParentId());
+    }
+
+    @Test
+    void shouldKeepTheMostRecentTraces_andFilterThemByDuration() {
+        record(1.0, "");
+
+        for (int i = 0; i < 3; i++) {
+            Observation.createNotStarted("request", observationRegistry).contextualName("request " + i).observe(() -> {
+            });
+        }
+        Observation.createNotStarted("request", observationRegistry).contextualName("slow").observe(() -> sleep(20));
+
+        assertEquals(List.of("slow", "request 2"), traceRecorder.recentTraces(10, 0).stream().map(TraceDTO::getName).toList());
+        assertEquals(List.of("slow"), traceRecorder.recentTraces(10, 15).stream().map(TraceDTO::getName).toList());
+        assertEquals(1, traceRecorder.recentTraces(1, 0).size());
+    }
+
+    @Test
+    void shouldAppendTracesToTheFile(@TempDir Path directory) throws Exception {
+        var file = directory.resolve("traces.jsonl");
+        record(1.0, file.toString());
+
+        Observation.createNotStarted("request", observationRegistry).contextualName("first").observe(() -> {
+        });
+        Observation.createNotStarted("request", observationRegistry).contextualName("second").observe(() -> {
+        });
+        traceRecorder.destroy();
+
+        var lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        assertEquals("first", objectMapper.readValue(lines.get(0), TraceDTO.class).getName());
+        assertEquals("second", objectMapper.readValue(lines.get(1), TraceDTO.class).getName());
+    }
+
+    // Traces start at "request" observations, the last two are kept
+    private void record(double sampleRate, String file) {
+        traceRecorder = new TraceRecorder(objectMapper, new SimpleMeterRegistry(), Set.of("request"), sampleRate, 2, file);
+        observationRegistry.observationConfig().observationHandler(traceRecorder);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}